@@ -11,47 +11,57 @@ use my_db;
 -- 用户表
 create table if not exists user
 (
-    id           bigint auto_increment comment 'id' primary key,
-    userAccount  varchar(256)                           not null comment '账号',
-    userPassword varchar(512)                           not null comment '密码',
-    unionId      varchar(256)                           null comment '微信开放平台id',
-    mpOpenId     varchar(256)                           null comment '公众号openId',
-    userName     varchar(256)                           null comment '用户昵称',
-    userAvatar   varchar(1024)                          null comment '用户头像',
-    userProfile  varchar(512)                           null comment '用户简介',
-    userRole     varchar(256) default 'user'            not null comment '用户角色：user/admin/ban',
-    createTime   datetime     default CURRENT_TIMESTAMP not null comment '创建时间',
-    updateTime   datetime     default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    isDelete     tinyint      default 0                 not null comment '是否删除',
-    index idx_unionId (unionId)
+    id          bigint auto_increment comment 'id' primary key,
+    username    varchar(64)                            not null comment '账号',
+    password    varchar(512)                           not null comment '密码',
+    union_id    varchar(256)                           null comment '微信开放平台id',
+    open_id     varchar(256)                           null comment '公众号openId',
+    phone       varchar(32)                            null comment '手机号',
+    email       varchar(256)                           null comment '邮箱',
+    sex         tinyint                                null comment '性别 0 女 1 男',
+    avatar      varchar(1024)                          null comment '用户头像',
+    profile     varchar(512)                           null comment '用户简介',
+    status      tinyint      default 1                 not null comment '用户状态：0-禁用 1-正常',
+    user_role   varchar(16)  default 'user'            not null comment '用户角色：user / admin',
+    version     int          default 0                 not null comment '乐观锁版本号',
+    last_login_time datetime                           null comment '最后登录时间',
+    last_login_ip   varchar(64)                        null comment '最后登录ip',
+    login_count     int      default 0                 not null comment '登录次数',
+    create_time datetime     default CURRENT_TIMESTAMP not null comment '创建时间',
+    update_time datetime     default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    is_delete   tinyint      default 0                 not null comment '是否删除',
+    unique key uk_username (username),
+    index idx_union_id (union_id),
+    index idx_status (status),
+    index idx_create_time (create_time)
 ) comment '用户' collate = utf8mb4_unicode_ci;
 
 -- 帖子表
 create table if not exists post
 (
-    id         bigint auto_increment comment 'id' primary key,
-    title      varchar(512)                       null comment '标题',
-    content    text                               null comment '内容',
-    tags       varchar(1024)                      null comment '标签列表（json 数组）',
-    thumbNum   int      default 0                 not null comment '点赞数',
-    favourNum  int      default 0                 not null comment '收藏数',
-    userId     bigint                             not null comment '创建用户 id',
-    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    isDelete   tinyint  default 0                 not null comment '是否删除',
-    index idx_userId (userId)
+    id          bigint auto_increment comment 'id' primary key,
+    title       varchar(512)                       null comment '标题',
+    content     text                               null comment '内容',
+    tags        varchar(1024)                      null comment '标签列表（json 数组）',
+    thumb_num   int      default 0                 not null comment '点赞数',
+    favour_num  int      default 0                 not null comment '收藏数',
+    user_id     bigint                             not null comment '创建用户 id',
+    create_time datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    update_time datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    is_delete   tinyint  default 0                 not null comment '是否删除',
+    index idx_user_id (user_id)
 ) comment '帖子' collate = utf8mb4_unicode_ci;
 
 -- 帖子点赞表（硬删除）
 create table if not exists post_thumb
 (
-    id         bigint auto_increment comment 'id' primary key,
-    postId     bigint                             not null comment '帖子 id',
-    userId     bigint                             not null comment '创建用户 id',
-    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    index idx_postId (postId),
-    index idx_userId (userId)
+    id          bigint auto_increment comment 'id' primary key,
+    post_id     bigint                             not null comment '帖子 id',
+    user_id     bigint                             not null comment '创建用户 id',
+    create_time datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    update_time datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    unique key uk_post_user (post_id, user_id),
+    index idx_user_id (user_id)
 ) comment '帖子点赞';
 
 -- https://t.zsxq.com/0emozsIJh
@@ -59,11 +69,43 @@ create table if not exists post_thumb
 -- 帖子收藏表（硬删除）
 create table if not exists post_favour
 (
-    id         bigint auto_increment comment 'id' primary key,
-    postId     bigint                             not null comment '帖子 id',
-    userId     bigint                             not null comment '创建用户 id',
-    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    index idx_postId (postId),
-    index idx_userId (userId)
+    id          bigint auto_increment comment 'id' primary key,
+    post_id     bigint                             not null comment '帖子 id',
+    user_id     bigint                             not null comment '创建用户 id',
+    create_time datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    update_time datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    unique key uk_post_user (post_id, user_id),
+    index idx_user_id (user_id)
 ) comment '帖子收藏';
+
+-- 帖子计数已写库的批次，与计数在同一事务中写入，重试同一批时据此跳过
+create table if not exists post_counter_flush
+(
+    batch_id    varchar(64)                        not null comment '批次 id' primary key,
+    create_time datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    index idx_create_time (create_time)
+) comment '帖子计数写库批次';
+
+-- 事务发件箱，与业务数据在同一事务中写入，由分发器按id顺序投递给各消费者
+create table if not exists outbox_event
+(
+    id              bigint auto_increment comment 'id' primary key,
+    aggregate_type  varchar(32)                        not null comment '实体类型：user / post',
+    aggregate_id    bigint                             not null comment '实体 id',
+    event_type      varchar(64)                        not null comment '事件类型',
+    payload         varchar(2048)                      null comment '附加数据（json）',
+    status          tinyint  default 0                 not null comment '状态：0-待投递 1-已投递 2-有消费者投递失败',
+    create_time     datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    index idx_status_id (status, id)
+) comment '事务发件箱' collate = utf8mb4_unicode_ci;
+
+-- 发件箱消费进度，每个消费者各自按id顺序投递与重试，互不阻塞
+create table if not exists outbox_consumer_offset
+(
+    consumer        varchar(64)                        not null comment '消费者名称' primary key,
+    last_event_id   bigint   default 0                 not null comment '已读取到的最大事件 id',
+    gaps            varchar(4096)                      null comment '小于 last_event_id 但读取时尚未提交的事件 id 及等待截止时间，格式 id:毫秒时间戳,...',
+    retry_count     int      default 0                 not null comment '当前批次重试次数',
+    next_retry_time datetime                           null comment '下次投递时间',
+    update_time     datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间'
+) comment '发件箱消费进度';
@@ -0,0 +1,163 @@
+package com.swshenyun.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 帖子热度排行，分数随时间指数衰减
+ * 热度 = Σ w·2^(-(now-t)/halfLife)，比较两个帖子时 now 相同可以约去，只需比较 ln Σ w·2^((t-EPOCH)/halfLife)；
+ * 这个值只在有新事件时变化，不需要定时给全部帖子重新衰减，在对数空间累加避免指数溢出。
+ * 跳表按分数倒序保存，取前K条和翻页都是顺序遍历，超出容量时淘汰分数最低的帖子
+ */
+public class HotPostRanking {
+
+    /**
+     * 衰减的起点，2024-01-01T00:00:00Z
+     */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    /**
+     * 扣减后剩余热度不超过原来的该比例(对数差)时视为0，吸收浮点误差
+     */
+    private static final double REMOVE_EPSILON = 1e-9;
+
+    private final double lambda;
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<Long, Double> scores = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    /**
+     * @param halfLifeMillis 热度减半的时长
+     * @param maxSize 最多保留的帖子数
+     */
+    public HotPostRanking(long halfLifeMillis, int maxSize) {
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 累加一次事件的热度，weight为负时扣减(取消点赞)，扣减到不大于0时移出排行
+     *
+     * @param postId
+     * @param weight
+     * @param timeMillis 事件发生时间
+     */
+    public void add(Long postId, double weight, long timeMillis) {
+        if (weight == 0 || Double.isNaN(weight)) {
+            return;
+        }
+        double x = Math.log(Math.abs(weight)) + lambda * (timeMillis - EPOCH_MILLIS);
+        scores.compute(postId, (id, old) -> {
+            Double updated;
+            if (weight > 0) {
+                updated = old == null ? x : logAddExp(old, x);
+            } else if (old == null || x >= old - REMOVE_EPSILON) {
+                updated = null;
+            } else {
+                updated = old + Math.log1p(-Math.exp(x - old));
+            }
+            if (old != null) {
+                ranking.remove(new Entry(id, old));
+            }
+            if (updated != null) {
+                ranking.add(new Entry(id, updated));
+            }
+            return updated;
+        });
+        trim();
+    }
+
+    public void remove(Long postId) {
+        scores.computeIfPresent(postId, (id, old) -> {
+            ranking.remove(new Entry(id, old));
+            return null;
+        });
+    }
+
+    /**
+     * 按热度倒序取一页帖子id
+     *
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public List<Long> top(int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 256));
+        Iterator<Entry> iterator = ranking.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next().postId());
+        }
+        return ids;
+    }
+
+    /**
+     * 对数空间的分数，不在排行中返回null
+     *
+     * @param postId
+     * @return
+     */
+    public Double score(Long postId) {
+        return scores.get(postId);
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * 全部帖子的分数，分数与时间起点绑定，恢复后无需换算
+     *
+     * @return
+     */
+    public Map<Long, Double> snapshot() {
+        return new HashMap<>(scores);
+    }
+
+    /**
+     * 用快照替换当前排行
+     *
+     * @param snapshot
+     */
+    public void restore(Map<Long, Double> snapshot) {
+        ranking.clear();
+        scores.clear();
+        snapshot.forEach((postId, score) -> {
+            scores.put(postId, score);
+            ranking.add(new Entry(postId, score));
+        });
+        trim();
+    }
+
+    private void trim() {
+        while (scores.size() > maxSize) {
+            Entry last = ranking.pollLast();
+            if (last == null) {
+                return;
+            }
+            scores.remove(last.postId(), last.score());
+        }
+    }
+
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private record Entry(long postId, double score) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.swshenyun.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内的帖子计数缓冲，只适用于单节点部署
+ * 切换状态持有读锁并发执行，取出待写库数据时持有写锁替换缓冲；用户集合数量有上限，被淘汰后重新加载时叠加未写库的变更
+ */
+public class LocalPostCounterStore implements PostCounterStore {
+
+    private final Map<Type, State> states = new EnumMap<>(Type.class);
+
+    public LocalPostCounterStore(int maxPosts) {
+        for (Type type : Type.values()) {
+            states.put(type, new State(maxPosts));
+        }
+    }
+
+    @Override
+    public boolean isLoaded(Type type, Long postId) {
+        return states.get(type).members.getIfPresent(postId) != null;
+    }
+
+    @Override
+    public void load(Type type, Long postId, Collection<Long> userIds) {
+        State state = states.get(type);
+        Set<Long> members = ConcurrentHashMap.newKeySet();
+        members.addAll(userIds);
+        state.lock.writeLock().lock();
+        try {
+            PostCounterBatch flushing = state.flushing;
+            if (flushing != null) {
+                flushing.getAdded().stream().filter(m -> postId.equals(m.getPostId())).forEach(m -> members.add(m.getUserId()));
+                flushing.getRemoved().stream().filter(m -> postId.equals(m.getPostId())).forEach(m -> members.remove(m.getUserId()));
+            }
+            state.pending.forEach((member, added) -> {
+                if (postId.equals(member.getPostId())) {
+                    if (added) {
+                        members.add(member.getUserId());
+                    } else {
+                        members.remove(member.getUserId());
+                    }
+                }
+            });
+            state.members.asMap().putIfAbsent(postId, members);
+        } finally {
+            state.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int toggle(Type type, Long postId, Long userId) {
+        State state = states.get(type);
+        state.lock.readLock().lock();
+        try {
+            Set<Long> members = state.members.getIfPresent(postId);
+            if (members == null) {
+                return NOT_LOADED;
+            }
+            PostCounterBatch.Member member = new PostCounterBatch.Member(postId, userId);
+            synchronized (members) {
+                if (members.remove(userId)) {
+                    state.pending.put(member, false);
+                    state.deltas.merge(postId, -1L, Long::sum);
+                    return 0;
+                }
+                members.add(userId);
+                state.pending.put(member, true);
+                state.deltas.merge(postId, 1L, Long::sum);
+                return 1;
+            }
+        } finally {
+            state.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isMember(Type type, Long postId, Long userId) {
+        Set<Long> members = states.get(type).members.getIfPresent(postId);
+        return members != null && members.contains(userId);
+    }
+
+    @Override
+    public Map<Long, Long> pendingDeltas(Type type, Collection<Long> postIds) {
+        State state = states.get(type);
+        Map<Long, Long> result = new HashMap<>();
+        state.lock.readLock().lock();
+        try {
+            PostCounterBatch flushing = state.flushing;
+            for (Long postId : postIds) {
+                long delta = state.deltas.getOrDefault(postId, 0L);
+                if (flushing != null) {
+                    delta += flushing.getDeltas().getOrDefault(postId, 0L);
+                }
+                if (delta != 0) {
+                    result.put(postId, delta);
+                }
+            }
+            return result;
+        } finally {
+            state.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PostCounterBatch drain(Type type) {
+        State state = states.get(type);
+        state.lock.writeLock().lock();
+        try {
+            if (state.flushing != null) {
+                return state.flushing;
+            }
+            if (state.pending.isEmpty() && state.deltas.isEmpty()) {
+                return null;
+            }
+            PostCounterBatch batch = new PostCounterBatch();
+            batch.setBatchId(UUID.randomUUID().toString());
+            state.pending.forEach((member, added) -> (added ? batch.getAdded() : batch.getRemoved()).add(member));
+            state.deltas.forEach((postId, delta) -> {
+                if (delta != 0) {
+                    batch.getDeltas().put(postId, delta);
+                }
+            });
+            state.pending = new ConcurrentHashMap<>();
+            state.deltas = new ConcurrentHashMap<>();
+            state.flushing = batch;
+            return batch;
+        } finally {
+            state.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void ack(Type type, PostCounterBatch batch) {
+        State state = states.get(type);
+        state.lock.writeLock().lock();
+        try {
+            if (state.flushing == batch) {
+                state.flushing = null;
+            }
+        } finally {
+            state.lock.writeLock().unlock();
+        }
+    }
+
+    private static class State {
+
+        private final Cache<Long, Set<Long>> members;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 以下字段在写锁下替换，读锁下使用
+         */
+        private Map<PostCounterBatch.Member, Boolean> pending = new ConcurrentHashMap<>();
+
+        private Map<Long, Long> deltas = new ConcurrentHashMap<>();
+
+        private PostCounterBatch flushing;
+
+        State(int maxPosts) {
+            this.members = Caffeine.newBuilder().maximumSize(maxPosts).build();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.swshenyun.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次刷新取出的待写库数据：同一用户对同一帖子的多次操作只保留最终状态
+ */
+@Data
+public class PostCounterBatch {
+
+    /**
+     * 批次id，重试同一批时不变；与变更在同一事务中记录，已记录的批次不再写库
+     */
+    private String batchId;
+
+    /**
+     * 最终状态为已点赞/收藏的记录
+     */
+    private final List<Member> added = new ArrayList<>();
+
+    /**
+     * 最终状态为已取消的记录
+     */
+    private final List<Member> removed = new ArrayList<>();
+
+    /**
+     * 帖子id -> 计数增量
+     */
+    private final Map<Long, Long> deltas = new HashMap<>();
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && deltas.isEmpty();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+
+        private Long postId;
+
+        private Long userId;
+    }
+}
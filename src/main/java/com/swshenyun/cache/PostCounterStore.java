@@ -0,0 +1,101 @@
+package com.swshenyun.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子点赞、收藏的计数缓冲
+ * 每个帖子维护一个用户集合判断是否已操作(保证幂等)，操作时原子地修改集合、记录待写库的变更并累加计数增量；
+ * 集合需先从数据库加载，定时通过 {@link #drain} / {@link #ack} 把变更批量写库；
+ * 每批带有批次id，写库与确认之间失败(或刷新锁过期被其他节点接手)时，同一批会以相同的id再次取出
+ */
+public interface PostCounterStore {
+
+    /**
+     * toggle返回值：集合未加载
+     */
+    int NOT_LOADED = -1;
+
+    enum Type {
+
+        THUMB("thumb", "thumb_num"),
+        FAVOUR("favour", "favour_num");
+
+        private final String key;
+
+        private final String column;
+
+        Type(String key, String column) {
+            this.key = key;
+            this.column = column;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * post表中对应的计数列
+         */
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    boolean isLoaded(Type type, Long postId);
+
+    /**
+     * 用数据库中的记录初始化帖子的用户集合，尚未写库的变更会覆盖在其上
+     *
+     * @param type
+     * @param postId
+     * @param userIds
+     */
+    void load(Type type, Long postId, Collection<Long> userIds);
+
+    /**
+     * 切换用户对帖子的点赞/收藏状态
+     *
+     * @param type
+     * @param postId
+     * @param userId
+     * @return 1已添加，0已取消，{@link #NOT_LOADED} 集合未加载
+     */
+    int toggle(Type type, Long postId, Long userId);
+
+    /**
+     * 调用前需保证集合已加载
+     */
+    boolean isMember(Type type, Long postId, Long userId);
+
+    /**
+     * 尚未写入数据库的计数增量，用于展示时叠加到数据库计数上
+     */
+    default long pendingDelta(Type type, Long postId) {
+        return pendingDeltas(type, List.of(postId)).getOrDefault(postId, 0L);
+    }
+
+    /**
+     * 批量读取尚未写入数据库的计数增量，列表页一次读取整页
+     *
+     * @param type
+     * @param postIds
+     * @return 帖子id -> 增量，没有增量的帖子不在结果中
+     */
+    Map<Long, Long> pendingDeltas(Type type, Collection<Long> postIds);
+
+    /**
+     * 取出待写库的变更，在 {@link #ack} 之前再次调用返回同一批数据(上次写库失败时重试)；
+     * 多节点共享存储时同一时间只有一个节点能取到，其他节点返回null
+     *
+     * @param type
+     * @return 没有待写数据或未取得刷新权时返回null
+     */
+    PostCounterBatch drain(Type type);
+
+    /**
+     * 写库成功后确认，丢弃已取出的数据；正在写库的已不是该批次时(已被其他节点确认)不做处理
+     */
+    void ack(Type type, PostCounterBatch batch);
+}
@@ -0,0 +1,208 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redis的帖子计数缓冲，多节点共享
+ * key：post:{type}:members:{postId} 用户集合(含占位成员0)，post:{type}:pending 待写库变更(postId:userId -> 1/0)，
+ * post:{type}:pending:{postId} 该帖子用户的最新状态(userId -> 1/0)，post:{type}:delta 计数增量，
+ * post:{type}:flushing:* 正在写库的一批(flushing:id为批次id)，post:{type}:flush:lock 刷新锁
+ * 加载集合时只读取该帖子的最新状态hash叠加到数据库记录上，不扫描全部帖子的待写库变更；
+ * 它与集合同样在最后一次操作后保留 memberTtlSeconds，需远大于写库间隔和刷新锁存活时间
+ */
+@Slf4j
+public class RedisPostCounterStore implements PostCounterStore {
+
+    /**
+     * 集合中的占位成员，保证没有任何记录的帖子也能标记为已加载
+     */
+    private static final String PLACEHOLDER = "0";
+
+    private static final int LOAD_CHUNK = 1000;
+
+    private static final DefaultRedisScript<Long> TOGGLE_SCRIPT = script("lua/post_toggle.lua");
+
+    private static final DefaultRedisScript<Long> LOAD_SCRIPT = script("lua/post_load.lua");
+
+    private static final DefaultRedisScript<String> DRAIN_SCRIPT = script("lua/post_drain.lua", String.class);
+
+    private static final DefaultRedisScript<Long> ACK_SCRIPT = script("lua/post_ack.lua");
+
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = script("lua/unlock.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final long memberTtlSeconds;
+
+    private final long flushLockMillis;
+
+    /**
+     * 本节点持有的刷新锁标识
+     */
+    private final Map<Type, String> lockTokens = new ConcurrentHashMap<>();
+
+    public RedisPostCounterStore(StringRedisTemplate stringRedisTemplate, long memberTtlSeconds, long flushLockMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.memberTtlSeconds = memberTtlSeconds;
+        this.flushLockMillis = flushLockMillis;
+    }
+
+    @Override
+    public boolean isLoaded(Type type, Long postId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(membersKey(type, postId)));
+    }
+
+    @Override
+    public void load(Type type, Long postId, Collection<Long> userIds) {
+        String loadingKey = membersKey(type, postId) + ":loading:" + UUID.randomUUID();
+        List<String> chunk = new ArrayList<>(LOAD_CHUNK);
+        chunk.add(PLACEHOLDER);
+        for (Long userId : userIds) {
+            chunk.add(String.valueOf(userId));
+            if (chunk.size() == LOAD_CHUNK) {
+                stringRedisTemplate.opsForSet().add(loadingKey, chunk.toArray(new String[0]));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            stringRedisTemplate.opsForSet().add(loadingKey, chunk.toArray(new String[0]));
+        }
+        stringRedisTemplate.expire(loadingKey, memberTtlSeconds, TimeUnit.SECONDS);
+        stringRedisTemplate.execute(LOAD_SCRIPT,
+                List.of(loadingKey, membersKey(type, postId), latestKey(type, postId)),
+                String.valueOf(memberTtlSeconds));
+    }
+
+    @Override
+    public int toggle(Type type, Long postId, Long userId) {
+        Long result = stringRedisTemplate.execute(TOGGLE_SCRIPT,
+                List.of(membersKey(type, postId), key(type, "pending"), key(type, "delta"), latestKey(type, postId)),
+                String.valueOf(postId), String.valueOf(userId), String.valueOf(memberTtlSeconds));
+        return result == null ? NOT_LOADED : result.intValue();
+    }
+
+    @Override
+    public boolean isMember(Type type, Long postId, Long userId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(membersKey(type, postId), String.valueOf(userId)));
+    }
+
+    @Override
+    public Map<Long, Long> pendingDeltas(Type type, Collection<Long> postIds) {
+        Map<Long, Long> result = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(postIds);
+        List<Object> fields = ids.stream().map(id -> (Object) String.valueOf(id)).toList();
+        //整页帖子两次hmget，与帖子数无关
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key(type, "delta"), fields);
+        List<Object> flushing = stringRedisTemplate.opsForHash().multiGet(key(type, "flushing:delta"), fields);
+        for (int i = 0; i < ids.size(); i++) {
+            long delta = toLong(values.get(i)) + toLong(flushing.get(i));
+            if (delta != 0) {
+                result.put(ids.get(i), delta);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public PostCounterBatch drain(Type type) {
+        String lockKey = key(type, "flush:lock");
+        String token = lockTokens.get(type);
+        //上次写库失败后锁已过期并被其他节点取得时，放弃重试
+        if (token != null && !token.equals(stringRedisTemplate.opsForValue().get(lockKey))) {
+            lockTokens.remove(type);
+            token = null;
+        }
+        if (token == null) {
+            token = UUID.randomUUID().toString();
+            Boolean locked = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, flushLockMillis, TimeUnit.MILLISECONDS);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            lockTokens.put(type, token);
+        } else {
+            stringRedisTemplate.expire(lockKey, flushLockMillis, TimeUnit.MILLISECONDS);
+        }
+        String batchId = stringRedisTemplate.execute(DRAIN_SCRIPT,
+                List.of(key(type, "pending"), key(type, "delta"), key(type, "flushing:pending"),
+                        key(type, "flushing:delta"), key(type, "flushing:id")),
+                UUID.randomUUID().toString());
+
+        PostCounterBatch batch = new PostCounterBatch();
+        batch.setBatchId(batchId);
+        stringRedisTemplate.opsForHash().entries(key(type, "flushing:pending")).forEach((field, state) -> {
+            String[] parts = field.toString().split(":");
+            PostCounterBatch.Member member = new PostCounterBatch.Member(Long.valueOf(parts[0]), Long.valueOf(parts[1]));
+            if ("1".equals(state)) {
+                batch.getAdded().add(member);
+            } else {
+                batch.getRemoved().add(member);
+            }
+        });
+        stringRedisTemplate.opsForHash().entries(key(type, "flushing:delta")).forEach((postId, delta) -> {
+            long value = toLong(delta);
+            if (value != 0) {
+                batch.getDeltas().put(Long.valueOf(postId.toString()), value);
+            }
+        });
+        if (batch.isEmpty()) {
+            ack(type, batch);
+            return null;
+        }
+        return batch;
+    }
+
+    @Override
+    public void ack(Type type, PostCounterBatch batch) {
+        stringRedisTemplate.execute(ACK_SCRIPT,
+                List.of(key(type, "flushing:pending"), key(type, "flushing:delta"), key(type, "flushing:id")),
+                batch.getBatchId());
+        String token = lockTokens.remove(type);
+        if (token != null) {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(key(type, "flush:lock")), token);
+        }
+    }
+
+    private static String key(Type type, String suffix) {
+        return RedisKeyConstant.POST_PREFIX + type.getKey() + ":" + suffix;
+    }
+
+    private static String membersKey(Type type, Long postId) {
+        return key(type, "members:" + postId);
+    }
+
+    private static String latestKey(Type type, Long postId) {
+        return key(type, "pending:" + postId);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : Long.parseLong(value.toString());
+    }
+
+    private static DefaultRedisScript<Long> script(String location) {
+        return script(location, Long.class);
+    }
+
+    private static <T> DefaultRedisScript<T> script(String location, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(resultType);
+        return script;
+    }
+}
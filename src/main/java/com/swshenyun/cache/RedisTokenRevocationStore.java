@@ -0,0 +1,109 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于redis的令牌吊销名单
+ * key为 jwt:revoked:{member}，过期时间与令牌剩余有效期一致；新增元素通过 jwt:revocation 频道广播
+ */
+@Slf4j
+@Component
+public class RedisTokenRevocationStore implements TokenRevocationStore {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Override
+    public void revokeToken(String jti, long ttlMillis) {
+        stringRedisTemplate.opsForValue()
+                .set(RedisKeyConstant.JWT_REVOKED_PREFIX + JTI_MEMBER + jti, "1", ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isTokenRevoked(String jti) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeyConstant.JWT_REVOKED_PREFIX + JTI_MEMBER + jti));
+    }
+
+    @Override
+    public void revokeUser(Long userId, long epochMillis, long ttlMillis) {
+        stringRedisTemplate.opsForValue()
+                .set(RedisKeyConstant.JWT_REVOKED_PREFIX + USER_MEMBER + userId, String.valueOf(epochMillis),
+                        ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 一次管道提交，避免逐个用户往返
+     */
+    @Override
+    public void revokeUsers(Collection<Long> userIds, long epochMillis, long ttlMillis) {
+        byte[] epoch = String.valueOf(epochMillis).getBytes(StandardCharsets.UTF_8);
+        Expiration expiration = Expiration.milliseconds(ttlMillis);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userId : userIds) {
+                byte[] key = (RedisKeyConstant.JWT_REVOKED_PREFIX + USER_MEMBER + userId).getBytes(StandardCharsets.UTF_8);
+                connection.stringCommands().set(key, epoch, expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Long getUserEpoch(Long userId) {
+        String epoch = stringRedisTemplate.opsForValue().get(RedisKeyConstant.JWT_REVOKED_PREFIX + USER_MEMBER + userId);
+        return epoch == null ? null : Long.valueOf(epoch);
+    }
+
+    @Override
+    public void forEachRevoked(Consumer<String> consumer) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(RedisKeyConstant.JWT_REVOKED_PREFIX + "*")
+                .count(1000)
+                .build();
+        int prefixLength = RedisKeyConstant.JWT_REVOKED_PREFIX.length();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(key -> consumer.accept(key.substring(prefixLength)));
+        }
+    }
+
+    @Override
+    public void publish(String member) {
+        stringRedisTemplate.convertAndSend(RedisKeyConstant.JWT_REVOCATION_CHANNEL, member);
+    }
+
+    @Override
+    public void publishAll(Collection<String> members) {
+        byte[] channel = RedisKeyConstant.JWT_REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String member : members) {
+                connection.publish(channel, member.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisKeyConstant.JWT_REVOCATION_CHANNEL));
+    }
+}
@@ -0,0 +1,81 @@
+package com.swshenyun.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 令牌吊销名单的共享存储
+ * 名单中的元素为 "jti:{jti}"(单个令牌) 或 "user:{userId}"(该用户在某时间点之前签发的全部令牌)
+ */
+public interface TokenRevocationStore {
+
+    String JTI_MEMBER = "jti:";
+
+    String USER_MEMBER = "user:";
+
+    /**
+     * 吊销单个令牌
+     *
+     * @param jti
+     * @param ttlMillis 令牌剩余有效期，过期后记录自动删除
+     */
+    void revokeToken(String jti, long ttlMillis);
+
+    boolean isTokenRevoked(String jti);
+
+    /**
+     * 吊销用户在epochMillis之前签发的全部令牌
+     *
+     * @param userId
+     * @param epochMillis
+     * @param ttlMillis   令牌最长有效期
+     */
+    void revokeUser(Long userId, long epochMillis, long ttlMillis);
+
+    /**
+     * 批量吊销用户在epochMillis之前签发的全部令牌
+     *
+     * @param userIds
+     * @param epochMillis
+     * @param ttlMillis   令牌最长有效期
+     */
+    default void revokeUsers(Collection<Long> userIds, long epochMillis, long ttlMillis) {
+        userIds.forEach(userId -> revokeUser(userId, epochMillis, ttlMillis));
+    }
+
+    /**
+     * @param userId
+     * @return 吊销时间点，没有则返回null
+     */
+    Long getUserEpoch(Long userId);
+
+    /**
+     * 遍历当前名单中的全部元素，用于重建本地布隆过滤器
+     *
+     * @param consumer
+     */
+    void forEachRevoked(Consumer<String> consumer);
+
+    /**
+     * 向所有节点广播新的吊销元素
+     *
+     * @param member
+     */
+    void publish(String member);
+
+    /**
+     * 批量广播吊销元素
+     *
+     * @param members
+     */
+    default void publishAll(Collection<String> members) {
+        members.forEach(this::publish);
+    }
+
+    /**
+     * 订阅其他节点广播的吊销元素
+     *
+     * @param listener
+     */
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,137 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.pojo.dto.UserActivityDTO;
+import com.swshenyun.properties.UserActivityProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 用户登录活动的写缓冲(write-behind)
+ * 登录时只在内存中按用户合并(次数累加，时间/ip取最新)，定时或缓冲用户数达到上限时批量写库，关闭时刷新剩余数据；
+ * 宕机最多丢失一个刷新周期或 maxPendingUsers 个用户的活动。写库失败的数据合并回缓冲，下次重试；
+ * 脱敏用户包含最后登录时间和登录次数，写库成功后清除这批用户的缓存
+ */
+@Slf4j
+@Component
+public class UserActivityBuffer {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserActivityProperties userActivityProperties;
+
+    @Autowired
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    private UserCache userCache;
+
+    private final Map<Long, UserActivityDTO> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已有提前刷新任务在排队，避免高峰时重复提交
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final Object flushLock = new Object();
+
+    /**
+     * 记录一次登录，只操作内存
+     *
+     * @param userId
+     * @param ip
+     */
+    public void recordLogin(Long userId, String ip) {
+        pending.merge(userId, new UserActivityDTO(userId, LocalDateTime.now(), ip, 1), UserActivityDTO::merge);
+        if (pending.size() >= userActivityProperties.getMaxPendingUsers() && flushScheduled.compareAndSet(false, true)) {
+            try {
+                asyncExecutor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+                log.warn("登录活动提前刷新被拒绝，等待定时刷新，待写用户数：{}", pending.size());
+            }
+        }
+    }
+
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${com.user.activity.flush-millis:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 关闭时刷新剩余数据，写库后要清除用户缓存，在redis连接工厂停止之前执行
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        int flushed = flush();
+        log.info("关闭前刷新登录活动：{}个用户", flushed);
+    }
+
+    /**
+     * 取出缓冲中的全部活动分批写库
+     *
+     * @return 写入的用户数
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int batchSize = userActivityProperties.getBatchSize();
+            int flushed = 0;
+            List<UserActivityDTO> batch = new ArrayList<>(batchSize);
+            //逐个remove，与并发的merge不会互相覆盖：remove之后的登录进入新的条目，下次刷新
+            Iterator<Long> iterator = pending.keySet().iterator();
+            while (iterator.hasNext()) {
+                UserActivityDTO activity = pending.remove(iterator.next());
+                if (activity == null) {
+                    continue;
+                }
+                batch.add(activity);
+                if (batch.size() == batchSize) {
+                    flushed += write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                flushed += write(batch);
+            }
+            return flushed;
+        }
+    }
+
+    private int write(List<UserActivityDTO> batch) {
+        try {
+            userMapper.updateLoginActivity(batch);
+        } catch (Exception e) {
+            log.error("登录活动写库失败，{}个用户放回缓冲", batch.size(), e);
+            for (UserActivityDTO activity : batch) {
+                //放回时以已有(更新的)活动为准合并
+                pending.merge(activity.getUserId(), activity, (newer, failed) -> failed.merge(newer));
+            }
+            return 0;
+        }
+        userCache.invalidateAll(batch.stream().map(UserActivityDTO::getUserId).toList());
+        return batch.size();
+    }
+}
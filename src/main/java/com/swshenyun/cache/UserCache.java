@@ -0,0 +1,248 @@
+package com.swshenyun.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.properties.UserCacheProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 脱敏用户的两级缓存
+ * 一级为节点内的本地缓存(容量+存活时间)，二级为redis共享缓存，都未命中时回源数据库；
+ * 用户数据变更时删除redis并通过 user:cache:invalidate 频道通知所有节点清除本地缓存，消息体为逗号分隔的id
+ * 每个用户在redis中有一个代数，清除时递增；回源前读取代数，写回redis时代数已变化则放弃，
+ * 避免清除之前开始的回源把旧数据写回redis
+ * 指标：本地缓存为 cache.*(cache=user.near)，user.cache.redis 按result区分redis命中/未命中，user.cache.load 回源耗时
+ */
+@Slf4j
+@Component
+public class UserCache implements MeterBinder {
+
+    private static final DefaultRedisScript<Long> FILL_SCRIPT = script("lua/user_cache_fill.lua");
+
+    private static final DefaultRedisScript<Long> INVALIDATE_SCRIPT = script("lua/user_cache_invalidate.lua");
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCacheProperties userCacheProperties;
+
+    private Cache<Long, User> nearCache;
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder redisMisses = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumSize(userCacheProperties.getNearMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(userCacheProperties.getNearTtlSeconds()))
+                .recordStats()
+                .build();
+        listenerContainer.addMessageListener(
+                (message, pattern) -> {
+                    for (String id : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+                        nearCache.invalidate(Long.valueOf(id));
+                    }
+                },
+                new ChannelTopic(RedisKeyConstant.USER_CACHE_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取脱敏用户，依次查本地缓存、redis、数据库
+     *
+     * @param id
+     * @param loader 数据库回源，返回脱敏后的用户，不存在返回null
+     * @return
+     */
+    public User get(Long id, Function<Long, User> loader) {
+        return nearCache.get(id, key -> {
+            //缓存值和代数一次读取
+            List<String> values = getFromRedis(key);
+            User user = values == null ? null : deserialize(key, values.get(0));
+            if (user != null) {
+                redisHits.increment();
+                return user;
+            }
+            redisMisses.increment();
+            long start = System.nanoTime();
+            user = loader.apply(key);
+            loadNanos.add(System.nanoTime() - start);
+            loadCount.increment();
+            //redis读取失败时不知道代数，不写回
+            if (user != null && values != null) {
+                putToRedis(key, user, values.get(1) == null ? "0" : values.get(1));
+            }
+            return user;
+        });
+    }
+
+    /**
+     * 用户数据变更后调用，清除redis并通知所有节点清除本地缓存
+     *
+     * @param id
+     */
+    public void invalidate(Long id) {
+        nearCache.invalidate(id);
+        try {
+            deleteFromRedis(List.of(id));
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.USER_CACHE_INVALIDATE_CHANNEL, String.valueOf(id));
+        } catch (Exception e) {
+            log.error("用户缓存失效通知失败，id：{}", id, e);
+        }
+    }
+
+    /**
+     * 批量清除，redis一次删除多个key，只广播一条消息
+     *
+     * @param ids
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        nearCache.invalidateAll(ids);
+        try {
+            deleteFromRedis(ids);
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.USER_CACHE_INVALIDATE_CHANNEL,
+                    ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (Exception e) {
+            log.error("用户缓存批量失效通知失败，数量：{}", ids.size(), e);
+        }
+    }
+
+    /**
+     * 缓存统计快照
+     *
+     * @return
+     */
+    public UserCacheStats stats() {
+        CacheStats near = nearCache.stats();
+        long loads = loadCount.sum();
+        long hits = redisHits.sum();
+        long misses = redisMisses.sum();
+        return UserCacheStats.builder()
+                .nearSize(nearCache.estimatedSize())
+                .nearHitCount(near.hitCount())
+                .nearMissCount(near.missCount())
+                .nearHitRatio(near.hitRate())
+                .nearEvictionCount(near.evictionCount())
+                .redisHitCount(hits)
+                .redisMissCount(misses)
+                .redisHitRatio(hits + misses == 0 ? 1.0 : (double) hits / (hits + misses))
+                .loadCount(loads)
+                .averageLoadMillis(loads == 0 ? 0.0 : loadNanos.sum() / 1e6 / loads)
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, nearCache, "user.near");
+        FunctionCounter.builder("user.cache.redis", redisHits, LongAdder::sum)
+                .description("本地缓存未命中后读取redis的次数")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("user.cache.redis", redisMisses, LongAdder::sum)
+                .description("本地缓存未命中后读取redis的次数")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionTimer.builder("user.cache.load", this, cache -> cache.loadCount.sum(),
+                        cache -> cache.loadNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("两级缓存都未命中时回源数据库的耗时")
+                .register(registry);
+    }
+
+    /**
+     * @return [缓存json, 代数]，读取失败返回null
+     */
+    private List<String> getFromRedis(Long id) {
+        try {
+            return stringRedisTemplate.opsForValue().multiGet(
+                    List.of(RedisKeyConstant.USER_SAFE_PREFIX + id, RedisKeyConstant.USER_SAFE_GENERATION_PREFIX + id));
+        } catch (Exception e) {
+            log.warn("读取redis用户缓存失败，id：{}", id, e);
+            return null;
+        }
+    }
+
+    private User deserialize(Long id, String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, User.class);
+        } catch (Exception e) {
+            log.warn("redis用户缓存反序列化失败，id：{}", id, e);
+            return null;
+        }
+    }
+
+    private void putToRedis(Long id, User user, String generation) {
+        try {
+            stringRedisTemplate.execute(FILL_SCRIPT,
+                    List.of(RedisKeyConstant.USER_SAFE_PREFIX + id, RedisKeyConstant.USER_SAFE_GENERATION_PREFIX + id),
+                    generation, objectMapper.writeValueAsString(user),
+                    String.valueOf(userCacheProperties.getRedisTtlSeconds()));
+        } catch (JsonProcessingException e) {
+            log.error("用户缓存序列化失败，id：{}", id, e);
+        } catch (Exception e) {
+            log.warn("写入redis用户缓存失败，id：{}", id, e);
+        }
+    }
+
+    private void deleteFromRedis(Collection<Long> ids) {
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (Long id : ids) {
+            keys.add(RedisKeyConstant.USER_SAFE_PREFIX + id);
+            keys.add(RedisKeyConstant.USER_SAFE_GENERATION_PREFIX + id);
+        }
+        //代数至少要比回源耗时存活得久，取redis缓存的存活时间
+        stringRedisTemplate.execute(INVALIDATE_SCRIPT, keys, String.valueOf(userCacheProperties.getRedisTtlSeconds()));
+    }
+
+    private static DefaultRedisScript<Long> script(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
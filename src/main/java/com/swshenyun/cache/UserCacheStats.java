@@ -0,0 +1,28 @@
+package com.swshenyun.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 用户两级缓存统计
+ */
+@Data
+@Builder
+public class UserCacheStats {
+
+    private long nearSize;
+    private long nearHitCount;
+    private long nearMissCount;
+    private double nearHitRatio;
+    private long nearEvictionCount;
+
+    private long redisHitCount;
+    private long redisMissCount;
+    private double redisHitRatio;
+
+    /**
+     * 回源数据库次数与平均耗时
+     */
+    private long loadCount;
+    private double averageLoadMillis;
+}
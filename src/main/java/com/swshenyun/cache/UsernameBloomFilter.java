@@ -0,0 +1,100 @@
+package com.swshenyun.cache;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.properties.UserCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 已占用用户名的布隆过滤器，用于用户名可用性检查
+ * 判定不存在即可认为用户名可用，无需访问数据库；判定可能存在时由调用方查库确认。
+ * 启动后在后台线程流式加载全部用户名，加载完成前 {@link #isReady()} 为false；
+ * 其他节点注册的用户名通过 user:username:registered 频道同步。该结果仅作提示，注册时仍以唯一索引为准
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserCacheProperties userCacheProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    private volatile BloomFilter<CharSequence> filter;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!userCacheProperties.isUsernameBloomEnabled()) {
+            return;
+        }
+        filter = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8),
+                userCacheProperties.getUsernameBloomExpectedInsertions(),
+                userCacheProperties.getUsernameBloomFpp());
+        listenerContainer.addMessageListener(
+                (message, pattern) -> filter.put(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisKeyConstant.USERNAME_REGISTERED_CHANNEL));
+        Thread loader = new Thread(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                userMapper.scanUsernames(context -> filter.put(context.getResultObject()));
+                ready = true;
+                log.info("用户名布隆过滤器加载完成，元素数量约：{}，耗时：{}ms",
+                        filter.approximateElementCount(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.error("用户名布隆过滤器加载失败，可用性检查将直接查询数据库", e);
+            }
+        }, "username-bloom-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @param username
+     * @return false表示用户名一定未被占用
+     */
+    public boolean mightContain(String username) {
+        return !ready || filter.mightContain(username);
+    }
+
+    /**
+     * 注册成功后调用，同步到所有节点
+     *
+     * @param username
+     */
+    public void put(String username) {
+        if (filter == null) {
+            return;
+        }
+        filter.put(username);
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.USERNAME_REGISTERED_CHANNEL, username);
+        } catch (Exception e) {
+            log.warn("用户名注册广播失败：{}", username, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.swshenyun.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 校验通过的令牌信息
+ */
+@Data
+@AllArgsConstructor
+public class VerifiedToken {
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 令牌id(jti)，旧令牌可能为空
+     */
+    private String jti;
+
+    /**
+     * 签发时间戳(毫秒)，旧令牌可能为0
+     */
+    private long issuedAtMillis;
+
+    /**
+     * 过期时间戳(毫秒)
+     */
+    private long expMillis;
+}
@@ -0,0 +1,125 @@
+package com.swshenyun.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已校验令牌缓存
+ * 以令牌的SHA-256摘要为key，缓存校验通过后的令牌信息，条目最晚在令牌exp时失效
+ * 作为bean时命中/未命中/驱逐统计自动注册为 cache.* 指标，标签 cache=jwt.verified
+ */
+public class VerifiedTokenCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "jwt.verified";
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExp())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取已校验的令牌信息
+     *
+     * @param token
+     * @return 未命中或已过期返回null
+     */
+    public VerifiedToken get(String token) {
+        String key = digest(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified == null) {
+            return null;
+        }
+        if (verified.getExpMillis() <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * 缓存校验通过的令牌
+     *
+     * @param token
+     * @param verified
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getExpMillis() <= System.currentTimeMillis()) {
+            return;
+        }
+        cache.put(digest(token), verified);
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 命中/未命中/驱逐统计
+     *
+     * @return
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 条目存活时间为距离令牌过期的剩余时间
+     */
+    private static class ExpireAtTokenExp implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remaining = value.getExpMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -16,10 +16,14 @@ public enum ErrorCode {
     NOT_FOUND_ERROR(40400, "请求数据不存在"),
     ACCOUNT_NOT_FOUND(40401, "账户不存在"),
     FORBIDDEN_ERROR(40300, "禁止访问"),
+    DATA_CONFLICT(40900, "数据已被修改，请刷新后重试"),
+    TOO_MANY_REQUESTS(42900, "请求过于频繁，请稍后重试"),
+    LOGIN_LOCKED(42901, "登录失败次数过多，请稍后重试"),
 
     SYSTEM_ERROR(50000, "系统内部异常"),
     OPERATION_ERROR(50001, "操作失败"),
-    REGISTER_ERROR(50002, "注册插入失败");
+    REGISTER_ERROR(50002, "注册插入失败"),
+    SYSTEM_BUSY(50003, "系统繁忙，请稍后重试");
 
 
     /**
@@ -0,0 +1,113 @@
+package com.swshenyun.config;
+
+import com.swshenyun.context.ContextCopyingTaskDecorator;
+import com.swshenyun.properties.AsyncProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 配置类，异步任务线程池
+ * 任务执行时恢复提交线程的上下文，@Async默认使用该线程池
+ * 指标：executor.*(name=asyncExecutor)，被拒绝的任务数为 executor.rejected；
+ * 标签与actuator按bean名自动绑定线程池时一致，两者同时生效时不会重复
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+public class AsyncConfiguration implements AsyncConfigurer {
+
+    private static final String EXECUTOR_NAME = "asyncExecutor";
+
+    @Autowired
+    private AsyncProperties asyncProperties;
+
+    /**
+     * 被拒绝的任务数
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    @Bean
+    public ThreadPoolTaskExecutor asyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(asyncProperties.getCorePoolSize());
+        executor.setMaxPoolSize(asyncProperties.getMaxPoolSize());
+        executor.setQueueCapacity(asyncProperties.getQueueCapacity());
+        executor.setKeepAliveSeconds(asyncProperties.getKeepAliveSeconds());
+        executor.setThreadNamePrefix("async-");
+        executor.setTaskDecorator(new ContextCopyingTaskDecorator());
+        executor.setRejectedExecutionHandler(countRejected(rejectionHandler(asyncProperties.getRejectionPolicy())));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        log.info("异步线程池：core {}，max {}，queue {}，拒绝策略 {}", asyncProperties.getCorePoolSize(),
+                asyncProperties.getMaxPoolSize(), asyncProperties.getQueueCapacity(), asyncProperties.getRejectionPolicy());
+        return executor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return asyncExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("异步任务执行失败：{}", method, ex);
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 线程数、活跃数、队列长度、已完成和被拒绝的任务数
+     *
+     * @param asyncExecutor
+     * @return
+     */
+    @Bean
+    public MeterBinder asyncExecutorMetrics(@Qualifier("asyncExecutor") ThreadPoolTaskExecutor asyncExecutor) {
+        return registry -> {
+            new ExecutorServiceMetrics(asyncExecutor.getThreadPoolExecutor(), EXECUTOR_NAME, List.of()).bindTo(registry);
+            FunctionCounter.builder("executor.rejected", rejectedCount, LongAdder::sum)
+                    .description("线程池已满被拒绝的任务数")
+                    .tag("name", EXECUTOR_NAME)
+                    .register(registry);
+        };
+    }
+
+    private RejectedExecutionHandler countRejected(RejectedExecutionHandler delegate) {
+        return (r, executor) -> {
+            rejectedCount.increment();
+            log.warn("异步线程池已满，任务按{}策略处理", asyncProperties.getRejectionPolicy());
+            delegate.rejectedExecution(r, executor);
+        };
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(AsyncProperties.RejectionPolicy policy) {
+        switch (policy) {
+            case ABORT:
+                return new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD:
+                return new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            default:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.swshenyun.config;
+
+import com.swshenyun.cache.VerifiedTokenCache;
+import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.utils.JwtCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 配置类，创建jwt编解码器
+ */
+@Slf4j
+@Configuration
+public class JwtConfiguration {
+
+    /**
+     * 根据配置一次性生成所有密钥，userSecretKey以userKeyId注册，userKeys为轮换期间仍可校验的密钥
+     *
+     * @param jwtProperties
+     * @return
+     */
+    @Bean
+    public JwtCodec jwtCodec(JwtProperties jwtProperties) {
+        Map<String, String> secrets = new LinkedHashMap<>(jwtProperties.getUserKeys());
+        if (jwtProperties.getUserSecretKey() != null) {
+            secrets.put(jwtProperties.getUserKeyId(), jwtProperties.getUserSecretKey());
+        }
+        return new JwtCodec(jwtProperties.getUserKeyId(), secrets, jwtProperties.getUserTtl());
+    }
+
+    /**
+     * 已校验令牌缓存，默认关闭
+     *
+     * @param jwtProperties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.jwt", name = "user-token-cache-enabled", havingValue = "true")
+    public VerifiedTokenCache verifiedTokenCache(JwtProperties jwtProperties) {
+        log.info("开启已校验令牌缓存，容量：{}", jwtProperties.getUserTokenCacheSize());
+        return new VerifiedTokenCache(jwtProperties.getUserTokenCacheSize());
+    }
+}
@@ -0,0 +1,86 @@
+package com.swshenyun.config;
+
+import com.swshenyun.properties.MetricsProperties;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * 配置类，指标采集
+ * 默认只暴露 /actuator/health，默认值在metrics.properties中，可被应用配置覆盖；
+ * 其他端点只允许通过独立的管理端口暴露，与业务端口共用时启动失败
+ */
+@Slf4j
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfiguration {
+
+    private static final String EXPOSURE_INCLUDE = "management.endpoints.web.exposure.include";
+
+    /**
+     * 指标和sql样本没有鉴权，不能随业务端口对外开放：暴露health以外的端点时要求设置独立的 management.server.port
+     *
+     * @param environment
+     * @return
+     */
+    @Bean
+    public SmartInitializingSingleton managementExposureCheck(Environment environment) {
+        return () -> {
+            Set<String> exposed = Binder.get(environment)
+                    .bind(EXPOSURE_INCLUDE, Bindable.setOf(String.class))
+                    .orElse(Set.of());
+            boolean onlyHealth = exposed.stream().allMatch("health"::equals);
+            if (!onlyHealth && ManagementPortType.get(environment) == ManagementPortType.SAME) {
+                throw new IllegalStateException(EXPOSURE_INCLUDE + "=" + exposed
+                        + " 暴露了health以外的端点，需设置与业务端口不同的 management.server.port");
+            }
+        };
+    }
+
+    /**
+     * 支持 @Timed，用于service方法耗时
+     *
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * 限制sql语句指标的标签数量，避免动态生成的语句id撑大注册表
+     *
+     * @param metricsProperties
+     * @return
+     */
+    @Bean
+    public MeterFilter statementTagLimit(MetricsProperties metricsProperties) {
+        log.info("sql语句指标标签上限：{}", metricsProperties.getMaxStatementTags());
+        return MeterFilter.maximumAllowableTags("mybatis.statement", "statement",
+                metricsProperties.getMaxStatementTags(), MeterFilter.deny());
+    }
+
+    /**
+     * 慢sql、N+1指标同样按statement标签限制数量
+     *
+     * @param metricsProperties
+     * @return
+     */
+    @Bean
+    public MeterFilter sqlMonitorTagLimit(MetricsProperties metricsProperties) {
+        return MeterFilter.maximumAllowableTags("sql.", "statement",
+                metricsProperties.getMaxStatementTags(), MeterFilter.deny());
+    }
+}
@@ -0,0 +1,72 @@
+package com.swshenyun.config;
+
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
+import com.swshenyun.interceptor.MybatisMetricsInterceptor;
+import com.swshenyun.interceptor.MybatisTracingInterceptor;
+import com.swshenyun.interceptor.SqlMonitorInterceptor;
+import com.swshenyun.metrics.SqlMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 配置类，mybatis-plus插件
+ */
+@Slf4j
+@Configuration
+public class MybatisPlusConfiguration {
+
+    /**
+     * 乐观锁插件：updateById/update(entity, wrapper)时，实体带@Version字段则追加 version = ? 条件并把版本号加1
+     *
+     * @return
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        log.info("注册mybatis-plus插件：乐观锁");
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new OptimisticLockerInnerInterceptor());
+        return interceptor;
+    }
+
+    /**
+     * sql语句耗时与行数指标
+     *
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.metrics", name = "mapper-enabled", havingValue = "true", matchIfMissing = true)
+    public MybatisMetricsInterceptor mybatisMetricsInterceptor(MeterRegistry meterRegistry) {
+        log.info("注册mybatis插件：sql语句指标");
+        return new MybatisMetricsInterceptor(meterRegistry);
+    }
+
+    /**
+     * 慢sql与N+1检测
+     *
+     * @param sqlMonitor
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.sql-monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SqlMonitorInterceptor sqlMonitorInterceptor(SqlMonitor sqlMonitor) {
+        log.info("注册mybatis插件：慢sql与N+1检测");
+        return new SqlMonitorInterceptor(sqlMonitor);
+    }
+
+    /**
+     * 请求trace中的sql span
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MybatisTracingInterceptor mybatisTracingInterceptor() {
+        log.info("注册mybatis插件：sql span");
+        return new MybatisTracingInterceptor();
+    }
+}
@@ -0,0 +1,28 @@
+package com.swshenyun.config;
+
+import com.swshenyun.cache.LocalPostCounterStore;
+import com.swshenyun.cache.PostCounterStore;
+import com.swshenyun.cache.RedisPostCounterStore;
+import com.swshenyun.properties.PostCounterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 配置类，帖子点赞收藏计数缓冲
+ */
+@Slf4j
+@Configuration
+public class PostCounterConfiguration {
+
+    @Bean
+    public PostCounterStore postCounterStore(PostCounterProperties postCounterProperties, StringRedisTemplate stringRedisTemplate) {
+        log.info("帖子计数缓冲模式：{}", postCounterProperties.getMode());
+        if (postCounterProperties.getMode() == PostCounterProperties.Mode.LOCAL) {
+            return new LocalPostCounterStore(postCounterProperties.getLocalMaxPosts());
+        }
+        return new RedisPostCounterStore(stringRedisTemplate,
+                postCounterProperties.getMemberTtlSeconds(), postCounterProperties.getFlushLockMillis());
+    }
+}
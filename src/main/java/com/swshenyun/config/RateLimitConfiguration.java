@@ -0,0 +1,30 @@
+package com.swshenyun.config;
+
+import com.swshenyun.properties.RateLimitProperties;
+import com.swshenyun.security.LocalRateLimiter;
+import com.swshenyun.security.RateLimiter;
+import com.swshenyun.security.RedisRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 配置类，登录注册限流
+ */
+@Slf4j
+@Configuration
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties rateLimitProperties, StringRedisTemplate stringRedisTemplate) {
+        //令牌桶空闲一个窗口后已补满，无需继续保留
+        LocalRateLimiter local = new LocalRateLimiter(rateLimitProperties.getLocalMaxKeys(),
+                rateLimitProperties.getWindowMillis(), rateLimitProperties.getFailureWindowMillis());
+        log.info("登录限流模式：{}", rateLimitProperties.getMode());
+        if (rateLimitProperties.getMode() == RateLimitProperties.Mode.REDIS) {
+            return new RedisRateLimiter(stringRedisTemplate, local);
+        }
+        return local;
+    }
+}
@@ -0,0 +1,54 @@
+package com.swshenyun.config;
+
+import com.aliyun.oss.OSSClientBuilder;
+import com.swshenyun.properties.AvatarProperties;
+import com.swshenyun.properties.StorageProperties;
+import com.swshenyun.storage.LocalObjectStorage;
+import com.swshenyun.storage.ObjectStorage;
+import com.swshenyun.storage.OssObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 配置类，对象存储与头像处理线程池
+ */
+@Slf4j
+@Configuration
+public class StorageConfiguration {
+
+    @Bean
+    public ObjectStorage objectStorage(StorageProperties storageProperties) {
+        log.info("对象存储模式：{}", storageProperties.getMode());
+        if (storageProperties.getMode() == StorageProperties.Mode.OSS) {
+            return new OssObjectStorage(
+                    new OSSClientBuilder().build(storageProperties.getEndpoint(),
+                            storageProperties.getAccessKeyId(), storageProperties.getAccessKeySecret()),
+                    storageProperties.getBucketName(), storageProperties.getUrlPrefix());
+        }
+        return new LocalObjectStorage(Path.of(storageProperties.getLocalDir()), storageProperties.getUrlPrefix());
+    }
+
+    /**
+     * 头像处理线程池，解码和缩放占用较多内存与cpu，线程数和队列都保持较小，队列满时直接拒绝
+     *
+     * @param avatarProperties
+     * @return
+     */
+    @Bean
+    public ThreadPoolTaskExecutor avatarExecutor(AvatarProperties avatarProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(avatarProperties.getThreads());
+        executor.setMaxPoolSize(avatarProperties.getThreads());
+        executor.setQueueCapacity(avatarProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("avatar-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.swshenyun.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 配置类，请求线程模型
+ * 默认tomcat使用平台线程池(server.tomcat.threads.max)；设置 spring.threads.virtual.enabled=true 后，
+ * tomcat请求以及请求线程上的mybatis/jdbc调用运行在虚拟线程上，需要JDK 21及以上的运行时(编译目标仍为17)；
+ * 异步、密码哈希等自建线程池不受影响，仍为平台线程
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfiguration {
+
+    private static final String VIRTUAL_ENABLED = "spring.threads.virtual.enabled";
+
+    private static final String HIKARI_MAX_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    /**
+     * 低于JDK 21时spring boot会忽略该开关，这里启动失败，避免误以为已切换到虚拟线程。
+     * 虚拟线程不再限制同时处理的请求数，数据库并发的上限变为hikari连接池：连接池按数据库能承受的并发设置，
+     * 并调小 spring.datasource.hikari.connection-timeout，过载时请求尽快失败而不是在取连接处大量堆积
+     *
+     * @param environment
+     * @return
+     */
+    @Bean
+    public SmartInitializingSingleton virtualThreadCheck(Environment environment) {
+        return () -> {
+            if (!environment.getProperty(VIRTUAL_ENABLED, Boolean.class, false)) {
+                return;
+            }
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException(VIRTUAL_ENABLED + "=true 需要JDK 21及以上的运行时，当前为 " + Runtime.version());
+            }
+            log.info("请求运行在虚拟线程上，数据库并发上限为hikari连接池大小：{}",
+                    environment.getProperty(HIKARI_MAX_POOL_SIZE, "10"));
+        };
+    }
+}
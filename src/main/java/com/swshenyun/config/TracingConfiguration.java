@@ -0,0 +1,28 @@
+package com.swshenyun.config;
+
+import com.swshenyun.trace.TracingAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 配置类，请求trace
+ * 拦截器在WebMvcConfiguration中注册，sql span插件在MybatisPlusConfiguration中注册
+ */
+@Slf4j
+@Configuration
+public class TracingConfiguration {
+
+    /**
+     * @Traced 的service方法记录span
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TracingAspect tracingAspect() {
+        log.info("注册service span切面");
+        return new TracingAspect();
+    }
+}
@@ -1,6 +1,12 @@
 package com.swshenyun.config;
 
 import com.swshenyun.interceptor.JwtTokenUserInterceptor;
+import com.swshenyun.interceptor.SqlMonitorWebInterceptor;
+import com.swshenyun.interceptor.TracingWebInterceptor;
+import com.swshenyun.properties.SqlMonitorProperties;
+import com.swshenyun.properties.TracingProperties;
+import com.swshenyun.storage.LocalObjectStorage;
+import com.swshenyun.storage.ObjectStorage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -29,6 +35,21 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     private JwtTokenUserInterceptor jwtTokenUserInterceptor;
 
+    @Autowired
+    private SqlMonitorWebInterceptor sqlMonitorWebInterceptor;
+
+    @Autowired
+    private SqlMonitorProperties sqlMonitorProperties;
+
+    @Autowired
+    private TracingWebInterceptor tracingWebInterceptor;
+
+    @Autowired
+    private TracingProperties tracingProperties;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
     /**
      * 注册自定义拦截器
      *
@@ -37,10 +58,19 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     protected void addInterceptors(InterceptorRegistry registry) {
         log.info("开始注册自定义拦截器...");
 
+        //trace和sql统计最先注册，令牌校验计入trace，校验失败的请求也能正常结束
+        if (tracingProperties.isEnabled()) {
+            registry.addInterceptor(tracingWebInterceptor).addPathPatterns("/**");
+        }
+        if (sqlMonitorProperties.isEnabled()) {
+            registry.addInterceptor(sqlMonitorWebInterceptor).addPathPatterns("/**");
+        }
+
         registry.addInterceptor(jwtTokenUserInterceptor)
-                .addPathPatterns("/user/**")
+                .addPathPatterns("/user/**", "/post/**")
                 .excludePathPatterns("/user/login")
-                .excludePathPatterns("/user/register");
+                .excludePathPatterns("/user/register")
+                .excludePathPatterns("/user/check");
     }
 
     /**
@@ -70,6 +100,10 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     protected void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/doc.html").addResourceLocations("classpath:/META-INF/resources/");
         registry.addResourceHandler("/webjars/**").addResourceLocations("classpath:/META-INF/resources/webjars/");
+        //本地存储模式下直接提供文件访问
+        if (objectStorage instanceof LocalObjectStorage local) {
+            registry.addResourceHandler(local.url("**")).addResourceLocations("file:" + local.getRoot() + "/");
+        }
     }
 
     /**
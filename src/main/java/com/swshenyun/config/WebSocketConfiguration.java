@@ -0,0 +1,76 @@
+package com.swshenyun.config;
+
+import com.swshenyun.properties.NotificationProperties;
+import com.swshenyun.websocket.NotificationHandshakeInterceptor;
+import com.swshenyun.websocket.NotificationWebSocketHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 配置类，websocket通知端点
+ * 连接由容器的NIO线程管理，空闲连接不占用线程；发送使用单独的小线程池，不与业务异步任务争用
+ */
+@Slf4j
+@Configuration
+@EnableWebSocket
+public class WebSocketConfiguration implements WebSocketConfigurer {
+
+    @Autowired
+    private NotificationProperties notificationProperties;
+
+    @Autowired
+    private NotificationWebSocketHandler notificationWebSocketHandler;
+
+    @Autowired
+    private NotificationHandshakeInterceptor notificationHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(notificationWebSocketHandler, notificationProperties.getEndpoint())
+                .addInterceptors(notificationHandshakeInterceptor)
+                .setAllowedOriginPatterns(notificationProperties.getAllowedOrigins().split(","));
+    }
+
+    /**
+     * 容器级别的空闲超时与消息大小，通知只向客户端推送，接收缓冲设置得很小以节省每个连接的内存
+     *
+     * @return
+     */
+    @Bean
+    public ServletServerContainerFactoryBean servletServerContainerFactoryBean() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxSessionIdleTimeout(notificationProperties.getIdleTimeoutMillis());
+        container.setMaxTextMessageBufferSize(1024);
+        container.setMaxBinaryMessageBufferSize(1024);
+        container.setAsyncSendTimeout(notificationProperties.getSendTimeLimitMillis());
+        return container;
+    }
+
+    /**
+     * 通知发送线程池，队列满时丢弃任务，未发出的通知留在连接队列中等下次发送
+     * 静态方法，创建时不依赖本配置类实例，否则与注入的handler -> hub -> 线程池构成循环依赖
+     *
+     * @param notificationProperties
+     * @return
+     */
+    @Bean
+    public static ThreadPoolTaskExecutor notificationSendExecutor(NotificationProperties notificationProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(notificationProperties.getSendThreads());
+        executor.setMaxPoolSize(notificationProperties.getSendThreads());
+        executor.setQueueCapacity(100000);
+        executor.setThreadNamePrefix("ws-send-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        log.info("websocket通知端点：{}，发送线程数：{}", notificationProperties.getEndpoint(), notificationProperties.getSendThreads());
+        return executor;
+    }
+}
@@ -0,0 +1,18 @@
+package com.swshenyun.constant;
+
+/**
+ * websocket通知类型
+ */
+public class NotificationConstant {
+
+    public static final String POST_THUMB = "POST_THUMB";
+    public static final String POST_FAVOUR = "POST_FAVOUR";
+    public static final String ACCOUNT_STATUS = "ACCOUNT_STATUS";
+    public static final String AVATAR_READY = "AVATAR_READY";
+    public static final String AVATAR_FAILED = "AVATAR_FAILED";
+
+    /**
+     * 握手通过后存放用户id的会话属性
+     */
+    public static final String USER_ID_ATTRIBUTE = "userId";
+}
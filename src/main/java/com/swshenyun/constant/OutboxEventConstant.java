@@ -0,0 +1,22 @@
+package com.swshenyun.constant;
+
+/**
+ * 发件箱事件的实体类型与事件类型
+ */
+public class OutboxEventConstant {
+
+    public static final String AGGREGATE_USER = "user";
+    public static final String AGGREGATE_POST = "post";
+
+    public static final String USER_REGISTERED = "USER_REGISTERED";
+    public static final String USER_UPDATED = "USER_UPDATED";
+    public static final String USER_STATUS_CHANGED = "USER_STATUS_CHANGED";
+
+    public static final String POST_CREATED = "POST_CREATED";
+    public static final String POST_UPDATED = "POST_UPDATED";
+    public static final String POST_DELETED = "POST_DELETED";
+
+    public static final Integer STATUS_PENDING = 0;
+    public static final Integer STATUS_DONE = 1;
+    public static final Integer STATUS_DEAD = 2;
+}
@@ -0,0 +1,32 @@
+package com.swshenyun.constant;
+
+/**
+ * redis key 与频道
+ */
+public class RedisKeyConstant {
+
+    public static final String JWT_REVOKED_PREFIX = "jwt:revoked:";
+    public static final String JWT_REVOCATION_CHANNEL = "jwt:revocation";
+
+    public static final String USER_SAFE_PREFIX = "user:safe:";
+    public static final String USER_SAFE_GENERATION_PREFIX = "user:safe:gen:";
+    public static final String USER_CACHE_INVALIDATE_CHANNEL = "user:cache:invalidate";
+    public static final String USERNAME_REGISTERED_CHANNEL = "user:username:registered";
+
+    public static final String RATE_LIMIT_PREFIX = "rate:limit:";
+    public static final String LOGIN_FAILURE_PREFIX = "login:failure:";
+    public static final String LOGIN_LOCK_PREFIX = "login:lock:";
+
+    public static final String POST_HOT_SNAPSHOT = "post:hot:snapshot";
+    public static final String POST_HOT_CHANNEL = "post:hot:event";
+    public static final String POST_SEARCH_CHANNEL = "post:search:changed";
+
+    public static final String NOTIFICATION_CHANNEL = "ws:notification";
+
+    public static final String OUTBOX_LEASE = "outbox:dispatch:lease";
+
+    /**
+     * post:{thumb|favour}:...
+     */
+    public static final String POST_PREFIX = "post:";
+}
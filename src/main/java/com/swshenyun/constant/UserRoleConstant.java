@@ -0,0 +1,9 @@
+package com.swshenyun.constant;
+
+/**
+ * 用户角色常量
+ */
+public class UserRoleConstant {
+
+    public static final String ADMIN_ROLE = "admin";
+}
@@ -0,0 +1,23 @@
+package com.swshenyun.constant;
+
+/**
+ * 用户名、密码校验规则，DTO注解与批量导入共用
+ */
+public class ValidationConstant {
+
+    public static final int USERNAME_MIN_LENGTH = 4;
+    public static final int USERNAME_MAX_LENGTH = 20;
+    public static final String USERNAME_PATTERN = "^[a-zA-Z0-9_]*$";
+
+    public static final int PASSWORD_MIN_LENGTH = 8;
+    public static final String PASSWORD_LETTER_PATTERN = ".*[a-zA-Z].*";
+    public static final String PASSWORD_DIGIT_PATTERN = ".*\\d.*";
+
+    public static final String USERNAME_BLANK = "用户名不能为空";
+    public static final String USERNAME_SIZE = "用户名长度必须在4到20个字符之间";
+    public static final String USERNAME_CHARS = "用户名只能包含字母、数字和下划线";
+    public static final String PASSWORD_BLANK = "密码不能为空";
+    public static final String PASSWORD_SIZE = "密码长度不能少于8位";
+    public static final String PASSWORD_LETTER = "密码必须包含大小写字母";
+    public static final String PASSWORD_DIGIT = "密码必须包含数字";
+}
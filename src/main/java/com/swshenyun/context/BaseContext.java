@@ -1,11 +1,15 @@
 package com.swshenyun.context;
 
+import java.util.concurrent.Callable;
+
 /**
  * 上下文
+ * 当前用户id只在一次请求(或一次 runWith/callWith 调用)内有效：
+ * 请求结束时由拦截器的afterCompletion清除，避免线程池复用线程时泄漏给下一个请求
  */
 public class BaseContext {
 
-    public static ThreadLocal<Long> threadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<Long> threadLocal = new ThreadLocal<>();
 
     public static void setCurrentId(Long id) {
         threadLocal.set(id);
@@ -19,4 +23,46 @@ public class BaseContext {
         threadLocal.remove();
     }
 
+    /**
+     * 在绑定了用户id的上下文中执行，结束后恢复原有上下文
+     *
+     * @param id
+     * @param task
+     */
+    public static void runWith(Long id, Runnable task) {
+        Long previous = threadLocal.get();
+        threadLocal.set(id);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 在绑定了用户id的上下文中执行并返回结果，结束后恢复原有上下文
+     *
+     * @param id
+     * @param task
+     * @return
+     * @throws Exception
+     */
+    public static <T> T callWith(Long id, Callable<T> task) throws Exception {
+        Long previous = threadLocal.get();
+        threadLocal.set(id);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(Long previous) {
+        if (previous == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(previous);
+        }
+    }
+
 }
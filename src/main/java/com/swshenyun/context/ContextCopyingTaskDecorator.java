@@ -0,0 +1,15 @@
+package com.swshenyun.context;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 提交异步任务时捕获当前上下文，在执行线程中恢复，执行结束后清除
+ */
+public class ContextCopyingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Long currentId = BaseContext.getCurrentId();
+        return () -> BaseContext.runWith(currentId, runnable);
+    }
+}
@@ -0,0 +1,52 @@
+package com.swshenyun.context;
+
+import com.swshenyun.trace.Trace;
+
+/**
+ * 当前请求的trace
+ * 只有开启Server-Timing或被采样的请求才绑定trace，其余请求各埋点只做一次ThreadLocal读取
+ * 请求结束时由拦截器的afterCompletion清除
+ */
+public class TraceContext {
+
+    private static final ThreadLocal<Trace> threadLocal = new ThreadLocal<>();
+
+    public static void setCurrentTrace(Trace trace) {
+        threadLocal.set(trace);
+    }
+
+    public static Trace getCurrentTrace() {
+        return threadLocal.get();
+    }
+
+    public static void removeCurrentTrace() {
+        threadLocal.remove();
+    }
+
+    /**
+     * 在当前trace上开始span
+     *
+     * @param category
+     * @param name
+     * @return span编号，没有trace时为Trace.NONE
+     */
+    public static int startSpan(String category, String name) {
+        Trace trace = threadLocal.get();
+        return trace == null ? Trace.NONE : trace.start(category, name);
+    }
+
+    /**
+     * 结束span
+     *
+     * @param span
+     * @param detail
+     */
+    public static void endSpan(int span, String detail) {
+        if (span != Trace.NONE) {
+            Trace trace = threadLocal.get();
+            if (trace != null) {
+                trace.end(span, detail);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.swshenyun.controller;
+
+import com.swshenyun.common.BaseResponse;
+import com.swshenyun.pojo.dto.PostAddDTO;
+import com.swshenyun.pojo.dto.PostHotQueryDTO;
+import com.swshenyun.pojo.dto.PostQueryDTO;
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.dto.PostUpdateDTO;
+import com.swshenyun.pojo.vo.CursorPageVO;
+import com.swshenyun.pojo.vo.PostHotVO;
+import com.swshenyun.pojo.vo.PostSearchVO;
+import com.swshenyun.pojo.vo.PostVO;
+import com.swshenyun.service.PostService;
+import com.swshenyun.utils.ResultUtils;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/post")
+@Api(tags = "帖子相关接口")
+public class PostController {
+
+    @Autowired
+    private PostService postService;
+
+    /**
+     * 发布帖子
+     * @param postAddDTO
+     * @return 帖子id
+     */
+    @PostMapping
+    @ApiOperation("发布帖子")
+    public BaseResponse<Long> addPost(@RequestBody PostAddDTO postAddDTO) {
+        log.info("发布帖子：{}", postAddDTO.getTitle());
+        return ResultUtils.success(postService.addPost(postAddDTO));
+    }
+
+    /**
+     * 修改帖子
+     * @param postUpdateDTO
+     * @return
+     */
+    @PutMapping
+    @ApiOperation("修改帖子")
+    public BaseResponse updatePost(@RequestBody PostUpdateDTO postUpdateDTO) {
+        log.info("修改帖子：{}", postUpdateDTO.getId());
+        postService.updatePost(postUpdateDTO);
+        return ResultUtils.success();
+    }
+
+    /**
+     * 删除帖子
+     * @param id
+     * @return
+     */
+    @DeleteMapping("/{id}")
+    @ApiOperation("删除帖子")
+    public BaseResponse deletePost(@PathVariable Long id) {
+        log.info("删除帖子：{}", id);
+        postService.deletePost(id);
+        return ResultUtils.success();
+    }
+
+    /**
+     * 帖子详情
+     * @param id
+     * @return
+     */
+    @GetMapping("/{id}")
+    @ApiOperation("帖子详情")
+    public BaseResponse<PostVO> getPost(@PathVariable Long id) {
+        return ResultUtils.success(postService.getPostVO(id));
+    }
+
+    /**
+     * 分页查询帖子，按id倒序游标翻页
+     * @param postQueryDTO
+     * @return
+     */
+    @GetMapping("/list")
+    @ApiOperation("分页查询帖子")
+    public BaseResponse<CursorPageVO<PostVO>> list(PostQueryDTO postQueryDTO) {
+        return ResultUtils.success(postService.listByCursor(postQueryDTO));
+    }
+
+    /**
+     * 全文检索帖子
+     * @param postSearchDTO
+     * @return
+     */
+    @GetMapping("/search")
+    @ApiOperation("检索帖子")
+    public BaseResponse<PostSearchVO> search(PostSearchDTO postSearchDTO) {
+        return ResultUtils.success(postService.search(postSearchDTO));
+    }
+
+    /**
+     * 热门帖子，按随时间衰减的热度倒序
+     * @param postHotQueryDTO
+     * @return
+     */
+    @GetMapping("/hot")
+    @ApiOperation("热门帖子")
+    public BaseResponse<PostHotVO> listHot(PostHotQueryDTO postHotQueryDTO) {
+        return ResultUtils.success(postService.listHot(postHotQueryDTO));
+    }
+
+    /**
+     * 点赞/取消点赞
+     * @param id
+     * @return 操作后是否为已点赞
+     */
+    @PostMapping("/{id}/thumb")
+    @ApiOperation("点赞/取消点赞")
+    public BaseResponse<Boolean> doThumb(@PathVariable Long id) {
+        return ResultUtils.success(postService.doPostThumb(id));
+    }
+
+    /**
+     * 收藏/取消收藏
+     * @param id
+     * @return 操作后是否为已收藏
+     */
+    @PostMapping("/{id}/favour")
+    @ApiOperation("收藏/取消收藏")
+    public BaseResponse<Boolean> doFavour(@PathVariable Long id) {
+        return ResultUtils.success(postService.doPostFavour(id));
+    }
+}
@@ -1,26 +1,42 @@
 package com.swshenyun.controller;
 
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.swshenyun.cache.UserActivityBuffer;
+import com.swshenyun.cache.VerifiedToken;
 import com.swshenyun.common.BaseResponse;
+import com.swshenyun.common.ErrorCode;
 import com.swshenyun.constant.JwtClaimsConstant;
 import com.swshenyun.context.BaseContext;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.interceptor.JwtTokenUserInterceptor;
 import com.swshenyun.pojo.dto.UserDTO;
 import com.swshenyun.pojo.dto.UserLoginDTO;
+import com.swshenyun.pojo.dto.UserQueryDTO;
 import com.swshenyun.pojo.dto.UserRegisterDTO;
+import com.swshenyun.pojo.dto.UserStatusBatchDTO;
 import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.CursorPageVO;
+import com.swshenyun.pojo.vo.UserImportResultVO;
 import com.swshenyun.pojo.vo.UserLoginVO;
-import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.service.AvatarService;
+import com.swshenyun.service.LoginGuardService;
+import com.swshenyun.service.TokenRevocationService;
+import com.swshenyun.service.UserImportService;
 import com.swshenyun.service.UserService;
-import com.swshenyun.utils.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.utils.JwtCodec;
+import com.swshenyun.utils.UserImportReader;
 import com.swshenyun.utils.ResultUtils;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,28 +50,56 @@ public class UserController {
     private UserService userService;
 
     @Autowired
-    private JwtProperties jwtProperties;
+    private JwtCodec jwtCodec;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserActivityBuffer userActivityBuffer;
+
+    @Autowired
+    private LoginGuardService loginGuardService;
+
+    @Autowired
+    private AvatarService avatarService;
 
     /**
-     * 登录
+     * 登录，限流按连接的对端地址；经过反向代理部署时配置 server.forward-headers-strategy=native，
+     * 由tomcat的RemoteIpValve只对受信任的代理解析X-Forwarded-For，客户端自带的请求头不会被采信
      * @return
      */
     @PostMapping("/login")
     @ApiOperation("用户登录")
-    public BaseResponse<UserLoginVO> login(@RequestBody @Validated UserLoginDTO userLoginDTO) {
-        //1.登录service
-        User user = userService.login(userLoginDTO);
-        //2.生成jwt令牌
+    public BaseResponse<UserLoginVO> login(@RequestBody @Validated UserLoginDTO userLoginDTO, HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        //1.限流与锁定检查，在查库和密码校验之前
+        loginGuardService.checkLogin(userLoginDTO.getUsername(), ip);
+        //2.登录service
+        User user;
+        try {
+            user = userService.login(userLoginDTO);
+        } catch (BaseException e) {
+            if (e.getCode() == ErrorCode.ACCOUNT_NOT_FOUND.getCode() || e.getCode() == ErrorCode.PASSWORD_ERROR.getCode()) {
+                loginGuardService.onLoginFailure(userLoginDTO.getUsername());
+            }
+            throw e;
+        }
+        loginGuardService.onLoginSuccess(userLoginDTO.getUsername());
+        userActivityBuffer.recordLogin(user.getId(), ip);
+        //3.生成jwt令牌
         Map<String, Object> claims = new HashMap<>();
         claims.put(JwtClaimsConstant.USER_ID,user.getId());
         claims.put(JwtClaimsConstant.USERNAME,user.getUsername());
-        String token = JwtUtils.createJwt(
-                jwtProperties.getUserSecretKey(),
-                jwtProperties.getUserTtl(),
-                claims
-        );
+        String token = jwtCodec.createJwt(claims);
 
-        //3.返回
+        //4.返回
         UserLoginVO userLoginVO = UserLoginVO.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -73,12 +117,25 @@ public class UserController {
      */
     @PostMapping("/register")
     @ApiOperation("用户注册")
-    public BaseResponse<Long> userRegister(@RequestBody @Validated UserRegisterDTO userRegisterDTO) {
+    public BaseResponse<Long> userRegister(@RequestBody @Validated UserRegisterDTO userRegisterDTO, HttpServletRequest request) {
+        loginGuardService.checkRegister(request.getRemoteAddr());
 
         long result = userService.register(userRegisterDTO);
         return ResultUtils.success(result);
     }
 
+    /**
+     * 检查用户名是否可用
+     *
+     * @param username
+     * @return
+     */
+    @GetMapping("/check")
+    @ApiOperation("检查用户名是否可用")
+    public BaseResponse<Boolean> checkUsername(@RequestParam String username) {
+        return ResultUtils.success(userService.isUsernameAvailable(username));
+    }
+
     /**
      * 获取当前用户
      * @return
@@ -89,18 +146,23 @@ public class UserController {
         log.info("获取当前用户数据");
         long userId = BaseContext.getCurrentId();
 
-        User user = userService.getById(userId);
-        User safetyUser = userService.getSafeUser(user);
+        User safetyUser = userService.getSafeUserById(userId);
         return ResultUtils.success(safetyUser);
     }
 
     /**
-     * 退出
+     * 退出，吊销当前令牌
      * @return
      */
     @PostMapping("/logout")
     @ApiOperation("员工登出")
-    public BaseResponse logout() { return ResultUtils.success(); }
+    public BaseResponse logout(HttpServletRequest request) {
+        VerifiedToken token = (VerifiedToken) request.getAttribute(JwtTokenUserInterceptor.VERIFIED_TOKEN_ATTRIBUTE);
+        if (token != null && token.getJti() != null) {
+            tokenRevocationService.revokeToken(token.getJti(), token.getExpMillis());
+        }
+        return ResultUtils.success();
+    }
 
     /**
      * 修改员工账户状态
@@ -112,26 +174,84 @@ public class UserController {
     @ApiOperation("启用禁用员工账户")
     public BaseResponse startOrStop(@PathVariable Integer status,Long id) {
         log.info("启用禁用员工账户：{}，{}", status, id);
+        userService.checkAdmin(BaseContext.getCurrentId());
         userService.startOrStop(status,id);
         return ResultUtils.success();
     }
 
     /**
-     * 修改员工信息
-     * @return
+     * 修改员工信息，只更新传入的字段，version为读取时的版本号
+     * @return 修改后的版本号
      */
     @PutMapping
     @ApiOperation("修改员工信息")
-    public BaseResponse update(@RequestBody UserDTO userDTO) {
+    public BaseResponse<Integer> update(@RequestBody UserDTO userDTO) {
         log.info("编辑员工信息：{}", userDTO);
-        User user = new User();
-        BeanUtils.copyProperties(userDTO,user);
-        LambdaUpdateWrapper<User> wrapper = new LambdaUpdateWrapper<>();
-        wrapper.eq(User::getId, user.getId());
-        userService.update(wrapper);
-        return ResultUtils.success();
+        return ResultUtils.success(userService.updateUser(userDTO));
+    }
+
+    /**
+     * 上传头像，处理完成后更新头像并通过websocket通知
+     * @param file
+     * @return 上传id
+     */
+    @PostMapping("/avatar")
+    @ApiOperation("上传头像")
+    public BaseResponse<String> uploadAvatar(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("上传头像：{}字节", file.getSize());
+        return ResultUtils.success(avatarService.upload(BaseContext.getCurrentId(), file));
     }
 
     //管理员
 
+    /**
+     * 分页查询用户，按id游标翻页
+     * @param userQueryDTO
+     * @return
+     */
+    @GetMapping("/admin/list")
+    @ApiOperation("分页查询用户")
+    public BaseResponse<CursorPageVO<User>> list(UserQueryDTO userQueryDTO) {
+        log.info("分页查询用户：{}", userQueryDTO);
+        userService.checkAdmin(BaseContext.getCurrentId());
+        return ResultUtils.success(userService.listByCursor(userQueryDTO));
+    }
+
+    /**
+     * 批量启用禁用账户
+     * @param userStatusBatchDTO
+     * @return 实际变更的行数
+     */
+    @PostMapping("/admin/status/batch")
+    @ApiOperation("批量启用禁用账户")
+    public BaseResponse<Integer> updateStatusBatch(@RequestBody UserStatusBatchDTO userStatusBatchDTO) {
+        log.info("批量启用禁用账户：{}，ids数量：{}，条件：{}", userStatusBatchDTO.getStatus(),
+                userStatusBatchDTO.getIds() == null ? 0 : userStatusBatchDTO.getIds().size(),
+                userStatusBatchDTO.getQuery());
+        userService.checkAdmin(BaseContext.getCurrentId());
+        return ResultUtils.success(userService.updateStatusBatch(userStatusBatchDTO));
+    }
+
+    /**
+     * 批量导入用户，文件为csv(username,password)或json数组，流式读取
+     * @param file
+     * @param batchSize 每批查重、插入的行数
+     * @return
+     */
+    @PostMapping("/admin/import")
+    @ApiOperation("批量导入用户")
+    public BaseResponse<UserImportResultVO> importUsers(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(required = false) Integer batchSize) throws IOException {
+        log.info("批量导入用户：{}，{}字节", file.getOriginalFilename(), file.getSize());
+        userService.checkAdmin(BaseContext.getCurrentId());
+        String filename = file.getOriginalFilename();
+        boolean json = (filename != null && filename.toLowerCase().endsWith(".json"))
+                || MediaType.APPLICATION_JSON_VALUE.equals(file.getContentType());
+        try (UserImportReader reader = json
+                ? UserImportReader.json(file.getInputStream(), objectMapper)
+                : UserImportReader.csv(file.getInputStream())) {
+            return ResultUtils.success(userImportService.importUsers(reader, batchSize));
+        }
+    }
+
 }
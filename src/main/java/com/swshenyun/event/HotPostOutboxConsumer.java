@@ -0,0 +1,48 @@
+package com.swshenyun.event;
+
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.service.HotPostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 发帖计入初始热度，删帖移出热度排行
+ * 重复投递时初始热度会重复计入，只影响刚发布帖子的排序，不做去重
+ */
+@Component
+public class HotPostOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private HotPostService hotPostService;
+
+    @Override
+    public String name() {
+        return "hotPost";
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxEventConstant.AGGREGATE_POST.equals(aggregateType);
+    }
+
+    @Override
+    public void consume(List<OutboxEvent> events) {
+        Set<Long> created = new LinkedHashSet<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (OutboxEventConstant.POST_CREATED.equals(event.getEventType())) {
+                created.add(event.getAggregateId());
+            } else if (OutboxEventConstant.POST_DELETED.equals(event.getEventType())) {
+                created.remove(event.getAggregateId());
+                deleted.add(event.getAggregateId());
+            }
+        }
+        hotPostService.recordCreated(created);
+        hotPostService.remove(deleted);
+    }
+}
@@ -0,0 +1,31 @@
+package com.swshenyun.event;
+
+import com.swshenyun.pojo.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 发件箱事件消费者，按id顺序整批接收自己关心的事件
+ * 投递语义为至少一次：同一批事件在失败重试、节点切换时可能重复收到，实现需要幂等
+ */
+public interface OutboxConsumer {
+
+    /**
+     * 消费者名称，用于日志
+     * @return
+     */
+    String name();
+
+    /**
+     * 是否处理该实体类型的事件
+     * @param aggregateType
+     * @return
+     */
+    boolean supports(String aggregateType);
+
+    /**
+     * 处理一批事件，抛出异常时整批稍后重试
+     * @param events 按id升序，非空
+     */
+    void consume(List<OutboxEvent> events) throws Exception;
+}
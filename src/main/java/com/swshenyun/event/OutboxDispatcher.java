@@ -0,0 +1,399 @@
+package com.swshenyun.event;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.mapper.OutboxConsumerOffsetMapper;
+import com.swshenyun.mapper.OutboxEventMapper;
+import com.swshenyun.pojo.entity.OutboxConsumerOffset;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.properties.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 发件箱分发器
+ * 每个消费者各自记录消费进度，按id顺序从进度之后取一批事件，只交给它关心的实体类型；
+ * 消费者失败时只有它自己按指数退避重试，进度不变，保证同一实体的事件不会乱序到达，
+ * 超过最大重试次数后放弃这一批并把其中它关心的事件标记为投递失败，其他消费者不受影响。
+ * 自增id在插入时分配、提交后才可见，后分配的id可能先提交：读取时id不连续的缺口记录在进度中，
+ * 之后每轮按id重新查询，出现后补投，超过 gapTimeoutMillis 仍未出现视为事务已回滚。
+ * 所有消费者都处理过、且不在缺口之后的事件标记为已投递。
+ * 多节点通过redis租约只由一个节点投递；事务提交后唤醒立即投递，定时轮询兜底
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int CLEANUP_BATCH = 1000;
+
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        UNLOCK_SCRIPT.setLocation(new ClassPathResource("lua/unlock.lua"));
+        UNLOCK_SCRIPT.setResultType(Long.class);
+    }
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
+    @Autowired
+    private OutboxConsumerOffsetMapper outboxConsumerOffsetMapper;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private List<OutboxConsumer> consumers;
+
+    @Autowired
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 本节点持有的租约标识
+     */
+    private volatile String leaseToken;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder deadCount = new LongAdder();
+
+    /**
+     * 有新事件提交，在异步线程池中投递；正在投递时只做标记，由当前投递结束后再跑一轮
+     */
+    public void wakeUp() {
+        wakeUpRequested.set(true);
+        if (running.get()) {
+            return;
+        }
+        try {
+            asyncExecutor.execute(this::dispatch);
+        } catch (RejectedExecutionException e) {
+            //线程池繁忙，由定时轮询投递
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${com.outbox.poll-millis:1000}")
+    public void poll() {
+        wakeUpRequested.set(true);
+        dispatch();
+    }
+
+    /**
+     * 投递待处理事件，同一节点同时只有一个线程投递
+     */
+    public void dispatch() {
+        while (wakeUpRequested.get()) {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                wakeUpRequested.set(false);
+                if (acquireLease()) {
+                    dispatchBatches();
+                }
+            } catch (Exception e) {
+                log.error("发件箱投递失败，下次重试", e);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private void dispatchBatches() {
+        Map<String, OutboxConsumerOffset> offsets = loadOffsets();
+        Map<String, NavigableMap<Long, Long>> gaps = new HashMap<>();
+        offsets.forEach((name, offset) -> gaps.put(name, parseGaps(offset.getGaps())));
+        int batchSize = outboxProperties.getBatchSize();
+        long markedUpTo = 0;
+        for (int i = 0; i < outboxProperties.getMaxBatchesPerRun(); i++) {
+            //进度相同的消费者共用一次查询
+            Map<Long, List<OutboxEvent>> fetched = new HashMap<>();
+            boolean more = false;
+            for (OutboxConsumer consumer : consumers) {
+                OutboxConsumerOffset offset = offsets.get(consumer.name());
+                LocalDateTime nextRetryTime = offset.getNextRetryTime();
+                if (nextRetryTime != null && nextRetryTime.isAfter(LocalDateTime.now())) {
+                    continue;
+                }
+                List<OutboxEvent> events = fetched.computeIfAbsent(offset.getLastEventId(),
+                        afterId -> outboxEventMapper.listAfter(afterId, batchSize));
+                //缺口每次执行只重新查询一次
+                NavigableMap<Long, Long> consumerGaps = i == 0 ? gaps.get(consumer.name()) : new TreeMap<>();
+                if (events.isEmpty() && consumerGaps.isEmpty()) {
+                    continue;
+                }
+                NavigableMap<Long, Long> nextGaps = deliver(consumer, offset, consumerGaps, gaps.get(consumer.name()), events);
+                if (nextGaps != null) {
+                    gaps.put(consumer.name(), nextGaps);
+                    more |= events.size() == batchSize;
+                }
+            }
+            long done = offsets.values().stream()
+                    .mapToLong(offset -> {
+                        NavigableMap<Long, Long> consumerGaps = gaps.get(offset.getConsumer());
+                        return consumerGaps.isEmpty() ? offset.getLastEventId()
+                                : Math.min(offset.getLastEventId(), consumerGaps.firstKey() - 1);
+                    })
+                    .min().orElse(0);
+            if (done > markedUpTo) {
+                dispatchedCount.add(outboxEventMapper.markDoneUpTo(done));
+                markedUpTo = done;
+            }
+            if (!more) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 读取当前各消费者的进度，新消费者先建立进度
+     * @return 消费者名称 -> 进度
+     */
+    private Map<String, OutboxConsumerOffset> loadOffsets() {
+        Map<String, OutboxConsumerOffset> offsets = outboxConsumerOffsetMapper.listAll().stream()
+                .collect(Collectors.toMap(OutboxConsumerOffset::getConsumer, Function.identity()));
+        boolean created = false;
+        for (OutboxConsumer consumer : consumers) {
+            if (!offsets.containsKey(consumer.name())) {
+                outboxConsumerOffsetMapper.insertIgnore(consumer.name());
+                created = true;
+            }
+        }
+        if (created) {
+            offsets = outboxConsumerOffsetMapper.listAll().stream()
+                    .collect(Collectors.toMap(OutboxConsumerOffset::getConsumer, Function.identity()));
+        }
+        //已下线的消费者不参与已投递的判断
+        Map<String, OutboxConsumerOffset> current = new HashMap<>();
+        for (OutboxConsumer consumer : consumers) {
+            current.put(consumer.name(), offsets.get(consumer.name()));
+        }
+        return current;
+    }
+
+    /**
+     * 把一批事件和已提交的缺口事件中消费者关心的部分交给它
+     * @param consumer
+     * @param offset 消费者进度，随投递结果更新
+     * @param pollGaps 本轮重新查询的缺口
+     * @param gaps 当前全部缺口：id -> 等待截止时间
+     * @param events 进度之后按id顺序的一批事件
+     * @return 投递成功或放弃后新的缺口，等待重试时返回null
+     */
+    private NavigableMap<Long, Long> deliver(OutboxConsumer consumer, OutboxConsumerOffset offset,
+                                             NavigableMap<Long, Long> pollGaps, NavigableMap<Long, Long> gaps,
+                                             List<OutboxEvent> events) {
+        long now = System.currentTimeMillis();
+        NavigableMap<Long, Long> nextGaps = new TreeMap<>(gaps);
+        List<OutboxEvent> batch = new ArrayList<>();
+        if (!pollGaps.isEmpty()) {
+            for (OutboxEvent event : outboxEventMapper.selectBatchIds(pollGaps.keySet())) {
+                batch.add(event);
+                nextGaps.remove(event.getId());
+            }
+            nextGaps.entrySet().removeIf(gap -> {
+                if (gap.getValue() > now) {
+                    return false;
+                }
+                log.warn("发件箱消费者{}等待的事件{}超时仍未提交，视为事务已回滚", consumer.name(), gap.getKey());
+                return true;
+            });
+        }
+        long previous = offset.getLastEventId();
+        for (OutboxEvent event : events) {
+            for (long id = previous + 1; id < event.getId(); id++) {
+                if (nextGaps.size() >= outboxProperties.getMaxGaps()) {
+                    log.warn("发件箱消费者{}等待的未提交事件过多，跳过id：{}~{}", consumer.name(), id, event.getId() - 1);
+                    break;
+                }
+                nextGaps.put(id, now + outboxProperties.getGapTimeoutMillis());
+            }
+            previous = event.getId();
+            batch.add(event);
+        }
+        if (batch.isEmpty() && nextGaps.equals(gaps)) {
+            return gaps;
+        }
+        batch.sort(Comparator.comparing(OutboxEvent::getId));
+
+        List<OutboxEvent> accepted = batch.stream()
+                .filter(event -> consumer.supports(event.getAggregateType()))
+                .toList();
+        try {
+            if (!accepted.isEmpty()) {
+                consumer.consume(accepted);
+            }
+        } catch (Exception e) {
+            List<Long> ids = accepted.stream().map(OutboxEvent::getId).toList();
+            int retries = (offset.getRetryCount() == null ? 0 : offset.getRetryCount()) + 1;
+            if (retries <= outboxProperties.getMaxRetries()) {
+                long delay = Math.min(outboxProperties.getRetryMaxMillis(),
+                        outboxProperties.getRetryBaseMillis() << Math.min(retries - 1, 30));
+                LocalDateTime nextRetryTime = LocalDateTime.now().plus(Duration.ofMillis(delay));
+                outboxConsumerOffsetMapper.scheduleRetry(consumer.name(), retries, nextRetryTime);
+                offset.setRetryCount(retries);
+                offset.setNextRetryTime(nextRetryTime);
+                retryCount.add(ids.size());
+                log.warn("发件箱消费者{}投递失败，第{}次重试将在{}毫秒后进行，id：{}~{}",
+                        consumer.name(), retries, delay, ids.get(0), ids.get(ids.size() - 1), e);
+                return null;
+            }
+            outboxEventMapper.markDead(ids);
+            deadCount.add(ids.size());
+            log.error("发件箱消费者{}超过最大重试次数，放弃投递并标记为投递失败，id：{}~{}",
+                    consumer.name(), ids.get(0), ids.get(ids.size() - 1), e);
+        }
+        outboxConsumerOffsetMapper.advance(consumer.name(), previous, formatGaps(nextGaps));
+        offset.setLastEventId(previous);
+        offset.setRetryCount(0);
+        offset.setNextRetryTime(null);
+        return nextGaps;
+    }
+
+    /**
+     * @param gaps id:毫秒时间戳,...
+     * @return id -> 等待截止时间
+     */
+    static NavigableMap<Long, Long> parseGaps(String gaps) {
+        NavigableMap<Long, Long> result = new TreeMap<>();
+        if (gaps == null || gaps.isBlank()) {
+            return result;
+        }
+        for (String gap : gaps.split(",")) {
+            int colon = gap.indexOf(':');
+            result.put(Long.valueOf(gap.substring(0, colon)), Long.valueOf(gap.substring(colon + 1)));
+        }
+        return result;
+    }
+
+    static String formatGaps(NavigableMap<Long, Long> gaps) {
+        if (gaps.isEmpty()) {
+            return null;
+        }
+        return gaps.entrySet().stream()
+                .map(gap -> gap.getKey() + ":" + gap.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * 取得或续期租约，本节点持有的租约已被他人取得时重新竞争
+     * @return 是否由本节点投递
+     */
+    private boolean acquireLease() {
+        if (!outboxProperties.isLeaseEnabled()) {
+            return true;
+        }
+        String key = RedisKeyConstant.OUTBOX_LEASE;
+        long leaseMillis = outboxProperties.getLeaseMillis();
+        try {
+            String token = leaseToken;
+            if (token != null && token.equals(stringRedisTemplate.opsForValue().get(key))) {
+                stringRedisTemplate.expire(key, leaseMillis, TimeUnit.MILLISECONDS);
+                return true;
+            }
+            token = UUID.randomUUID().toString();
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, token, leaseMillis, TimeUnit.MILLISECONDS))) {
+                leaseToken = token;
+                return true;
+            }
+            leaseToken = null;
+            return false;
+        } catch (Exception e) {
+            log.warn("获取发件箱租约失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 关闭时释放租约，在redis连接工厂停止之前执行
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void releaseLease() {
+        String token = leaseToken;
+        if (token == null) {
+            return;
+        }
+        leaseToken = null;
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(RedisKeyConstant.OUTBOX_LEASE), token);
+        } catch (Exception e) {
+            log.warn("释放发件箱租约失败", e);
+        }
+    }
+
+    /**
+     * 删除保留期之前的已投递事件，分批删除避免长时间锁表
+     */
+    @Scheduled(fixedDelayString = "${com.outbox.cleanup-millis:3600000}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusHours(outboxProperties.getRetentionHours());
+        try {
+            int deleted;
+            long total = 0;
+            do {
+                deleted = outboxEventMapper.deleteDone(before, CLEANUP_BATCH);
+                total += deleted;
+            } while (deleted == CLEANUP_BATCH);
+            if (total > 0) {
+                log.info("清理已投递发件箱事件{}条", total);
+            }
+        } catch (Exception e) {
+            log.error("清理发件箱事件失败", e);
+        }
+    }
+
+    /**
+     * 投递统计快照，待投递数与延迟查询数据库
+     * @return
+     */
+    public OutboxStats stats() {
+        LocalDateTime oldest = outboxEventMapper.oldestPendingTime();
+        return OutboxStats.builder()
+                .pendingCount(outboxEventMapper.countPending())
+                .oldestPendingAgeMillis(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()))
+                .dispatchedCount(dispatchedCount.sum())
+                .retryCount(retryCount.sum())
+                .deadCount(deadCount.sum())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${com.outbox.stats-log-millis:300000}")
+    public void logStats() {
+        try {
+            log.info("发件箱统计：{}", stats());
+        } catch (Exception e) {
+            log.warn("读取发件箱统计失败", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.swshenyun.event;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 发件箱投递统计
+ */
+@Data
+@Builder
+public class OutboxStats {
+
+    /**
+     * 待投递事件数与最早一条的等待时长，即投递延迟
+     */
+    private long pendingCount;
+    private long oldestPendingAgeMillis;
+
+    /**
+     * 本节点启动以来所有消费者都已处理的事件数，以及各消费者重试、放弃投递的事件数
+     */
+    private long dispatchedCount;
+    private long retryCount;
+    private long deadCount;
+}
@@ -0,0 +1,88 @@
+package com.swshenyun.event;
+
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.properties.PostSearchProperties;
+import com.swshenyun.service.PostSearchService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子变更后同步全文索引
+ * 索引在每个节点上各有一份，而发件箱只在持有租约的节点上投递：这里只把变更的帖子id广播到 post:search:changed，
+ * 各节点(包括本节点)收到后按id重新读取帖子的最新状态更新自己的索引，重复投递和乱序合并后结果一致。
+ * 广播失败时抛出，由发件箱重试；订阅断开期间错过的变更在该节点下次重建索引时补齐
+ */
+@Slf4j
+@Component
+public class PostSearchOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private PostSearchProperties postSearchProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        if (postSearchProperties.isBroadcast()) {
+            listenerContainer.addMessageListener(
+                    (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(RedisKeyConstant.POST_SEARCH_CHANNEL));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "postSearch";
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxEventConstant.AGGREGATE_POST.equals(aggregateType);
+    }
+
+    @Override
+    public void consume(List<OutboxEvent> events) {
+        Set<Long> ids = events.stream().map(OutboxEvent::getAggregateId).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!postSearchProperties.isBroadcast()) {
+            postSearchService.sync(ids);
+            return;
+        }
+        stringRedisTemplate.convertAndSend(RedisKeyConstant.POST_SEARCH_CHANNEL,
+                ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * @param message 逗号分隔的帖子id
+     */
+    private void apply(String message) {
+        try {
+            Set<Long> ids = Arrays.stream(message.split(","))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            postSearchService.sync(ids);
+        } catch (Exception e) {
+            log.warn("同步帖子索引失败：{}", message, e);
+        }
+    }
+}
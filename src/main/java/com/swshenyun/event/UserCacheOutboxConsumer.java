@@ -0,0 +1,56 @@
+package com.swshenyun.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.UserCache;
+import com.swshenyun.cache.UsernameBloomFilter;
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 用户变更后清除两级缓存，注册时把用户名加入布隆过滤器
+ * 一批事件合并为一次批量清除，重复清除无副作用
+ */
+@Component
+public class UserCacheOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String name() {
+        return "userCache";
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxEventConstant.AGGREGATE_USER.equals(aggregateType);
+    }
+
+    @Override
+    public void consume(List<OutboxEvent> events) throws Exception {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            ids.add(event.getAggregateId());
+            if (OutboxEventConstant.USER_REGISTERED.equals(event.getEventType()) && event.getPayload() != null) {
+                JsonNode username = objectMapper.readTree(event.getPayload()).get("username");
+                if (username != null) {
+                    usernameBloomFilter.put(username.asText());
+                }
+            }
+        }
+        userCache.invalidateAll(ids);
+    }
+}
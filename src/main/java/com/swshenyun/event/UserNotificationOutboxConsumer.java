@@ -0,0 +1,66 @@
+package com.swshenyun.event;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.swshenyun.constant.NotificationConstant;
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.constant.StatusConstant;
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 账户启用/禁用后通知在线用户，禁用时随后断开其websocket连接
+ * 按id读取当前状态，同一批中多次变更只通知最终状态
+ */
+@Component
+public class UserNotificationOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "userNotification";
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxEventConstant.AGGREGATE_USER.equals(aggregateType);
+    }
+
+    @Override
+    public void consume(List<OutboxEvent> events) {
+        Set<Long> ids = events.stream()
+                .filter(event -> OutboxEventConstant.USER_STATUS_CHANGED.equals(event.getEventType()))
+                .map(OutboxEvent::getAggregateId)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getStatus).in(User::getId, ids);
+        Map<Integer, List<Long>> byStatus = userMapper.selectList(wrapper).stream()
+                .collect(Collectors.groupingBy(User::getStatus, Collectors.mapping(User::getId, Collectors.toList())));
+        byStatus.forEach((status, userIds) -> {
+            NotificationVO message = NotificationVO.of(NotificationConstant.ACCOUNT_STATUS,
+                    NotificationConstant.ACCOUNT_STATUS, Map.of("status", status));
+            if (StatusConstant.DISABLE.equals(status)) {
+                notificationService.notifyAndDisconnect(userIds, message);
+            } else {
+                notificationService.notifyUsers(userIds, message);
+            }
+        });
+    }
+}
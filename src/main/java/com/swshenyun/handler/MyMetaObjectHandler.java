@@ -24,7 +24,7 @@ public class MyMetaObjectHandler implements MetaObjectHandler {
     @Override
     public void updateFill(MetaObject metaObject) {
         log.info("更新自动填充");
-        strictInsertFill(metaObject,"updateTime", LocalDateTime.class,LocalDateTime.now());
-        strictInsertFill(metaObject,"updateUser", Long.class,BaseContext.getCurrentId());
+        strictUpdateFill(metaObject,"updateTime", LocalDateTime.class,LocalDateTime.now());
+        strictUpdateFill(metaObject,"updateUser", Long.class,BaseContext.getCurrentId());
     }
 }
@@ -1,9 +1,14 @@
 package com.swshenyun.interceptor;
 
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.cache.VerifiedTokenCache;
 import com.swshenyun.constant.JwtClaimsConstant;
 import com.swshenyun.context.BaseContext;
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.metrics.AuthMetrics;
 import com.swshenyun.properties.JwtProperties;
-import com.swshenyun.utils.JwtUtils;
+import com.swshenyun.service.TokenRevocationService;
+import com.swshenyun.utils.JwtCodec;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,9 +26,32 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @Slf4j
 public class JwtTokenUserInterceptor implements HandlerInterceptor {
 
+    /**
+     * 校验通过的令牌信息存放在该请求属性中
+     */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = "verifiedToken";
+
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private JwtCodec jwtCodec;
+
+    /**
+     * 已校验令牌缓存，未开启时为null
+     */
+    @Autowired(required = false)
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * 校验指标，单独构造拦截器(测试、基准测试)时为null
+     */
+    @Autowired(required = false)
+    private AuthMetrics authMetrics;
+
     /**
      * 校验jwt
      *
@@ -44,18 +72,91 @@ public class JwtTokenUserInterceptor implements HandlerInterceptor {
         String token = request.getHeader(jwtProperties.getUserTokenName());
 
         //2、校验令牌
-        try {
-            log.info("jwt校验:{}", token);
-            Claims claims = JwtUtils.parseJWT(jwtProperties.getUserSecretKey(), token);
-            Long userId = Long.valueOf(claims.get(JwtClaimsConstant.USER_ID).toString());
-            log.info("当前用户的id：", userId);
-            BaseContext.setCurrentId(userId);
-            //3、通过，放行
-            return true;
-        } catch (Exception e) {
+        log.info("jwt校验:{}", token);
+        VerifiedToken verified = authenticate(token);
+        if (verified == null) {
             //4、不通过，响应401状态码
+            if (authMetrics != null) {
+                authMetrics.recordRejected();
+            }
             response.setStatus(401);
             return false;
         }
+        Long userId = verified.getUserId();
+        log.info("当前用户的id：", userId);
+        request.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, verified);
+        BaseContext.setCurrentId(userId);
+        //3、通过，放行
+        return true;
+    }
+
+    /**
+     * 校验令牌并检查是否已吊销，websocket握手等不经过拦截器的入口也使用该方法
+     *
+     * @param token
+     * @return 校验不通过或已吊销返回null
+     */
+    public VerifiedToken authenticate(String token) {
+        long start = System.nanoTime();
+        int span = TraceContext.startSpan("auth", "jwt.verify");
+        AuthMetrics.Result result;
+        VerifiedToken verified = null;
+        if (token == null || token.isEmpty()) {
+            result = AuthMetrics.Result.MISSING;
+        } else {
+            try {
+                verified = verify(token);
+                if (tokenRevocationService.isRevoked(verified)) {
+                    verified = null;
+                    result = AuthMetrics.Result.REVOKED;
+                } else {
+                    result = AuthMetrics.Result.OK;
+                }
+            } catch (Exception e) {
+                result = AuthMetrics.Result.INVALID;
+            }
+        }
+        if (authMetrics != null) {
+            authMetrics.recordVerify(result, System.nanoTime() - start);
+        }
+        TraceContext.endSpan(span, result.name().toLowerCase());
+        return verified;
+    }
+
+    /**
+     * 请求结束后清除上下文，避免复用线程时用户id泄漏给下一个请求
+     *
+     * @param request
+     * @param response
+     * @param handler
+     * @param ex
+     */
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        BaseContext.removeCurrentId();
+    }
+
+    /**
+     * 校验令牌签名和有效期，开启缓存时先查已校验令牌缓存
+     *
+     * @param token
+     * @return
+     */
+    private VerifiedToken verify(String token) {
+        if (verifiedTokenCache != null) {
+            VerifiedToken cached = verifiedTokenCache.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Claims claims = jwtCodec.parseJWT(token);
+        VerifiedToken verified = new VerifiedToken(
+                Long.valueOf(claims.get(JwtClaimsConstant.USER_ID).toString()),
+                claims.getId(),
+                claims.getIssuedAt() == null ? 0L : claims.getIssuedAt().getTime(),
+                claims.getExpiration() == null ? 0L : claims.getExpiration().getTime());
+        if (verifiedTokenCache != null) {
+            verifiedTokenCache.put(token, verified);
+        }
+        return verified;
     }
-}
\ No newline at end of file
+}
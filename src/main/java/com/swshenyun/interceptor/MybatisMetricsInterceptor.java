@@ -0,0 +1,91 @@
+package com.swshenyun.interceptor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mybatis插件，记录每条语句的执行耗时和行数
+ * mybatis.statement：执行耗时(含结果映射)；mybatis.statement.rows：查询返回或更新影响的行数
+ * 标签为 mapper简单类名.方法名 和语句类型，取值随mapper方法数量有界；流式查询的行数不记录
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class MybatisMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public MybatisMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - start;
+
+        StatementHandler handler = PluginUtils.realTarget(invocation.getTarget());
+        MappedStatement mappedStatement = PluginUtils.mpStatementHandler(handler).mappedStatement();
+        Meters statementMeters = meters.computeIfAbsent(mappedStatement.getId(), id -> new Meters(mappedStatement));
+        statementMeters.timer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (result instanceof List) {
+            //带ResultHandler的流式查询返回空列表，行数没有意义
+            if (invocation.getArgs().length < 2 || invocation.getArgs()[1] == null) {
+                statementMeters.rows.record(((List<?>) result).size());
+            }
+        } else if (result instanceof Integer) {
+            statementMeters.rows.record((Integer) result);
+        }
+        return result;
+    }
+
+    /**
+     * com.swshenyun.mapper.UserMapper.selectList -> UserMapper.selectList
+     */
+    public static String statementName(String id) {
+        int method = id.lastIndexOf('.');
+        int mapper = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(mapper + 1);
+    }
+
+    private class Meters {
+
+        private final Timer timer;
+
+        private final DistributionSummary rows;
+
+        private Meters(MappedStatement mappedStatement) {
+            String statement = statementName(mappedStatement.getId());
+            String type = mappedStatement.getSqlCommandType().name().toLowerCase();
+            timer = Timer.builder("mybatis.statement")
+                    .description("sql语句执行耗时")
+                    .tag("statement", statement)
+                    .tag("type", type)
+                    .register(meterRegistry);
+            rows = DistributionSummary.builder("mybatis.statement.rows")
+                    .description("sql语句返回或影响的行数")
+                    .tag("statement", statement)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+}
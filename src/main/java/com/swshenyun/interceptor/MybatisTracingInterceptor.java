@@ -0,0 +1,40 @@
+package com.swshenyun.interceptor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.trace.Trace;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+
+/**
+ * mybatis插件，被跟踪的请求中每条语句记录一个sql span，名称为 mapper简单类名.方法名，附带带?的sql
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class MybatisTracingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Trace trace = TraceContext.getCurrentTrace();
+        if (trace == null) {
+            return invocation.proceed();
+        }
+        StatementHandler handler = PluginUtils.realTarget(invocation.getTarget());
+        MappedStatement mappedStatement = PluginUtils.mpStatementHandler(handler).mappedStatement();
+        int span = trace.start("sql", MybatisMetricsInterceptor.statementName(mappedStatement.getId()));
+        try {
+            return invocation.proceed();
+        } finally {
+            trace.end(span, handler.getBoundSql().getSql());
+        }
+    }
+}
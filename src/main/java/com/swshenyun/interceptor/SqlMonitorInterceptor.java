@@ -0,0 +1,43 @@
+package com.swshenyun.interceptor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.swshenyun.metrics.SqlMonitor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+
+/**
+ * mybatis插件，把每次语句执行交给SqlMonitor做慢sql和N+1检测
+ * 执行失败(如超时)的语句同样计时
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SqlMonitorInterceptor implements Interceptor {
+
+    private final SqlMonitor sqlMonitor;
+
+    public SqlMonitorInterceptor(SqlMonitor sqlMonitor) {
+        this.sqlMonitor = sqlMonitor;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            StatementHandler handler = PluginUtils.realTarget(invocation.getTarget());
+            MappedStatement mappedStatement = PluginUtils.mpStatementHandler(handler).mappedStatement();
+            sqlMonitor.record(mappedStatement, handler.getBoundSql(), elapsed);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.swshenyun.interceptor;
+
+import com.swshenyun.metrics.SqlMonitor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 把请求内执行的sql归到接口上，接口为 请求方法+路径模板，如 GET /user/current
+ * 需要注册在其他拦截器之前，这样被后面拦截器拒绝的请求也会结束统计
+ */
+@Component
+public class SqlMonitorWebInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private SqlMonitor sqlMonitor;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlMonitor.beginRequest(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        sqlMonitor.endRequest();
+    }
+}
@@ -0,0 +1,109 @@
+package com.swshenyun.interceptor;
+
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.properties.TracingProperties;
+import com.swshenyun.trace.Trace;
+import com.swshenyun.trace.TraceExporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 请求级trace：开启Server-Timing或被采样时创建trace和根span，结束时写Server-Timing头并导出采样的trace
+ * 上游带合法的W3C traceparent头时沿用其trace id和父span，是否导出仍按本地采样率决定；
+ * 格式不合法或id全为0的头按没有处理，重新生成trace id
+ * 需要注册在其他拦截器之前，令牌校验也计入trace
+ */
+@Component
+public class TracingWebInterceptor implements HandlerInterceptor {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String TRACEPARENT_HEADER = "traceparent";
+
+    /**
+     * traceparent：<2位版本>-<32位trace id>-<16位父span id>-<2位flags>，均为小写十六进制；高版本可在后面追加字段
+     */
+    private static final Pattern TRACEPARENT = Pattern.compile("([0-9a-f]{2})-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}(-.*)?");
+
+    private static final String INVALID_VERSION = "ff";
+
+    private static final String VERSION_00 = "00";
+
+    @Autowired
+    private TracingProperties tracingProperties;
+
+    @Autowired
+    private TraceExporter traceExporter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        double sampleRate = tracingProperties.getSampleRate();
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled && !tracingProperties.isServerTiming()) {
+            return true;
+        }
+
+        String traceId = null;
+        String parentId = null;
+        String traceparent = request.getHeader(TRACEPARENT_HEADER);
+        Matcher matcher = traceparent == null ? null : TRACEPARENT.matcher(traceparent);
+        if (matcher != null && matcher.matches() && isValidTraceparent(matcher)) {
+            traceId = matcher.group(2);
+            parentId = matcher.group(3);
+        }
+        Trace trace = new Trace(traceId, parentId, sampled, tracingProperties.getMaxSpans());
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        trace.start("http", request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        TraceContext.setCurrentTrace(trace);
+        return true;
+    }
+
+    /**
+     * 版本ff无效，版本00不允许追加字段，trace id和父span id不能全为0
+     */
+    private static boolean isValidTraceparent(Matcher matcher) {
+        String version = matcher.group(1);
+        if (INVALID_VERSION.equals(version) || (VERSION_00.equals(version) && matcher.group(4) != null)) {
+            return false;
+        }
+        return !isAllZero(matcher.group(2)) && !isAllZero(matcher.group(3));
+    }
+
+    private static boolean isAllZero(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Trace trace = TraceContext.getCurrentTrace();
+        if (trace == null) {
+            return;
+        }
+        TraceContext.removeCurrentTrace();
+        trace.endAll(String.valueOf(response.getStatus()));
+        //有响应体时已在写出前由ServerTimingAdvice设置，这里处理401等没有响应体的情况
+        if (tracingProperties.isServerTiming() && !trace.isServerTimingWritten() && !response.isCommitted()) {
+            response.addHeader(SERVER_TIMING_HEADER, trace.serverTiming());
+        }
+        if (trace.isSampled()) {
+            traceExporter.export(trace);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.swshenyun.mapper;
+
+import com.swshenyun.pojo.entity.OutboxConsumerOffset;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+* @description 针对表【outbox_consumer_offset(发件箱消费进度)】的数据库操作Mapper
+* @Entity com.swshenyun.pojo.entity.OutboxConsumerOffset
+*/
+@Mapper
+public interface OutboxConsumerOffsetMapper {
+
+    List<OutboxConsumerOffset> listAll();
+
+    /**
+     * 新消费者从第一条待投递事件开始，已存在时忽略
+     * @param consumer
+     * @return
+     */
+    int insertIgnore(@Param("consumer") String consumer);
+
+    /**
+     * 推进进度、更新未提交的事件并清除重试状态
+     * @param consumer
+     * @param lastEventId
+     * @param gaps
+     * @return
+     */
+    int advance(@Param("consumer") String consumer, @Param("lastEventId") long lastEventId, @Param("gaps") String gaps);
+
+    /**
+     * 记录重试次数并推迟到 nextRetryTime，进度不变
+     * @param consumer
+     * @param retryCount
+     * @param nextRetryTime
+     * @return
+     */
+    int scheduleRetry(@Param("consumer") String consumer, @Param("retryCount") int retryCount,
+                      @Param("nextRetryTime") LocalDateTime nextRetryTime);
+}
@@ -0,0 +1,63 @@
+package com.swshenyun.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+* @description 针对表【outbox_event(事务发件箱)】的数据库操作Mapper
+* @Entity com.swshenyun.pojo.entity.OutboxEvent
+*/
+@Mapper
+public interface OutboxEventMapper extends BaseMapper<OutboxEvent> {
+
+    /**
+     * 一条语句写入多个事件
+     * @param events
+     * @return
+     */
+    int insertBatch(@Param("list") List<OutboxEvent> events);
+
+    /**
+     * 按id顺序取出 afterId 之后的事件，不区分状态
+     * @param afterId
+     * @param limit
+     * @return
+     */
+    List<OutboxEvent> listAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 所有消费者都已处理过的待投递事件标记为已投递
+     * @param maxId 各消费者进度的最小值
+     * @return
+     */
+    int markDoneUpTo(@Param("maxId") long maxId);
+
+    /**
+     * 有消费者放弃投递的事件标记为投递失败，保留以便排查，不会被清理
+     * @param ids
+     * @return
+     */
+    int markDead(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 删除 before 之前创建的已投递事件，每次最多 limit 条
+     * @param before
+     * @param limit
+     * @return
+     */
+    int deleteDone(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    long countPending();
+
+    /**
+     * 最早一条待投递事件的创建时间
+     * @return 没有待投递事件返回null
+     */
+    LocalDateTime oldestPendingTime();
+}
@@ -0,0 +1,27 @@
+package com.swshenyun.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+* @description 针对表【post_counter_flush(帖子计数写库批次)】的数据库操作Mapper
+*/
+@Mapper
+public interface PostCounterFlushMapper {
+
+    /**
+     * 记录批次，已存在时忽略
+     * @param batchId
+     * @return 1新记录，0批次已写库
+     */
+    int insertIgnore(@Param("batchId") String batchId);
+
+    /**
+     * 删除早于指定时间的批次记录
+     * @param before
+     * @return
+     */
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
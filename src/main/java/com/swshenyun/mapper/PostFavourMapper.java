@@ -0,0 +1,38 @@
+package com.swshenyun.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swshenyun.cache.PostCounterBatch;
+import com.swshenyun.pojo.entity.PostFavour;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+* @description 针对表【post_favour(帖子收藏)】的数据库操作Mapper
+* @Entity com.swshenyun.pojo.entity.PostFavour
+*/
+@Mapper
+public interface PostFavourMapper extends BaseMapper<PostFavour> {
+
+    /**
+     * 查询帖子的全部收藏用户id
+     * @param postId
+     * @return
+     */
+    List<Long> listUserIds(@Param("postId") Long postId);
+
+    /**
+     * 批量写入收藏记录，已存在的忽略
+     * @param members
+     * @return
+     */
+    int insertIgnoreBatch(@Param("list") List<PostCounterBatch.Member> members);
+
+    /**
+     * 批量删除收藏记录
+     * @param members
+     * @return
+     */
+    int deleteBatch(@Param("list") List<PostCounterBatch.Member> members);
+}
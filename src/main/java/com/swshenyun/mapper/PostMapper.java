@@ -0,0 +1,24 @@
+package com.swshenyun.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swshenyun.pojo.entity.Post;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
+
+/**
+* @description 针对表【post(帖子)】的数据库操作Mapper
+* @Entity com.swshenyun.pojo.entity.Post
+*/
+@Mapper
+public interface PostMapper extends BaseMapper<Post> {
+
+    /**
+     * 一条语句累加一批帖子的计数
+     * @param column thumb_num / favour_num，只能传常量
+     * @param deltas 帖子id -> 增量
+     * @return
+     */
+    int incrementCounts(@Param("column") String column, @Param("deltas") Map<Long, Long> deltas);
+}
@@ -0,0 +1,38 @@
+package com.swshenyun.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swshenyun.cache.PostCounterBatch;
+import com.swshenyun.pojo.entity.PostThumb;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+* @description 针对表【post_thumb(帖子点赞)】的数据库操作Mapper
+* @Entity com.swshenyun.pojo.entity.PostThumb
+*/
+@Mapper
+public interface PostThumbMapper extends BaseMapper<PostThumb> {
+
+    /**
+     * 查询帖子的全部点赞用户id
+     * @param postId
+     * @return
+     */
+    List<Long> listUserIds(@Param("postId") Long postId);
+
+    /**
+     * 批量写入点赞记录，已存在的忽略
+     * @param members
+     * @return
+     */
+    int insertIgnoreBatch(@Param("list") List<PostCounterBatch.Member> members);
+
+    /**
+     * 批量删除点赞记录
+     * @param members
+     * @return
+     */
+    int deleteBatch(@Param("list") List<PostCounterBatch.Member> members);
+}
@@ -1,8 +1,14 @@
 package com.swshenyun.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swshenyun.pojo.dto.UserActivityDTO;
+import com.swshenyun.pojo.dto.UserQueryDTO;
 import com.swshenyun.pojo.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 /**
 * @author 神殒魔灭
@@ -13,6 +19,41 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 按id游标查询脱敏用户，只返回id大于lastId的记录
+     * @param query
+     * @param limit
+     * @return
+     */
+    List<User> listSafeUsers(@Param("query") UserQueryDTO query, @Param("limit") int limit);
+
+    /**
+     * 按id游标查询符合条件的用户id
+     * @param query
+     * @param limit
+     * @return
+     */
+    List<Long> listIds(@Param("query") UserQueryDTO query, @Param("limit") int limit);
+
+    /**
+     * 批量写入合并后的登录活动
+     * @param activities
+     * @return
+     */
+    int updateLoginActivity(@Param("list") List<UserActivityDTO> activities);
+
+    /**
+     * 流式读取全部用户名(包括已逻辑删除的，唯一索引同样覆盖它们)
+     * @param handler
+     */
+    void scanUsernames(ResultHandler<String> handler);
+
+    /**
+     * 按用户名计数(包括已逻辑删除的)，与唯一索引的判定一致
+     * @param username
+     * @return
+     */
+    long countByUsername(@Param("username") String username);
 }
 
 
@@ -0,0 +1,53 @@
+package com.swshenyun.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌校验指标
+ * auth.token.verify：校验耗时，按结果区分；auth.token.rejected：拦截器返回401的请求数
+ * 标签取值固定，计时器在启动时创建，请求路径上不查找注册表
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Result {
+        OK, MISSING, INVALID, REVOKED
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer[] verifyTimers;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        Result[] results = Result.values();
+        verifyTimers = new Timer[results.length];
+        for (Result result : results) {
+            verifyTimers[result.ordinal()] = Timer.builder("auth.token.verify")
+                    .description("jwt令牌校验耗时")
+                    .tag("result", result.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        rejected = Counter.builder("auth.token.rejected")
+                .description("令牌校验不通过返回401的请求数")
+                .register(meterRegistry);
+    }
+
+    public void recordVerify(Result result, long nanos) {
+        verifyTimers[result.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+}
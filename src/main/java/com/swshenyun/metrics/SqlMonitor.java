@@ -0,0 +1,491 @@
+package com.swshenyun.metrics;
+
+import com.swshenyun.interceptor.MybatisMetricsInterceptor;
+import com.swshenyun.pojo.vo.SqlRepeatVO;
+import com.swshenyun.pojo.vo.SqlSampleVO;
+import com.swshenyun.properties.SqlMonitorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 慢sql与N+1检测
+ * 慢sql：超过阈值的语句记录sql(可选记录允许名单中的绑定参数)，按采样率在独立连接上执行explain，explain显示全表扫描时告警
+ * N+1：请求开始时绑定接口，请求内按带?的sql计数，结束时同一条sql执行次数达到阈值的按接口汇总
+ * 指标 sql.slow、sql.full.scan、sql.repeated；样本和汇总通过 /actuator/sql 查看
+ */
+@Slf4j
+@Component
+public class SqlMonitor {
+
+    private static final String MASK = "******";
+
+    /**
+     * ?前面的sql片段以 列名 比较符 结尾，取出列名
+     */
+    private static final Pattern COLUMN_BEFORE_PLACEHOLDER = Pattern.compile(
+            "([A-Za-z_][A-Za-z0-9_]*)`?\\s*(=|<>|!=|<=|>=|<|>|\\s(?i:like|in\\s*\\(|between))\\s*$");
+
+    /**
+     * in列表中后续的?前面只有逗号，沿用前一个参数的列名
+     */
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("^\\s*,\\s*$");
+
+    private static final ThreadLocal<RequestSqlStats> requestStats = new ThreadLocal<>();
+
+    @Autowired
+    private SqlMonitorProperties sqlMonitorProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 最近的慢sql和全表扫描样本，读写都在this上同步
+     */
+    private final Deque<SqlSampleVO> samples = new ArrayDeque<>();
+
+    /**
+     * 接口+sql -> 重复执行汇总
+     */
+    private final Map<String, SqlRepeatVO> repeats = new ConcurrentHashMap<>();
+
+    /**
+     * 语句id -> 上次explain的时间
+     */
+    private final Map<String, Long> lastExplain = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor explainExecutor;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sql-explain-");
+        threadFactory.setDaemon(true);
+        //单线程、短队列，排不上的explain直接丢弃，最多占用一个数据库连接
+        explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 在数据源关闭之前停止explain
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * 请求开始，之后本线程执行的sql计入该接口
+     *
+     * @param endpoint 请求方法+路径模板
+     */
+    public void beginRequest(String endpoint) {
+        requestStats.set(new RequestSqlStats(endpoint));
+    }
+
+    /**
+     * 请求结束，汇总执行次数达到阈值的sql
+     */
+    public void endRequest() {
+        RequestSqlStats stats = requestStats.get();
+        if (stats == null) {
+            return;
+        }
+        requestStats.remove();
+        for (Shape shape : stats.shapes.values()) {
+            if (shape.count >= sqlMonitorProperties.getRepeatThreshold()) {
+                recordRepeat(stats.endpoint, shape);
+            }
+        }
+    }
+
+    /**
+     * 记录一次语句执行，由mybatis插件调用
+     *
+     * @param mappedStatement
+     * @param boundSql
+     * @param elapsedNanos
+     */
+    public void record(MappedStatement mappedStatement, BoundSql boundSql, long elapsedNanos) {
+        RequestSqlStats stats = requestStats.get();
+        if (stats != null) {
+            stats.count(mappedStatement.getId(), boundSql.getSql(), sqlMonitorProperties.getMaxShapesPerRequest());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        boolean slow = elapsedMillis >= sqlMonitorProperties.getSlowMillis();
+        boolean explain = sampleExplain(mappedStatement, slow);
+        if (!slow && !explain) {
+            return;
+        }
+
+        String statement = MybatisMetricsInterceptor.statementName(mappedStatement.getId());
+        List<Object> values = parameterValues(mappedStatement.getConfiguration(), boundSql);
+        SqlSampleVO sample = new SqlSampleVO();
+        sample.setStatement(statement);
+        sample.setSql(boundSql.getSql());
+        if (sqlMonitorProperties.isCaptureParameters()) {
+            sample.setParameters(renderParameters(boundSql, values));
+        }
+        sample.setElapsedMillis(elapsedMillis);
+        sample.setSlow(slow);
+        sample.setEndpoint(stats == null ? null : stats.endpoint);
+        sample.setTime(LocalDateTime.now());
+
+        if (slow) {
+            addSample(sample);
+            Counter.builder("sql.slow")
+                    .description("超过阈值的sql执行次数")
+                    .tag("statement", statement)
+                    .register(meterRegistry)
+                    .increment();
+            //参数只保留在样本中，不写入日志
+            log.warn("慢sql：{}，耗时{}ms，接口：{}，sql：{}", statement, elapsedMillis, sample.getEndpoint(), sample.getSql());
+        }
+        if (explain) {
+            explainExecutor.execute(() -> explain(mappedStatement, boundSql, values, sample));
+        }
+    }
+
+    /**
+     * 最近的慢sql和全表扫描样本，新的在前
+     *
+     * @return
+     */
+    public synchronized List<SqlSampleVO> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    /**
+     * 各接口重复执行的sql，按出现的请求数倒序
+     *
+     * @return
+     */
+    public List<SqlRepeatVO> getRepeats() {
+        List<SqlRepeatVO> result = new ArrayList<>();
+        for (SqlRepeatVO repeat : repeats.values()) {
+            synchronized (repeat) {
+                SqlRepeatVO copy = new SqlRepeatVO();
+                copy.setEndpoint(repeat.getEndpoint());
+                copy.setStatement(repeat.getStatement());
+                copy.setSql(repeat.getSql());
+                copy.setRequests(repeat.getRequests());
+                copy.setMaxRepeats(repeat.getMaxRepeats());
+                copy.setLastRepeats(repeat.getLastRepeats());
+                copy.setLastTime(repeat.getLastTime());
+                result.add(copy);
+            }
+        }
+        result.sort(Comparator.comparingLong(SqlRepeatVO::getRequests).reversed());
+        return result;
+    }
+
+    private void recordRepeat(String endpoint, Shape shape) {
+        String statement = MybatisMetricsInterceptor.statementName(shape.statementId);
+        log.warn("疑似N+1：接口{}一次请求内执行{} {}次，sql：{}", endpoint, statement, shape.count, shape.sql);
+        Counter.builder("sql.repeated")
+                .description("同一条sql在一次请求内重复执行达到阈值的请求数")
+                .tag("endpoint", endpoint)
+                .tag("statement", statement)
+                .register(meterRegistry)
+                .increment();
+
+        String key = endpoint + '\n' + shape.sql;
+        SqlRepeatVO repeat = repeats.get(key);
+        if (repeat == null) {
+            if (repeats.size() >= sqlMonitorProperties.getMaxRepeatEntries()) {
+                return;
+            }
+            repeat = repeats.computeIfAbsent(key, k -> {
+                SqlRepeatVO vo = new SqlRepeatVO();
+                vo.setEndpoint(endpoint);
+                vo.setStatement(statement);
+                vo.setSql(shape.sql);
+                return vo;
+            });
+        }
+        synchronized (repeat) {
+            repeat.setRequests(repeat.getRequests() + 1);
+            repeat.setMaxRepeats(Math.max(repeat.getMaxRepeats(), shape.count));
+            repeat.setLastRepeats(shape.count);
+            repeat.setLastTime(LocalDateTime.now());
+        }
+    }
+
+    private synchronized void addSample(SqlSampleVO sample) {
+        samples.addFirst(sample);
+        while (samples.size() > sqlMonitorProperties.getSampleSize()) {
+            samples.removeLast();
+        }
+    }
+
+    /**
+     * 是否对本次执行做explain：按采样率，且同一条语句在间隔内只做一次
+     */
+    private boolean sampleExplain(MappedStatement mappedStatement, boolean slow) {
+        if (!sqlMonitorProperties.isExplainEnabled() || (!slow && sqlMonitorProperties.isExplainSlowOnly())) {
+            return false;
+        }
+        SqlCommandType type = mappedStatement.getSqlCommandType();
+        if (type != SqlCommandType.SELECT && type != SqlCommandType.UPDATE && type != SqlCommandType.DELETE) {
+            return false;
+        }
+        String id = mappedStatement.getId();
+        long now = System.currentTimeMillis();
+        Long last = lastExplain.get(id);
+        if (last != null && now - last < sqlMonitorProperties.getExplainIntervalMillis()) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= sqlMonitorProperties.getExplainSampleRate()) {
+            return false;
+        }
+        //并发时只有一个线程抢到
+        return last == null ? lastExplain.putIfAbsent(id, now) == null : lastExplain.replace(id, last, now);
+    }
+
+    /**
+     * 在独立连接上执行explain，参数用语句自己的TypeHandler绑定
+     */
+    private void explain(MappedStatement mappedStatement, BoundSql boundSql, List<Object> values, SqlSampleVO sample) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            ps.setQueryTimeout(5);
+            List<ParameterMapping> mappings = inParameters(boundSql);
+            for (int i = 0; i < mappings.size(); i++) {
+                ParameterMapping mapping = mappings.get(i);
+                JdbcType jdbcType = mapping.getJdbcType() != null ? mapping.getJdbcType() : configuration.getJdbcTypeForNull();
+                @SuppressWarnings("unchecked")
+                TypeHandler<Object> typeHandler = (TypeHandler<Object>) mapping.getTypeHandler();
+                typeHandler.setParameter(ps, i + 1, values.get(i), jdbcType);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        row.put(meta.getColumnLabel(column), rs.getObject(column));
+                    }
+                    rows.add(row);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("explain失败：{}，{}", sample.getStatement(), e.getMessage());
+            return;
+        }
+
+        boolean fullScan = rows.stream().anyMatch(SqlMonitor::isFullScan);
+        synchronized (this) {
+            sample.setExplain(rows);
+            sample.setFullScan(fullScan);
+        }
+        if (fullScan) {
+            if (!sample.isSlow()) {
+                addSample(sample);
+            }
+            Counter.builder("sql.full.scan")
+                    .description("explain显示全表扫描的语句次数")
+                    .tag("statement", sample.getStatement())
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("全表扫描：{}，接口：{}，sql：{}，explain：{}", sample.getStatement(), sample.getEndpoint(), sample.getSql(), rows);
+        }
+    }
+
+    /**
+     * mysql：type为ALL；h2：计划中出现tableScan
+     */
+    private static boolean isFullScan(Map<String, Object> row) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            if ("type".equalsIgnoreCase(entry.getKey()) && "ALL".equalsIgnoreCase(value.toString())) {
+                return true;
+            }
+            if ("plan".equalsIgnoreCase(entry.getKey()) && value.toString().contains("tableScan")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ParameterMapping> inParameters(BoundSql boundSql) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            if (mapping.getMode() != ParameterMode.OUT) {
+                mappings.add(mapping);
+            }
+        }
+        return mappings;
+    }
+
+    /**
+     * 按?顺序取参数值，取值方式与DefaultParameterHandler一致
+     */
+    private static List<Object> parameterValues(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject metaObject = null;
+        List<Object> values = new ArrayList<>();
+        for (ParameterMapping mapping : inParameters(boundSql)) {
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(property);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 参数转成字符串并截断；属性名或?前面的列名不在允许名单中的参数一律打码
+     * 条件构造器的属性名是 ew.paramNameValuePairs.MPGENVALn，只能从sql片段取列名
+     */
+    private List<String> renderParameters(BoundSql boundSql, List<Object> values) {
+        Set<String> allowed = sqlMonitorProperties.getParameterAllowList().stream()
+                .map(SqlMonitor::normalizeName)
+                .collect(Collectors.toSet());
+        List<ParameterMapping> mappings = inParameters(boundSql);
+        String sql = boundSql.getSql();
+        List<String> rendered = new ArrayList<>(values.size());
+        int from = 0;
+        String column = null;
+        for (int i = 0; i < values.size(); i++) {
+            int placeholder = sql.indexOf('?', from);
+            String fragment = placeholder < 0 ? "" : sql.substring(from, placeholder);
+            from = placeholder + 1;
+            column = columnBefore(fragment, column);
+
+            Object value = values.get(i);
+            if (!allowed.contains(normalizeName(propertyName(mappings.get(i).getProperty())))
+                    && (column == null || !allowed.contains(normalizeName(column)))) {
+                rendered.add(MASK);
+            } else if (value == null) {
+                rendered.add(null);
+            } else {
+                String text = value.toString();
+                int max = sqlMonitorProperties.getMaxParameterLength();
+                rendered.add(text.length() > max ? text.substring(0, max) + "..." : text);
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * @param fragment 上一个?与本次?之间的sql片段
+     * @param previous 上一个参数的列名
+     * @return 本次参数对应的列名，无法判断时返回null
+     */
+    private static String columnBefore(String fragment, String previous) {
+        Matcher matcher = COLUMN_BEFORE_PLACEHOLDER.matcher(fragment);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return LIST_SEPARATOR.matcher(fragment).matches() ? previous : null;
+    }
+
+    /**
+     * 属性路径的最后一段，如 et.userId -> userId
+     */
+    private static String propertyName(String property) {
+        return property == null ? "" : property.substring(property.lastIndexOf('.') + 1);
+    }
+
+    private static String normalizeName(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一次请求内的sql计数，只在请求线程上访问
+     */
+    private static class RequestSqlStats {
+
+        private final String endpoint;
+
+        private final Map<String, Shape> shapes = new HashMap<>();
+
+        private RequestSqlStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private void count(String statementId, String sql, int maxShapes) {
+            Shape shape = shapes.get(sql);
+            if (shape == null) {
+                if (shapes.size() >= maxShapes) {
+                    return;
+                }
+                shape = new Shape(statementId, sql);
+                shapes.put(sql, shape);
+            }
+            shape.count++;
+        }
+    }
+
+    private static class Shape {
+
+        private final String statementId;
+
+        private final String sql;
+
+        private int count;
+
+        private Shape(String statementId, String sql) {
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+    }
+}
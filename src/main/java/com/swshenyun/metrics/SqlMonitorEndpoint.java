@@ -0,0 +1,29 @@
+package com.swshenyun.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/sql：最近的慢sql、全表扫描样本和各接口疑似N+1的sql
+ * 默认不暴露，需加入暴露列表并使用独立的管理端口
+ */
+@Component
+@Endpoint(id = "sql")
+public class SqlMonitorEndpoint {
+
+    @Autowired
+    private SqlMonitor sqlMonitor;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("samples", sqlMonitor.getSamples());
+        report.put("repeats", sqlMonitor.getRepeats());
+        return report;
+    }
+}
@@ -0,0 +1,35 @@
+package com.swshenyun.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热度变更，节点间通过 post:hot:event 频道广播
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotPostEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件时间(毫秒)，各节点按同一时间计算分数
+     */
+    private long time;
+
+    /**
+     * 帖子id -> 热度增量
+     */
+    private Map<Long, Double> weights;
+
+    /**
+     * 移出排行的帖子id
+     */
+    private List<Long> removed;
+}
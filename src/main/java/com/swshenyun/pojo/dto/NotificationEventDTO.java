@@ -0,0 +1,34 @@
+package com.swshenyun.pojo.dto;
+
+import com.swshenyun.pojo.vo.NotificationVO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 通知，节点间通过 ws:notification 频道广播，各节点只投递给本节点上的连接
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> userIds;
+
+    private NotificationVO message;
+
+    /**
+     * 合并用的key，NotificationVO中不序列化给客户端
+     */
+    private String coalesceKey;
+
+    /**
+     * 发送后断开这些用户的连接(账户禁用)
+     */
+    private boolean disconnect;
+}
@@ -0,0 +1,20 @@
+package com.swshenyun.pojo.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+@ApiModel(description = "热门帖子查询条件")
+public class PostHotQueryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("页码，从1开始")
+    private Integer pageNum;
+
+    @ApiModelProperty("每页条数")
+    private Integer pageSize;
+}
@@ -0,0 +1,23 @@
+package com.swshenyun.pojo.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+@ApiModel(description = "查询帖子列表的条件，按id倒序翻页")
+public class PostQueryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("游标，上一页最后一条记录的id，第一页不传")
+    private Long lastId;
+
+    @ApiModelProperty("每页条数")
+    private Integer pageSize;
+
+    @ApiModelProperty("创建用户id")
+    private Long userId;
+}
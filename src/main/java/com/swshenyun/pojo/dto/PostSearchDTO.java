@@ -0,0 +1,30 @@
+package com.swshenyun.pojo.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@ApiModel(description = "帖子全文检索条件")
+public class PostSearchDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("关键词，匹配标题或内容；为空时按创建时间倒序")
+    private String keyword;
+
+    @ApiModelProperty("标签，需全部包含")
+    private List<String> tags;
+
+    @ApiModelProperty("创建用户id")
+    private Long userId;
+
+    @ApiModelProperty("页码，从1开始")
+    private Integer pageNum;
+
+    @ApiModelProperty("每页条数")
+    private Integer pageSize;
+}
@@ -0,0 +1,48 @@
+package com.swshenyun.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 某个用户在一个刷新周期内合并后的登录活动
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityDTO {
+
+    private Long userId;
+
+    /**
+     * 周期内最后一次登录时间
+     */
+    private LocalDateTime lastLoginTime;
+
+    /**
+     * 周期内最后一次登录ip
+     */
+    private String lastLoginIp;
+
+    /**
+     * 周期内登录次数，写库时累加到login_count
+     */
+    private int loginCount;
+
+    /**
+     * 合并同一用户较新的一条活动
+     *
+     * @param other
+     * @return
+     */
+    public UserActivityDTO merge(UserActivityDTO other) {
+        UserActivityDTO merged = new UserActivityDTO(userId, lastLoginTime, lastLoginIp, loginCount + other.loginCount);
+        if (other.lastLoginTime != null && (lastLoginTime == null || !other.lastLoginTime.isBefore(lastLoginTime))) {
+            merged.setLastLoginTime(other.lastLoginTime);
+            merged.setLastLoginIp(other.lastLoginIp);
+        }
+        return merged;
+    }
+}
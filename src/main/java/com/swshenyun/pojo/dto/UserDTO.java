@@ -1,7 +1,9 @@
 package com.swshenyun.pojo.dto;
 
 import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
 
+@Data
 public class UserDTO {
     /**
      * 主键
@@ -25,14 +27,14 @@ public class UserDTO {
     private Integer sex;
 
     /**
-     * 用户头像
+     * 用户简介
      */
-    private String avatar;
+    private String profile;
 
     /**
-     * 用户简介
+     * 读取时的版本号，修改时用于检测并发冲突
      */
-    private String profile;
+    private Integer version;
 
     @TableField(exist = false)
     private static final long serialVersionUID = 1L;
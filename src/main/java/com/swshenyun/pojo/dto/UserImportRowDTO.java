@@ -0,0 +1,25 @@
+package com.swshenyun.pojo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量导入的一行数据
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRowDTO {
+
+    /**
+     * 行号，从1开始
+     */
+    private long rowNum;
+
+    private String username;
+
+    private String password;
+}
@@ -0,0 +1,34 @@
+package com.swshenyun.pojo.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@ApiModel(description = "管理员查询用户列表的条件")
+public class UserQueryDTO implements Serializable {
+
+    @ApiModelProperty("游标，上一页最后一条记录的id，第一页不传")
+    private Long lastId;
+
+    @ApiModelProperty("每页条数")
+    private Integer pageSize;
+
+    @ApiModelProperty("用户状态：0-禁用 1-正常")
+    private Integer status;
+
+    @ApiModelProperty("性别 0 女 1 男")
+    private Integer sex;
+
+    @ApiModelProperty("创建时间起")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTimeBegin;
+
+    @ApiModelProperty("创建时间止")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTimeEnd;
+}
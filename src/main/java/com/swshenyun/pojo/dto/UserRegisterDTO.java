@@ -8,6 +8,8 @@ import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
 
+import static com.swshenyun.constant.ValidationConstant.*;
+
 @Data
 public class UserRegisterDTO implements Serializable {
 
@@ -17,28 +19,28 @@ public class UserRegisterDTO implements Serializable {
      * 用户名
      */
     @ApiModelProperty("用户名")
-    @NotBlank(message = "用户名不能为空")
-    @Size(min = 4, max = 20, message = "用户名长度必须在4到20个字符之间")
-    @Pattern(regexp = "^[a-zA-Z0-9_]*$", message = "用户名只能包含字母、数字和下划线")
+    @NotBlank(message = USERNAME_BLANK)
+    @Size(min = USERNAME_MIN_LENGTH, max = USERNAME_MAX_LENGTH, message = USERNAME_SIZE)
+    @Pattern(regexp = USERNAME_PATTERN, message = USERNAME_CHARS)
     private String username;
 
     /**
      * 用户密码
      */
     @ApiModelProperty("密码")
-    @NotBlank(message = "密码不能为空")
-    @Size(min = 8, message = "密码长度不能少于8位")
-    @Pattern(regexp = ".*[a-zA-Z].*", message = "密码必须包含大小写字母")
-    @Pattern(regexp = ".*\\d.*", message = "密码必须包含数字")
+    @NotBlank(message = PASSWORD_BLANK)
+    @Size(min = PASSWORD_MIN_LENGTH, message = PASSWORD_SIZE)
+    @Pattern(regexp = PASSWORD_LETTER_PATTERN, message = PASSWORD_LETTER)
+    @Pattern(regexp = PASSWORD_DIGIT_PATTERN, message = PASSWORD_DIGIT)
     private String password;
 
     /**
      * 校验密码
      */
     @ApiModelProperty("密码")
-    @NotBlank(message = "密码不能为空")
-    @Size(min = 8, message = "密码长度不能少于8位")
-    @Pattern(regexp = ".*[a-zA-Z].*", message = "密码必须包含大小写字母")
-    @Pattern(regexp = ".*\\d.*", message = "密码必须包含数字")
+    @NotBlank(message = PASSWORD_BLANK)
+    @Size(min = PASSWORD_MIN_LENGTH, message = PASSWORD_SIZE)
+    @Pattern(regexp = PASSWORD_LETTER_PATTERN, message = PASSWORD_LETTER)
+    @Pattern(regexp = PASSWORD_DIGIT_PATTERN, message = PASSWORD_DIGIT)
     private String checkPassword;
 }
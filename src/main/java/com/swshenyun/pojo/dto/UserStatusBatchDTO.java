@@ -0,0 +1,24 @@
+package com.swshenyun.pojo.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@ApiModel(description = "批量启用禁用账户，ids与query二选一")
+public class UserStatusBatchDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("目标状态：0-禁用 1-正常")
+    private Integer status;
+
+    @ApiModelProperty("用户id列表")
+    private List<Long> ids;
+
+    @ApiModelProperty("按条件筛选用户，lastId、pageSize不生效")
+    private UserQueryDTO query;
+}
@@ -0,0 +1,58 @@
+package com.swshenyun.pojo.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱消费进度
+ * @TableName outbox_consumer_offset
+ */
+@TableName(value = "outbox_consumer_offset")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxConsumerOffset implements Serializable {
+
+    /**
+     * 消费者名称
+     */
+    @TableId
+    private String consumer;
+
+    /**
+     * 已读取到的最大事件 id
+     */
+    private Long lastEventId;
+
+    /**
+     * 小于 lastEventId 但读取时尚未提交的事件 id 及等待截止时间，格式 id:毫秒时间戳,...
+     */
+    private String gaps;
+
+    /**
+     * 当前批次重试次数
+     */
+    private Integer retryCount;
+
+    /**
+     * 下次投递时间
+     */
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
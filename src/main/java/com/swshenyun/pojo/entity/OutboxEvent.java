@@ -0,0 +1,61 @@
+package com.swshenyun.pojo.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 事务发件箱事件
+ * @TableName outbox_event
+ */
+@TableName(value = "outbox_event")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent implements Serializable {
+
+    /**
+     * id，投递顺序
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 实体类型：user / post
+     */
+    private String aggregateType;
+
+    /**
+     * 实体 id
+     */
+    private Long aggregateId;
+
+    /**
+     * 事件类型
+     */
+    private String eventType;
+
+    /**
+     * 附加数据（json）
+     */
+    private String payload;
+
+    /**
+     * 状态：0-待投递 1-已投递 2-有消费者投递失败
+     */
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
@@ -76,6 +76,32 @@ public class User implements Serializable {
      */
     private Integer status;
 
+    /**
+     * 用户角色：user / admin
+     */
+    private String userRole;
+
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    private Integer version;
+
+    /**
+     * 最后登录时间
+     */
+    private LocalDateTime lastLoginTime;
+
+    /**
+     * 最后登录ip
+     */
+    private String lastLoginIp;
+
+    /**
+     * 登录次数
+     */
+    private Integer loginCount;
+
     /**
      * 创建时间
      */
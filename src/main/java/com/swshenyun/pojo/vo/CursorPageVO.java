@@ -0,0 +1,26 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "游标分页结果")
+public class CursorPageVO<T> implements Serializable {
+
+    @ApiModelProperty("当前页数据")
+    private List<T> records;
+
+    @ApiModelProperty("下一页游标，作为下次请求的lastId")
+    private Long nextCursor;
+
+    @ApiModelProperty("是否还有下一页")
+    private boolean hasMore;
+}
@@ -0,0 +1,42 @@
+package com.swshenyun.pojo.vo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "websocket通知")
+public class NotificationVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("通知类型")
+    private String type;
+
+    @ApiModelProperty("附加数据")
+    private Map<String, Object> data;
+
+    @ApiModelProperty("合并的通知条数，发送前同一key的多条通知只保留最新一条")
+    private int count;
+
+    @ApiModelProperty("最新一条的时间戳(毫秒)")
+    private long time;
+
+    /**
+     * 合并用的key，为null时不合并
+     */
+    @JsonIgnore
+    private String coalesceKey;
+
+    public static NotificationVO of(String type, String coalesceKey, Map<String, Object> data) {
+        return new NotificationVO(type, data, 1, System.currentTimeMillis(), coalesceKey);
+    }
+}
@@ -0,0 +1,23 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "热门帖子")
+public class PostHotVO implements Serializable {
+
+    @ApiModelProperty("当前页数据，按热度倒序")
+    private List<PostVO> records;
+
+    @ApiModelProperty("排行中的帖子数")
+    private long total;
+}
@@ -0,0 +1,23 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "帖子检索结果")
+public class PostSearchVO implements Serializable {
+
+    @ApiModelProperty("当前页数据")
+    private List<PostVO> records;
+
+    @ApiModelProperty("命中总数")
+    private long total;
+}
@@ -0,0 +1,49 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@ApiModel(description = "帖子")
+public class PostVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @ApiModelProperty("主键值")
+    private Long id;
+
+    @ApiModelProperty("标题")
+    private String title;
+
+    @ApiModelProperty("内容")
+    private String content;
+
+    @ApiModelProperty("标签列表")
+    private List<String> tags;
+
+    @ApiModelProperty("点赞数，含尚未写库的部分")
+    private Long thumbNum;
+
+    @ApiModelProperty("收藏数，含尚未写库的部分")
+    private Long favourNum;
+
+    @ApiModelProperty("创建用户id")
+    private Long userId;
+
+    @ApiModelProperty("当前用户是否已点赞，仅详情返回")
+    private Boolean hasThumb;
+
+    @ApiModelProperty("当前用户是否已收藏，仅详情返回")
+    private Boolean hasFavour;
+
+    @ApiModelProperty("创建时间")
+    private LocalDateTime createTime;
+
+    @ApiModelProperty("更新时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,34 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@ApiModel(description = "接口内重复执行的sql(疑似N+1)")
+public class SqlRepeatVO implements Serializable {
+
+    @ApiModelProperty("接口，请求方法+路径模板")
+    private String endpoint;
+
+    @ApiModelProperty("语句，mapper简单类名.方法名")
+    private String statement;
+
+    @ApiModelProperty("带?的sql")
+    private String sql;
+
+    @ApiModelProperty("出现重复的请求数")
+    private long requests;
+
+    @ApiModelProperty("单次请求内最多执行次数")
+    private int maxRepeats;
+
+    @ApiModelProperty("最近一次请求内执行次数")
+    private int lastRepeats;
+
+    @ApiModelProperty("最近一次出现时间")
+    private LocalDateTime lastTime;
+}
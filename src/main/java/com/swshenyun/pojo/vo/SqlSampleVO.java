@@ -0,0 +1,42 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ApiModel(description = "慢sql或全表扫描样本")
+public class SqlSampleVO implements Serializable {
+
+    @ApiModelProperty("语句，mapper简单类名.方法名")
+    private String statement;
+
+    @ApiModelProperty("带?的sql")
+    private String sql;
+
+    @ApiModelProperty("绑定参数，按?顺序")
+    private List<String> parameters;
+
+    @ApiModelProperty("执行耗时(毫秒)")
+    private long elapsedMillis;
+
+    @ApiModelProperty("是否超过慢sql阈值")
+    private boolean slow;
+
+    @ApiModelProperty("所属接口，不在请求内执行时为空")
+    private String endpoint;
+
+    @ApiModelProperty("执行时间")
+    private LocalDateTime time;
+
+    @ApiModelProperty("explain结果，未采样或尚未完成时为空")
+    private List<Map<String, Object>> explain;
+
+    @ApiModelProperty("explain显示全表扫描")
+    private boolean fullScan;
+}
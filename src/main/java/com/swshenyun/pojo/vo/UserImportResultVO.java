@@ -0,0 +1,48 @@
+package com.swshenyun.pojo.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ApiModel(description = "批量导入用户的结果")
+public class UserImportResultVO implements Serializable {
+
+    @ApiModelProperty("读取的总行数")
+    private long total;
+
+    @ApiModelProperty("导入成功的行数")
+    private long success;
+
+    @ApiModelProperty("导入失败的行数")
+    private long failed;
+
+    @ApiModelProperty("失败明细，最多返回前若干条")
+    private List<RowError> errors = new ArrayList<>();
+
+    @ApiModelProperty("失败明细是否被截断")
+    private boolean errorsTruncated;
+
+    @Data
+    public static class RowError implements Serializable {
+
+        @ApiModelProperty("行号")
+        private long rowNum;
+
+        @ApiModelProperty("用户名")
+        private String username;
+
+        @ApiModelProperty("失败原因")
+        private String reason;
+
+        public RowError(long rowNum, String username, String reason) {
+            this.rowNum = rowNum;
+            this.username = username;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.async")
+public class AsyncProperties {
+
+    private int corePoolSize = 4;
+
+    private int maxPoolSize = 8;
+
+    private int queueCapacity = 1000;
+
+    private int keepAliveSeconds = 60;
+
+    /**
+     * 队列满时的拒绝策略，默认抛出异常：提交方都是后台任务，被拒绝时各自降级(等下次定时任务或跳过)，
+     * 改为CALLER_RUNS会让发件箱投递、登录活动刷新等在请求线程上执行
+     */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+    public enum RejectionPolicy {
+        /**
+         * 抛出RejectedExecutionException
+         */
+        ABORT,
+        /**
+         * 由提交任务的线程执行
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃新任务
+         */
+        DISCARD,
+        /**
+         * 丢弃队列中最早的任务
+         */
+        DISCARD_OLDEST
+    }
+}
@@ -0,0 +1,40 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.user.avatar")
+public class AvatarProperties {
+
+    /**
+     * 上传文件大小上限(字节)，还受 spring.servlet.multipart.max-file-size 限制
+     */
+    private long maxBytes = 1024 * 1024;
+
+    /**
+     * 生成的正方形缩略图边长，第一个作为 user.avatar
+     */
+    private List<Integer> sizes = new ArrayList<>(List.of(256, 64));
+
+    /**
+     * 允许的原图像素数上限，按文件头中的宽高判断，防止解码超大图片耗尽内存
+     */
+    private long maxPixels = 40_000_000L;
+
+    /**
+     * 缩略图jpeg质量
+     */
+    private float jpegQuality = 0.85f;
+
+    /**
+     * 处理线程数与排队上限，排队满时拒绝上传
+     */
+    private int threads = 2;
+    private int queueCapacity = 100;
+}
@@ -0,0 +1,43 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.post.hot")
+public class HotPostProperties {
+
+    /**
+     * 热度半衰期(小时)
+     */
+    private double halfLifeHours = 24;
+
+    /**
+     * 发帖、点赞、收藏各计入的热度
+     */
+    private double createWeight = 1.0;
+    private double thumbWeight = 1.0;
+    private double favourWeight = 2.0;
+
+    /**
+     * 排行中最多保留的帖子数，也是热门列表能翻到的最大条数
+     */
+    private int maxSize = 10000;
+
+    /**
+     * 是否通过redis频道把热度变更广播到所有节点，单节点部署可关闭
+     */
+    private boolean broadcast = true;
+
+    /**
+     * 排行快照写入redis的间隔(毫秒)
+     */
+    private long snapshotMillis = 60000;
+
+    /**
+     * 没有快照时，从最近多少天的帖子重建排行
+     */
+    private int rebuildDays = 7;
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "com.jwt")
@@ -15,4 +18,34 @@ public class JwtProperties {
     private String userSecretKey;
     private long userTtl;
     private String userTokenName;
-}
\ No newline at end of file
+
+    /**
+     * 签发新令牌使用的密钥id(kid)，userSecretKey即以该id注册
+     */
+    private String userKeyId = "default";
+
+    /**
+     * 轮换期间仍然有效的其他密钥，key为kid，value为秘钥
+     */
+    private Map<String, String> userKeys = new LinkedHashMap<>();
+
+    /**
+     * 是否开启已校验令牌缓存
+     */
+    private boolean userTokenCacheEnabled = false;
+
+    /**
+     * 已校验令牌缓存的最大条目数
+     */
+    private long userTokenCacheSize = 10000;
+
+    /**
+     * 吊销布隆过滤器预计元素数量
+     */
+    private long userRevocationExpectedInsertions = 100000;
+
+    /**
+     * 吊销布隆过滤器误判率
+     */
+    private double userRevocationFpp = 0.001;
+}
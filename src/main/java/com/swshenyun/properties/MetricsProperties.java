@@ -0,0 +1,21 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.metrics")
+public class MetricsProperties {
+
+    /**
+     * 是否记录每条sql语句的执行耗时和行数
+     */
+    private boolean mapperEnabled = true;
+
+    /**
+     * sql语句指标最多保留的statement标签数量，超出后新的语句不再记录
+     */
+    private int maxStatementTags = 200;
+}
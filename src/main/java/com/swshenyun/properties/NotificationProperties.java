@@ -0,0 +1,66 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.notification")
+public class NotificationProperties {
+
+    /**
+     * websocket端点
+     */
+    private String endpoint = "/ws/notification";
+
+    /**
+     * 允许的来源，逗号分隔
+     */
+    private String allowedOrigins = "*";
+
+    /**
+     * 每个用户最多同时保持的连接数，超过时关闭最早的连接
+     */
+    private int maxSessionsPerUser = 5;
+
+    /**
+     * 每个连接待发送的消息数上限(合并后)，超过说明客户端接收过慢，断开该连接
+     */
+    private int maxPendingMessages = 256;
+
+    /**
+     * 单条消息发送超时(毫秒)，超时视为慢客户端并断开
+     */
+    private long sendTimeLimitMillis = 10000;
+
+    /**
+     * 每个连接的发送缓冲上限(字节)
+     */
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    /**
+     * 心跳间隔(毫秒)，向所有连接发送ping
+     */
+    private long pingMillis = 30000;
+
+    /**
+     * 检查连接令牌是否过期的间隔(毫秒)，令牌过期后关闭连接
+     */
+    private long tokenCheckMillis = 5000;
+
+    /**
+     * 连接空闲超时(毫秒)，期间没有收到任何消息(包括pong)时由容器关闭
+     */
+    private long idleTimeoutMillis = 90000;
+
+    /**
+     * 发送线程数，所有连接共用，不为每个连接分配线程
+     */
+    private int sendThreads = 8;
+
+    /**
+     * 是否通过redis频道把通知广播到所有节点，单节点部署可关闭
+     */
+    private boolean broadcast = true;
+}
@@ -0,0 +1,77 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.outbox")
+public class OutboxProperties {
+
+    /**
+     * 兜底轮询间隔(毫秒)，正常情况下由事务提交后的唤醒触发投递
+     */
+    private long pollMillis = 1000;
+
+    /**
+     * 每批投递的事件数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 一次投递最多处理的批数，处理完仍有积压时交给下一次轮询，避免长期占用线程
+     */
+    private int maxBatchesPerRun = 50;
+
+    /**
+     * 整批失败后的首次重试延迟(毫秒)，之后每次翻倍
+     */
+    private long retryBaseMillis = 1000;
+
+    /**
+     * 重试延迟上限(毫秒)
+     */
+    private long retryMaxMillis = 300000;
+
+    /**
+     * 最大重试次数，超过后该批事件标记为投递失败，不再阻塞后续事件
+     */
+    private int maxRetries = 10;
+
+    /**
+     * 读取时id不连续，缺少的事件可能属于尚未提交的事务，在此时长(毫秒)内每轮按id重新查询，超时视为已回滚
+     * 应大于最长的业务事务耗时
+     */
+    private long gapTimeoutMillis = 60000;
+
+    /**
+     * 每个消费者最多等待的未提交事件数，超出的缺口直接跳过
+     */
+    private int maxGaps = 100;
+
+    /**
+     * 是否通过redis租约保证多节点只有一个节点投递，单节点部署可关闭
+     */
+    private boolean leaseEnabled = true;
+
+    /**
+     * 租约存活时间(毫秒)，持有者宕机后由其他节点接手
+     */
+    private long leaseMillis = 30000;
+
+    /**
+     * 已投递事件保留时长(小时)
+     */
+    private long retentionHours = 72;
+
+    /**
+     * 清理已投递事件的间隔(毫秒)
+     */
+    private long cleanupMillis = 3600000;
+
+    /**
+     * 统计日志间隔(毫秒)
+     */
+    private long statsLogMillis = 300000;
+}
@@ -0,0 +1,36 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.password")
+public class PasswordProperties {
+
+    /**
+     * 新密码使用的算法：bcrypt / md5
+     */
+    private String algorithm = "bcrypt";
+
+    /**
+     * bcrypt计算强度
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * 哈希线程数，小于等于0时取cpu核数
+     */
+    private int hashThreads = 0;
+
+    /**
+     * 哈希任务等待队列长度，队列满时直接拒绝
+     */
+    private int hashQueueCapacity = 64;
+
+    /**
+     * 等待哈希结果的超时时间(毫秒)
+     */
+    private long hashTimeoutMillis = 3000;
+}
@@ -0,0 +1,55 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.post.counter")
+public class PostCounterProperties {
+
+    /**
+     * local：进程内缓冲，仅适用于单节点；redis：多节点共享
+     */
+    private Mode mode = Mode.REDIS;
+
+    /**
+     * 写库间隔(毫秒)
+     */
+    private long flushMillis = 5000;
+
+    /**
+     * 每条insert/delete语句包含的记录数
+     */
+    private int batchSize = 500;
+
+    /**
+     * redis中帖子用户集合的存活时间(秒)，每次操作后续期
+     */
+    private long memberTtlSeconds = 86400;
+
+    /**
+     * redis刷新锁的存活时间(毫秒)，持有者宕机后由其他节点接手
+     */
+    private long flushLockMillis = 60000;
+
+    /**
+     * 已写库批次记录的保留时长(小时)，需远大于刷新锁存活时间
+     */
+    private long flushRecordRetentionHours = 24;
+
+    /**
+     * 清理批次记录的间隔(毫秒)
+     */
+    private long flushRecordCleanupMillis = 3600000;
+
+    /**
+     * 本地模式最多缓存的帖子用户集合数
+     */
+    private int localMaxPosts = 10000;
+
+    public enum Mode {
+        LOCAL, REDIS
+    }
+}
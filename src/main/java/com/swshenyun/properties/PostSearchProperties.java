@@ -0,0 +1,61 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.post.search")
+public class PostSearchProperties {
+
+    /**
+     * 检索实现，目前只有lucene(内嵌)
+     */
+    private String engine = "lucene";
+
+    /**
+     * 索引目录，为空时索引只保存在内存中，每次启动重建
+     */
+    private String indexDir = "";
+
+    /**
+     * 启动时是否从数据库重建索引，索引目录为空时总是重建
+     */
+    private boolean rebuildOnStart = false;
+
+    /**
+     * 重建时每批读取的帖子数
+     */
+    private int rebuildBatchSize = 1000;
+
+    /**
+     * 是否通过redis频道把帖子变更广播到所有节点，由各节点更新自己的索引；单节点部署可关闭
+     */
+    private boolean broadcast = true;
+
+    /**
+     * 写入后可被检索的最大延迟(毫秒)
+     */
+    private long refreshMillis = 1000;
+
+    /**
+     * 索引持久化间隔(毫秒)
+     */
+    private long commitMillis = 30000;
+
+    /**
+     * 时间衰减的半衰期(小时)
+     */
+    private long recencyHalfLifeHours = 72;
+
+    /**
+     * 时间衰减的权重，0表示只按相关度排序
+     */
+    private double recencyWeight = 1.0;
+
+    /**
+     * 最多可翻到的结果数(页码*每页条数)
+     */
+    private int maxResultWindow = 10000;
+}
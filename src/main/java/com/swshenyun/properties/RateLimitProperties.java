@@ -0,0 +1,65 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用登录、注册限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * local：进程内令牌桶，各节点独立计数；redis：redis滑动窗口，多节点共享计数
+     */
+    private Mode mode = Mode.LOCAL;
+
+    /**
+     * 限流窗口(毫秒)
+     */
+    private long windowMillis = 60000;
+
+    /**
+     * 每个ip每窗口允许的登录次数
+     */
+    private int loginPerIp = 30;
+
+    /**
+     * 每个用户名每窗口允许的登录次数
+     */
+    private int loginPerUsername = 10;
+
+    /**
+     * 每个ip每窗口允许的注册次数
+     */
+    private int registerPerIp = 5;
+
+    /**
+     * 连续登录失败达到该次数后锁定用户名
+     */
+    private int maxFailures = 5;
+
+    /**
+     * 失败次数统计窗口(毫秒)
+     */
+    private long failureWindowMillis = 900000;
+
+    /**
+     * 锁定时长(毫秒)
+     */
+    private long lockMillis = 900000;
+
+    /**
+     * 本地模式最多记录的key数量，超出后淘汰最久未访问的
+     */
+    private int localMaxKeys = 100000;
+
+    public enum Mode {
+        LOCAL, REDIS
+    }
+}
@@ -0,0 +1,78 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.sql-monitor")
+public class SqlMonitorProperties {
+
+    /**
+     * 是否启用慢sql与N+1检测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 慢sql阈值(毫秒)，超过则记录sql(开启captureParameters时还有参数)
+     */
+    private long slowMillis = 200;
+
+    /**
+     * 是否在样本中记录绑定参数，默认只有带?的sql；开启后不在允许名单中的参数打码
+     */
+    private boolean captureParameters = false;
+
+    /**
+     * 允许原样记录的参数：属性名，或条件构造器参数?前面的列名；不区分大小写，忽略下划线
+     */
+    private List<String> parameterAllowList = List.of("id", "userId", "postId", "status", "isDelete", "version", "limit", "offset");
+
+    /**
+     * 单个参数值最多保留的字符数
+     */
+    private int maxParameterLength = 64;
+
+    /**
+     * 最多保留的慢sql样本数，超出后丢弃最早的
+     */
+    private int sampleSize = 50;
+
+    /**
+     * 是否对慢sql执行explain，只处理select/update/delete
+     */
+    private boolean explainEnabled = true;
+
+    /**
+     * 慢sql执行explain的采样率
+     */
+    private double explainSampleRate = 0.2;
+
+    /**
+     * 同一条语句两次explain的最小间隔(毫秒)
+     */
+    private long explainIntervalMillis = 600000;
+
+    /**
+     * 只对慢sql执行explain；开发、测试环境可关闭，对所有语句按采样率explain，提前发现全表扫描
+     */
+    private boolean explainSlowOnly = true;
+
+    /**
+     * 一次请求内同一条sql(参数不同)执行次数达到该值视为N+1
+     */
+    private int repeatThreshold = 10;
+
+    /**
+     * 一次请求内最多跟踪的不同sql数量
+     */
+    private int maxShapesPerRequest = 256;
+
+    /**
+     * N+1统计最多保留的 接口+语句 组合数量
+     */
+    private int maxRepeatEntries = 500;
+}
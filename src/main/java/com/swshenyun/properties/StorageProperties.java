@@ -0,0 +1,35 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.storage")
+public class StorageProperties {
+
+    /**
+     * local：本地文件系统，用于开发和测试；oss：阿里云oss
+     */
+    private Mode mode = Mode.LOCAL;
+
+    /**
+     * 访问地址前缀，local模式下由应用映射到 localDir，oss模式下为bucket或cdn域名
+     */
+    private String urlPrefix = "/files/";
+
+    /**
+     * local模式的根目录
+     */
+    private String localDir = "./data/storage";
+
+    private String endpoint;
+    private String accessKeyId;
+    private String accessKeySecret;
+    private String bucketName;
+
+    public enum Mode {
+        LOCAL, OSS
+    }
+}
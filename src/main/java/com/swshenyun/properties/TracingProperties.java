@@ -0,0 +1,41 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.tracing")
+public class TracingProperties {
+
+    /**
+     * 是否注册埋点(拦截器、切面、mybatis插件)；关闭后完全没有开销
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否对每个请求记录span并返回Server-Timing响应头
+     */
+    private boolean serverTiming = false;
+
+    /**
+     * 导出trace的采样率，0为不导出
+     */
+    private double sampleRate = 0;
+
+    /**
+     * 导出文件，每行一个OTLP/JSON格式的ExportTraceServiceRequest
+     */
+    private String exportFile = "logs/traces.jsonl";
+
+    /**
+     * 等待写出的trace上限，写不过来时丢弃
+     */
+    private int exportQueueCapacity = 1024;
+
+    /**
+     * 单个请求最多记录的span数量
+     */
+    private int maxSpans = 256;
+}
@@ -0,0 +1,26 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.user.activity")
+public class UserActivityProperties {
+
+    /**
+     * 定时刷新间隔(毫秒)，即宕机时最多丢失的活动时长
+     */
+    private long flushMillis = 5000;
+
+    /**
+     * 缓冲中的用户数达到该值时立即触发刷新，同时也是宕机时最多丢失的用户数
+     */
+    private int maxPendingUsers = 10000;
+
+    /**
+     * 每条update语句包含的用户数
+     */
+    private int batchSize = 500;
+}
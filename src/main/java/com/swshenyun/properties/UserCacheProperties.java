@@ -0,0 +1,41 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.user.cache")
+public class UserCacheProperties {
+
+    /**
+     * 本地缓存最大条目数
+     */
+    private long nearMaximumSize = 10000;
+
+    /**
+     * 本地缓存写入后存活时间(秒)
+     */
+    private long nearTtlSeconds = 60;
+
+    /**
+     * redis缓存存活时间(秒)
+     */
+    private long redisTtlSeconds = 1800;
+
+    /**
+     * 是否开启已占用用户名的布隆过滤器
+     */
+    private boolean usernameBloomEnabled = false;
+
+    /**
+     * 用户名布隆过滤器预计元素数量
+     */
+    private long usernameBloomExpectedInsertions = 1000000;
+
+    /**
+     * 用户名布隆过滤器误判率
+     */
+    private double usernameBloomFpp = 0.01;
+}
@@ -0,0 +1,31 @@
+package com.swshenyun.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.user.import")
+public class UserImportProperties {
+
+    /**
+     * 每批查重、插入的行数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 允许请求指定的最大批大小
+     */
+    private int maxBatchSize = 5000;
+
+    /**
+     * 返回的失败明细上限
+     */
+    private int maxErrors = 1000;
+
+    /**
+     * 同时提交到密码哈希线程池的任务数
+     */
+    private int hashParallelism = 4;
+}
@@ -0,0 +1,341 @@
+package com.swshenyun.search;
+
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.utils.PostTagUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.QueryBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 帖子倒排索引，字段对应 sql/post_es_mapping.json：
+ * title/content 为分词字段(smartcn中文分词，替代es的ik分词)，tags/userId 为不分词的keyword，createTime 用于排序与时间衰减；
+ * 已删除的帖子不进入索引。写入后需调用 {@link #refresh()} 才能被检索到，{@link #commit()} 后才持久化；
+ * 每个文档带有写入时的重建代数，重建时逐个覆盖文档，结束后删除未被覆盖的旧代文档，重建期间索引始终完整可查
+ */
+public class LucenePostIndex implements Closeable {
+
+    public static final String ID = "id";
+    public static final String TITLE = "title";
+    public static final String CONTENT = "content";
+    public static final String TAGS = "tags";
+    public static final String USER_ID = "userId";
+    public static final String CREATE_TIME = "createTime";
+    public static final String GENERATION = "generation";
+
+    /**
+     * 标题命中的权重
+     */
+    private static final float TITLE_BOOST = 2.0f;
+
+    private final Analyzer analyzer;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final long recencyHalfLifeMillis;
+
+    private final double recencyWeight;
+
+    /**
+     * 当前重建代数，写入的文档都带有该值
+     */
+    private volatile String generation = "0";
+
+    /**
+     * @param directory             索引目录
+     * @param recencyHalfLifeMillis 时间衰减的半衰期
+     * @param recencyWeight         时间衰减的权重，0表示只按相关度
+     * @throws IOException
+     */
+    public LucenePostIndex(Directory directory, long recencyHalfLifeMillis, double recencyWeight) throws IOException {
+        this.analyzer = new SmartChineseAnalyzer();
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.recencyHalfLifeMillis = recencyHalfLifeMillis;
+        this.recencyWeight = recencyWeight;
+    }
+
+    /**
+     * 新增或覆盖帖子，已删除的帖子从索引中移除
+     *
+     * @param post
+     */
+    public void index(Post post) {
+        if (post.getIsDelete() != null && post.getIsDelete() == 1) {
+            delete(post.getId());
+            return;
+        }
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(post.getId())), toDocument(post));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(Long id) {
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 开始新一代重建，此后写入的文档都属于新一代
+     *
+     * @return 新的代数
+     */
+    public String beginGeneration() {
+        generation = String.valueOf(System.currentTimeMillis());
+        return generation;
+    }
+
+    /**
+     * 删除不属于指定代数的文档，即重建期间没有被覆盖(数据库中已不存在)的帖子
+     *
+     * @param generation
+     */
+    public void deleteOtherGenerations(String generation) {
+        try {
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(GENERATION, generation)), BooleanClause.Occur.MUST_NOT)
+                    .build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 使此前的写入可被检索
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 最近一次刷新时可检索的文档数
+     */
+    public int count() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 检索帖子
+     * 有关键词时按 相关度 * (1 + 权重 * 0.5^(帖子年龄/半衰期)) 排序，没有关键词时按创建时间倒序
+     *
+     * @param keyword 匹配标题或内容，可为空
+     * @param tags    必须包含全部标签，可为空
+     * @param userId  创建用户，可为空
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public PostSearchHits search(String keyword, Collection<String> tags, Long userId, int offset, int limit) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        if (hasKeyword) {
+            QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+            BooleanQuery.Builder text = new BooleanQuery.Builder();
+            Query title = queryBuilder.createBooleanQuery(TITLE, keyword, BooleanClause.Occur.SHOULD);
+            Query content = queryBuilder.createBooleanQuery(CONTENT, keyword, BooleanClause.Occur.SHOULD);
+            if (title != null) {
+                text.add(new BoostQuery(title, TITLE_BOOST), BooleanClause.Occur.SHOULD);
+            }
+            if (content != null) {
+                text.add(content, BooleanClause.Occur.SHOULD);
+            }
+            builder.add(text.build(), BooleanClause.Occur.MUST);
+        } else {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                builder.add(new TermQuery(new Term(TAGS, tag)), BooleanClause.Occur.FILTER);
+            }
+        }
+        if (userId != null) {
+            builder.add(new TermQuery(new Term(USER_ID, String.valueOf(userId))), BooleanClause.Occur.FILTER);
+        }
+        Query query = builder.build();
+
+        IndexSearcher searcher;
+        try {
+            searcher = searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            TopDocs topDocs;
+            if (hasKeyword) {
+                if (recencyWeight > 0) {
+                    query = FunctionScoreQuery.boostByValue(query,
+                            new RecencyBoost(System.currentTimeMillis(), recencyHalfLifeMillis, recencyWeight));
+                }
+                topDocs = searcher.search(query, offset + limit);
+            } else {
+                topDocs = searcher.search(query, offset + limit,
+                        new Sort(new SortField(CREATE_TIME, SortField.Type.LONG, true)));
+            }
+            List<Long> ids = new ArrayList<>(limit);
+            StoredFields storedFields = searcher.storedFields();
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                ids.add(Long.valueOf(storedFields.document(topDocs.scoreDocs[i].doc).get(ID)));
+            }
+            return new PostSearchHits(ids, topDocs.totalHits.value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                searcherManager.release(searcher);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Document toDocument(Post post) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, String.valueOf(post.getId()), Field.Store.YES));
+        doc.add(new StringField(GENERATION, generation, Field.Store.NO));
+        if (post.getTitle() != null) {
+            doc.add(new TextField(TITLE, post.getTitle(), Field.Store.NO));
+        }
+        if (post.getContent() != null) {
+            doc.add(new TextField(CONTENT, post.getContent(), Field.Store.NO));
+        }
+        for (String tag : PostTagUtils.parse(post.getTags())) {
+            doc.add(new StringField(TAGS, tag, Field.Store.NO));
+        }
+        if (post.getUserId() != null) {
+            doc.add(new StringField(USER_ID, String.valueOf(post.getUserId()), Field.Store.NO));
+        }
+        long createTime = post.getCreateTime() == null ? System.currentTimeMillis()
+                : post.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        doc.add(new NumericDocValuesField(CREATE_TIME, createTime));
+        return doc;
+    }
+
+    /**
+     * 按创建时间计算的加权系数，新帖子接近 1 + weight，每经过一个半衰期加权部分减半
+     */
+    private static class RecencyBoost extends DoubleValuesSource {
+
+        private final long now;
+
+        private final long halfLifeMillis;
+
+        private final double weight;
+
+        RecencyBoost(long now, long halfLifeMillis, double weight) {
+            this.now = now;
+            this.halfLifeMillis = halfLifeMillis;
+            this.weight = weight;
+        }
+
+        @Override
+        public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+            NumericDocValues createTimes = DocValues.getNumeric(ctx.reader(), CREATE_TIME);
+            return new DoubleValues() {
+
+                private double value;
+
+                @Override
+                public double doubleValue() {
+                    return value;
+                }
+
+                @Override
+                public boolean advanceExact(int doc) throws IOException {
+                    if (createTimes.advanceExact(doc)) {
+                        long age = Math.max(0, now - createTimes.longValue());
+                        value = 1 + weight * Math.pow(0.5, (double) age / halfLifeMillis);
+                    } else {
+                        value = 1;
+                    }
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+
+        @Override
+        public DoubleValuesSource rewrite(IndexSearcher reader) {
+            return this;
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RecencyBoost other)) {
+                return false;
+            }
+            return now == other.now && halfLifeMillis == other.halfLifeMillis && weight == other.weight;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(now, halfLifeMillis, weight);
+        }
+
+        @Override
+        public String toString() {
+            return "recency(halfLife=" + halfLifeMillis + ",weight=" + weight + ")";
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.swshenyun.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 检索结果：按排序返回的帖子id与命中总数
+ */
+@Data
+@AllArgsConstructor
+public class PostSearchHits {
+
+    private List<Long> ids;
+
+    private long total;
+}
@@ -0,0 +1,49 @@
+package com.swshenyun.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * bcrypt，存储格式为 {bcrypt}$2a${strength}$...
+ */
+public class BCryptPasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "{bcrypt}";
+
+    private final int strength;
+
+    private final BCryptPasswordEncoder encoder;
+
+    public BCryptPasswordHasher(int strength) {
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String id() {
+        return "bcrypt";
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return PREFIX + encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return encoder.matches(rawPassword, storedHash.substring(PREFIX.length()));
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsUpgrade(String storedHash) {
+        return encoder.upgradeEncoding(storedHash.substring(PREFIX.length()));
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+}
@@ -0,0 +1,120 @@
+package com.swshenyun.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内限流，每个key一个令牌桶：容量为limit，每 windowMillis/limit 毫秒补充一个令牌，
+ * 效果近似长度为windowMillis的滑动窗口，且允许短时突发不超过limit；
+ * 所有状态保存在有容量上限的本地缓存中，攻击者构造大量key时淘汰最久未访问的
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Cache<String, AtomicInteger> failures;
+
+    /**
+     * key -> 锁定截止时间戳
+     */
+    private final Cache<String, Long> locks;
+
+    public LocalRateLimiter(int maxKeys, long windowMillis, long failureWindowMillis) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMillis))
+                .build();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMillis(failureWindowMillis))
+                .build();
+        this.locks = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long until, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, until - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long until, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, until, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long until, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int limit, long windowMillis) {
+        return buckets.get(key, k -> new TokenBucket(limit, windowMillis)).tryConsume();
+    }
+
+    @Override
+    public int recordFailure(String key, long windowMillis) {
+        //每次失败重新写入，过期时间从最后一次失败算起
+        AtomicInteger count = failures.asMap().compute(key, (k, old) -> {
+            AtomicInteger next = old == null ? new AtomicInteger() : old;
+            next.incrementAndGet();
+            return next;
+        });
+        return count.get();
+    }
+
+    @Override
+    public void clearFailures(String key) {
+        failures.invalidate(key);
+    }
+
+    @Override
+    public void lock(String key, long lockMillis) {
+        locks.put(key, System.currentTimeMillis() + lockMillis);
+    }
+
+    @Override
+    public boolean isLocked(String key) {
+        Long until = locks.getIfPresent(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * 令牌桶，按需根据经过的时间补充令牌
+     */
+    private static class TokenBucket {
+
+        private final int capacity;
+
+        private final double tokensPerNano;
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        TokenBucket(int capacity, long windowMillis) {
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / TimeUnit.MILLISECONDS.toNanos(windowMillis);
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.swshenyun.security;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 旧版加盐md5，存储格式为32位十六进制且没有算法前缀，仅用于校验存量密码
+ */
+public class Md5PasswordHasher implements PasswordHasher {
+
+    /**
+     * 密码盐值
+     */
+    private static final String SALT = "symm";
+
+    @Override
+    public String id() {
+        return "md5";
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return DigestUtils.md5DigestAsHex((SALT + rawPassword).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return MessageDigest.isEqual(
+                hash(rawPassword).getBytes(StandardCharsets.UTF_8),
+                storedHash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash.length() == 32 && storedHash.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+}
@@ -0,0 +1,43 @@
+package com.swshenyun.security;
+
+/**
+ * 密码哈希算法
+ * 存储的哈希值自带算法标识，便于按算法校验和升级
+ */
+public interface PasswordHasher {
+
+    /**
+     * 算法标识
+     *
+     * @return
+     */
+    String id();
+
+    /**
+     * 生成带算法标识的哈希值
+     *
+     * @param rawPassword
+     * @return
+     */
+    String hash(String rawPassword);
+
+    boolean matches(String rawPassword, String storedHash);
+
+    /**
+     * 是否为本算法生成的哈希值
+     *
+     * @param storedHash
+     * @return
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * 算法相同但参数(如计算强度)已低于当前配置时返回true
+     *
+     * @param storedHash
+     * @return
+     */
+    default boolean needsUpgrade(String storedHash) {
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.swshenyun.security;
+
+/**
+ * 限流与失败锁定
+ * key由调用方加上业务前缀，如 login:ip:{ip}
+ */
+public interface RateLimiter {
+
+    /**
+     * 在窗口内申请一次访问
+     *
+     * @param key
+     * @param limit        窗口内允许的次数
+     * @param windowMillis 窗口长度
+     * @return false表示超出限制
+     */
+    boolean tryAcquire(String key, int limit, long windowMillis);
+
+    /**
+     * 记录一次失败
+     *
+     * @param key
+     * @param windowMillis 统计窗口，窗口内没有新的失败时计数清零
+     * @return 当前窗口内的失败次数
+     */
+    int recordFailure(String key, long windowMillis);
+
+    void clearFailures(String key);
+
+    /**
+     * 锁定key
+     *
+     * @param key
+     * @param lockMillis
+     */
+    void lock(String key, long lockMillis);
+
+    boolean isLocked(String key);
+}
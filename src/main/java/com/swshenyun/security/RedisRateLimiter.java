@@ -0,0 +1,97 @@
+package com.swshenyun.security;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redis的限流，多节点共享计数
+ * 限流为有序集合实现的滑动窗口，在一个lua脚本中完成清理过期成员、计数与写入；
+ * 失败计数为带过期时间的计数器，锁定为带过期时间的key。redis不可用时退回本地限流，不阻断登录
+ */
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        SLIDING_WINDOW_SCRIPT.setLocation(new ClassPathResource("lua/sliding_window.lua"));
+        SLIDING_WINDOW_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RateLimiter fallback;
+
+    public RedisRateLimiter(StringRedisTemplate stringRedisTemplate, RateLimiter fallback) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int limit, long windowMillis) {
+        try {
+            Long allowed = stringRedisTemplate.execute(SLIDING_WINDOW_SCRIPT,
+                    List.of(RedisKeyConstant.RATE_LIMIT_PREFIX + key),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(windowMillis),
+                    String.valueOf(limit), UUID.randomUUID().toString());
+            return allowed != null && allowed == 1L;
+        } catch (Exception e) {
+            log.warn("redis限流不可用，使用本地限流，key：{}", key, e);
+            return fallback.tryAcquire(key, limit, windowMillis);
+        }
+    }
+
+    @Override
+    public int recordFailure(String key, long windowMillis) {
+        String redisKey = RedisKeyConstant.LOGIN_FAILURE_PREFIX + key;
+        try {
+            Long count = stringRedisTemplate.opsForValue().increment(redisKey);
+            stringRedisTemplate.expire(redisKey, windowMillis, TimeUnit.MILLISECONDS);
+            return count == null ? 0 : count.intValue();
+        } catch (Exception e) {
+            log.warn("redis失败计数不可用，使用本地计数，key：{}", key, e);
+            return fallback.recordFailure(key, windowMillis);
+        }
+    }
+
+    @Override
+    public void clearFailures(String key) {
+        fallback.clearFailures(key);
+        try {
+            stringRedisTemplate.delete(RedisKeyConstant.LOGIN_FAILURE_PREFIX + key);
+        } catch (Exception e) {
+            log.warn("清除redis失败计数失败，key：{}", key, e);
+        }
+    }
+
+    @Override
+    public void lock(String key, long lockMillis) {
+        fallback.lock(key, lockMillis);
+        try {
+            stringRedisTemplate.opsForValue()
+                    .set(RedisKeyConstant.LOGIN_LOCK_PREFIX + key, "1", lockMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("redis锁定失败，仅本节点生效，key：{}", key, e);
+        }
+    }
+
+    @Override
+    public boolean isLocked(String key) {
+        if (fallback.isLocked(key)) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeyConstant.LOGIN_LOCK_PREFIX + key));
+        } catch (Exception e) {
+            log.warn("redis锁定查询不可用，key：{}", key, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.swshenyun.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * 头像上传与缩略图处理
+ */
+public interface AvatarService {
+
+    /**
+     * 保存原图并提交后台处理，处理完成后才更新 user.avatar，并通过websocket通知用户
+     *
+     * @param userId
+     * @param file
+     * @return 本次上传id
+     * @throws IOException
+     */
+    String upload(Long userId, MultipartFile file) throws IOException;
+}
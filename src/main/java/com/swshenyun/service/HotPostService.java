@@ -0,0 +1,51 @@
+package com.swshenyun.service;
+
+import com.swshenyun.cache.PostCounterStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子热度排行，由发帖、点赞、收藏事件增量更新，读取时不查询post表
+ */
+public interface HotPostService {
+
+    /**
+     * 新发布的帖子计入初始热度
+     *
+     * @param postIds
+     */
+    void recordCreated(Collection<Long> postIds);
+
+    /**
+     * 点赞/收藏计数变化计入热度，取消时扣减
+     *
+     * @param type
+     * @param deltas 帖子id -> 计数增量
+     */
+    void recordCounts(PostCounterStore.Type type, Map<Long, Long> deltas);
+
+    /**
+     * 已删除的帖子移出排行
+     *
+     * @param postIds
+     */
+    void remove(Collection<Long> postIds);
+
+    /**
+     * 按热度倒序取一页帖子id
+     *
+     * @param offset
+     * @param limit
+     * @return
+     */
+    List<Long> listHotIds(int offset, int limit);
+
+    /**
+     * 排行中的帖子数
+     *
+     * @return
+     */
+    int size();
+}
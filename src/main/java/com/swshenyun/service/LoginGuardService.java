@@ -0,0 +1,32 @@
+package com.swshenyun.service;
+
+/**
+ * 登录、注册防护：限流与连续失败锁定
+ * 在查询数据库、计算密码哈希之前调用，被拒绝时抛出业务异常
+ */
+public interface LoginGuardService {
+
+    /**
+     * 登录前检查用户名是否锁定、ip与用户名是否超出频率限制
+     *
+     * @param username
+     * @param ip
+     */
+    void checkLogin(String username, String ip);
+
+    /**
+     * 登录失败(账户不存在或密码错误)，失败次数达到上限时锁定用户名
+     *
+     * @param username
+     */
+    void onLoginFailure(String username);
+
+    void onLoginSuccess(String username);
+
+    /**
+     * 注册前检查ip是否超出频率限制
+     *
+     * @param ip
+     */
+    void checkRegister(String ip);
+}
@@ -0,0 +1,27 @@
+package com.swshenyun.service;
+
+import com.swshenyun.pojo.vo.NotificationVO;
+
+import java.util.Collection;
+
+/**
+ * websocket通知，投递到用户在任意节点上的全部连接；不保存离线通知
+ */
+public interface NotificationService {
+
+    /**
+     * 通知用户
+     *
+     * @param userIds
+     * @param message 合并key为空时不合并
+     */
+    void notifyUsers(Collection<Long> userIds, NotificationVO message);
+
+    /**
+     * 通知用户后断开其全部连接(账户禁用)
+     *
+     * @param userIds
+     * @param message
+     */
+    void notifyAndDisconnect(Collection<Long> userIds, NotificationVO message);
+}
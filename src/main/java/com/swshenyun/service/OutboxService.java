@@ -0,0 +1,28 @@
+package com.swshenyun.service;
+
+import java.util.Collection;
+
+/**
+ * 事务发件箱，事件与业务数据在同一事务中写入，提交后由 OutboxDispatcher 异步投递
+ */
+public interface OutboxService {
+
+    /**
+     * 写入一条事件，需在业务事务内调用
+     *
+     * @param aggregateType
+     * @param aggregateId
+     * @param eventType
+     * @param payload 附加数据，可为null
+     */
+    void publish(String aggregateType, Long aggregateId, String eventType, String payload);
+
+    /**
+     * 为多个实体写入同一类型的事件，一条insert语句
+     *
+     * @param aggregateType
+     * @param aggregateIds
+     * @param eventType
+     */
+    void publishAll(String aggregateType, Collection<Long> aggregateIds, String eventType);
+}
@@ -0,0 +1,17 @@
+package com.swshenyun.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 密码哈希与校验，计算在独立的有界线程池中执行
+ */
+public interface PasswordService {
+
+    String hash(String rawPassword);
+
+    CompletableFuture<String> hashAsync(String rawPassword);
+
+    boolean matches(String rawPassword, String storedHash);
+
+    boolean needsRehash(String storedHash);
+}
@@ -0,0 +1,38 @@
+package com.swshenyun.service;
+
+import com.swshenyun.cache.PostCounterStore;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 帖子点赞、收藏：状态切换走计数缓冲，定时批量写库
+ */
+public interface PostCounterService {
+
+    /**
+     * 切换当前用户的点赞/收藏状态
+     *
+     * @param type
+     * @param postId
+     * @param userId
+     * @return 切换后是否为已点赞/收藏
+     */
+    boolean toggle(PostCounterStore.Type type, Long postId, Long userId);
+
+    boolean isMember(PostCounterStore.Type type, Long postId, Long userId);
+
+    /**
+     * 批量读取尚未写库的计数增量
+     *
+     * @return 帖子id -> 增量，没有增量的帖子不在结果中
+     */
+    Map<Long, Long> pendingDeltas(PostCounterStore.Type type, Collection<Long> postIds);
+
+    /**
+     * 把缓冲中的变更写入数据库
+     *
+     * @return 写入的记录数
+     */
+    int flush();
+}
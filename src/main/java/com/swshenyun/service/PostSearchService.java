@@ -0,0 +1,37 @@
+package com.swshenyun.service;
+
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.search.PostSearchHits;
+
+import java.util.Collection;
+
+/**
+ * 帖子全文检索，索引结构见 sql/post_es_mapping.json
+ * 帖子新增、修改、删除后调用对应方法增量更新索引；检索只返回帖子id，详情由调用方从数据库读取
+ */
+public interface PostSearchService {
+
+    /**
+     * 新增或覆盖帖子的索引
+     *
+     * @param post
+     */
+    void index(Post post);
+
+    void delete(Long postId);
+
+    /**
+     * 按id读取帖子的最新状态更新索引：存在则索引，已删除则移出索引
+     *
+     * @param postIds
+     */
+    void sync(Collection<Long> postIds);
+
+    PostSearchHits search(PostSearchDTO postSearchDTO);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+}
@@ -0,0 +1,37 @@
+package com.swshenyun.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.swshenyun.pojo.dto.PostAddDTO;
+import com.swshenyun.pojo.dto.PostQueryDTO;
+import com.swshenyun.pojo.dto.PostHotQueryDTO;
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.dto.PostUpdateDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.pojo.vo.CursorPageVO;
+import com.swshenyun.pojo.vo.PostHotVO;
+import com.swshenyun.pojo.vo.PostSearchVO;
+import com.swshenyun.pojo.vo.PostVO;
+
+/**
+* @description 针对表【post(帖子)】的数据库操作Service
+*/
+public interface PostService extends IService<Post> {
+
+    Long addPost(PostAddDTO postAddDTO);
+
+    void updatePost(PostUpdateDTO postUpdateDTO);
+
+    void deletePost(Long id);
+
+    PostVO getPostVO(Long id);
+
+    CursorPageVO<PostVO> listByCursor(PostQueryDTO postQueryDTO);
+
+    PostSearchVO search(PostSearchDTO postSearchDTO);
+
+    PostHotVO listHot(PostHotQueryDTO postHotQueryDTO);
+
+    boolean doPostThumb(Long postId);
+
+    boolean doPostFavour(Long postId);
+}
@@ -0,0 +1,49 @@
+package com.swshenyun.service;
+
+import com.swshenyun.cache.VerifiedToken;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 令牌注销与吊销
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销单个令牌(用户登出)
+     *
+     * @param jti
+     * @param expMillis 令牌过期时间戳(毫秒)
+     */
+    void revokeToken(String jti, long expMillis);
+
+    /**
+     * 吊销用户当前已签发的全部令牌(账户禁用)
+     *
+     * @param userId
+     */
+    void revokeUser(Long userId);
+
+    /**
+     * 批量吊销用户已签发的全部令牌(批量禁用)
+     *
+     * @param userIds
+     */
+    void revokeUsers(Collection<Long> userIds);
+
+    /**
+     * 令牌是否已被吊销
+     *
+     * @param token
+     * @return
+     */
+    boolean isRevoked(VerifiedToken token);
+
+    /**
+     * 注册吊销监听，本节点吊销或收到其他节点广播时回调，参数为名单元素
+     *
+     * @param listener
+     */
+    void addListener(Consumer<String> listener);
+}
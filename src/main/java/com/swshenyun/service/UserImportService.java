@@ -0,0 +1,12 @@
+package com.swshenyun.service;
+
+import com.swshenyun.pojo.vo.UserImportResultVO;
+import com.swshenyun.utils.UserImportReader;
+
+/**
+ * 批量导入用户
+ */
+public interface UserImportService {
+
+    UserImportResultVO importUsers(UserImportReader reader, Integer batchSize);
+}
@@ -1,9 +1,13 @@
 package com.swshenyun.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.swshenyun.pojo.dto.UserDTO;
 import com.swshenyun.pojo.dto.UserLoginDTO;
+import com.swshenyun.pojo.dto.UserQueryDTO;
 import com.swshenyun.pojo.dto.UserRegisterDTO;
+import com.swshenyun.pojo.dto.UserStatusBatchDTO;
 import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.CursorPageVO;
 
 /**
 * @author 神殒魔灭
@@ -18,5 +22,21 @@ public interface UserService extends IService<User> {
 
     User getSafeUser(User user);
 
+    void checkAdmin(Long userId);
+
     void startOrStop(Integer status, Long id);
+
+    User getSafeUserById(Long id);
+
+    void evictSafeUser(Long id);
+
+    boolean isUsernameAvailable(String username);
+
+    CursorPageVO<User> listByCursor(UserQueryDTO userQueryDTO);
+
+    int updateStatusBatch(UserStatusBatchDTO userStatusBatchDTO);
+
+    Integer updateUser(UserDTO userDTO);
+
+    String updateAvatar(Long id, String avatar);
 }
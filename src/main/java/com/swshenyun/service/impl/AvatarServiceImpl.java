@@ -0,0 +1,153 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.constant.NotificationConstant;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.properties.AvatarProperties;
+import com.swshenyun.service.AvatarService;
+import com.swshenyun.service.NotificationService;
+import com.swshenyun.service.UserService;
+import com.swshenyun.storage.ObjectStorage;
+import com.swshenyun.utils.ThumbnailUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * 头像上传
+ * 请求线程只把上传流原样写入对象存储(multipart由容器落盘，不在堆上保存整个文件)，然后提交后台处理；
+ * 后台线程解码、裁剪为各尺寸的正方形jpeg，全部写入后再更新 user.avatar 并删除原图和旧头像
+ * key：avatar/upload/{userId}/{uploadId}.{ext} 原图，avatar/{userId}/{uploadId}_{size}.jpg 缩略图
+ */
+@Slf4j
+@Service
+public class AvatarServiceImpl implements AvatarService {
+
+    private static final int HEAD_BYTES = 8;
+
+    /**
+     * 上传id：去掉横线的uuid
+     */
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{32}");
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
+    @Autowired
+    private AvatarProperties avatarProperties;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    @Qualifier("avatarExecutor")
+    private ThreadPoolTaskExecutor avatarExecutor;
+
+    public String upload(Long userId, MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
+        if (file.getSize() > avatarProperties.getMaxBytes()) {
+            throw new BaseException(ErrorCode.PARAMS_ERROR);
+        }
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        String originalKey;
+        try (BufferedInputStream in = new BufferedInputStream(file.getInputStream())) {
+            in.mark(HEAD_BYTES);
+            ThumbnailUtils.Format format = ThumbnailUtils.detect(in.readNBytes(HEAD_BYTES));
+            if (format == null) {
+                throw new BaseException(ErrorCode.PARAMS_ERROR);
+            }
+            in.reset();
+            originalKey = "avatar/upload/" + userId + "/" + uploadId + "." + format.getExtension();
+            objectStorage.put(originalKey, in, file.getSize(), format.getContentType());
+        }
+        try {
+            avatarExecutor.execute(() -> process(userId, uploadId, originalKey));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(originalKey);
+            throw new BaseException(ErrorCode.SYSTEM_BUSY);
+        }
+        return uploadId;
+    }
+
+    /**
+     * 生成缩略图并替换头像，失败时清理已写入的对象并通知用户
+     */
+    void process(Long userId, String uploadId, String originalKey) {
+        List<Integer> sizes = avatarProperties.getSizes();
+        Map<String, Object> urls = new LinkedHashMap<>();
+        try {
+            BufferedImage image;
+            try (InputStream in = objectStorage.get(originalKey)) {
+                image = ThumbnailUtils.read(in, avatarProperties.getMaxPixels(),
+                        sizes.stream().mapToInt(Integer::intValue).max().orElse(256));
+            }
+            for (Integer size : sizes) {
+                byte[] jpeg = ThumbnailUtils.toJpeg(ThumbnailUtils.square(image, size), avatarProperties.getJpegQuality());
+                String key = thumbnailKey(userId, uploadId, size);
+                objectStorage.put(key, new ByteArrayInputStream(jpeg), jpeg.length, ThumbnailUtils.Format.JPEG.getContentType());
+                urls.put(String.valueOf(size), objectStorage.url(key));
+            }
+            String oldAvatar = userService.updateAvatar(userId, objectStorage.url(thumbnailKey(userId, uploadId, sizes.get(0))));
+            deleteOldAvatar(userId, oldAvatar);
+            notificationService.notifyUsers(List.of(userId),
+                    NotificationVO.of(NotificationConstant.AVATAR_READY, null, Map.of("uploadId", uploadId, "urls", urls)));
+        } catch (Exception e) {
+            log.warn("头像处理失败，用户：{}，上传：{}", userId, uploadId, e);
+            sizes.forEach(size -> deleteQuietly(thumbnailKey(userId, uploadId, size)));
+            notificationService.notifyUsers(List.of(userId),
+                    NotificationVO.of(NotificationConstant.AVATAR_FAILED, null, Map.of("uploadId", uploadId)));
+        } finally {
+            deleteQuietly(originalKey);
+        }
+    }
+
+    /**
+     * 旧头像是本系统生成的缩略图时，删除它的全部尺寸
+     * 上传id必须是本系统生成的格式，避免拼出 ../ 等指向其他对象的key
+     */
+    private void deleteOldAvatar(Long userId, String oldAvatar) {
+        String prefix = objectStorage.url("avatar/" + userId + "/");
+        String suffix = "_" + avatarProperties.getSizes().get(0) + ".jpg";
+        if (oldAvatar == null || !oldAvatar.startsWith(prefix) || !oldAvatar.endsWith(suffix)) {
+            return;
+        }
+        String oldUploadId = oldAvatar.substring(prefix.length(), oldAvatar.length() - suffix.length());
+        if (!UPLOAD_ID.matcher(oldUploadId).matches()) {
+            return;
+        }
+        avatarProperties.getSizes().forEach(size -> deleteQuietly(thumbnailKey(userId, oldUploadId, size)));
+    }
+
+    private static String thumbnailKey(Long userId, String uploadId, Integer size) {
+        return "avatar/" + userId + "/" + uploadId + "_" + size + ".jpg";
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            objectStorage.delete(key);
+        } catch (Exception e) {
+            log.warn("删除对象失败：{}", key, e);
+        }
+    }
+}
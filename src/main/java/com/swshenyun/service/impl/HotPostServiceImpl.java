@@ -0,0 +1,220 @@
+package com.swshenyun.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.HotPostRanking;
+import com.swshenyun.cache.PostCounterStore;
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.pojo.dto.HotPostEventDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.properties.HotPostProperties;
+import com.swshenyun.service.HotPostService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 帖子热度排行
+ * 排行保存在每个节点的内存中，变更通过redis频道广播，各节点按同一事件时间计算，分数一致；
+ * 定时把排行快照写入redis，重启时直接恢复，没有快照时才从最近的帖子重建一次。
+ * 快照之后、订阅之前的少量变更会丢失，热度本身是近似值，可以接受
+ */
+@Slf4j
+@Service
+public class HotPostServiceImpl implements HotPostService {
+
+    private static final TypeReference<Map<Long, Double>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private HotPostProperties hotPostProperties;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HotPostRanking ranking;
+
+    /**
+     * 上次快照之后是否有变更
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        long halfLifeMillis = (long) (hotPostProperties.getHalfLifeHours() * 3600_000L);
+        ranking = new HotPostRanking(halfLifeMillis, hotPostProperties.getMaxSize());
+    }
+
+    /**
+     * 恢复排行后再订阅，避免恢复覆盖掉刚收到的变更
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            if (!restoreSnapshot()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("加载帖子热度排行失败", e);
+        }
+        if (hotPostProperties.isBroadcast()) {
+            listenerContainer.addMessageListener(
+                    (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(RedisKeyConstant.POST_HOT_CHANNEL));
+        }
+    }
+
+    public void recordCreated(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Double> weights = new HashMap<>();
+        postIds.forEach(id -> weights.put(id, hotPostProperties.getCreateWeight()));
+        publish(new HotPostEventDTO(System.currentTimeMillis(), weights, null));
+    }
+
+    public void recordCounts(PostCounterStore.Type type, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        double weight = type == PostCounterStore.Type.THUMB ? hotPostProperties.getThumbWeight() : hotPostProperties.getFavourWeight();
+        Map<Long, Double> weights = new HashMap<>();
+        deltas.forEach((id, delta) -> weights.put(id, delta * weight));
+        publish(new HotPostEventDTO(System.currentTimeMillis(), weights, null));
+    }
+
+    public void remove(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        publish(new HotPostEventDTO(System.currentTimeMillis(), null, List.copyOf(postIds)));
+    }
+
+    public List<Long> listHotIds(int offset, int limit) {
+        return ranking.top(offset, limit);
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    @Scheduled(fixedDelayString = "${com.post.hot.snapshot-millis:60000}")
+    public void snapshot() {
+        if (!dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(RedisKeyConstant.POST_HOT_SNAPSHOT,
+                    objectMapper.writeValueAsString(ranking.snapshot()),
+                    hotPostProperties.getRebuildDays(), TimeUnit.DAYS);
+        } catch (Exception e) {
+            dirty.set(true);
+            log.warn("写入帖子热度快照失败", e);
+        }
+    }
+
+    /**
+     * 关闭时写入快照，在redis连接工厂停止之前执行
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        snapshot();
+    }
+
+    /**
+     * 广播变更，由各节点(包括本节点)的订阅回调应用；广播失败或未开启时只应用到本节点
+     */
+    private void publish(HotPostEventDTO event) {
+        if (hotPostProperties.isBroadcast()) {
+            try {
+                stringRedisTemplate.convertAndSend(RedisKeyConstant.POST_HOT_CHANNEL, objectMapper.writeValueAsString(event));
+                return;
+            } catch (Exception e) {
+                log.warn("广播帖子热度变更失败，只更新本节点", e);
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(String message) {
+        try {
+            apply(objectMapper.readValue(message, HotPostEventDTO.class));
+        } catch (Exception e) {
+            log.warn("无法解析帖子热度变更：{}", message, e);
+        }
+    }
+
+    private void apply(HotPostEventDTO event) {
+        if (event.getWeights() != null) {
+            event.getWeights().forEach((id, weight) -> ranking.add(id, weight, event.getTime()));
+        }
+        if (event.getRemoved() != null) {
+            event.getRemoved().forEach(ranking::remove);
+        }
+        dirty.set(true);
+    }
+
+    private boolean restoreSnapshot() throws Exception {
+        String json = stringRedisTemplate.opsForValue().get(RedisKeyConstant.POST_HOT_SNAPSHOT);
+        if (json == null) {
+            return false;
+        }
+        ranking.restore(objectMapper.readValue(json, SNAPSHOT_TYPE));
+        log.info("从快照恢复帖子热度排行：{}条", ranking.size());
+        return true;
+    }
+
+    /**
+     * 按最近发布的帖子及其点赞、收藏数重建，计数按发帖时间计入，只在没有快照时执行一次；
+     * 按主键倒序最多读取 maxSize 行，再跳过超出天数的，不按create_time过滤以免全表扫描
+     */
+    private void rebuild() {
+        LambdaQueryWrapper<Post> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Post::getId, Post::getThumbNum, Post::getFavourNum, Post::getCreateTime)
+                .orderByDesc(Post::getId)
+                .last("limit " + hotPostProperties.getMaxSize());
+        LocalDateTime since = LocalDateTime.now().minusDays(hotPostProperties.getRebuildDays());
+        List<Post> posts = postMapper.selectList(wrapper);
+        for (Post post : posts) {
+            if (post.getCreateTime().isBefore(since)) {
+                continue;
+            }
+            long time = post.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            double weight = hotPostProperties.getCreateWeight()
+                    + hotPostProperties.getThumbWeight() * post.getThumbNum()
+                    + hotPostProperties.getFavourWeight() * post.getFavourNum();
+            ranking.add(post.getId(), weight, time);
+        }
+        dirty.set(true);
+        log.info("重建帖子热度排行：{}条", ranking.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.properties.RateLimitProperties;
+import com.swshenyun.security.RateLimiter;
+import com.swshenyun.service.LoginGuardService;
+import com.swshenyun.trace.Traced;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * 登录、注册防护
+ * 按ip限流拦截单一来源的撞库，按用户名限流与失败锁定拦截分布式来源针对同一账户的猜测
+ */
+@Slf4j
+@Service
+@Traced
+public class LoginGuardServiceImpl implements LoginGuardService {
+
+    private static final String LOGIN_IP = "login:ip:";
+
+    private static final String LOGIN_USERNAME = "login:username:";
+
+    private static final String REGISTER_IP = "register:ip:";
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    public void checkLogin(String username, String ip) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        String usernameKey = LOGIN_USERNAME + normalize(username);
+        if (rateLimiter.isLocked(usernameKey)) {
+            throw new BaseException(ErrorCode.LOGIN_LOCKED);
+        }
+        if (!rateLimiter.tryAcquire(LOGIN_IP + ip, rateLimitProperties.getLoginPerIp(), rateLimitProperties.getWindowMillis())) {
+            log.warn("登录请求过于频繁，ip：{}", ip);
+            throw new BaseException(ErrorCode.TOO_MANY_REQUESTS);
+        }
+        if (!rateLimiter.tryAcquire(usernameKey, rateLimitProperties.getLoginPerUsername(), rateLimitProperties.getWindowMillis())) {
+            log.warn("登录请求过于频繁，用户名：{}", username);
+            throw new BaseException(ErrorCode.TOO_MANY_REQUESTS);
+        }
+    }
+
+    public void onLoginFailure(String username) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        String usernameKey = LOGIN_USERNAME + normalize(username);
+        int failures = rateLimiter.recordFailure(usernameKey, rateLimitProperties.getFailureWindowMillis());
+        if (failures >= rateLimitProperties.getMaxFailures()) {
+            rateLimiter.lock(usernameKey, rateLimitProperties.getLockMillis());
+            rateLimiter.clearFailures(usernameKey);
+            log.warn("用户名连续登录失败{}次，锁定{}ms：{}", failures, rateLimitProperties.getLockMillis(), username);
+        }
+    }
+
+    public void onLoginSuccess(String username) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        rateLimiter.clearFailures(LOGIN_USERNAME + normalize(username));
+    }
+
+    public void checkRegister(String ip) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        if (!rateLimiter.tryAcquire(REGISTER_IP + ip, rateLimitProperties.getRegisterPerIp(), rateLimitProperties.getWindowMillis())) {
+            log.warn("注册请求过于频繁，ip：{}", ip);
+            throw new BaseException(ErrorCode.TOO_MANY_REQUESTS);
+        }
+    }
+
+    /**
+     * 大小写、首尾空格不同的用户名按同一个计数，避免绕过
+     */
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,230 @@
+package com.swshenyun.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.properties.PostSearchProperties;
+import com.swshenyun.search.LucenePostIndex;
+import com.swshenyun.search.PostSearchHits;
+import com.swshenyun.service.PostSearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 内嵌lucene实现的帖子检索
+ * 写入直接进入IndexWriter，按 refresh-millis 定时刷新后可被检索(近实时)，按 commit-millis 定时持久化；
+ * 内存索引或配置了 rebuild-on-start 时，启动后在后台线程从数据库重建；
+ * 重建时不清空索引，逐个覆盖后删除旧文档，期间变更过的帖子在重建结束后按数据库最新状态重放。
+ * 索引在每个节点上各有一份，帖子变更由发件箱消费者广播到所有节点，各节点调用 sync 更新自己的索引
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "com.post.search", name = "engine", havingValue = "lucene", matchIfMissing = true)
+public class LucenePostSearchServiceImpl implements PostSearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 重建结束后重放期间变更的最大轮数
+     */
+    private static final int REPLAY_ROUNDS = 3;
+
+    @Autowired
+    private PostSearchProperties postSearchProperties;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    private LucenePostIndex postIndex;
+
+    private boolean inMemory;
+
+    /**
+     * 重建期间被写入或删除的帖子id，未在重建时为null
+     */
+    private volatile Set<Long> touchedDuringRebuild;
+
+    @PostConstruct
+    public void init() throws IOException {
+        String indexDir = postSearchProperties.getIndexDir();
+        inMemory = indexDir == null || indexDir.isBlank();
+        Directory directory = inMemory ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        postIndex = new LucenePostIndex(directory,
+                TimeUnit.HOURS.toMillis(postSearchProperties.getRecencyHalfLifeHours()),
+                postSearchProperties.getRecencyWeight());
+        log.info("帖子索引已打开：{}，文档数：{}", inMemory ? "内存" : indexDir, postIndex.count());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStart() {
+        if (!inMemory && !postSearchProperties.isRebuildOnStart()) {
+            return;
+        }
+        Thread rebuilder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("帖子索引重建失败", e);
+            }
+        }, "post-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    public void index(Post post) {
+        postIndex.index(post);
+        markTouched(post.getId());
+    }
+
+    public void delete(Long postId) {
+        postIndex.delete(postId);
+        markTouched(postId);
+    }
+
+    public void sync(Collection<Long> postIds) {
+        Map<Long, Post> posts = latest(postIds);
+        for (Long id : postIds) {
+            Post post = posts.get(id);
+            if (post == null) {
+                delete(id);
+            } else {
+                index(post);
+            }
+        }
+    }
+
+    public PostSearchHits search(PostSearchDTO postSearchDTO) {
+        Integer pageNum = postSearchDTO.getPageNum();
+        Integer pageSize = postSearchDTO.getPageSize();
+        int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        int offset = (pageNum == null || pageNum <= 1 ? 0 : pageNum - 1) * size;
+        if (offset + size > postSearchProperties.getMaxResultWindow()) {
+            throw new BaseException(ErrorCode.PARAMS_ERROR);
+        }
+        return postIndex.search(postSearchDTO.getKeyword(), postSearchDTO.getTags(), postSearchDTO.getUserId(), offset, size);
+    }
+
+    /**
+     * 按id游标分批读取全部未删除的帖子覆盖写入索引，再删除没有被覆盖的旧文档；
+     * 重建读到的数据可能早于期间的增量写入，结束后按数据库最新状态重放这些帖子
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        int batchSize = postSearchProperties.getRebuildBatchSize();
+        touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            String generation = postIndex.beginGeneration();
+            long lastId = 0;
+            int total = 0;
+            List<Post> posts;
+            do {
+                LambdaQueryWrapper<Post> wrapper = new LambdaQueryWrapper<>();
+                wrapper.gt(Post::getId, lastId)
+                        .orderByAsc(Post::getId)
+                        .last("limit " + batchSize);
+                posts = postMapper.selectList(wrapper);
+                for (Post post : posts) {
+                    postIndex.index(post);
+                }
+                if (!posts.isEmpty()) {
+                    lastId = posts.get(posts.size() - 1).getId();
+                    total += posts.size();
+                }
+            } while (posts.size() == batchSize);
+            postIndex.deleteOtherGenerations(generation);
+            int replayed = replayTouched();
+            postIndex.commit();
+            postIndex.refresh();
+            log.info("帖子索引重建完成，文档数：{}，重放：{}，耗时：{}ms", total, replayed, System.currentTimeMillis() - start);
+        } finally {
+            touchedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * 重放重建期间变更过的帖子，重放时仍在记录新的变更，最多重放 REPLAY_ROUNDS 轮
+     *
+     * @return 重放的帖子数
+     */
+    private int replayTouched() {
+        int replayed = 0;
+        for (int round = 0; round < REPLAY_ROUNDS; round++) {
+            Set<Long> ids = touchedDuringRebuild;
+            touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<Long, Post> posts = latest(ids);
+            for (Long id : ids) {
+                Post post = posts.get(id);
+                if (post == null) {
+                    postIndex.delete(id);
+                } else {
+                    postIndex.index(post);
+                }
+            }
+            replayed += ids.size();
+        }
+        return replayed;
+    }
+
+    /**
+     * 逻辑删除的帖子查不到
+     */
+    private Map<Long, Post> latest(Collection<Long> postIds) {
+        return postMapper.selectBatchIds(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+    }
+
+    private void markTouched(Long postId) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(postId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${com.post.search.refresh-millis:1000}")
+    public void refresh() {
+        postIndex.refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${com.post.search.commit-millis:30000}")
+    public void commit() {
+        if (!inMemory) {
+            postIndex.commit();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!inMemory) {
+            postIndex.commit();
+        }
+        postIndex.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.swshenyun.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.pojo.dto.NotificationEventDTO;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.properties.NotificationProperties;
+import com.swshenyun.service.NotificationService;
+import com.swshenyun.websocket.NotificationHub;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * websocket通知
+ * 用户可能连在任意节点上，通知通过 ws:notification 频道广播，各节点只投递给本节点上的连接
+ */
+@Slf4j
+@Service
+public class NotificationServiceImpl implements NotificationService {
+
+    @Autowired
+    private NotificationHub notificationHub;
+
+    @Autowired
+    private NotificationProperties notificationProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void init() {
+        if (notificationProperties.isBroadcast()) {
+            listenerContainer.addMessageListener(
+                    (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(RedisKeyConstant.NOTIFICATION_CHANNEL));
+        }
+    }
+
+    public void notifyUsers(Collection<Long> userIds, NotificationVO message) {
+        publish(userIds, message, false);
+    }
+
+    public void notifyAndDisconnect(Collection<Long> userIds, NotificationVO message) {
+        publish(userIds, message, true);
+    }
+
+    private void publish(Collection<Long> userIds, NotificationVO message, boolean disconnect) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        NotificationEventDTO event = new NotificationEventDTO(List.copyOf(userIds), message, message.getCoalesceKey(), disconnect);
+        if (notificationProperties.isBroadcast()) {
+            try {
+                stringRedisTemplate.convertAndSend(RedisKeyConstant.NOTIFICATION_CHANNEL, objectMapper.writeValueAsString(event));
+                return;
+            } catch (Exception e) {
+                log.warn("广播websocket通知失败，只投递本节点", e);
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(String message) {
+        try {
+            apply(objectMapper.readValue(message, NotificationEventDTO.class));
+        } catch (Exception e) {
+            log.warn("无法解析websocket通知：{}", message, e);
+        }
+    }
+
+    private void apply(NotificationEventDTO event) {
+        notificationHub.deliver(event.getUserIds(), event.getMessage(), event.getCoalesceKey());
+        if (event.isDisconnect()) {
+            notificationHub.disconnectAfterSend(event.getUserIds(), CloseStatus.POLICY_VIOLATION.withReason("account disabled"));
+        }
+    }
+}
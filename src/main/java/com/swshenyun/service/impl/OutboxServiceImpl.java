@@ -0,0 +1,74 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.event.OutboxDispatcher;
+import com.swshenyun.mapper.OutboxEventMapper;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.service.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 事务发件箱
+ * 事件随业务事务一起提交或回滚，不会出现数据已修改但通知丢失、或通知了未提交数据的情况；
+ * 提交后唤醒分发器立即投递，写请求不再等待缓存、索引等下游
+ */
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    public void publish(String aggregateType, Long aggregateId, String eventType, String payload) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(payload)
+                .build();
+        outboxEventMapper.insertBatch(List.of(event));
+        wakeUpAfterCommit();
+    }
+
+    public void publishAll(String aggregateType, Collection<Long> aggregateIds, String eventType) {
+        List<OutboxEvent> events = aggregateIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(id -> OutboxEvent.builder()
+                        .aggregateType(aggregateType)
+                        .aggregateId(id)
+                        .eventType(eventType)
+                        .build())
+                .toList();
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxEventMapper.insertBatch(events);
+        wakeUpAfterCommit();
+    }
+
+    private void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            //不在事务中，事件已自动提交
+            log.warn("发件箱事件未在事务中写入");
+            outboxDispatcher.wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+}
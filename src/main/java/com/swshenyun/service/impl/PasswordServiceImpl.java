@@ -0,0 +1,182 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.properties.PasswordProperties;
+import com.swshenyun.security.BCryptPasswordHasher;
+import com.swshenyun.security.Md5PasswordHasher;
+import com.swshenyun.security.PasswordHasher;
+import com.swshenyun.service.PasswordService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 密码哈希与校验
+ * 哈希计算占用cpu，在独立的有界线程池中执行：队列满时立即拒绝并返回系统繁忙，
+ * 避免登录高峰占满tomcat线程影响其他接口
+ */
+@Slf4j
+@Service
+public class PasswordServiceImpl implements PasswordService {
+
+    @Autowired
+    private PasswordProperties passwordProperties;
+
+    /**
+     * 当前用于生成新哈希的算法
+     */
+    private PasswordHasher current;
+
+    /**
+     * 所有可校验的算法
+     */
+    private List<PasswordHasher> hashers;
+
+    private ThreadPoolExecutor executor;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        BCryptPasswordHasher bcrypt = new BCryptPasswordHasher(passwordProperties.getBcryptStrength());
+        Md5PasswordHasher md5 = new Md5PasswordHasher();
+        hashers = List.of(bcrypt, md5);
+        current = hashers.stream()
+                .filter(hasher -> hasher.id().equals(passwordProperties.getAlgorithm()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("不支持的密码算法: " + passwordProperties.getAlgorithm()));
+
+        int threads = passwordProperties.getHashThreads() > 0
+                ? passwordProperties.getHashThreads()
+                : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordProperties.getHashQueueCapacity()),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        if (meterRegistry != null) {
+            //登录、注册的容量由该线程池决定，暴露队列长度和活跃线程数
+            new ExecutorServiceMetrics(executor, "passwordHash", List.of()).bindTo(meterRegistry);
+        }
+        log.info("密码哈希算法：{}，线程数：{}，队列长度：{}", current.id(), threads, passwordProperties.getHashQueueCapacity());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 使用当前算法生成哈希
+     *
+     * @param rawPassword
+     * @return
+     */
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    /**
+     * 异步生成哈希，线程池已满时返回的future以 {@link BaseException} 失败
+     *
+     * @param rawPassword
+     * @return
+     */
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> current.hash(rawPassword));
+    }
+
+    /**
+     * 按存储哈希中的算法标识校验密码
+     *
+     * @param rawPassword
+     * @param storedHash
+     * @return
+     */
+    public boolean matches(String rawPassword, String storedHash) {
+        if (storedHash == null) {
+            return false;
+        }
+        PasswordHasher hasher = find(storedHash);
+        if (hasher == null) {
+            log.warn("无法识别的密码哈希格式");
+            return false;
+        }
+        return await(submit(() -> hasher.matches(rawPassword, storedHash)));
+    }
+
+    /**
+     * 存储的哈希不是当前算法，或计算强度低于当前配置时需要重新哈希
+     *
+     * @param storedHash
+     * @return
+     */
+    public boolean needsRehash(String storedHash) {
+        return !current.supports(storedHash) || current.needsUpgrade(storedHash);
+    }
+
+    private PasswordHasher find(String storedHash) {
+        for (PasswordHasher hasher : hashers) {
+            if (hasher.supports(storedHash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提交到哈希线程池；调用方等待超时取消future后，仍在队列中的任务被移出队列，已出队的任务在开始计算前跳过
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable command = () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        future.whenComplete((result, e) -> {
+            if (e instanceof CancellationException) {
+                executor.remove(command);
+            }
+        });
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException e) {
+            log.warn("密码哈希线程池已满，拒绝请求");
+            future.completeExceptionally(new BaseException(ErrorCode.SYSTEM_BUSY));
+        }
+        return future;
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(passwordProperties.getHashTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            //CompletableFuture不会中断执行中的线程，排队中的任务由submit中的取消回调处理
+            future.cancel(true);
+            throw new BaseException(ErrorCode.SYSTEM_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(ErrorCode.SYSTEM_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BaseException) {
+                throw (BaseException) e.getCause();
+            }
+            throw new BaseException(ErrorCode.SYSTEM_ERROR);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.cache.PostCounterBatch;
+import com.swshenyun.cache.PostCounterStore;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.mapper.PostCounterFlushMapper;
+import com.swshenyun.mapper.PostFavourMapper;
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.mapper.PostThumbMapper;
+import com.swshenyun.properties.PostCounterProperties;
+import com.swshenyun.service.HotPostService;
+import com.swshenyun.service.PostCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 帖子点赞、收藏
+ * 点击只修改缓冲(用户集合+计数增量)，不直接更新post行，避免热门帖子上每次点击一次行锁竞争；
+ * 定时把一段时间内的变更合并为 insert ignore / delete / 一条累加计数的update，在一个事务中写入；
+ * 同一事务中记录批次id，写库后确认失败或刷新锁过期导致同一批被再次取出时跳过，计数不会重复累加；
+ * 写库后把各帖子的计数增量计入热度排行
+ */
+@Slf4j
+@Service
+public class PostCounterServiceImpl implements PostCounterService {
+
+    @Autowired
+    private PostCounterStore postCounterStore;
+
+    @Autowired
+    private PostCounterProperties postCounterProperties;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private PostThumbMapper postThumbMapper;
+
+    @Autowired
+    private PostFavourMapper postFavourMapper;
+
+    @Autowired
+    private PostCounterFlushMapper postCounterFlushMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HotPostService hotPostService;
+
+    public boolean toggle(PostCounterStore.Type type, Long postId, Long userId) {
+        int result = postCounterStore.toggle(type, postId, userId);
+        if (result == PostCounterStore.NOT_LOADED) {
+            ensureLoaded(type, postId);
+            result = postCounterStore.toggle(type, postId, userId);
+            if (result == PostCounterStore.NOT_LOADED) {
+                throw new BaseException(ErrorCode.SYSTEM_BUSY);
+            }
+        }
+        return result == 1;
+    }
+
+    public boolean isMember(PostCounterStore.Type type, Long postId, Long userId) {
+        ensureLoaded(type, postId);
+        return postCounterStore.isMember(type, postId, userId);
+    }
+
+    public Map<Long, Long> pendingDeltas(PostCounterStore.Type type, Collection<Long> postIds) {
+        return postCounterStore.pendingDeltas(type, postIds);
+    }
+
+    @Scheduled(fixedDelayString = "${com.post.counter.flush-millis:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("帖子计数写库失败，下次重试", e);
+        }
+    }
+
+    /**
+     * 关闭时写入剩余计数，在redis连接工厂停止之前执行
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        try {
+            log.info("关闭前写入帖子计数：{}条", flush());
+        } catch (Exception e) {
+            log.error("关闭前写入帖子计数失败", e);
+        }
+    }
+
+    public synchronized int flush() {
+        int written = 0;
+        for (PostCounterStore.Type type : PostCounterStore.Type.values()) {
+            PostCounterBatch batch = postCounterStore.drain(type);
+            if (batch == null) {
+                continue;
+            }
+            //写库失败时不确认，下次drain取回同一批重试；批次id已存在说明上次已提交、只是没有确认
+            Boolean applied = transactionTemplate.execute(status -> {
+                if (postCounterFlushMapper.insertIgnore(batch.getBatchId()) == 0) {
+                    return false;
+                }
+                write(type, batch);
+                return true;
+            });
+            postCounterStore.ack(type, batch);
+            if (!Boolean.TRUE.equals(applied)) {
+                log.info("帖子计数批次已写库，跳过：{}", batch.getBatchId());
+                continue;
+            }
+            hotPostService.recordCounts(type, batch.getDeltas());
+            written += batch.getAdded().size() + batch.getRemoved().size();
+        }
+        return written;
+    }
+
+    /**
+     * 清理过期的批次记录，只用于识别刷新锁有效期内的重试
+     */
+    @Scheduled(fixedDelayString = "${com.post.counter.flush-record-cleanup-millis:3600000}")
+    public void cleanupFlushRecords() {
+        try {
+            int deleted = postCounterFlushMapper.deleteBefore(
+                    LocalDateTime.now().minusHours(postCounterProperties.getFlushRecordRetentionHours()));
+            log.info("清理帖子计数批次记录：{}条", deleted);
+        } catch (Exception e) {
+            log.error("清理帖子计数批次记录失败", e);
+        }
+    }
+
+    private void write(PostCounterStore.Type type, PostCounterBatch batch) {
+        int batchSize = postCounterProperties.getBatchSize();
+        boolean thumb = type == PostCounterStore.Type.THUMB;
+        chunked(batch.getAdded(), batchSize, thumb ? postThumbMapper::insertIgnoreBatch : postFavourMapper::insertIgnoreBatch);
+        chunked(batch.getRemoved(), batchSize, thumb ? postThumbMapper::deleteBatch : postFavourMapper::deleteBatch);
+        Map<Long, Long> chunk = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : batch.getDeltas().entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == batchSize) {
+                postMapper.incrementCounts(type.getColumn(), chunk);
+                chunk = new HashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            postMapper.incrementCounts(type.getColumn(), chunk);
+        }
+    }
+
+    private void ensureLoaded(PostCounterStore.Type type, Long postId) {
+        if (postCounterStore.isLoaded(type, postId)) {
+            return;
+        }
+        List<Long> userIds = type == PostCounterStore.Type.THUMB
+                ? postThumbMapper.listUserIds(postId)
+                : postFavourMapper.listUserIds(postId);
+        postCounterStore.load(type, postId, userIds);
+    }
+
+    private static <T> void chunked(List<T> items, int size, Consumer<List<T>> writer) {
+        for (int from = 0; from < items.size(); from += size) {
+            writer.accept(items.subList(from, Math.min(from + size, items.size())));
+        }
+    }
+}
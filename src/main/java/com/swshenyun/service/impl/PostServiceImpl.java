@@ -0,0 +1,288 @@
+package com.swshenyun.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.swshenyun.cache.PostCounterStore;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.constant.NotificationConstant;
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.context.BaseContext;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.pojo.dto.PostAddDTO;
+import com.swshenyun.pojo.dto.PostHotQueryDTO;
+import com.swshenyun.pojo.dto.PostQueryDTO;
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.dto.PostUpdateDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.pojo.vo.CursorPageVO;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.pojo.vo.PostHotVO;
+import com.swshenyun.pojo.vo.PostSearchVO;
+import com.swshenyun.pojo.vo.PostVO;
+import com.swshenyun.search.PostSearchHits;
+import com.swshenyun.service.HotPostService;
+import com.swshenyun.service.NotificationService;
+import com.swshenyun.service.OutboxService;
+import com.swshenyun.service.PostCounterService;
+import com.swshenyun.service.PostSearchService;
+import com.swshenyun.service.PostService;
+import com.swshenyun.trace.Traced;
+import com.swshenyun.utils.PostTagUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+* @description 针对表【post(帖子)】的数据库操作Service实现
+*/
+@Slf4j
+@Service
+@Traced
+public class PostServiceImpl extends ServiceImpl<PostMapper, Post>
+    implements PostService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private HotPostService hotPostService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 发布帖子，索引由发件箱事件异步更新
+     * @param postAddDTO
+     * @return 帖子id
+     */
+    public Long addPost(PostAddDTO postAddDTO) {
+        if (postAddDTO.getTitle() == null || postAddDTO.getTitle().isBlank()) {
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
+        Post post = new Post();
+        post.setTitle(postAddDTO.getTitle());
+        post.setContent(postAddDTO.getContent());
+        post.setTags(PostTagUtils.toJson(postAddDTO.getTags()));
+        post.setUserId(BaseContext.getCurrentId());
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (!this.save(post)) {
+                throw new BaseException(ErrorCode.OPERATION_ERROR);
+            }
+            outboxService.publish(OutboxEventConstant.AGGREGATE_POST, post.getId(), OutboxEventConstant.POST_CREATED, null);
+        });
+        return post.getId();
+    }
+
+    /**
+     * 修改帖子，只能修改自己的，只更新非空字段
+     * @param postUpdateDTO
+     */
+    public void updatePost(PostUpdateDTO postUpdateDTO) {
+        Post post = getExistingPost(postUpdateDTO.getId());
+        if (!post.getUserId().equals(BaseContext.getCurrentId())) {
+            throw new BaseException(ErrorCode.NO_AUTH_ERROR);
+        }
+        Post update = new Post();
+        update.setId(post.getId());
+        update.setTitle(postUpdateDTO.getTitle());
+        update.setContent(postUpdateDTO.getContent());
+        update.setTags(PostTagUtils.toJson(postUpdateDTO.getTags()));
+        if (update.getTitle() == null && update.getContent() == null && update.getTags() == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (!this.updateById(update)) {
+                throw new BaseException(ErrorCode.OPERATION_ERROR);
+            }
+            outboxService.publish(OutboxEventConstant.AGGREGATE_POST, post.getId(), OutboxEventConstant.POST_UPDATED, null);
+        });
+    }
+
+    /**
+     * 删除帖子，只能删除自己的
+     * @param id
+     */
+    public void deletePost(Long id) {
+        Post post = getExistingPost(id);
+        if (!post.getUserId().equals(BaseContext.getCurrentId())) {
+            throw new BaseException(ErrorCode.NO_AUTH_ERROR);
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            this.removeById(id);
+            outboxService.publish(OutboxEventConstant.AGGREGATE_POST, id, OutboxEventConstant.POST_DELETED, null);
+        });
+    }
+
+    /**
+     * 帖子详情，计数叠加尚未写库的增量，并返回当前用户是否已点赞/收藏
+     * @param id
+     * @return
+     */
+    public PostVO getPostVO(Long id) {
+        Post post = getExistingPost(id);
+        PostVO postVO = toPostVOs(List.of(post)).get(0);
+        Long userId = BaseContext.getCurrentId();
+        if (userId != null) {
+            postVO.setHasThumb(postCounterService.isMember(PostCounterStore.Type.THUMB, id, userId));
+            postVO.setHasFavour(postCounterService.isMember(PostCounterStore.Type.FAVOUR, id, userId));
+        }
+        return postVO;
+    }
+
+    /**
+     * 按id倒序游标分页
+     * @param postQueryDTO
+     * @return
+     */
+    public CursorPageVO<PostVO> listByCursor(PostQueryDTO postQueryDTO) {
+        Integer pageSize = postQueryDTO.getPageSize();
+        int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        LambdaQueryWrapper<Post> wrapper = new LambdaQueryWrapper<>();
+        wrapper.lt(postQueryDTO.getLastId() != null, Post::getId, postQueryDTO.getLastId())
+                .eq(postQueryDTO.getUserId() != null, Post::getUserId, postQueryDTO.getUserId())
+                .orderByDesc(Post::getId)
+                .last("limit " + (size + 1));
+        List<Post> posts = this.list(wrapper);
+        boolean hasMore = posts.size() > size;
+        if (hasMore) {
+            posts = posts.subList(0, size);
+        }
+        List<PostVO> records = toPostVOs(posts);
+        Long nextCursor = posts.isEmpty() ? null : posts.get(posts.size() - 1).getId();
+        return new CursorPageVO<>(records, nextCursor, hasMore);
+    }
+
+    /**
+     * 全文检索，按检索结果的顺序从数据库读取帖子
+     * @param postSearchDTO
+     * @return
+     */
+    public PostSearchVO search(PostSearchDTO postSearchDTO) {
+        PostSearchHits hits = postSearchService.search(postSearchDTO);
+        //索引刷新前已删除的帖子在数据库中查不到，跳过
+        return new PostSearchVO(listInOrder(hits.getIds()), hits.getTotal());
+    }
+
+    /**
+     * 热门帖子，从热度排行取一页id后按主键读取，不扫描post表
+     * @param postHotQueryDTO
+     * @return
+     */
+    public PostHotVO listHot(PostHotQueryDTO postHotQueryDTO) {
+        Integer pageNum = postHotQueryDTO.getPageNum();
+        Integer pageSize = postHotQueryDTO.getPageSize();
+        int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        int offset = (pageNum == null || pageNum <= 1 ? 0 : pageNum - 1) * size;
+        List<Long> ids = hotPostService.listHotIds(offset, size);
+        return new PostHotVO(listInOrder(ids), hotPostService.size());
+    }
+
+    /**
+     * 点赞/取消点赞
+     * @param postId
+     * @return 操作后是否为已点赞
+     */
+    public boolean doPostThumb(Long postId) {
+        Post post = getExistingPost(postId);
+        boolean thumb = postCounterService.toggle(PostCounterStore.Type.THUMB, postId, BaseContext.getCurrentId());
+        if (thumb) {
+            notifyAuthor(post, NotificationConstant.POST_THUMB);
+        }
+        return thumb;
+    }
+
+    /**
+     * 收藏/取消收藏
+     * @param postId
+     * @return 操作后是否为已收藏
+     */
+    public boolean doPostFavour(Long postId) {
+        Post post = getExistingPost(postId);
+        boolean favour = postCounterService.toggle(PostCounterStore.Type.FAVOUR, postId, BaseContext.getCurrentId());
+        if (favour) {
+            notifyAuthor(post, NotificationConstant.POST_FAVOUR);
+        }
+        return favour;
+    }
+
+    /**
+     * 通知作者帖子被点赞/收藏，同一帖子未发出的通知合并为一条，自己操作自己的帖子不通知
+     */
+    private void notifyAuthor(Post post, String type) {
+        Long userId = BaseContext.getCurrentId();
+        if (post.getUserId().equals(userId)) {
+            return;
+        }
+        NotificationVO message = NotificationVO.of(type, type + ":" + post.getId(),
+                Map.of("postId", post.getId(), "userId", userId));
+        notificationService.notifyUsers(List.of(post.getUserId()), message);
+    }
+
+    /**
+     * 按给定id的顺序读取帖子，已删除的跳过
+     */
+    private List<PostVO> listInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Post> posts = this.listByIds(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return toPostVOs(ids.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private Post getExistingPost(Long id) {
+        if (id == null) {
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
+        Post post = this.getById(id);
+        if (post == null) {
+            throw new BaseException(ErrorCode.NOT_FOUND_ERROR);
+        }
+        return post;
+    }
+
+    /**
+     * 计数叠加尚未写库的增量，整页帖子的增量按类型一次读取
+     */
+    private List<PostVO> toPostVOs(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = posts.stream().map(Post::getId).toList();
+        Map<Long, Long> thumbDeltas = postCounterService.pendingDeltas(PostCounterStore.Type.THUMB, ids);
+        Map<Long, Long> favourDeltas = postCounterService.pendingDeltas(PostCounterStore.Type.FAVOUR, ids);
+        return posts.stream().map(post -> {
+            PostVO postVO = new PostVO();
+            BeanUtils.copyProperties(post, postVO, "tags", "thumbNum", "favourNum");
+            postVO.setTags(PostTagUtils.parse(post.getTags()));
+            postVO.setThumbNum(Math.max(0, post.getThumbNum() + thumbDeltas.getOrDefault(post.getId(), 0L)));
+            postVO.setFavourNum(Math.max(0, post.getFavourNum() + favourDeltas.getOrDefault(post.getId(), 0L)));
+            return postVO;
+        }).toList();
+    }
+}
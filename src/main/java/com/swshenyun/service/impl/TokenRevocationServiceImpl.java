@@ -0,0 +1,191 @@
+package com.swshenyun.service.impl;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.swshenyun.cache.TokenRevocationStore;
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.service.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static com.swshenyun.cache.TokenRevocationStore.JTI_MEMBER;
+import static com.swshenyun.cache.TokenRevocationStore.USER_MEMBER;
+
+/**
+ * 令牌吊销
+ * 吊销名单保存在共享存储中，本地维护一份布隆过滤器：过滤器判定不存在时直接放行，不访问redis；
+ * 判定可能存在时再查询共享存储确认。过滤器通过订阅频道实时追加，并定时全量重建以剔除已过期的元素、补齐丢失的消息
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    private final Object filterLock = new Object();
+
+    /**
+     * 当前使用的过滤器，初次加载失败时为null，此时所有令牌都查询共享存储
+     */
+    private volatile BloomFilter<CharSequence> bloomFilter;
+
+    /**
+     * 正在重建的过滤器，重建期间新增的元素同时写入
+     */
+    private BloomFilter<CharSequence> rebuildingFilter;
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        tokenRevocationStore.subscribe(this::onRevoked);
+        rebuild();
+    }
+
+    /**
+     * 吊销单个令牌(用户登出)
+     *
+     * @param jti
+     * @param expMillis 令牌过期时间戳(毫秒)
+     */
+    public void revokeToken(String jti, long expMillis) {
+        long ttlMillis = expMillis - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        tokenRevocationStore.revokeToken(jti, ttlMillis);
+        String member = JTI_MEMBER + jti;
+        onRevoked(member);
+        tokenRevocationStore.publish(member);
+    }
+
+    /**
+     * 吊销用户当前已签发的全部令牌(账户禁用)
+     *
+     * @param userId
+     */
+    public void revokeUser(Long userId) {
+        tokenRevocationStore.revokeUser(userId, System.currentTimeMillis(), jwtProperties.getUserTtl());
+        String member = USER_MEMBER + userId;
+        onRevoked(member);
+        tokenRevocationStore.publish(member);
+    }
+
+    /**
+     * 批量吊销用户已签发的全部令牌(批量禁用)
+     *
+     * @param userIds
+     */
+    public void revokeUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        tokenRevocationStore.revokeUsers(userIds, System.currentTimeMillis(), jwtProperties.getUserTtl());
+        List<String> members = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            String member = USER_MEMBER + userId;
+            onRevoked(member);
+            members.add(member);
+        }
+        tokenRevocationStore.publishAll(members);
+    }
+
+    /**
+     * 令牌是否已被吊销，共享存储异常时向上抛出，由调用方按校验失败处理
+     *
+     * @param token
+     * @return
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        String jti = token.getJti();
+        if (jti != null && mightContain(filter, JTI_MEMBER + jti)
+                && tokenRevocationStore.isTokenRevoked(jti)) {
+            return true;
+        }
+        Long userId = token.getUserId();
+        if (mightContain(filter, USER_MEMBER + userId)) {
+            Long epoch = tokenRevocationStore.getUserEpoch(userId);
+            //jwt的iat只精确到秒，按秒比较：吊销那一秒内签发的令牌一律视为已吊销，
+            //即使是重新启用后立即签发的，也只需在下一秒重新登录
+            return epoch != null && token.getIssuedAtMillis() / 1000 <= epoch / 1000;
+        }
+        return false;
+    }
+
+    /**
+     * 从共享存储全量重建布隆过滤器
+     */
+    @Scheduled(initialDelayString = "${com.jwt.user-revocation-rebuild-millis:600000}",
+            fixedDelayString = "${com.jwt.user-revocation-rebuild-millis:600000}")
+    public void rebuild() {
+        BloomFilter<CharSequence> next = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8),
+                jwtProperties.getUserRevocationExpectedInsertions(),
+                jwtProperties.getUserRevocationFpp());
+        synchronized (filterLock) {
+            rebuildingFilter = next;
+        }
+        try {
+            tokenRevocationStore.forEachRevoked(next::put);
+            synchronized (filterLock) {
+                bloomFilter = next;
+            }
+            log.info("吊销布隆过滤器重建完成，元素数量约：{}", next.approximateElementCount());
+        } catch (Exception e) {
+            log.error("吊销布隆过滤器重建失败", e);
+        } finally {
+            synchronized (filterLock) {
+                rebuildingFilter = null;
+            }
+        }
+    }
+
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 本节点吊销或收到广播：写入布隆过滤器后通知监听者
+     */
+    private void onRevoked(String member) {
+        addLocal(member);
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(member);
+            } catch (Exception e) {
+                log.warn("吊销监听处理失败：{}", member, e);
+            }
+        }
+    }
+
+    private void addLocal(String member) {
+        synchronized (filterLock) {
+            if (bloomFilter != null) {
+                bloomFilter.put(member);
+            }
+            if (rebuildingFilter != null) {
+                rebuildingFilter.put(member);
+            }
+        }
+    }
+
+    private static boolean mightContain(BloomFilter<CharSequence> filter, String member) {
+        return filter == null || filter.mightContain(member);
+    }
+}
@@ -0,0 +1,198 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.cache.UsernameBloomFilter;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.pojo.dto.UserImportRowDTO;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.UserImportResultVO;
+import com.swshenyun.properties.UserImportProperties;
+import com.swshenyun.service.PasswordService;
+import com.swshenyun.service.UserImportService;
+import com.swshenyun.service.UserService;
+import com.swshenyun.utils.UserImportReader;
+import com.swshenyun.utils.UserValidateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * 批量导入用户
+ * 按批读取文件：校验 -> 批内去重 -> 一次in查询与数据库查重 -> 并行哈希 -> jdbc批量插入，
+ * 内存中只保留当前批和有上限的失败明细，与文件大小无关
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    /**
+     * 哈希线程池繁忙时的重试次数
+     */
+    private static final int HASH_RETRIES = 50;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private UserImportProperties userImportProperties;
+
+    /**
+     * 导入用户
+     *
+     * @param reader
+     * @param batchSize 为空时使用默认配置
+     * @return
+     */
+    public UserImportResultVO importUsers(UserImportReader reader, Integer batchSize) {
+        int size = batchSize == null ? userImportProperties.getBatchSize()
+                : Math.max(1, Math.min(batchSize, userImportProperties.getMaxBatchSize()));
+        UserImportResultVO result = new UserImportResultVO();
+        List<UserImportRowDTO> batch = new ArrayList<>(size);
+        while (true) {
+            UserImportRowDTO row;
+            try {
+                if (!reader.hasNext()) {
+                    break;
+                }
+                row = reader.next();
+            } catch (RuntimeException e) {
+                log.warn("导入文件解析失败，已读取{}行", result.getTotal(), e);
+                fail(result, new UserImportRowDTO(result.getTotal() + 1, null, null), "文件解析失败，后续行未导入");
+                break;
+            }
+            result.setTotal(result.getTotal() + 1);
+            String error = validate(row);
+            if (error != null) {
+                fail(result, row, error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() >= size) {
+                importBatch(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, result);
+        }
+        log.info("批量导入完成：共{}行，成功{}，失败{}", result.getTotal(), result.getSuccess(), result.getFailed());
+        return result;
+    }
+
+    private void importBatch(List<UserImportRowDTO> batch, UserImportResultVO result) {
+        // 1.批内去重
+        Map<String, UserImportRowDTO> rows = new LinkedHashMap<>();
+        for (UserImportRowDTO row : batch) {
+            if (rows.putIfAbsent(row.getUsername(), row) != null) {
+                fail(result, row, "文件中用户名重复");
+            }
+        }
+
+        // 2.数据库查重，已导入的前几批也会在这里被查到
+        Set<String> existing = userService.lambdaQuery()
+                .select(User::getUsername)
+                .in(User::getUsername, rows.keySet())
+                .list()
+                .stream()
+                .map(User::getUsername)
+                .collect(Collectors.toSet());
+        for (String username : existing) {
+            fail(result, rows.remove(username), ErrorCode.ACCOUNT_EXISTS.getMessage());
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // 3.密码哈希
+        List<UserImportRowDTO> toInsert = new ArrayList<>(rows.values());
+        List<User> users = hashAll(toInsert);
+
+        // 4.批量插入，并发注册导致冲突时逐行插入以定位失败行
+        try {
+            userService.saveBatch(users, users.size());
+            succeed(result, users);
+        } catch (DataIntegrityViolationException e) {
+            log.info("批量插入出现用户名冲突，改为逐行插入");
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    userService.save(users.get(i));
+                    succeed(result, List.of(users.get(i)));
+                } catch (DuplicateKeyException ex) {
+                    fail(result, toInsert.get(i), ErrorCode.ACCOUNT_EXISTS.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 每次最多向哈希线程池提交hashParallelism个任务，线程池繁忙时等待后重试，不与登录抢占队列
+     */
+    private List<User> hashAll(List<UserImportRowDTO> rows) {
+        int parallelism = Math.max(1, userImportProperties.getHashParallelism());
+        List<User> users = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += parallelism) {
+            List<UserImportRowDTO> window = rows.subList(from, Math.min(from + parallelism, rows.size()));
+            List<CompletableFuture<String>> futures = window.stream()
+                    .map(row -> passwordService.hashAsync(row.getPassword()))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < window.size(); i++) {
+                User user = new User();
+                user.setUsername(window.get(i).getUsername());
+                user.setPassword(join(futures.get(i), window.get(i).getPassword()));
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    private String join(CompletableFuture<String> future, String rawPassword) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof BaseException) || attempt >= HASH_RETRIES) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(20L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new BaseException(ErrorCode.SYSTEM_BUSY);
+                }
+                future = passwordService.hashAsync(rawPassword);
+            }
+        }
+    }
+
+    private static String validate(UserImportRowDTO row) {
+        String error = UserValidateUtils.validateUsername(row.getUsername());
+        return error != null ? error : UserValidateUtils.validatePassword(row.getPassword());
+    }
+
+    private void succeed(UserImportResultVO result, List<User> users) {
+        result.setSuccess(result.getSuccess() + users.size());
+        users.forEach(user -> usernameBloomFilter.put(user.getUsername()));
+    }
+
+    private void fail(UserImportResultVO result, UserImportRowDTO row, String reason) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < userImportProperties.getMaxErrors()) {
+            result.getErrors().add(new UserImportResultVO.RowError(row.getRowNum(), row.getUsername(), reason));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
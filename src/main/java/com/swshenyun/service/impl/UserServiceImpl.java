@@ -3,17 +3,42 @@ package com.swshenyun.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.UserCache;
+import com.swshenyun.cache.UsernameBloomFilter;
 import com.swshenyun.common.ErrorCode;
+import com.swshenyun.constant.OutboxEventConstant;
 import com.swshenyun.constant.StatusConstant;
+import com.swshenyun.constant.UserRoleConstant;
+import com.swshenyun.context.BaseContext;
 import com.swshenyun.exception.BaseException;
 import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.pojo.dto.UserDTO;
 import com.swshenyun.pojo.dto.UserLoginDTO;
+import com.swshenyun.pojo.dto.UserQueryDTO;
 import com.swshenyun.pojo.dto.UserRegisterDTO;
+import com.swshenyun.pojo.dto.UserStatusBatchDTO;
 import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.CursorPageVO;
+import com.swshenyun.service.OutboxService;
+import com.swshenyun.service.PasswordService;
+import com.swshenyun.service.TokenRevocationService;
 import com.swshenyun.service.UserService;
+import com.swshenyun.trace.Traced;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
 * @author 神殒魔灭
@@ -22,23 +47,54 @@ import org.springframework.util.DigestUtils;
 */
 @Slf4j
 @Service
+@Traced
+@Timed(value = "user.service", description = "用户service方法耗时")
 public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     implements UserService{
 
     /**
-     * 密码盐值
+     * 游标分页默认、最大每页条数
+     */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 批量修改状态时每条update语句包含的id数
      */
-    private static final String SALT = "symm";
+    private static final int STATUS_BATCH_SIZE = 500;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
-     * 用户登录
+     * 用户登录，旧算法的密码在校验通过后异步升级为当前算法
      * @param userLoginDTO
      * @return
      */
     public User login(UserLoginDTO userLoginDTO) {
         String username = userLoginDTO.getUsername();
-
-        String password = DigestUtils.md5DigestAsHex((SALT+userLoginDTO.getPassword()).getBytes());
+        String password = userLoginDTO.getPassword();
 
         //1.验证数据库是否存在账户
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
@@ -48,13 +104,16 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             throw new BaseException(ErrorCode.ACCOUNT_NOT_FOUND);
         }
 
-        if (!password.equals(user.getPassword())) {
+        if (!passwordService.matches(password, user.getPassword())) {
             throw new BaseException(ErrorCode.PASSWORD_ERROR);
         }
-        //判断账户status
+        //判断账户status，禁用账户不升级密码哈希
         if (user.getStatus().equals(StatusConstant.DISABLE)) {
             throw new BaseException(ErrorCode.ACCOUNT_LOCKED);
         }
+        if (passwordService.needsRehash(user.getPassword())) {
+            rehashPassword(user.getId(), password, user.getPassword());
+        }
 
         //2.返回脱敏账户数据
         return getSafeUser(user);
@@ -77,6 +136,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         safeUser.setAvatar(user.getAvatar());
         safeUser.setProfile(user.getProfile());
         safeUser.setStatus(user.getStatus());
+        safeUser.setUserRole(user.getUserRole());
+        safeUser.setVersion(user.getVersion());
+        safeUser.setLastLoginTime(user.getLastLoginTime());
+        safeUser.setLoginCount(user.getLoginCount());
         safeUser.setCreateTime(user.getCreateTime());
         safeUser.setUpdateTime(user.getUpdateTime());
         return safeUser;
@@ -84,7 +147,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
 
 
     /**
-     * 用户注册
+     * 用户注册，用户名唯一性由唯一索引保证，一次插入完成；布隆过滤器与缓存由发件箱事件异步更新
+     * 密码哈希在事务之外完成，等待哈希线程池时不占用数据库连接
      * @return id 用户
      */
     public Long register(UserRegisterDTO userRegisterDTO) {
@@ -96,45 +160,290 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             throw new BaseException(ErrorCode.PASSWORD_ERROR);
         }
 
-        //username不能重复
-        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(User::getUsername,username);
-        long count = this.count(wrapper);
-        if (count>0) {
-            throw new BaseException(ErrorCode.ACCOUNT_EXISTS);
-        }
-
-        // 2.md5加密
-        String md5Password = DigestUtils.md5DigestAsHex((SALT + password).getBytes());
+        // 2.密码哈希
+        String hashedPassword = passwordService.hash(password);
 
-        // 3.插入
+        // 3.插入与发件箱事件在同一事务，username重复时唯一索引冲突
         User user = new User();
         user.setUsername(username);
-        user.setPassword(md5Password);
-        boolean saveResult = this.save(user);
-        if (!saveResult) {
-            throw new BaseException(ErrorCode.REGISTER_ERROR);
-        }
+        user.setPassword(hashedPassword);
+        transactionTemplate.executeWithoutResult(tx -> {
+            boolean saveResult;
+            try {
+                saveResult = this.save(user);
+            } catch (DuplicateKeyException e) {
+                throw new BaseException(ErrorCode.ACCOUNT_EXISTS);
+            }
+            if (!saveResult) {
+                throw new BaseException(ErrorCode.REGISTER_ERROR);
+            }
+            outboxService.publish(OutboxEventConstant.AGGREGATE_USER, user.getId(),
+                    OutboxEventConstant.USER_REGISTERED, toJson(Map.of("username", username)));
+        });
         return user.getId();
     }
 
     /**
-     * 启用禁用账户
+     * 升级密码哈希，仅当数据库中仍是旧哈希时更新，更新语句在异步线程池执行；线程池繁忙时跳过，下次登录再升级
+     * @param id
+     * @param rawPassword
+     * @param oldHash
+     */
+    private void rehashPassword(Long id, String rawPassword, String oldHash) {
+        passwordService.hashAsync(rawPassword)
+                .thenAcceptAsync(newHash -> this.lambdaUpdate()
+                        .set(User::getPassword, newHash)
+                        .eq(User::getId, id)
+                        .eq(User::getPassword, oldHash)
+                        .update(), asyncExecutor)
+                .exceptionally(e -> {
+                    log.warn("密码哈希升级失败，id：{}", id, e);
+                    return null;
+                });
+    }
+
+    /**
+     * 按id游标分页查询脱敏用户，多查一条判断是否还有下一页，不使用offset
+     * @param userQueryDTO
+     * @return
+     */
+    public CursorPageVO<User> listByCursor(UserQueryDTO userQueryDTO) {
+        Integer pageSize = userQueryDTO.getPageSize();
+        int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        List<User> records = this.baseMapper.listSafeUsers(userQueryDTO, size + 1);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+        Long nextCursor = records.isEmpty() ? null : records.get(records.size() - 1).getId();
+        return new CursorPageVO<>(records, nextCursor, hasMore);
+    }
+
+    /**
+     * 用户名是否可用，布隆过滤器判定不存在时不访问数据库；
+     * 查库时包括已逻辑删除的用户，它们的用户名仍被唯一索引占用
+     * @param username
+     * @return
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (!usernameBloomFilter.mightContain(username)) {
+            return true;
+        }
+        return this.baseMapper.countByUsername(username) == 0;
+    }
+
+    /**
+     * 校验用户是否为管理员，角色从两级缓存中的脱敏用户读取
+     * @param userId
+     */
+    public void checkAdmin(Long userId) {
+        User user = userId == null ? null : getSafeUserById(userId);
+        if (user == null || !UserRoleConstant.ADMIN_ROLE.equals(user.getUserRole())) {
+            throw new BaseException(ErrorCode.NO_AUTH_ERROR);
+        }
+    }
+
+    /**
+     * 启用禁用账户，禁用时吊销该用户已签发的令牌；令牌吊销关系到安全，仍在请求中同步完成
      * @param status
      * @param id
      */
+    @Transactional
     public void startOrStop(Integer status, Long id) {
-        User user = User.builder()
-                .id(id)
-                .status(status)
-                .build();
-
+        checkStatus(status);
+        if (id == null) {
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
         LambdaUpdateWrapper<User> wrapper = new LambdaUpdateWrapper<>();
-        wrapper.eq(User::getId, user.getId());
+        wrapper.set(User::getStatus, status)
+                .eq(User::getId, id);
         boolean update = this.update(wrapper);
         if (!update) {
             throw new BaseException(ErrorCode.OPERATION_ERROR);
         }
+        outboxService.publish(OutboxEventConstant.AGGREGATE_USER, id, OutboxEventConstant.USER_STATUS_CHANGED, null);
+        if (StatusConstant.DISABLE.equals(status)) {
+            tokenRevocationService.revokeUser(id);
+        }
+    }
+
+    /**
+     * 批量启用禁用账户，按ids或查询条件选出用户，每 STATUS_BATCH_SIZE 个id执行一条 update ... where id in (...)，
+     * 每批与其发件箱事件在一个短事务中提交，不在一个大事务中长时间持有行锁；禁用时同时吊销令牌
+     * @param userStatusBatchDTO
+     * @return 实际变更的行数，状态本就相同的不计入
+     */
+    public int updateStatusBatch(UserStatusBatchDTO userStatusBatchDTO) {
+        Integer status = userStatusBatchDTO.getStatus();
+        checkStatus(status);
+        List<Long> ids = userStatusBatchDTO.getIds();
+        UserQueryDTO query = userStatusBatchDTO.getQuery();
+        int changed = 0;
+        if (ids != null && !ids.isEmpty()) {
+            List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+            for (int from = 0; from < distinctIds.size(); from += STATUS_BATCH_SIZE) {
+                changed += updateStatusChunk(status,
+                        distinctIds.subList(from, Math.min(from + STATUS_BATCH_SIZE, distinctIds.size())));
+            }
+        } else if (query != null && hasCondition(query)) {
+            //按id游标分批取出，更新后条件可能不再匹配，游标保证不会重复或遗漏
+            UserQueryDTO cursor = new UserQueryDTO();
+            BeanUtils.copyProperties(query, cursor);
+            cursor.setLastId(null);
+            List<Long> chunk;
+            do {
+                chunk = this.baseMapper.listIds(cursor, STATUS_BATCH_SIZE);
+                if (!chunk.isEmpty()) {
+                    changed += updateStatusChunk(status, chunk);
+                    cursor.setLastId(chunk.get(chunk.size() - 1));
+                }
+            } while (chunk.size() == STATUS_BATCH_SIZE);
+        } else {
+            //不允许无条件修改全部用户
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
+        log.info("批量修改账户状态为{}，变更{}行", status, changed);
+        return changed;
+    }
+
+    private int updateStatusChunk(Integer status, List<Long> ids) {
+        Integer rows = transactionTemplate.execute(tx -> {
+            LambdaUpdateWrapper<User> wrapper = new LambdaUpdateWrapper<>();
+            wrapper.set(User::getStatus, status)
+                    .in(User::getId, ids)
+                    .ne(User::getStatus, status);
+            int updated = this.baseMapper.update(null, wrapper);
+            if (updated > 0) {
+                outboxService.publishAll(OutboxEventConstant.AGGREGATE_USER, ids, OutboxEventConstant.USER_STATUS_CHANGED);
+            }
+            return updated;
+        });
+        if (rows != null && rows > 0 && StatusConstant.DISABLE.equals(status)) {
+            tokenRevocationService.revokeUsers(ids);
+        }
+        return rows == null ? 0 : rows;
+    }
+
+    private static boolean hasCondition(UserQueryDTO query) {
+        return query.getStatus() != null || query.getSex() != null
+                || query.getCreateTimeBegin() != null || query.getCreateTimeEnd() != null;
+    }
+
+    private static void checkStatus(Integer status) {
+        if (!StatusConstant.ENABLE.equals(status) && !StatusConstant.DISABLE.equals(status)) {
+            throw new BaseException(ErrorCode.PARAMS_ERROR);
+        }
+    }
+
+    /**
+     * 修改用户信息，只更新请求中非空且与数据库不同的字段，没有变化时不执行update；
+     * 按请求中的版本号做乐观锁校验，版本不一致说明已被他人修改；只能修改自己的信息，管理员除外
+     * @param userDTO
+     * @return 修改后的版本号
+     */
+    @Transactional
+    public Integer updateUser(UserDTO userDTO) {
+        Long id = userDTO.getId();
+        Integer version = userDTO.getVersion();
+        if (id == null || version == null) {
+            throw new BaseException(ErrorCode.PARAMS_NULL_ERROR);
+        }
+        Long currentId = BaseContext.getCurrentId();
+        if (!id.equals(currentId)) {
+            checkAdmin(currentId);
+        }
+        User current = this.getById(id);
+        if (current == null) {
+            throw new BaseException(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        if (!version.equals(current.getVersion())) {
+            throw new BaseException(ErrorCode.DATA_CONFLICT);
+        }
+
+        //只保留发生变化的字段，其余为null不参与更新
+        User dirty = new User();
+        boolean changed = false;
+        if (isChanged(userDTO.getPhone(), current.getPhone())) {
+            dirty.setPhone(userDTO.getPhone());
+            changed = true;
+        }
+        if (isChanged(userDTO.getEmail(), current.getEmail())) {
+            dirty.setEmail(userDTO.getEmail());
+            changed = true;
+        }
+        if (isChanged(userDTO.getSex(), current.getSex())) {
+            dirty.setSex(userDTO.getSex());
+            changed = true;
+        }
+        if (isChanged(userDTO.getProfile(), current.getProfile())) {
+            dirty.setProfile(userDTO.getProfile());
+            changed = true;
+        }
+        if (!changed) {
+            return version;
+        }
+
+        dirty.setId(id);
+        dirty.setVersion(version);
+        //乐观锁插件追加 version = ? 条件，并将dirty的version加1
+        if (!this.updateById(dirty)) {
+            throw new BaseException(ErrorCode.DATA_CONFLICT);
+        }
+        outboxService.publish(OutboxEventConstant.AGGREGATE_USER, id, OutboxEventConstant.USER_UPDATED, null);
+        return dirty.getVersion();
+    }
+
+    /**
+     * 替换头像，版本号加1，使持有旧版本的编辑请求冲突
+     * @param id
+     * @param avatar
+     * @return 原头像地址
+     */
+    @Transactional
+    public String updateAvatar(Long id, String avatar) {
+        User current = this.getById(id);
+        if (current == null) {
+            throw new BaseException(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        LambdaUpdateWrapper<User> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.set(User::getAvatar, avatar)
+                .setSql("version = version + 1")
+                .eq(User::getId, id);
+        this.update(wrapper);
+        outboxService.publish(OutboxEventConstant.AGGREGATE_USER, id, OutboxEventConstant.USER_UPDATED, null);
+        return current.getAvatar();
+    }
+
+    private static boolean isChanged(Object requested, Object current) {
+        return requested != null && !requested.equals(current);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 根据id获取脱敏用户，走两级缓存
+     * @param id
+     * @return 不存在返回null
+     */
+    public User getSafeUserById(Long id) {
+        return userCache.get(id, key -> {
+            User user = this.getById(key);
+            return user == null ? null : getSafeUser(user);
+        });
+    }
+
+    /**
+     * 用户数据变更后清除缓存
+     * @param id
+     */
+    public void evictSafeUser(Long id) {
+        userCache.invalidate(id);
     }
 
 
@@ -0,0 +1,66 @@
+package com.swshenyun.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 本地文件系统存储，用于开发和测试，由 WebMvcConfiguration 把 urlPrefix 映射到根目录
+ * 先写临时文件再原子重命名，读取方不会看到写了一半的文件
+ */
+public class LocalObjectStorage implements ObjectStorage {
+
+    private final Path root;
+
+    private final String urlPrefix;
+
+    public LocalObjectStorage(Path root, String urlPrefix) {
+        this.root = root.toAbsolutePath().normalize();
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + "/";
+    }
+
+    @Override
+    public void put(String key, InputStream in, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public String url(String key) {
+        return urlPrefix + key;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * key不能跳出根目录
+     */
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("非法的对象key：" + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,46 @@
+package com.swshenyun.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 对象存储，读写都是流式的，不在内存中保存整个文件
+ */
+public interface ObjectStorage {
+
+    /**
+     * 写入对象，已存在时覆盖
+     *
+     * @param key
+     * @param in 由调用方关闭
+     * @param contentLength 字节数，未知时为-1
+     * @param contentType
+     * @throws IOException
+     */
+    void put(String key, InputStream in, long contentLength, String contentType) throws IOException;
+
+    /**
+     * 读取对象
+     *
+     * @param key
+     * @return 由调用方关闭
+     * @throws IOException 对象不存在时抛出 java.nio.file.NoSuchFileException
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * 删除对象，不存在时忽略
+     *
+     * @param key
+     * @throws IOException
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * 对象的访问地址
+     *
+     * @param key
+     * @return
+     */
+    String url(String key);
+}
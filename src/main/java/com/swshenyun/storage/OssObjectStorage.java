@@ -0,0 +1,71 @@
+package com.swshenyun.storage;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.ObjectMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 阿里云oss存储，已知长度时直接以流上传，sdk不再缓冲整个请求体
+ */
+public class OssObjectStorage implements ObjectStorage {
+
+    private final OSS ossClient;
+
+    private final String bucket;
+
+    private final String urlPrefix;
+
+    public OssObjectStorage(OSS ossClient, String bucket, String urlPrefix) {
+        this.ossClient = ossClient;
+        this.bucket = bucket;
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + "/";
+    }
+
+    @Override
+    public void put(String key, InputStream in, long contentLength, String contentType) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentLength >= 0) {
+            metadata.setContentLength(contentLength);
+        }
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        try {
+            ossClient.putObject(bucket, key, in, metadata);
+        } catch (RuntimeException e) {
+            throw new IOException("oss上传失败：" + key, e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return ossClient.getObject(bucket, key).getObjectContent();
+        } catch (RuntimeException e) {
+            throw new IOException("oss读取失败：" + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            ossClient.deleteObject(bucket, key);
+        } catch (RuntimeException e) {
+            throw new IOException("oss删除失败：" + key, e);
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return urlPrefix + key;
+    }
+
+    /**
+     * 容器关闭时释放连接池
+     */
+    public void shutdown() {
+        ossClient.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.swshenyun.trace;
+
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.interceptor.TracingWebInterceptor;
+import com.swshenyun.properties.TracingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 响应体写出前设置Server-Timing头，写出之后响应已提交，不能再加头
+ * 序列化本身记为json span，只出现在导出的trace中
+ */
+@RestControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private TracingProperties tracingProperties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Trace trace = TraceContext.getCurrentTrace();
+        if (trace == null) {
+            return body;
+        }
+        if (tracingProperties.isServerTiming() && !trace.isServerTimingWritten()) {
+            response.getHeaders().add(TracingWebInterceptor.SERVER_TIMING_HEADER, trace.serverTiming());
+            trace.setServerTimingWritten(true);
+        }
+        //由拦截器的afterCompletion结束
+        trace.start("json", "write " + selectedContentType);
+        return body;
+    }
+}
@@ -0,0 +1,259 @@
+package com.swshenyun.trace;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 一次请求的span记录，只在请求线程上访问
+ * span按开始顺序存放在数组中，下标即span编号，父span为开始时尚未结束的最近一个span
+ */
+public class Trace {
+
+    /**
+     * 没有记录的span编号，结束时忽略
+     */
+    public static final int NONE = -1;
+
+    private final String traceId;
+
+    /**
+     * 上游传入的父span id，没有时为null
+     */
+    private final String remoteParentId;
+
+    /**
+     * 是否导出
+     */
+    private final boolean sampled;
+
+    private final int maxSpans;
+
+    private final long startEpochNanos;
+
+    private final long startNanos;
+
+    private String[] categories;
+
+    private String[] names;
+
+    private String[] details;
+
+    private int[] parents;
+
+    private long[] starts;
+
+    private long[] ends;
+
+    private int size;
+
+    private int current = NONE;
+
+    private int dropped;
+
+    private boolean serverTimingWritten;
+
+    public Trace(String traceId, String remoteParentId, boolean sampled, int maxSpans) {
+        this.traceId = traceId != null ? traceId : newTraceId();
+        this.remoteParentId = remoteParentId;
+        this.sampled = sampled;
+        this.maxSpans = maxSpans;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+        int capacity = Math.min(16, maxSpans);
+        categories = new String[capacity];
+        names = new String[capacity];
+        details = new String[capacity];
+        parents = new int[capacity];
+        starts = new long[capacity];
+        ends = new long[capacity];
+    }
+
+    /**
+     * 开始一个span，超过上限时不记录
+     *
+     * @param category 分类，Server-Timing按分类汇总，如 auth、service、sql
+     * @param name
+     * @return span编号，未记录时为NONE
+     */
+    public int start(String category, String name) {
+        if (size == categories.length) {
+            if (size >= maxSpans) {
+                dropped++;
+                return NONE;
+            }
+            grow();
+        }
+        int span = size++;
+        categories[span] = category;
+        names[span] = name;
+        parents[span] = current;
+        starts[span] = System.nanoTime();
+        current = span;
+        return span;
+    }
+
+    /**
+     * 结束span
+     *
+     * @param span
+     * @param detail 附加信息，如sql、状态码，可为null
+     */
+    public void end(int span, String detail) {
+        if (span == NONE || ends[span] != 0) {
+            return;
+        }
+        ends[span] = System.nanoTime();
+        details[span] = detail;
+        current = parents[span];
+    }
+
+    /**
+     * 结束所有未结束的span，根span附加detail
+     *
+     * @param detail
+     */
+    public void endAll(String detail) {
+        while (current != NONE) {
+            int span = current;
+            end(span, span == 0 ? detail : null);
+        }
+    }
+
+    /**
+     * Server-Timing头：按分类汇总耗时(毫秒)，嵌套在同分类span内的不重复计算，多次调用时desc带次数，根span记为total
+     * 例：auth;dur=0.213, service;dur=3.102, sql;desc="sql x2";dur=1.870, total;dur=4.025
+     *
+     * @return
+     */
+    public String serverTiming() {
+        long now = System.nanoTime();
+        String[] order = new String[size];
+        long[] nanos = new long[size];
+        int[] counts = new int[size];
+        int categoryCount = 0;
+        for (int span = 1; span < size; span++) {
+            if (ends[span] == 0 || nestedInSameCategory(span)) {
+                continue;
+            }
+            int index = 0;
+            while (index < categoryCount && !order[index].equals(categories[span])) {
+                index++;
+            }
+            if (index == categoryCount) {
+                order[categoryCount++] = categories[span];
+            }
+            nanos[index] += ends[span] - starts[span];
+            counts[index]++;
+        }
+        StringBuilder header = new StringBuilder();
+        for (int index = 0; index < categoryCount; index++) {
+            header.append(order[index]);
+            if (counts[index] > 1) {
+                header.append(";desc=\"").append(order[index]).append(" x").append(counts[index]).append('"');
+            }
+            header.append(";dur=");
+            appendMillis(header, nanos[index]);
+            header.append(", ");
+        }
+        long total = size > 0 ? (ends[0] != 0 ? ends[0] : now) - starts[0] : 0;
+        header.append("total;dur=");
+        appendMillis(header, total);
+        return header.toString();
+    }
+
+    private boolean nestedInSameCategory(int span) {
+        for (int parent = parents[span]; parent != NONE; parent = parents[parent]) {
+            if (categories[parent].equals(categories[span])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 纳秒转毫秒，保留3位小数；每个请求都会调用，不用String.format
+     */
+    private static void appendMillis(StringBuilder builder, long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        builder.append(micros / 1000).append('.');
+        if (fraction < 100) {
+            builder.append(fraction < 10 ? "00" : "0");
+        }
+        builder.append(fraction);
+    }
+
+    private void grow() {
+        int capacity = Math.min(categories.length * 2, maxSpans);
+        categories = Arrays.copyOf(categories, capacity);
+        names = Arrays.copyOf(names, capacity);
+        details = Arrays.copyOf(details, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HexFormat.of().toHexDigits(random.nextLong()) + HexFormat.of().toHexDigits(random.nextLong());
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getRemoteParentId() {
+        return remoteParentId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    public String category(int span) {
+        return categories[span];
+    }
+
+    public String name(int span) {
+        return names[span];
+    }
+
+    public String detail(int span) {
+        return details[span];
+    }
+
+    public int parent(int span) {
+        return parents[span];
+    }
+
+    /**
+     * span开始时间(unix纳秒)
+     */
+    public long startEpochNanos(int span) {
+        return startEpochNanos + (starts[span] - startNanos);
+    }
+
+    /**
+     * span结束时间(unix纳秒)，未结束的按开始时间
+     */
+    public long endEpochNanos(int span) {
+        return startEpochNanos + ((ends[span] != 0 ? ends[span] : starts[span]) - startNanos);
+    }
+
+    public boolean isServerTimingWritten() {
+        return serverTimingWritten;
+    }
+
+    public void setServerTimingWritten(boolean serverTimingWritten) {
+        this.serverTimingWritten = serverTimingWritten;
+    }
+}
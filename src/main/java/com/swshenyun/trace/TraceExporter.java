@@ -0,0 +1,190 @@
+package com.swshenyun.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.properties.TracingProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把采样的trace写到本地文件，代替collector
+ * 每行一个OTLP/JSON格式的ExportTraceServiceRequest，可用collector的otlpjsonfile receiver读取，或直接POST到 /v1/traces
+ * 单线程写文件，队列满时丢弃，不阻塞请求线程
+ */
+@Slf4j
+@Component
+public class TraceExporter {
+
+    private static final int KIND_INTERNAL = 1;
+
+    private static final int KIND_SERVER = 2;
+
+    private static final int KIND_CLIENT = 3;
+
+    @Autowired
+    private TracingProperties tracingProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.application.name:spring-boot-init}")
+    private String serviceName;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 只在导出线程上访问
+     */
+    private BufferedWriter writer;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("trace-export-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tracingProperties.getExportQueueCapacity()), threadFactory,
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 写完已提交的trace后关闭文件
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(5, TimeUnit.SECONDS) && writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("关闭trace导出文件失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 提交已结束的trace，之后请求线程不能再修改它
+     *
+     * @param trace
+     */
+    public void export(Trace trace) {
+        executor.execute(() -> write(trace));
+    }
+
+    private void write(Trace trace) {
+        try {
+            if (writer == null) {
+                Path path = Paths.get(tracingProperties.getExportFile()).toAbsolutePath();
+                Files.createDirectories(path.getParent());
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                log.info("trace导出文件：{}", path);
+            }
+            writer.write(objectMapper.writeValueAsString(toOtlp(trace)));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("trace导出失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 转成OTLP/JSON：trace id、span id为十六进制，时间为unix纳秒字符串
+     */
+    Map<String, Object> toOtlp(Trace trace) {
+        String[] spanIds = new String[trace.size()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int span = 0; span < spanIds.length; span++) {
+            spanIds[span] = HexFormat.of().toHexDigits(random.nextLong());
+        }
+
+        List<Map<String, Object>> spans = new ArrayList<>(spanIds.length);
+        for (int span = 0; span < spanIds.length; span++) {
+            Map<String, Object> otlpSpan = new LinkedHashMap<>();
+            otlpSpan.put("traceId", trace.getTraceId());
+            otlpSpan.put("spanId", spanIds[span]);
+            int parent = trace.parent(span);
+            String parentId = parent != Trace.NONE ? spanIds[parent] : trace.getRemoteParentId();
+            if (parentId != null) {
+                otlpSpan.put("parentSpanId", parentId);
+            }
+            otlpSpan.put("name", trace.name(span));
+            otlpSpan.put("kind", kind(trace.category(span)));
+            otlpSpan.put("startTimeUnixNano", String.valueOf(trace.startEpochNanos(span)));
+            otlpSpan.put("endTimeUnixNano", String.valueOf(trace.endEpochNanos(span)));
+
+            List<Map<String, Object>> attributes = new ArrayList<>();
+            attributes.add(attribute("app.span.category", trace.category(span)));
+            String detail = trace.detail(span);
+            if (detail != null) {
+                attributes.add(attribute(detailKey(trace.category(span)), detail));
+            }
+            if (span == 0 && trace.getDropped() > 0) {
+                attributes.add(attribute("app.trace.dropped_spans", String.valueOf(trace.getDropped())));
+            }
+            otlpSpan.put("attributes", attributes);
+            spans.add(otlpSpan);
+        }
+
+        Map<String, Object> resource = Map.of("attributes", List.of(attribute("service.name", serviceName)));
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", "com.swshenyun"));
+        scopeSpans.put("spans", spans);
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", resource);
+        resourceSpans.put("scopeSpans", List.of(scopeSpans));
+        return Map.of("resourceSpans", List.of(resourceSpans));
+    }
+
+    private static int kind(String category) {
+        switch (category) {
+            case "http":
+                return KIND_SERVER;
+            case "sql":
+                return KIND_CLIENT;
+            default:
+                return KIND_INTERNAL;
+        }
+    }
+
+    private static String detailKey(String category) {
+        switch (category) {
+            case "http":
+                return "http.response.status_code";
+            case "sql":
+                return "db.statement";
+            case "auth":
+                return "app.auth.result";
+            default:
+                return "app.detail";
+        }
+    }
+
+    private static Map<String, Object> attribute(String key, String value) {
+        Map<String, Object> attribute = new LinkedHashMap<>();
+        attribute.put("key", key);
+        attribute.put("value", Map.of("stringValue", value));
+        return attribute;
+    }
+}
@@ -0,0 +1,28 @@
+package com.swshenyun.trace;
+
+import com.swshenyun.context.TraceContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * @Traced 方法记录service span，名称为 实现类简单名.方法名
+ */
+@Aspect
+public class TracingAspect {
+
+    @Around("@within(com.swshenyun.trace.Traced) || @annotation(com.swshenyun.trace.Traced)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Trace trace = TraceContext.getCurrentTrace();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+        int span = trace.start("service",
+                joinPoint.getTarget().getClass().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.end(span, null);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.swshenyun.utils;
+
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * jwt编解码器
+ * 密钥和解析器在创建时一次性生成，之后只读，可在多线程间共享；
+ * 签发时在header中写入kid，解析时按kid选择密钥，以支持密钥轮换
+ */
+@Slf4j
+public class JwtCodec {
+
+    /**
+     * 签发使用的kid
+     */
+    private final String activeKeyId;
+
+    /**
+     * 签发使用的密钥
+     */
+    private final SecretKey activeKey;
+
+    /**
+     * 所有可用于校验的密钥
+     */
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * 令牌有效期(毫秒)
+     */
+    private final long ttlMillis;
+
+    private final JwtParser parser;
+
+    /**
+     * @param activeKeyId 签发使用的kid，必须存在于secrets中
+     * @param secrets     kid -> 秘钥
+     * @param ttlMillis   jwt过期时间(毫秒)
+     */
+    public JwtCodec(String activeKeyId, Map<String, String> secrets, long ttlMillis) {
+        Map<String, SecretKey> keyMap = new LinkedHashMap<>();
+        secrets.forEach((kid, secret) ->
+                keyMap.put(kid, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))));
+        if (!keyMap.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("jwt签发密钥不存在: " + activeKeyId);
+        }
+        this.activeKeyId = activeKeyId;
+        this.activeKey = keyMap.get(activeKeyId);
+        this.keys = Collections.unmodifiableMap(keyMap);
+        this.ttlMillis = ttlMillis;
+        this.parser = Jwts.parser()
+                .keyLocator(new KidLocator())
+                .build();
+        log.info("jwt密钥初始化完成，签发kid：{}，可校验kid：{}", activeKeyId, keys.keySet());
+    }
+
+    /**
+     * 生成jwt，header中带上当前签发kid，并写入jti和签发时间，用于注销和吊销
+     *
+     * @param claims 设置的信息
+     * @return
+     */
+    public String createJwt(Map<String, Object> claims) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId(activeKeyId).and()
+                .claims(claims)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttlMillis))
+                .signWith(activeKey)
+                .compact();
+    }
+
+    /**
+     * Token解密
+     *
+     * @param token 加密后的token
+     * @return
+     */
+    public Claims parseJWT(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * 根据header中的kid选择校验密钥，没有kid的旧令牌使用签发密钥
+     */
+    private class KidLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                return activeKey;
+            }
+            SecretKey key = keys.get(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("未知的jwt密钥id: " + kid);
+            }
+            return key;
+        }
+    }
+}
@@ -9,6 +9,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.Map;
 
+/**
+ * jwt工具类
+ * 每次调用都会重新生成密钥和解析器，请求链路上请使用 {@link JwtCodec}
+ */
 @Slf4j
 public class JwtUtils {
 
@@ -0,0 +1,51 @@
+package com.swshenyun.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 帖子标签与数据库中json数组字符串的转换
+ */
+@Slf4j
+public class PostTagUtils {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<String>> TAG_LIST = new TypeReference<>() {};
+
+    /**
+     * @param tags json数组
+     * @return 格式错误或为空时返回空列表
+     */
+    public static List<String> parse(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return Collections.emptyList();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(tags, TAG_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("帖子标签格式错误：{}", tags);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @param tags
+     * @return tags为null时返回null
+     */
+    public static String toJson(List<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(tags);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
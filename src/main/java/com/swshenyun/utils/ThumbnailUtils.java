@@ -0,0 +1,163 @@
+package com.swshenyun.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 图片格式识别与缩略图生成
+ */
+public class ThumbnailUtils {
+
+    /**
+     * 支持的上传格式，按文件头识别，不信任文件名和Content-Type
+     */
+    public enum Format {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png"),
+        GIF("gif", "image/gif"),
+        BMP("bmp", "image/bmp");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * 按文件头识别图片格式，只读取开头几个字节
+     *
+     * @param head 文件开头，至少8个字节
+     * @return 不支持的格式返回null
+     */
+    public static Format detect(byte[] head) {
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return Format.JPEG;
+        }
+        if (head.length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return Format.PNG;
+        }
+        if (head.length >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return Format.GIF;
+        }
+        if (head.length >= 2 && head[0] == 'B' && head[1] == 'M') {
+            return Format.BMP;
+        }
+        return null;
+    }
+
+    /**
+     * 读取图片，先按文件头中的宽高检查像素数，再按目标边长隔行采样解码，大图不会完整解码到内存
+     *
+     * @param in
+     * @param maxPixels 像素数上限
+     * @param targetSize 之后要生成的最大边长
+     * @return
+     * @throws IOException 无法识别、超过像素上限时抛出
+     */
+    public static BufferedImage read(InputStream in, long maxPixels, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("无法识别的图片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("图片尺寸过大：" + width + "x" + height);
+                }
+                //采样后短边仍不小于目标边长的2倍，留给后续的高质量缩放
+                int sampling = Math.max(1, Math.min(width, height) / (targetSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(sampling, sampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 居中裁剪为正方形并缩放到指定边长，缩小超过一半时逐次减半，避免一次缩放丢失过多细节
+     *
+     * @param source
+     * @param size
+     * @return
+     */
+    public static BufferedImage square(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage((source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        int currentSize = side;
+        do {
+            currentSize = Math.max(size, currentSize / 2);
+            current = resize(current, currentSize);
+        } while (currentSize > size);
+        return current;
+    }
+
+    /**
+     * 编码为jpeg，透明区域填充为白色
+     *
+     * @param image
+     * @param quality 0~1
+     * @return
+     * @throws IOException
+     */
+    public static byte[] toJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage resize(BufferedImage source, int size) {
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,142 @@
+package com.swshenyun.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.pojo.dto.UserImportRowDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 批量导入文件的流式读取，每次只解析一行/一个元素
+ * csv：每行 username,password，首行为表头时跳过，支持双引号包裹的字段；
+ * json：元素为 {"username": "...", "password": "..."} 的数组
+ */
+public abstract class UserImportReader implements Iterator<UserImportRowDTO>, Closeable {
+
+    public static UserImportReader csv(InputStream in) {
+        return new CsvReader(in);
+    }
+
+    public static UserImportReader json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return new JsonReader(in, objectMapper);
+    }
+
+    private static class CsvReader extends UserImportReader {
+
+        private final BufferedReader reader;
+
+        private long lineNum;
+
+        private UserImportRowDTO next;
+
+        CsvReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNum++;
+                    if (lineNum == 1 && line.startsWith("\uFEFF")) {
+                        line = line.substring(1);
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    List<String> fields = split(line);
+                    if (lineNum == 1 && "username".equalsIgnoreCase(fields.get(0).trim())) {
+                        continue;
+                    }
+                    next = new UserImportRowDTO(lineNum,
+                            fields.get(0).trim(),
+                            fields.size() > 1 ? fields.get(1) : null);
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public UserImportRowDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            UserImportRowDTO row = next;
+            next = null;
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>(2);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static class JsonReader extends UserImportReader {
+
+        private final MappingIterator<UserImportRowDTO> iterator;
+
+        private long index;
+
+        JsonReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+            this.iterator = objectMapper.readerFor(UserImportRowDTO.class).readValues(in);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public UserImportRowDTO next() {
+            UserImportRowDTO row = iterator.next();
+            row.setRowNum(++index);
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            iterator.close();
+        }
+    }
+}
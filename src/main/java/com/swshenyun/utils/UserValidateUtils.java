@@ -0,0 +1,56 @@
+package com.swshenyun.utils;
+
+import java.util.regex.Pattern;
+
+import static com.swshenyun.constant.ValidationConstant.*;
+
+/**
+ * 用户名、密码校验，规则与 UserRegisterDTO 上的注解一致
+ */
+public class UserValidateUtils {
+
+    private static final Pattern USERNAME = Pattern.compile(USERNAME_PATTERN);
+    private static final Pattern PASSWORD_LETTER_REGEX = Pattern.compile(PASSWORD_LETTER_PATTERN);
+    private static final Pattern PASSWORD_DIGIT_REGEX = Pattern.compile(PASSWORD_DIGIT_PATTERN);
+
+    /**
+     * 校验用户名
+     *
+     * @param username
+     * @return 校验通过返回null，否则返回错误信息
+     */
+    public static String validateUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return USERNAME_BLANK;
+        }
+        if (username.length() < USERNAME_MIN_LENGTH || username.length() > USERNAME_MAX_LENGTH) {
+            return USERNAME_SIZE;
+        }
+        if (!USERNAME.matcher(username).matches()) {
+            return USERNAME_CHARS;
+        }
+        return null;
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param password
+     * @return 校验通过返回null，否则返回错误信息
+     */
+    public static String validatePassword(String password) {
+        if (password == null || password.isBlank()) {
+            return PASSWORD_BLANK;
+        }
+        if (password.length() < PASSWORD_MIN_LENGTH) {
+            return PASSWORD_SIZE;
+        }
+        if (!PASSWORD_LETTER_REGEX.matcher(password).matches()) {
+            return PASSWORD_LETTER;
+        }
+        if (!PASSWORD_DIGIT_REGEX.matcher(password).matches()) {
+            return PASSWORD_DIGIT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.swshenyun.websocket;
+
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.constant.NotificationConstant;
+import com.swshenyun.interceptor.JwtTokenUserInterceptor;
+import com.swshenyun.properties.JwtProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * websocket握手时校验jwt，与http接口使用同一套校验和吊销检查
+ * 浏览器无法为websocket设置请求头，令牌也可以放在 token 查询参数中
+ */
+@Component
+public class NotificationHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final String TOKEN_PARAM = "token";
+
+    @Autowired
+    private JwtTokenUserInterceptor jwtTokenUserInterceptor;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String tokenName = jwtProperties.getUserTokenName();
+        String token = tokenName == null ? null : request.getHeaders().getFirst(tokenName);
+        if (token == null) {
+            token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst(TOKEN_PARAM);
+        }
+        VerifiedToken verified = token == null ? null : jwtTokenUserInterceptor.authenticate(token);
+        if (verified == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(NotificationConstant.USER_ID_ATTRIBUTE, verified.getUserId());
+        attributes.put(JwtTokenUserInterceptor.VERIFIED_TOKEN_ATTRIBUTE, verified);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,321 @@
+package com.swshenyun.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.TokenRevocationStore;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.properties.NotificationProperties;
+import com.swshenyun.service.TokenRevocationService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本节点的websocket连接注册表与通知投递
+ * 按用户保存连接，一个用户可在多个端同时在线；通知先进入连接的有界合并队列，再由共用发送线程池串行发出；
+ * 队列满或发送超时的连接视为慢客户端直接断开，客户端重连后再接收新的通知；
+ * 握手令牌被吊销(登出、禁用)或过期后，发完已排队的通知再关闭连接
+ * 指标：notification.sessions/users 在线连接和用户数，notification.messages 按result区分已发送、已合并、慢客户端断开
+ */
+@Slf4j
+@Component
+public class NotificationHub implements MeterBinder {
+
+    private static final CloseStatus TOKEN_REVOKED = CloseStatus.POLICY_VIOLATION.withReason("token revoked");
+
+    private static final CloseStatus TOKEN_EXPIRED = CloseStatus.POLICY_VIOLATION.withReason("token expired");
+
+    @Autowired
+    private NotificationProperties notificationProperties;
+
+    @Autowired
+    @Qualifier("notificationSendExecutor")
+    private ThreadPoolTaskExecutor sendExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    private final Map<Long, Set<NotificationSession>> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder sessionCount = new LongAdder();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        tokenRevocationService.addListener(this::onRevoked);
+    }
+
+    /**
+     * 注册连接，超过每用户连接数上限时关闭最早的连接
+     * 在compute中加入，与unregister移除空集合互斥，不会加入已从注册表中移除的集合
+     *
+     * @param session
+     */
+    public void register(NotificationSession session) {
+        Set<NotificationSession> userSessions = sessions.compute(session.getUserId(), (id, current) -> {
+            Set<NotificationSession> result = current == null ? ConcurrentHashMap.newKeySet() : current;
+            if (result.add(session)) {
+                sessionCount.increment();
+            }
+            return result;
+        });
+        if (userSessions.size() > notificationProperties.getMaxSessionsPerUser()) {
+            userSessions.stream()
+                    .min(Comparator.comparingLong(NotificationSession::getConnectedAt))
+                    .ifPresent(oldest -> close(oldest, CloseStatus.POLICY_VIOLATION.withReason("too many sessions")));
+        }
+    }
+
+    public void unregister(NotificationSession session) {
+        sessions.computeIfPresent(session.getUserId(), (id, userSessions) -> {
+            if (userSessions.remove(session)) {
+                sessionCount.decrement();
+            }
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    /**
+     * 投递给本节点上这些用户的全部连接，不在线的用户忽略
+     *
+     * @param userIds
+     * @param message
+     * @param coalesceKey 合并key，为null时不合并
+     */
+    public void deliver(Collection<Long> userIds, NotificationVO message, String coalesceKey) {
+        for (Long userId : userIds) {
+            Set<NotificationSession> userSessions = sessions.get(userId);
+            if (userSessions == null) {
+                continue;
+            }
+            for (NotificationSession session : userSessions) {
+                int result = session.offer(message, coalesceKey);
+                if (result == NotificationSession.REJECTED) {
+                    evictedCount.increment();
+                    close(session, CloseStatus.SESSION_NOT_RELIABLE.withReason("send queue full"));
+                    continue;
+                }
+                if (result == NotificationSession.COALESCED) {
+                    coalescedCount.increment();
+                }
+                scheduleSend(session);
+            }
+        }
+    }
+
+    /**
+     * 发完已排队的通知后关闭这些用户在本节点上的全部连接
+     *
+     * @param userIds
+     * @param status
+     */
+    public void disconnectAfterSend(Collection<Long> userIds, CloseStatus status) {
+        for (Long userId : userIds) {
+            Set<NotificationSession> userSessions = sessions.get(userId);
+            if (userSessions == null) {
+                continue;
+            }
+            for (NotificationSession session : userSessions) {
+                closeAfterSend(session, status);
+            }
+        }
+    }
+
+    /**
+     * 定时向所有连接发送ping，客户端回复的pong会刷新容器的空闲计时
+     * 同时复查令牌是否已被吊销，补上丢失的吊销广播
+     */
+    @Scheduled(fixedDelayString = "${com.notification.ping-millis:30000}")
+    public void ping() {
+        for (Set<NotificationSession> userSessions : sessions.values()) {
+            for (NotificationSession session : userSessions) {
+                if (isRevoked(session)) {
+                    closeAfterSend(session, TOKEN_REVOKED);
+                    continue;
+                }
+                session.requestPing();
+                scheduleSend(session);
+            }
+        }
+    }
+
+    /**
+     * 关闭令牌已过期的连接
+     */
+    @Scheduled(fixedDelayString = "${com.notification.token-check-millis:5000}")
+    public void closeExpired() {
+        long now = System.currentTimeMillis();
+        for (Set<NotificationSession> userSessions : sessions.values()) {
+            for (NotificationSession session : userSessions) {
+                if (session.getToken().getExpMillis() <= now) {
+                    closeAfterSend(session, TOKEN_EXPIRED);
+                }
+            }
+        }
+    }
+
+    /**
+     * 吊销单个令牌时关闭使用该令牌的连接；吊销用户时关闭该用户在吊销时间点之前签发的令牌建立的连接
+     *
+     * @param member 吊销名单元素
+     */
+    private void onRevoked(String member) {
+        if (member.startsWith(TokenRevocationStore.JTI_MEMBER)) {
+            String jti = member.substring(TokenRevocationStore.JTI_MEMBER.length());
+            for (Set<NotificationSession> userSessions : sessions.values()) {
+                for (NotificationSession session : userSessions) {
+                    if (jti.equals(session.getToken().getJti())) {
+                        closeAfterSend(session, TOKEN_REVOKED);
+                    }
+                }
+            }
+        } else if (member.startsWith(TokenRevocationStore.USER_MEMBER)) {
+            Set<NotificationSession> userSessions = sessions.get(Long.valueOf(member.substring(TokenRevocationStore.USER_MEMBER.length())));
+            if (userSessions == null) {
+                return;
+            }
+            for (NotificationSession session : userSessions) {
+                if (isRevoked(session)) {
+                    closeAfterSend(session, TOKEN_REVOKED);
+                }
+            }
+        }
+    }
+
+    /**
+     * 共享存储异常时保留连接，等下次心跳再检查
+     */
+    private boolean isRevoked(NotificationSession session) {
+        try {
+            return tokenRevocationService.isRevoked(session.getToken());
+        } catch (Exception e) {
+            log.debug("检查websocket连接令牌失败：{}", session.getId(), e);
+            return false;
+        }
+    }
+
+    private void closeAfterSend(NotificationSession session, CloseStatus status) {
+        session.requestClose(status);
+        scheduleSend(session);
+    }
+
+    public int sessionCount() {
+        return sessionCount.intValue();
+    }
+
+    public int userCount() {
+        return sessions.size();
+    }
+
+    public long sentCount() {
+        return sentCount.sum();
+    }
+
+    public long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long evictedCount() {
+        return evictedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.sessions", this, NotificationHub::sessionCount)
+                .description("本节点的websocket连接数")
+                .register(registry);
+        Gauge.builder("notification.users", this, NotificationHub::userCount)
+                .description("本节点有websocket连接的用户数")
+                .register(registry);
+        messageCounter(registry, "sent", sentCount);
+        messageCounter(registry, "coalesced", coalescedCount);
+        messageCounter(registry, "evicted", evictedCount);
+    }
+
+    private static void messageCounter(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("notification.messages", count, LongAdder::sum)
+                .description("通知投递结果，evicted为因慢客户端断开的连接数")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void scheduleSend(NotificationSession session) {
+        if (!session.startSending()) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> send(session));
+        } catch (RejectedExecutionException e) {
+            //发送线程池已满，等下次投递或心跳再发送
+            session.stopSending();
+        }
+    }
+
+    /**
+     * 发送直到队列为空，同一连接同一时间只有一个线程发送
+     */
+    private void send(NotificationSession session) {
+        if (!session.getSession().isOpen()) {
+            session.stopSending();
+            unregister(session);
+            return;
+        }
+        try {
+            do {
+                if (session.takePing()) {
+                    session.getSession().sendMessage(new PingMessage());
+                }
+                List<NotificationVO> messages = session.drain();
+                for (NotificationVO message : messages) {
+                    session.getSession().sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+                    sentCount.increment();
+                }
+                CloseStatus closeStatus = session.takeClose();
+                if (closeStatus != null) {
+                    session.stopSending();
+                    close(session, closeStatus);
+                    return;
+                }
+                session.stopSending();
+            } while (session.hasWork() && session.startSending());
+        } catch (Exception e) {
+            session.stopSending();
+            evictedCount.increment();
+            log.debug("websocket发送失败，断开连接：{}，用户：{}", session.getId(), session.getUserId(), e);
+            close(session, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    private void close(NotificationSession session, CloseStatus status) {
+        unregister(session);
+        try {
+            session.getSession().close(status);
+        } catch (Exception e) {
+            log.debug("关闭websocket连接失败：{}", session.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.swshenyun.websocket;
+
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.pojo.vo.NotificationVO;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一个websocket连接及其待发送队列
+ * 队列有界，按合并key去重：尚未发出的同类通知只保留最新一条并累加条数，客户端短暂变慢时不会积压；
+ * 发送由共用线程池中的单个任务串行完成，连接空闲时不占用线程
+ */
+public class NotificationSession {
+
+    private final WebSocketSession session;
+
+    /**
+     * 握手时校验通过的令牌，令牌吊销或过期后关闭连接
+     */
+    private final VerifiedToken token;
+
+    private final int maxPending;
+
+    private final long connectedAt = System.currentTimeMillis();
+
+    /**
+     * 合并key -> 待发送通知，保持到达顺序
+     */
+    private final LinkedHashMap<String, NotificationVO> pending = new LinkedHashMap<>();
+
+    private long sequence;
+
+    private boolean pingRequested;
+
+    /**
+     * 发完队列中的通知后关闭连接
+     */
+    private CloseStatus closeStatus;
+
+    /**
+     * 是否已有发送任务在执行或排队
+     */
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    public NotificationSession(WebSocketSession session, VerifiedToken token, int maxPending) {
+        this.session = session;
+        this.token = token;
+        this.maxPending = maxPending;
+    }
+
+    public static final int REJECTED = -1;
+    public static final int COALESCED = 0;
+    public static final int QUEUED = 1;
+
+    /**
+     * 加入待发送队列
+     *
+     * @param message
+     * @param coalesceKey 为null时不合并
+     * @return QUEUED 新加入，COALESCED 与未发送的同类通知合并，REJECTED 队列已满
+     */
+    public synchronized int offer(NotificationVO message, String coalesceKey) {
+        String key = coalesceKey == null ? "#" + sequence++ : coalesceKey;
+        NotificationVO existing = pending.get(key);
+        if (existing != null) {
+            NotificationVO merged = new NotificationVO(message.getType(), message.getData(),
+                    existing.getCount() + message.getCount(), message.getTime(), coalesceKey);
+            pending.put(key, merged);
+            return COALESCED;
+        }
+        if (pending.size() >= maxPending) {
+            return REJECTED;
+        }
+        pending.put(key, message);
+        return QUEUED;
+    }
+
+    public synchronized void requestPing() {
+        pingRequested = true;
+    }
+
+    /**
+     * 取出全部待发送通知
+     */
+    public synchronized List<NotificationVO> drain() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<NotificationVO> messages = new ArrayList<>(pending.values());
+        pending.clear();
+        return messages;
+    }
+
+    public synchronized boolean takePing() {
+        boolean ping = pingRequested;
+        pingRequested = false;
+        return ping;
+    }
+
+    public synchronized void requestClose(CloseStatus status) {
+        closeStatus = status;
+    }
+
+    public synchronized CloseStatus takeClose() {
+        CloseStatus status = closeStatus;
+        closeStatus = null;
+        return status;
+    }
+
+    public synchronized boolean hasWork() {
+        return pingRequested || closeStatus != null || !pending.isEmpty();
+    }
+
+    public synchronized int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * 尝试占用发送权，成功的线程负责发送直到队列为空
+     */
+    boolean startSending() {
+        return sending.compareAndSet(false, true);
+    }
+
+    void stopSending() {
+        sending.set(false);
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public Long getUserId() {
+        return token.getUserId();
+    }
+
+    public VerifiedToken getToken() {
+        return token;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+}
@@ -0,0 +1,72 @@
+package com.swshenyun.websocket;
+
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.interceptor.JwtTokenUserInterceptor;
+import com.swshenyun.properties.NotificationProperties;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通知连接的生命周期，只向客户端推送，忽略客户端发来的文本消息
+ */
+@Slf4j
+@Component
+public class NotificationWebSocketHandler extends TextWebSocketHandler {
+
+    /**
+     * tomcat阻塞发送的超时时间，超时后发送抛出异常
+     */
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    @Autowired
+    private NotificationHub notificationHub;
+
+    @Autowired
+    private NotificationProperties notificationProperties;
+
+    private final Map<String, NotificationSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        VerifiedToken token = (VerifiedToken) session.getAttributes().get(JwtTokenUserInterceptor.VERIFIED_TOKEN_ATTRIBUTE);
+        Object nativeSession = session instanceof NativeWebSocketSession nws ? nws.getNativeSession() : null;
+        if (nativeSession instanceof Session jakartaSession) {
+            jakartaSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, notificationProperties.getSendTimeLimitMillis());
+        }
+        //装饰器保证关闭与发送并发时的线程安全，并作为发送时长、缓冲大小的第二道限制
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session,
+                (int) notificationProperties.getSendTimeLimitMillis(), notificationProperties.getSendBufferSizeLimit());
+        NotificationSession notificationSession = new NotificationSession(decorated, token, notificationProperties.getMaxPendingMessages());
+        sessions.put(session.getId(), notificationSession);
+        notificationHub.register(notificationSession);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        //客户端消息只用于保活，收到即刷新容器的空闲计时
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("websocket传输错误：{}", session.getId(), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        NotificationSession notificationSession = sessions.remove(session.getId());
+        if (notificationSession != null) {
+            notificationHub.unregister(notificationSession);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- 确认写库完成：正在写库的仍是该批次时才删除，避免锁过期后接手的节点删掉下一批
+-- KEYS[1] 正在写库的变更hash，KEYS[2] 正在写库的计数增量hash，KEYS[3] 批次id
+-- ARGV[1] 批次id
+if redis.call('GET', KEYS[3]) == ARGV[1] then
+    redis.call('DEL', KEYS[1], KEYS[2], KEYS[3])
+    return 1
+end
+return 0
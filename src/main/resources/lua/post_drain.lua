@@ -0,0 +1,17 @@
+-- 取出待写库的数据：上一批已确认时，把待写库变更和计数增量改名为正在写库的key，并生成新的批次id；
+-- 上一批未确认时返回原批次id，重试的写库据此识别已提交过的批次
+-- KEYS[1] 待写库变更hash，KEYS[2] 计数增量hash，KEYS[3] 正在写库的变更hash，KEYS[4] 正在写库的计数增量hash，KEYS[5] 批次id
+-- ARGV[1] 新批次id
+if redis.call('EXISTS', KEYS[3]) == 0 and redis.call('EXISTS', KEYS[4]) == 0 then
+    redis.call('DEL', KEYS[5])
+    if redis.call('EXISTS', KEYS[1]) == 1 then
+        redis.call('RENAME', KEYS[1], KEYS[3])
+    end
+    if redis.call('EXISTS', KEYS[2]) == 1 then
+        redis.call('RENAME', KEYS[2], KEYS[4])
+    end
+end
+if redis.call('EXISTS', KEYS[5]) == 0 then
+    redis.call('SET', KEYS[5], ARGV[1])
+end
+return redis.call('GET', KEYS[5])
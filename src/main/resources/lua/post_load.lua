@@ -0,0 +1,17 @@
+-- 帖子用户集合加载完成：在临时集合(数据库中的记录)上叠加该帖子尚未写库的变更，再原子地改名为正式集合
+-- KEYS[1] 临时集合，KEYS[2] 正式集合，KEYS[3] 该帖子的用户最新状态hash
+-- ARGV[1] 集合存活时间(秒)
+local entries = redis.call('HGETALL', KEYS[3])
+for j = 1, #entries, 2 do
+    if entries[j + 1] == '1' then
+        redis.call('SADD', KEYS[1], entries[j])
+    else
+        redis.call('SREM', KEYS[1], entries[j])
+    end
+end
+-- 其他节点已加载完成时保留已有集合
+if redis.call('RENAMENX', KEYS[1], KEYS[2]) == 0 then
+    redis.call('DEL', KEYS[1])
+end
+redis.call('EXPIRE', KEYS[2], ARGV[1])
+return 1
@@ -0,0 +1,23 @@
+-- 切换用户对帖子的点赞/收藏状态
+-- KEYS[1] 帖子用户集合，KEYS[2] 待写库变更hash，KEYS[3] 计数增量hash，KEYS[4] 该帖子的用户最新状态hash
+-- ARGV[1] 帖子id，ARGV[2] 用户id，ARGV[3] 集合存活时间(秒)
+-- 返回1已添加，0已取消，-1集合未加载
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+local field = ARGV[1] .. ':' .. ARGV[2]
+local state
+if redis.call('SREM', KEYS[1], ARGV[2]) == 1 then
+    state = '0'
+    redis.call('HINCRBY', KEYS[3], ARGV[1], -1)
+else
+    redis.call('SADD', KEYS[1], ARGV[2])
+    state = '1'
+    redis.call('HINCRBY', KEYS[3], ARGV[1], 1)
+end
+redis.call('HSET', KEYS[2], field, state)
+-- 最新状态与写库无关，已写库的记录重放到集合上结果不变，随集合一起过期
+redis.call('HSET', KEYS[4], ARGV[2], state)
+redis.call('EXPIRE', KEYS[4], ARGV[3])
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+return tonumber(state)
@@ -0,0 +1,12 @@
+-- 滑动窗口限流
+-- KEYS[1] 窗口key；ARGV[1] 当前时间戳(毫秒)，ARGV[2] 窗口长度(毫秒)，ARGV[3] 允许次数，ARGV[4] 本次请求的唯一成员
+-- 返回1表示放行，0表示超出限制
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window)
+if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then
+    return 0
+end
+redis.call('ZADD', KEYS[1], now, ARGV[4])
+redis.call('PEXPIRE', KEYS[1], window)
+return 1
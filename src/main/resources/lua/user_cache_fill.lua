@@ -0,0 +1,10 @@
+-- 回源后写入用户缓存，回源期间缓存被清除过(代数变化)则放弃写入，避免旧数据写回
+-- KEYS[1] 缓存key，KEYS[2] 代数key
+-- ARGV[1] 回源前读到的代数，ARGV[2] 缓存值，ARGV[3] 存活时间(秒)
+-- 返回1已写入，0已放弃
+local generation = redis.call('GET', KEYS[2]) or '0'
+if generation ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+return 1
@@ -0,0 +1,9 @@
+-- 清除用户缓存并递增代数，使清除前开始的回源不再写回
+-- KEYS 为成对的 缓存key、代数key
+-- ARGV[1] 代数key存活时间(秒)
+for i = 1, #KEYS, 2 do
+    redis.call('DEL', KEYS[i])
+    redis.call('INCR', KEYS[i + 1])
+    redis.call('EXPIRE', KEYS[i + 1], ARGV[1])
+end
+return #KEYS / 2
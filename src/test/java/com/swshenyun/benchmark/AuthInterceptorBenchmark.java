@@ -0,0 +1,100 @@
+package com.swshenyun.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.swshenyun.cache.InMemoryTokenRevocationStore;
+import com.swshenyun.cache.VerifiedTokenCache;
+import com.swshenyun.constant.JwtClaimsConstant;
+import com.swshenyun.interceptor.JwtTokenUserInterceptor;
+import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.service.impl.TokenRevocationServiceImpl;
+import com.swshenyun.utils.JwtCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 鉴权拦截器基准测试：每个请求都要经过的 {@link JwtTokenUserInterceptor#preHandle} 路径，
+ * 对比每次解析jwt与命中已校验令牌缓存
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthInterceptorBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-benchmark-secret-key";
+
+    private static final String TOKEN_NAME = "token";
+
+    private static final long TTL = 7200000L;
+
+    @Param({"false", "true"})
+    private boolean tokenCache;
+
+    private JwtTokenUserInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        //拦截器每次请求打印info日志，基准测试只关心校验本身
+        ((Logger) LoggerFactory.getLogger(JwtTokenUserInterceptor.class)).setLevel(Level.WARN);
+
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setUserTokenName(TOKEN_NAME);
+        jwtProperties.setUserTtl(TTL);
+        JwtCodec jwtCodec = new JwtCodec("default", Map.of("default", SECRET), TTL);
+
+        TokenRevocationServiceImpl tokenRevocationService = new TokenRevocationServiceImpl();
+        ReflectionTestUtils.setField(tokenRevocationService, "tokenRevocationStore", new InMemoryTokenRevocationStore());
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtProperties", jwtProperties);
+        tokenRevocationService.init();
+
+        interceptor = new JwtTokenUserInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtProperties", jwtProperties);
+        ReflectionTestUtils.setField(interceptor, "jwtCodec", jwtCodec);
+        ReflectionTestUtils.setField(interceptor, "tokenRevocationService", tokenRevocationService);
+        if (tokenCache) {
+            ReflectionTestUtils.setField(interceptor, "verifiedTokenCache", new VerifiedTokenCache(10000));
+        }
+
+        handler = new HandlerMethod(this, AuthInterceptorBenchmark.class.getMethod("setup"));
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtClaimsConstant.USER_ID, 10001L);
+        claims.put(JwtClaimsConstant.USERNAME, "benchmark");
+        token = jwtCodec.createJwt(claims);
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TOKEN_NAME, token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean passed = interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+        return passed;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthInterceptorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.swshenyun.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比两次基准测试的json结果(-rf json)，按基准方法和参数逐项输出得分和每次操作分配字节数的变化
+ * 用法：BenchmarkCompare baseline.json current.json
+ */
+public class BenchmarkCompare {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: BenchmarkCompare <baseline.json> <current.json>");
+            System.exit(1);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(objectMapper.readTree(new File(args[1])));
+
+        System.out.printf("%-70s %14s %14s %9s %12s %12s%n",
+                "Benchmark", "Baseline", "Current", "Score%", "B/op base", "B/op cur");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode base = baseline.get(entry.getKey());
+            double nowScore = now.at("/primaryMetric/score").asDouble();
+            String unit = now.at("/primaryMetric/scoreUnit").asText();
+            if (base == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s %12s  %s%n",
+                        entry.getKey(), "-", nowScore, "-", "-", alloc(now), unit);
+                continue;
+            }
+            double baseScore = base.at("/primaryMetric/score").asDouble();
+            double change = baseScore == 0 ? 0 : (nowScore - baseScore) * 100 / baseScore;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12s %12s  %s%n",
+                    entry.getKey(), baseScore, nowScore, change, alloc(base), alloc(now), unit);
+        }
+    }
+
+    /**
+     * 以 基准方法[参数] 为key索引结果
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> map = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.swshenyun.benchmark.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                key.append('[');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    key.append(field.getKey()).append('=').append(field.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append(']');
+            }
+            map.put(key.toString(), result);
+        }
+        return map;
+    }
+
+    private static String alloc(JsonNode result) {
+        JsonNode norm = result.at("/secondaryMetrics/" + ALLOC_NORM + "/score");
+        return norm.isMissingNode() ? "-" : String.format("%.1f", norm.asDouble());
+    }
+}
@@ -0,0 +1,76 @@
+package com.swshenyun.benchmark;
+
+import com.swshenyun.constant.JwtClaimsConstant;
+import com.swshenyun.utils.JwtCodec;
+import com.swshenyun.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jwt签发与校验基准测试：静态方法 {@link JwtUtils} 与预生成密钥的 {@link JwtCodec} 对比
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-benchmark-secret-key";
+
+    private static final long TTL = 7200000L;
+
+    private JwtCodec jwtCodec;
+
+    private Map<String, Object> claims;
+
+    private String staticToken;
+
+    private String codecToken;
+
+    @Setup
+    public void setup() {
+        jwtCodec = new JwtCodec("default", Map.of("default", SECRET), TTL);
+        claims = new HashMap<>();
+        claims.put(JwtClaimsConstant.USER_ID, 10001L);
+        claims.put(JwtClaimsConstant.USERNAME, "benchmark");
+        staticToken = JwtUtils.createJwt(SECRET, TTL, claims);
+        codecToken = jwtCodec.createJwt(claims);
+    }
+
+    @Benchmark
+    public String createStatic() {
+        return JwtUtils.createJwt(SECRET, TTL, claims);
+    }
+
+    @Benchmark
+    public String createCodec() {
+        return jwtCodec.createJwt(claims);
+    }
+
+    @Benchmark
+    public Claims parseStatic() {
+        return JwtUtils.parseJWT(SECRET, staticToken);
+    }
+
+    @Benchmark
+    public Claims parseCodec() {
+        return jwtCodec.parseJWT(codecToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.swshenyun.benchmark;
+
+import com.swshenyun.security.BCryptPasswordHasher;
+import com.swshenyun.security.Md5PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希基准测试：登录、注册时的bcrypt与存量md5校验
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "Password123";
+
+    @Param({"10"})
+    private int strength;
+
+    private BCryptPasswordHasher bcrypt;
+
+    private Md5PasswordHasher md5;
+
+    private String bcryptHash;
+
+    private String md5Hash;
+
+    @Setup
+    public void setup() {
+        bcrypt = new BCryptPasswordHasher(strength);
+        md5 = new Md5PasswordHasher();
+        bcryptHash = bcrypt.hash(PASSWORD);
+        md5Hash = md5.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public String bcryptHash() {
+        return bcrypt.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return bcrypt.matches(PASSWORD, bcryptHash);
+    }
+
+    @Benchmark
+    public boolean md5Matches() {
+        return md5.matches(PASSWORD, md5Hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
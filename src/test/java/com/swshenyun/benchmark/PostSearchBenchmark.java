@@ -0,0 +1,127 @@
+package com.swshenyun.benchmark;
+
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.search.LucenePostIndex;
+import com.swshenyun.search.PostSearchHits;
+import com.swshenyun.utils.PostTagUtils;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帖子检索基准测试：建索引耗时(单次) 与 各类查询的平均延迟
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "缓存", "数据库", "索引", "事务", "分布式", "微服务", "消息队列", "限流", "并发", "线程池",
+            "性能", "优化", "架构", "设计", "接口", "安全", "部署", "监控", "日志", "测试",
+            "spring", "mysql", "redis", "java", "kafka", "docker", "lucene", "jwt", "http", "linux"
+    };
+
+    private static final String[] TAGS = {"java", "后端", "前端", "面试", "数据库", "运维", "算法", "随笔"};
+
+    @Param({"10000", "100000"})
+    private int posts;
+
+    private List<Post> data;
+
+    private LucenePostIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        data = new ArrayList<>(posts);
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 1; i <= posts; i++) {
+            data.add(Post.builder()
+                    .id(i)
+                    .title(sentence(random, 4))
+                    .content(sentence(random, 60))
+                    .tags(PostTagUtils.toJson(List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)])))
+                    .userId((long) random.nextInt(1000))
+                    .createTime(now.minusMinutes(random.nextInt(60 * 24 * 365)))
+                    .isDelete(0)
+                    .build());
+        }
+        index = build(data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    /**
+     * 全量建索引
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int buildIndex() throws IOException {
+        try (LucenePostIndex built = build(data)) {
+            return built.count();
+        }
+    }
+
+    @Benchmark
+    public PostSearchHits keyword() {
+        return index.search("分布式缓存设计", null, null, 0, 10);
+    }
+
+    @Benchmark
+    public PostSearchHits keywordWithTag() {
+        return index.search("数据库索引优化", List.of("java"), null, 0, 10);
+    }
+
+    @Benchmark
+    public PostSearchHits latestByUser() {
+        return index.search(null, null, 7L, 0, 10);
+    }
+
+    private static LucenePostIndex build(List<Post> data) throws IOException {
+        LucenePostIndex built = new LucenePostIndex(new ByteBuffersDirectory(), TimeUnit.HOURS.toMillis(72), 1.0);
+        for (Post post : data) {
+            built.index(post);
+        }
+        built.commit();
+        built.refresh();
+        return built;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            if (i % 5 == 4) {
+                sb.append('，');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PostSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
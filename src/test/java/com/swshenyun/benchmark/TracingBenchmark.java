@@ -0,0 +1,78 @@
+package com.swshenyun.benchmark;
+
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.interceptor.TracingWebInterceptor;
+import com.swshenyun.properties.TracingProperties;
+import com.swshenyun.trace.Trace;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求trace的开销：none为不注册拦截器，off为注册但不开Server-Timing且不采样，serverTiming为每个请求记录span并生成响应头
+ * 每次调用模拟 /user/current 的埋点：令牌校验、一次service调用、两条sql
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracingBenchmark {
+
+    @Param({"none", "off", "serverTiming"})
+    private String mode;
+
+    private TracingWebInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    @Setup
+    public void setup() throws Exception {
+        TracingProperties tracingProperties = new TracingProperties();
+        tracingProperties.setServerTiming("serverTiming".equals(mode));
+        if (!"none".equals(mode)) {
+            interceptor = new TracingWebInterceptor();
+            ReflectionTestUtils.setField(interceptor, "tracingProperties", tracingProperties);
+        }
+        handler = new HandlerMethod(this, TracingBenchmark.class.getMethod("setup"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/current");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor != null) {
+            interceptor.preHandle(request, response, handler);
+        }
+        span("auth", "jwt.verify", "ok");
+        Trace trace = TraceContext.getCurrentTrace();
+        int service = trace == null ? Trace.NONE : trace.start("service", "UserServiceImpl.getSafeUserById");
+        span("sql", "UserMapper.selectById", "SELECT 1");
+        span("sql", "UserMapper.selectById", "SELECT 1");
+        TraceContext.endSpan(service, null);
+        if (interceptor != null) {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+        return response;
+    }
+
+    private static void span(String category, String name, String detail) {
+        TraceContext.endSpan(TraceContext.startSpan(category, name), detail);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TracingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.swshenyun.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.common.BaseResponse;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.pojo.vo.UserLoginVO;
+import com.swshenyun.service.impl.UserServiceImpl;
+import com.swshenyun.utils.ResultUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户接口返回路径基准测试：账户脱敏与 {@link BaseResponse} 序列化，
+ * ObjectMapper与spring mvc消息转换器使用相同的默认配置
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserPathBenchmark {
+
+    private UserServiceImpl userService;
+
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private BaseResponse<User> userResponse;
+
+    private BaseResponse<UserLoginVO> loginResponse;
+
+    @Setup
+    public void setup() {
+        userService = new UserServiceImpl();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        user = new User();
+        user.setId(10001L);
+        user.setUsername("benchmark");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuvabcdefghijklmnopqrstuvwxyz01234");
+        user.setPhone("13800000000");
+        user.setEmail("benchmark@example.com");
+        user.setSex(1);
+        user.setAvatar("/files/avatar/10001/a_256.jpg");
+        user.setProfile("benchmark user profile");
+        user.setStatus(1);
+        user.setVersion(3);
+        user.setLoginCount(42);
+        user.setLastLoginTime(LocalDateTime.now());
+        user.setCreateTime(LocalDateTime.now());
+        user.setUpdateTime(LocalDateTime.now());
+
+        userResponse = ResultUtils.success(userService.getSafeUser(user));
+        loginResponse = ResultUtils.success(UserLoginVO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .token("eyJhbGciOiJIUzI1NiJ9.eyJ1c2VySWQiOjEwMDAxfQ.signature")
+                .build());
+    }
+
+    @Benchmark
+    public User getSafeUser() {
+        return userService.getSafeUser(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeLogin() throws Exception {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserPathBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
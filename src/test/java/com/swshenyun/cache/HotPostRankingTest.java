@@ -0,0 +1,62 @@
+package com.swshenyun.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotPostRankingTest {
+
+    private static final long HOUR = 3600_000L;
+
+    private static final long NOW = HotPostRanking.EPOCH_MILLIS + 1000L * 24 * HOUR;
+
+    @Test
+    void olderEventsDecayByHalfLife() {
+        HotPostRanking ranking = new HotPostRanking(24 * HOUR, 100);
+        //1天前的3次点赞衰减为1.5，低于现在的2次
+        ranking.add(1L, 3, NOW - 24 * HOUR);
+        ranking.add(2L, 2, NOW);
+        //2天前的10次衰减为2.5
+        ranking.add(3L, 10, NOW - 48 * HOUR);
+        assertEquals(List.of(3L, 2L, 1L), ranking.top(0, 10));
+        assertEquals(List.of(2L), ranking.top(1, 1));
+        //log(2)+λ·0 与 log(3)+λ·(-24h) 的差即为 ln(2/1.5)
+        assertEquals(Math.log(2 / 1.5), ranking.score(2L) - ranking.score(1L), 1e-9);
+    }
+
+    @Test
+    void negativeWeightSubtractsAndRemovesAtZero() {
+        HotPostRanking ranking = new HotPostRanking(24 * HOUR, 100);
+        ranking.add(1L, 3, NOW);
+        ranking.add(2L, 2, NOW);
+        ranking.add(1L, -2, NOW);
+        assertEquals(List.of(2L, 1L), ranking.top(0, 10));
+        assertEquals(Math.log(1), ranking.score(1L) - Math.log(1) - (ranking.score(2L) - Math.log(2)), 1e-9);
+
+        ranking.add(1L, -1, NOW);
+        assertNull(ranking.score(1L));
+        assertEquals(List.of(2L), ranking.top(0, 10));
+    }
+
+    @Test
+    void lowestScoresAreEvictedAndSnapshotRestores() {
+        HotPostRanking ranking = new HotPostRanking(24 * HOUR, 2);
+        ranking.add(1L, 1, NOW);
+        ranking.add(2L, 2, NOW);
+        ranking.add(3L, 3, NOW);
+        assertEquals(2, ranking.size());
+        assertEquals(List.of(3L, 2L), ranking.top(0, 10));
+
+        Map<Long, Double> snapshot = ranking.snapshot();
+        HotPostRanking restored = new HotPostRanking(24 * HOUR, 2);
+        restored.restore(snapshot);
+        assertEquals(List.of(3L, 2L), restored.top(0, 10));
+        //十年后的分数仍是有限值
+        restored.add(4L, 1, NOW + 3650 * 24 * HOUR);
+        assertTrue(Double.isFinite(restored.score(4L)));
+        assertEquals(4L, restored.top(0, 1).get(0));
+    }
+}
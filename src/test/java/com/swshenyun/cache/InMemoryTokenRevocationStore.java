@@ -0,0 +1,73 @@
+package com.swshenyun.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 测试用的内存吊销名单，模拟redis的key过期与发布订阅
+ */
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    /**
+     * member -> [value, 过期时间戳]
+     */
+    private final Map<String, long[]> entries = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 查询次数，对应redis往返
+     */
+    public final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public void revokeToken(String jti, long ttlMillis) {
+        entries.put(JTI_MEMBER + jti, new long[]{1L, System.currentTimeMillis() + ttlMillis});
+    }
+
+    @Override
+    public boolean isTokenRevoked(String jti) {
+        lookups.incrementAndGet();
+        return live(JTI_MEMBER + jti) != null;
+    }
+
+    @Override
+    public void revokeUser(Long userId, long epochMillis, long ttlMillis) {
+        entries.put(USER_MEMBER + userId, new long[]{epochMillis, System.currentTimeMillis() + ttlMillis});
+    }
+
+    @Override
+    public Long getUserEpoch(Long userId) {
+        lookups.incrementAndGet();
+        long[] entry = live(USER_MEMBER + userId);
+        return entry == null ? null : entry[0];
+    }
+
+    @Override
+    public void forEachRevoked(Consumer<String> consumer) {
+        entries.keySet().stream().filter(member -> live(member) != null).forEach(consumer);
+    }
+
+    @Override
+    public void publish(String member) {
+        listeners.forEach(listener -> listener.accept(member));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private long[] live(String member) {
+        long[] entry = entries.get(member);
+        if (entry != null && entry[1] <= System.currentTimeMillis()) {
+            entries.remove(member);
+            return null;
+        }
+        return entry;
+    }
+}
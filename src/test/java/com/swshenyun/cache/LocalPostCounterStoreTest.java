@@ -0,0 +1,62 @@
+package com.swshenyun.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.swshenyun.cache.PostCounterStore.Type.THUMB;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalPostCounterStoreTest {
+
+    @Test
+    void toggleIsIdempotentAndCoalesced() {
+        LocalPostCounterStore store = new LocalPostCounterStore(100);
+        assertEquals(PostCounterStore.NOT_LOADED, store.toggle(THUMB, 1L, 10L));
+
+        store.load(THUMB, 1L, List.of(20L));
+        assertEquals(1, store.toggle(THUMB, 1L, 10L));
+        assertEquals(0, store.toggle(THUMB, 1L, 10L));
+        assertEquals(1, store.toggle(THUMB, 1L, 10L));
+        assertEquals(0, store.toggle(THUMB, 1L, 20L));
+        assertEquals(0, store.pendingDelta(THUMB, 1L));
+
+        PostCounterBatch batch = store.drain(THUMB);
+        assertEquals(List.of(new PostCounterBatch.Member(1L, 10L)), batch.getAdded());
+        assertEquals(List.of(new PostCounterBatch.Member(1L, 20L)), batch.getRemoved());
+        assertTrue(batch.getDeltas().isEmpty());
+    }
+
+    @Test
+    void unacknowledgedBatchIsRetriedAndStillCounted() {
+        LocalPostCounterStore store = new LocalPostCounterStore(100);
+        store.load(THUMB, 1L, List.of());
+        store.toggle(THUMB, 1L, 10L);
+
+        PostCounterBatch first = store.drain(THUMB);
+        store.toggle(THUMB, 1L, 11L);
+        assertEquals(2, store.pendingDelta(THUMB, 1L));
+        assertSame(first, store.drain(THUMB));
+
+        store.ack(THUMB, first);
+        PostCounterBatch second = store.drain(THUMB);
+        assertEquals(List.of(new PostCounterBatch.Member(1L, 11L)), second.getAdded());
+        assertNotEquals(first.getBatchId(), second.getBatchId());
+        //重复确认已确认的批次不影响当前批次
+        store.ack(THUMB, first);
+        assertSame(second, store.drain(THUMB));
+        store.ack(THUMB, second);
+        assertNull(store.drain(THUMB));
+    }
+
+    @Test
+    void reloadAppliesPendingChanges() {
+        LocalPostCounterStore store = new LocalPostCounterStore(1);
+        store.load(THUMB, 1L, List.of());
+        store.toggle(THUMB, 1L, 10L);
+        //容量为1，加载第二个帖子后第一个帖子的集合可能被淘汰
+        store.load(THUMB, 2L, List.of());
+        store.load(THUMB, 1L, List.of());
+        assertTrue(store.isMember(THUMB, 1L, 10L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.swshenyun.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import static com.swshenyun.cache.PostCounterStore.Type.FAVOUR;
+import static com.swshenyun.cache.PostCounterStore.Type.THUMB;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量读取增量包括正在写库的一批；未确认的批次以相同的批次id重试；锁过期后接手的节点确认旧批次时不会删除新的一批；
+ * 集合过期后重新加载时叠加该帖子正在写库和待写库的变更
+ */
+public class RedisPostCounterStoreTest {
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate stringRedisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer()
+                .bind("127.0.0.1")
+                .port(port)
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void pendingDeltasIncludeFlushingBatch() {
+        RedisPostCounterStore store = new RedisPostCounterStore(stringRedisTemplate, 60, 60000);
+        store.load(FAVOUR, 1L, List.of());
+        store.load(FAVOUR, 2L, List.of(10L));
+        store.toggle(FAVOUR, 1L, 10L);
+        store.toggle(FAVOUR, 2L, 10L);
+        PostCounterBatch batch = store.drain(FAVOUR);
+        store.toggle(FAVOUR, 1L, 11L);
+
+        assertEquals(Map.of(1L, 2L, 2L, -1L), store.pendingDeltas(FAVOUR, List.of(1L, 2L, 3L)));
+        store.ack(FAVOUR, batch);
+        assertEquals(Map.of(1L, 1L), store.pendingDeltas(FAVOUR, List.of(1L, 2L, 3L)));
+        store.ack(FAVOUR, store.drain(FAVOUR));
+    }
+
+    @Test
+    void reloadAppliesUnflushedChangesOfThatPostOnly() {
+        RedisPostCounterStore store = new RedisPostCounterStore(stringRedisTemplate, 60, 60000);
+        store.load(FAVOUR, 5L, List.of(10L));
+        store.load(FAVOUR, 6L, List.of());
+        store.toggle(FAVOUR, 5L, 10L);
+        store.toggle(FAVOUR, 6L, 12L);
+        PostCounterBatch batch = store.drain(FAVOUR);
+        store.toggle(FAVOUR, 5L, 11L);
+
+        //集合过期，数据库里仍是写库前的记录
+        stringRedisTemplate.delete("post:favour:members:5");
+        assertFalse(store.isLoaded(FAVOUR, 5L));
+        store.load(FAVOUR, 5L, List.of(10L));
+
+        assertFalse(store.isMember(FAVOUR, 5L, 10L));
+        assertTrue(store.isMember(FAVOUR, 5L, 11L));
+        assertFalse(store.isMember(FAVOUR, 5L, 12L));
+
+        store.ack(FAVOUR, batch);
+        store.ack(FAVOUR, store.drain(FAVOUR));
+    }
+
+    @Test
+    void retriedBatchKeepsItsIdAndStaleAckIsIgnored() {
+        RedisPostCounterStore store = new RedisPostCounterStore(stringRedisTemplate, 60, 60000);
+        store.load(THUMB, 1L, List.of());
+        store.toggle(THUMB, 1L, 10L);
+
+        PostCounterBatch first = store.drain(THUMB);
+        assertNotNull(first.getBatchId());
+        store.toggle(THUMB, 1L, 11L);
+        assertEquals(2, store.pendingDelta(THUMB, 1L));
+        PostCounterBatch retry = store.drain(THUMB);
+        assertEquals(first.getBatchId(), retry.getBatchId());
+        assertEquals(first.getAdded(), retry.getAdded());
+
+        store.ack(THUMB, first);
+        PostCounterBatch second = store.drain(THUMB);
+        assertNotEquals(first.getBatchId(), second.getBatchId());
+        assertEquals(List.of(new PostCounterBatch.Member(1L, 11L)), second.getAdded());
+
+        //另一个节点迟到的确认
+        store.ack(THUMB, first);
+        assertEquals(second.getBatchId(), store.drain(THUMB).getBatchId());
+        store.ack(THUMB, second);
+        assertNull(store.drain(THUMB));
+    }
+}
@@ -0,0 +1,89 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.pojo.dto.UserActivityDTO;
+import com.swshenyun.properties.UserActivityProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class UserActivityBufferTest {
+
+    private UserMapper userMapper;
+
+    private UserCache userCache;
+
+    private UserActivityBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        userCache = mock(UserCache.class);
+        UserActivityProperties properties = new UserActivityProperties();
+        properties.setBatchSize(2);
+        buffer = new UserActivityBuffer();
+        ReflectionTestUtils.setField(buffer, "userMapper", userMapper);
+        ReflectionTestUtils.setField(buffer, "userCache", userCache);
+        ReflectionTestUtils.setField(buffer, "userActivityProperties", properties);
+        ReflectionTestUtils.setField(buffer, "asyncExecutor", new ThreadPoolTaskExecutor());
+    }
+
+    @Test
+    void repeatedLoginsAreMergedAndFlushedInBatches() {
+        buffer.recordLogin(1L, "10.0.0.1");
+        buffer.recordLogin(1L, "10.0.0.2");
+        buffer.recordLogin(2L, "10.0.0.3");
+        buffer.recordLogin(3L, "10.0.0.4");
+        assertEquals(3, buffer.pendingSize());
+
+        List<UserActivityDTO> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return 0;
+        }).when(userMapper).updateLoginActivity(anyList());
+
+        assertEquals(3, buffer.flush());
+        verify(userMapper, times(2)).updateLoginActivity(anyList());
+        assertEquals(0, buffer.pendingSize());
+        UserActivityDTO first = written.stream().filter(a -> a.getUserId() == 1L).findFirst().orElseThrow();
+        assertEquals(2, first.getLoginCount());
+        assertEquals("10.0.0.2", first.getLastLoginIp());
+        //每批写库后清除这批用户的缓存
+        ArgumentCaptor<Collection<Long>> invalidated = ArgumentCaptor.forClass(Collection.class);
+        verify(userCache, times(2)).invalidateAll(invalidated.capture());
+        assertEquals(Set.of(1L, 2L, 3L), invalidated.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void failedWriteIsKeptForNextFlush() {
+        buffer.recordLogin(1L, "10.0.0.1");
+        doThrow(new RuntimeException("db down")).when(userMapper).updateLoginActivity(anyList());
+        assertEquals(0, buffer.flush());
+        verifyNoInteractions(userCache);
+
+        buffer.recordLogin(1L, "10.0.0.2");
+        assertEquals(1, buffer.pendingSize());
+        List<UserActivityDTO> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return 1;
+        }).when(userMapper).updateLoginActivity(anyList());
+        assertEquals(1, buffer.flush());
+        assertEquals(2, written.get(0).getLoginCount());
+        assertEquals("10.0.0.2", written.get(0).getLastLoginIp());
+    }
+}
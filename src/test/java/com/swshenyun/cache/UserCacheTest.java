@@ -0,0 +1,223 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.properties.UserCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个节点共享一个内嵌redis：本地缓存、redis缓存、回源的顺序，跨节点失效通知，以及回源期间被清除时不写回旧数据
+ */
+public class UserCacheTest {
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private RedisMessageListenerContainer containerA;
+
+    private RedisMessageListenerContainer containerB;
+
+    private UserCache nodeA;
+
+    private UserCache nodeB;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer()
+                .bind("127.0.0.1")
+                .port(port)
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        containerA = newContainer();
+        containerB = newContainer();
+        nodeA = newNode(containerA);
+        nodeB = newNode(containerB);
+        awaitSubscribers(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        containerA.destroy();
+        containerB.destroy();
+    }
+
+    @Test
+    void nearThenRedisThenLoader() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", nodeA.get(1L, id -> load(id, "v1", loads)).getProfile());
+        assertEquals("v1", nodeA.get(1L, id -> load(id, "v2", loads)).getProfile());
+        assertEquals(1, loads.get());
+        assertEquals(1, nodeA.stats().getNearHitCount());
+
+        //另一个节点本地未命中，命中redis
+        assertEquals("v1", nodeB.get(1L, id -> load(id, "v2", loads)).getProfile());
+        assertEquals(1, loads.get());
+        assertEquals(1, nodeB.stats().getRedisHitCount());
+    }
+
+    @Test
+    void statsAreExportedAsMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        nodeB.bindTo(registry);
+        AtomicInteger loads = new AtomicInteger();
+
+        nodeA.get(6L, id -> load(id, "v1", loads));
+        nodeB.get(6L, id -> load(id, "v1", loads));
+        nodeB.get(6L, id -> load(id, "v1", loads));
+        nodeB.get(7L, id -> load(id, "v1", loads));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "user.near").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "user.near").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("user.cache.redis").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("user.cache.redis").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("user.cache.load").functionTimer().count());
+    }
+
+    @Test
+    void invalidateClearsRedisAndOtherNodes() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        nodeA.get(2L, id -> load(id, "old", loads));
+        nodeB.get(2L, id -> load(id, "old", loads));
+
+        nodeA.invalidate(2L);
+        assertNull(stringRedisTemplate.opsForValue().get(RedisKeyConstant.USER_SAFE_PREFIX + 2));
+
+        //等待节点B收到失效消息
+        long deadline = System.currentTimeMillis() + 5000;
+        String profile;
+        do {
+            Thread.sleep(20);
+            profile = nodeB.get(2L, id -> load(id, "new", loads)).getProfile();
+        } while (!"new".equals(profile) && System.currentTimeMillis() < deadline);
+        assertEquals("new", profile);
+    }
+
+    @Test
+    void staleLoadIsNotWrittenBackAfterInvalidate() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        AtomicReference<String> database = new AtomicReference<>("old");
+
+        //节点A读到旧数据后停住，期间数据更新并清除缓存
+        CompletableFuture<User> staleLoad = CompletableFuture.supplyAsync(() -> nodeA.get(3L, id -> {
+            User user = user(id, database.get());
+            loaded.countDown();
+            await(invalidated);
+            return user;
+        }));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        database.set("new");
+        nodeB.invalidate(3L);
+        invalidated.countDown();
+        assertEquals("old", staleLoad.get(5, TimeUnit.SECONDS).getProfile());
+
+        assertNull(stringRedisTemplate.opsForValue().get(RedisKeyConstant.USER_SAFE_PREFIX + 3));
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("new", nodeB.get(3L, id -> load(id, database.get(), loads)).getProfile());
+        assertEquals(1, loads.get());
+    }
+
+    private static UserCache newNode(RedisMessageListenerContainer container) {
+        UserCache cache = new UserCache();
+        ReflectionTestUtils.setField(cache, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(cache, "listenerContainer", container);
+        ReflectionTestUtils.setField(cache, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(cache, "userCacheProperties", new UserCacheProperties());
+        cache.init();
+        return cache;
+    }
+
+    private static RedisMessageListenerContainer newContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+
+    /**
+     * 订阅是异步建立的，等到频道上有足够的订阅者再开始；publish返回收到消息的客户端数，id 0不存在
+     */
+    private static void awaitSubscribers(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Long receivers = stringRedisTemplate.convertAndSend(RedisKeyConstant.USER_CACHE_INVALIDATE_CHANNEL, "0");
+            if (receivers != null && receivers >= expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("订阅未建立");
+    }
+
+    private static User load(Long id, String profile, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return user(id, profile);
+    }
+
+    private static User user(Long id, String profile) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setProfile(profile);
+        return user;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
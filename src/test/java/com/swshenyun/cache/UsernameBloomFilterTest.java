@@ -0,0 +1,62 @@
+package com.swshenyun.cache;
+
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.properties.UserCacheProperties;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 加载完成前一律视为可能存在；加载后未占用的用户名判定为不存在，新注册的用户名立即生效并广播
+ */
+public class UsernameBloomFilterTest {
+
+    @Test
+    void loadsUsernamesAndTracksRegistrations() throws Exception {
+        UserMapper userMapper = mock(UserMapper.class);
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> {
+            ResultHandler<String> handler = invocation.getArgument(0);
+            DefaultResultContext<String> context = new DefaultResultContext<>();
+            for (String username : List.of("alice", "bob", "deleted")) {
+                context.nextResultObject(username);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(userMapper).scanUsernames(any());
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setUsernameBloomEnabled(true);
+        properties.setUsernameBloomExpectedInsertions(1000);
+        UsernameBloomFilter bloomFilter = new UsernameBloomFilter();
+        ReflectionTestUtils.setField(bloomFilter, "userMapper", userMapper);
+        ReflectionTestUtils.setField(bloomFilter, "userCacheProperties", properties);
+        ReflectionTestUtils.setField(bloomFilter, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(bloomFilter, "listenerContainer", mock(RedisMessageListenerContainer.class));
+
+        assertTrue(bloomFilter.mightContain("carol"));
+        bloomFilter.load();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!bloomFilter.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(bloomFilter.isReady());
+
+        assertTrue(bloomFilter.mightContain("alice"));
+        assertTrue(bloomFilter.mightContain("deleted"));
+        assertFalse(bloomFilter.mightContain("carol"));
+
+        bloomFilter.put("carol");
+        assertTrue(bloomFilter.mightContain("carol"));
+        verify(stringRedisTemplate).convertAndSend(any(String.class), eq("carol"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.swshenyun.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    @Test
+    void hitAndMiss() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        assertNull(cache.get("token"));
+        cache.put("token", token(1L, System.currentTimeMillis() + 60000L));
+        assertEquals(1L, cache.get("token").getUserId());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void hitAndMissAreExportedAsMetrics() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get("token");
+        cache.put("token", token(1L, System.currentTimeMillis() + 60000L));
+        cache.get("token");
+        cache.get("token");
+
+        assertEquals(2.0, gets(registry, "hit"));
+        assertEquals(1.0, gets(registry, "miss"));
+        assertEquals(1.0, registry.get("cache.size").tag("cache", VerifiedTokenCache.CACHE_NAME).gauge().value());
+    }
+
+    @Test
+    void entryNeverOutlivesExp() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        cache.put("token", token(1L, System.currentTimeMillis() + 50L));
+        Thread.sleep(100L);
+        assertNull(cache.get("token"));
+
+        cache.put("expired", token(2L, System.currentTimeMillis() - 1L));
+        assertNull(cache.get("expired"));
+    }
+
+    private static double gets(SimpleMeterRegistry registry, String result) {
+        return registry.get("cache.gets")
+                .tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static VerifiedToken token(Long userId, long expMillis) {
+        return new VerifiedToken(userId, "jti-" + userId, System.currentTimeMillis(), expMillis);
+    }
+}
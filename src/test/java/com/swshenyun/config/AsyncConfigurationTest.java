@@ -0,0 +1,78 @@
+package com.swshenyun.config;
+
+import com.swshenyun.properties.AsyncProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 线程池满时默认拒绝任务，不在提交线程上执行
+ */
+public class AsyncConfigurationTest {
+
+    private AsyncConfiguration configuration;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        AsyncProperties properties = new AsyncProperties();
+        properties.setCorePoolSize(1);
+        properties.setMaxPoolSize(1);
+        properties.setQueueCapacity(1);
+        configuration = new AsyncConfiguration();
+        ReflectionTestUtils.setField(configuration, "asyncProperties", properties);
+        executor = configuration.asyncExecutor();
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void fullPoolRejectsInsteadOfRunningOnCaller() {
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        Thread[] ranOn = new Thread[1];
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> ranOn[0] = Thread.currentThread()));
+
+        assertNull(ranOn[0]);
+        assertEquals(1, configuration.getRejectedCount());
+    }
+
+    @Test
+    void poolStateIsExportedAsMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.asyncExecutorMetrics(executor).bindTo(registry);
+
+        executor.execute(this::block);
+        executor.execute(this::block);
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        assertEquals(1.0, registry.get("executor.rejected").tag("name", "asyncExecutor").functionCounter().count());
+        assertEquals(1.0, registry.get("executor.queued").tag("name", "asyncExecutor").gauge().value());
+        assertEquals(1.0, registry.get("executor.pool.max").tag("name", "asyncExecutor").gauge().value());
+    }
+
+    private void block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.swshenyun.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsConfigurationTest {
+
+    private final MetricsConfiguration configuration = new MetricsConfiguration();
+
+    @Test
+    void onlyHealthMayShareTheApplicationPort() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("management.endpoints.web.exposure.include", "health");
+        assertDoesNotThrow(() -> configuration.managementExposureCheck(environment).afterSingletonsInstantiated());
+
+        environment.setProperty("management.endpoints.web.exposure.include", "health,prometheus");
+        assertThrows(IllegalStateException.class,
+                () -> configuration.managementExposureCheck(environment).afterSingletonsInstantiated());
+
+        environment.setProperty("management.server.port", "8081");
+        assertDoesNotThrow(() -> configuration.managementExposureCheck(environment).afterSingletonsInstantiated());
+    }
+}
@@ -0,0 +1,25 @@
+package com.swshenyun.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreadingConfigurationTest {
+
+    private final ThreadingConfiguration configuration = new ThreadingConfiguration();
+
+    @Test
+    void virtualThreadsRequireJdk21() {
+        MockEnvironment environment = new MockEnvironment();
+        assertDoesNotThrow(() -> configuration.virtualThreadCheck(environment).afterSingletonsInstantiated());
+
+        environment.setProperty("spring.threads.virtual.enabled", "true");
+        if (Runtime.version().feature() < 21) {
+            assertThrows(IllegalStateException.class,
+                    () -> configuration.virtualThreadCheck(environment).afterSingletonsInstantiated());
+        } else {
+            assertDoesNotThrow(() -> configuration.virtualThreadCheck(environment).afterSingletonsInstantiated());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.swshenyun.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContextCopyingTaskDecoratorTest {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        BaseContext.removeCurrentId();
+    }
+
+    @Test
+    void propagatesAndClearsContext() throws Exception {
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setTaskDecorator(new ContextCopyingTaskDecorator());
+        executor.initialize();
+
+        BaseContext.setCurrentId(42L);
+        CompletableFuture<Long> inTask = new CompletableFuture<>();
+        executor.execute(() -> inTask.complete(BaseContext.getCurrentId()));
+        assertEquals(42L, inTask.get(5, TimeUnit.SECONDS));
+
+        BaseContext.removeCurrentId();
+        CompletableFuture<Long> nextTask = new CompletableFuture<>();
+        executor.execute(() -> nextTask.complete(BaseContext.getCurrentId()));
+        assertNull(nextTask.get(5, TimeUnit.SECONDS), "同一工作线程上的下一个任务不应看到上一个任务的用户id");
+    }
+}
@@ -1,11 +1,135 @@
 package com.swshenyun.controller;
 
-import org.springframework.boot.test.context.SpringBootTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.UserActivityBuffer;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.constant.JwtClaimsConstant;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.handler.GlobalExceptionHandler;
+import com.swshenyun.pojo.dto.UserLoginDTO;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.service.LoginGuardService;
+import com.swshenyun.service.UserImportService;
+import com.swshenyun.service.UserService;
+import com.swshenyun.utils.JwtCodec;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-@SpringBootTest
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 登录与管理员接口，只装配控制器与全局异常处理，不启动容器
+ */
 public class UserControllerTest {
 
-    void login() {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JwtCodec jwtCodec = new JwtCodec("default", Map.of("default", "controller-test-secret-key-controller-test"), 60000L);
+
+    private UserService userService;
+
+    private LoginGuardService loginGuardService;
+
+    private UserActivityBuffer userActivityBuffer;
+
+    private UserImportService userImportService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        loginGuardService = mock(LoginGuardService.class);
+        userActivityBuffer = mock(UserActivityBuffer.class);
+        userImportService = mock(UserImportService.class);
+        UserController controller = new UserController();
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        ReflectionTestUtils.setField(controller, "jwtCodec", jwtCodec);
+        ReflectionTestUtils.setField(controller, "loginGuardService", loginGuardService);
+        ReflectionTestUtils.setField(controller, "userActivityBuffer", userActivityBuffer);
+        ReflectionTestUtils.setField(controller, "userImportService", userImportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void login() throws Exception {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("tester");
+        when(userService.login(any(UserLoginDTO.class))).thenReturn(user);
+
+        MvcResult result = mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.1");
+                            return request;
+                        })
+                        //客户端自带的转发头不参与限流
+                        .header("X-Forwarded-For", "203.0.113.9")
+                        .content(loginBody("tester", "Password1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(7))
+                .andExpect(jsonPath("$.data.username").value("tester"))
+                .andReturn();
+
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).at("/data/token").asText();
+        Claims claims = jwtCodec.parseJWT(token);
+        assertEquals("7", claims.get(JwtClaimsConstant.USER_ID).toString());
+        verify(loginGuardService).checkLogin("tester", "10.0.0.1");
+        verify(loginGuardService).onLoginSuccess("tester");
+        verify(userActivityBuffer).recordLogin(7L, "10.0.0.1");
+    }
+
+    @Test
+    void wrongPasswordCountsAsFailure() throws Exception {
+        when(userService.login(any(UserLoginDTO.class))).thenThrow(new BaseException(ErrorCode.PASSWORD_ERROR));
+
+        mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginBody("tester", "Wrong1234")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(0))
+                .andExpect(jsonPath("$.msg").value(ErrorCode.PASSWORD_ERROR.getMessage()));
+
+        verify(loginGuardService).onLoginFailure("tester");
+        verify(loginGuardService, never()).onLoginSuccess(any());
+        verifyNoInteractions(userActivityBuffer);
+    }
+
+    @Test
+    void importRequiresAdmin() throws Exception {
+        doThrow(new BaseException(ErrorCode.NO_AUTH_ERROR)).when(userService).checkAdmin(any());
+
+        mockMvc.perform(multipart("/user/admin/import")
+                        .file(new MockMultipartFile("file", "users.csv", "text/csv", "u1,Password1\n".getBytes())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(0))
+                .andExpect(jsonPath("$.msg").value(ErrorCode.NO_AUTH_ERROR.getMessage()));
+
+        verifyNoInteractions(userImportService);
+    }
 
+    private String loginBody(String username, String password) throws Exception {
+        UserLoginDTO dto = new UserLoginDTO();
+        dto.setUsername(username);
+        dto.setPassword(password);
+        return objectMapper.writeValueAsString(dto);
     }
 }
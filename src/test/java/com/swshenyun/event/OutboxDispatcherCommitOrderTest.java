@@ -0,0 +1,119 @@
+package com.swshenyun.event;
+
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.swshenyun.loadtest.LoadTestDatabase;
+import com.swshenyun.mapper.OutboxConsumerOffsetMapper;
+import com.swshenyun.mapper.OutboxEventMapper;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.properties.OutboxProperties;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在h2上用两个事务按与id相反的顺序提交，后提交的小id事件不会被跳过，也不会被提前标记为已投递
+ */
+public class OutboxDispatcherCommitOrderTest {
+
+    private JdbcDataSource dataSource;
+
+    private OutboxEventMapper outboxEventMapper;
+
+    private final List<Long> received = new ArrayList<>();
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL(LoadTestDatabase.URL.replace("mem:loadtest", "mem:outbox_" + UUID.randomUUID()));
+        dataSource.setUser("sa");
+        try (Connection connection = dataSource.getConnection()) {
+            LoadTestDatabase.createSchema(connection, Path.of("sql/create_table.sql"));
+        }
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath:mapper/Outbox*.xml"));
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(factoryBean.getObject());
+        outboxEventMapper = sqlSession.getMapper(OutboxEventMapper.class);
+
+        OutboxProperties properties = new OutboxProperties();
+        properties.setLeaseEnabled(false);
+        dispatcher = new OutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "outboxEventMapper", outboxEventMapper);
+        ReflectionTestUtils.setField(dispatcher, "outboxConsumerOffsetMapper", sqlSession.getMapper(OutboxConsumerOffsetMapper.class));
+        ReflectionTestUtils.setField(dispatcher, "outboxProperties", properties);
+        ReflectionTestUtils.setField(dispatcher, "consumers", List.of(new OutboxConsumer() {
+            @Override
+            public String name() {
+                return "user";
+            }
+
+            @Override
+            public boolean supports(String aggregateType) {
+                return true;
+            }
+
+            @Override
+            public void consume(List<OutboxEvent> events) {
+                events.forEach(event -> received.add(event.getAggregateId()));
+            }
+        }));
+        //先建立消费进度
+        dispatcher.poll();
+    }
+
+    @Test
+    void eventCommittedAfterALaterIdIsDelivered() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            long firstId = insertEvent(first, 1L);
+            long secondId = insertEvent(second, 2L);
+            assertTrue(firstId < secondId);
+            second.commit();
+
+            dispatcher.poll();
+            assertEquals(List.of(2L), received);
+            assertEquals(0, status(secondId));
+
+            first.commit();
+            dispatcher.poll();
+            assertEquals(List.of(2L, 1L), received);
+            assertEquals(1, status(firstId));
+            assertEquals(1, status(secondId));
+        }
+    }
+
+    private static long insertEvent(Connection connection, long aggregateId) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into outbox_event (aggregate_type, aggregate_id, event_type) values ('user', "
+                    + aggregateId + ", 'UPDATED')", Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private int status(long id) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select status from outbox_event where id = " + id)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
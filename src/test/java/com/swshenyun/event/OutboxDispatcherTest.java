@@ -0,0 +1,227 @@
+package com.swshenyun.event;
+
+import com.swshenyun.mapper.OutboxConsumerOffsetMapper;
+import com.swshenyun.mapper.OutboxEventMapper;
+import com.swshenyun.pojo.entity.OutboxConsumerOffset;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.properties.OutboxProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxDispatcherTest {
+
+    private OutboxEventMapper outboxEventMapper;
+
+    private OutboxConsumerOffsetMapper outboxConsumerOffsetMapper;
+
+    private OutboxProperties properties;
+
+    private RecordingConsumer userConsumer;
+
+    private RecordingConsumer postConsumer;
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventMapper = mock(OutboxEventMapper.class);
+        outboxConsumerOffsetMapper = mock(OutboxConsumerOffsetMapper.class);
+        properties = new OutboxProperties();
+        properties.setLeaseEnabled(false);
+        properties.setBatchSize(2);
+        properties.setMaxRetries(2);
+        userConsumer = new RecordingConsumer("user");
+        postConsumer = new RecordingConsumer("post");
+        dispatcher = new OutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "outboxEventMapper", outboxEventMapper);
+        ReflectionTestUtils.setField(dispatcher, "outboxConsumerOffsetMapper", outboxConsumerOffsetMapper);
+        ReflectionTestUtils.setField(dispatcher, "outboxProperties", properties);
+        ReflectionTestUtils.setField(dispatcher, "consumers", List.of(userConsumer, postConsumer));
+        when(outboxEventMapper.listAfter(anyLong(), eq(2))).thenReturn(List.of());
+    }
+
+    @Test
+    void deliversBatchesInOrderToMatchingConsumers() {
+        offsets(offset("user", 0, 0), offset("post", 0, 0));
+        when(outboxEventMapper.listAfter(0L, 2)).thenReturn(List.of(event(1L, "user"), event(2L, "post")));
+        when(outboxEventMapper.listAfter(2L, 2)).thenReturn(List.of(event(3L, "user")));
+        when(outboxEventMapper.markDoneUpTo(2L)).thenReturn(2);
+        when(outboxEventMapper.markDoneUpTo(3L)).thenReturn(1);
+
+        dispatcher.poll();
+
+        assertEquals(List.of(1L, 3L), userConsumer.received);
+        assertEquals(List.of(2L), postConsumer.received);
+        //进度相同的消费者共用一次查询
+        verify(outboxEventMapper, times(1)).listAfter(0L, 2);
+        verify(outboxConsumerOffsetMapper).advance("user", 3L, null);
+        verify(outboxConsumerOffsetMapper).advance("post", 3L, null);
+        verify(outboxEventMapper).markDoneUpTo(3L);
+        assertEquals(3, dispatcher.stats().getDispatchedCount());
+    }
+
+    @Test
+    void failingConsumerDoesNotBlockOthers() {
+        postConsumer.failing = true;
+        offsets(offset("user", 0, 0), offset("post", 0, 0));
+        when(outboxEventMapper.listAfter(0L, 2)).thenReturn(List.of(event(1L, "post"), event(2L, "user")));
+        when(outboxEventMapper.listAfter(2L, 2)).thenReturn(List.of(event(3L, "user")));
+
+        dispatcher.poll();
+
+        assertEquals(List.of(2L, 3L), userConsumer.received);
+        verify(outboxConsumerOffsetMapper).advance("user", 3L, null);
+        verify(outboxConsumerOffsetMapper).scheduleRetry(eq("post"), eq(1), any(LocalDateTime.class));
+        verify(outboxConsumerOffsetMapper, never()).advance(eq("post"), anyLong(), any());
+        verify(outboxEventMapper, never()).markDead(anyCollection());
+        //post消费者未处理任何事件，不能标记已投递
+        verify(outboxEventMapper, never()).markDoneUpTo(anyLong());
+        assertEquals(1, dispatcher.stats().getRetryCount());
+
+        //未到重试时间，不投递
+        OutboxConsumerOffset waiting = offset("post", 0, 1);
+        waiting.setNextRetryTime(LocalDateTime.now().plusMinutes(1));
+        offsets(offset("user", 3, 0), waiting);
+        dispatcher.poll();
+        verify(outboxConsumerOffsetMapper, times(1)).scheduleRetry(eq("post"), anyInt(), any());
+    }
+
+    @Test
+    void consumerGivesUpAfterMaxRetries() {
+        postConsumer.failing = true;
+        offsets(offset("user", 2, 0), offset("post", 0, 2));
+        when(outboxEventMapper.listAfter(0L, 2)).thenReturn(List.of(event(1L, "post"), event(2L, "user")));
+        when(outboxEventMapper.markDoneUpTo(2L)).thenReturn(2);
+
+        dispatcher.poll();
+
+        //只标记该消费者关心的事件，进度越过这一批
+        verify(outboxEventMapper).markDead(List.of(1L));
+        verify(outboxConsumerOffsetMapper).advance("post", 2L, null);
+        verify(outboxConsumerOffsetMapper, never()).scheduleRetry(anyString(), anyInt(), any());
+        verify(outboxEventMapper).markDoneUpTo(2L);
+        assertTrue(userConsumer.received.isEmpty());
+        assertEquals(1, dispatcher.stats().getDeadCount());
+    }
+
+    @Test
+    void eventCommittedAfterALaterIdIsStillDelivered() {
+        ReflectionTestUtils.setField(dispatcher, "consumers", List.of(userConsumer));
+        //事务A先分配到id 1，事务B分配到id 2并先提交：读取时只看到2
+        offsets(offset("user", 0, 0));
+        when(outboxEventMapper.listAfter(0L, 2)).thenReturn(List.of(event(2L, "user")));
+
+        dispatcher.poll();
+
+        assertEquals(List.of(2L), userConsumer.received);
+        ArgumentCaptor<String> gaps = ArgumentCaptor.forClass(String.class);
+        verify(outboxConsumerOffsetMapper).advance(eq("user"), eq(2L), gaps.capture());
+        assertTrue(gaps.getValue().startsWith("1:"), gaps.getValue());
+        //缺口之前的事件才能标记为已投递
+        verify(outboxEventMapper, never()).markDoneUpTo(anyLong());
+
+        //事务A提交后按id补投，缺口清除
+        OutboxConsumerOffset waiting = offset("user", 2, 0);
+        waiting.setGaps(gaps.getValue());
+        offsets(waiting);
+        when(outboxEventMapper.selectBatchIds(anyCollection())).thenReturn(List.of(event(1L, "user")));
+
+        dispatcher.poll();
+
+        assertEquals(List.of(2L, 1L), userConsumer.received);
+        verify(outboxEventMapper).selectBatchIds(Set.of(1L));
+        verify(outboxConsumerOffsetMapper).advance("user", 2L, null);
+        verify(outboxEventMapper).markDoneUpTo(2L);
+    }
+
+    @Test
+    void gapIsDroppedAfterTimeout() {
+        ReflectionTestUtils.setField(dispatcher, "consumers", List.of(userConsumer));
+        OutboxConsumerOffset offset = offset("user", 2, 0);
+        offset.setGaps("1:" + (System.currentTimeMillis() - 1));
+        offsets(offset);
+
+        dispatcher.poll();
+
+        verify(outboxConsumerOffsetMapper).advance("user", 2L, null);
+        verify(outboxEventMapper).markDoneUpTo(2L);
+        assertTrue(userConsumer.received.isEmpty());
+    }
+
+    @Test
+    void newConsumerGetsAnOffset() {
+        when(outboxConsumerOffsetMapper.listAll())
+                .thenReturn(List.of(offset("user", 5, 0)))
+                .thenReturn(List.of(offset("user", 5, 0), offset("post", 4, 0)));
+
+        dispatcher.poll();
+
+        verify(outboxConsumerOffsetMapper).insertIgnore("post");
+        verify(outboxConsumerOffsetMapper, never()).insertIgnore("user");
+        verify(outboxEventMapper).listAfter(4L, 2);
+        verify(outboxEventMapper).listAfter(5L, 2);
+    }
+
+    private void offsets(OutboxConsumerOffset... offsets) {
+        when(outboxConsumerOffsetMapper.listAll()).thenReturn(List.of(offsets));
+    }
+
+    private static OutboxConsumerOffset offset(String consumer, long lastEventId, int retryCount) {
+        return OutboxConsumerOffset.builder()
+                .consumer(consumer)
+                .lastEventId(lastEventId)
+                .retryCount(retryCount)
+                .build();
+    }
+
+    private static OutboxEvent event(Long id, String aggregateType) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(aggregateType)
+                .aggregateId(id)
+                .eventType("UPDATED")
+                .build();
+    }
+
+    private static class RecordingConsumer implements OutboxConsumer {
+
+        private final String aggregateType;
+
+        private final List<Long> received = new ArrayList<>();
+
+        private boolean failing;
+
+        RecordingConsumer(String aggregateType) {
+            this.aggregateType = aggregateType;
+        }
+
+        @Override
+        public String name() {
+            return aggregateType;
+        }
+
+        @Override
+        public boolean supports(String aggregateType) {
+            return this.aggregateType.equals(aggregateType);
+        }
+
+        @Override
+        public void consume(List<OutboxEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("consumer down");
+            }
+            events.forEach(event -> received.add(event.getAggregateId()));
+        }
+    }
+}
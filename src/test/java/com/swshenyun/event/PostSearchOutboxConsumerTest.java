@@ -0,0 +1,87 @@
+package com.swshenyun.event;
+
+import com.swshenyun.constant.RedisKeyConstant;
+import com.swshenyun.pojo.entity.OutboxEvent;
+import com.swshenyun.properties.PostSearchProperties;
+import com.swshenyun.service.PostSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 持有租约的节点只广播帖子id，每个节点收到后各自更新本地索引
+ */
+public class PostSearchOutboxConsumerTest {
+
+    private PostSearchService postSearchService;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    private PostSearchProperties properties;
+
+    private PostSearchOutboxConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        postSearchService = mock(PostSearchService.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        listenerContainer = mock(RedisMessageListenerContainer.class);
+        properties = new PostSearchProperties();
+        consumer = new PostSearchOutboxConsumer();
+        ReflectionTestUtils.setField(consumer, "postSearchService", postSearchService);
+        ReflectionTestUtils.setField(consumer, "postSearchProperties", properties);
+        ReflectionTestUtils.setField(consumer, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(consumer, "listenerContainer", listenerContainer);
+    }
+
+    @Test
+    void consumeBroadcastsIdsAndEveryNodeSyncsLocally() {
+        consumer.init();
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(),
+                eq(new ChannelTopic(RedisKeyConstant.POST_SEARCH_CHANNEL)));
+
+        consumer.consume(List.of(event(3L), event(1L), event(3L)));
+
+        verify(stringRedisTemplate).convertAndSend(RedisKeyConstant.POST_SEARCH_CHANNEL, "3,1");
+        verify(postSearchService, never()).sync(any());
+
+        byte[] body = "3,1".getBytes(StandardCharsets.UTF_8);
+        listener.getValue().onMessage(new DefaultMessage(RedisKeyConstant.POST_SEARCH_CHANNEL.getBytes(), body), null);
+        verify(postSearchService).sync(Set.of(3L, 1L));
+    }
+
+    @Test
+    void consumeSyncsLocallyWhenBroadcastDisabled() {
+        properties.setBroadcast(false);
+        consumer.init();
+
+        consumer.consume(List.of(event(2L)));
+
+        verifyNoInteractions(listenerContainer, stringRedisTemplate);
+        verify(postSearchService).sync(Set.of(2L));
+    }
+
+    private static OutboxEvent event(Long postId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateId(postId);
+        return event;
+    }
+}
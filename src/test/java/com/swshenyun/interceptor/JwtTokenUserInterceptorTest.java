@@ -0,0 +1,142 @@
+package com.swshenyun.interceptor;
+
+import com.swshenyun.cache.InMemoryTokenRevocationStore;
+import com.swshenyun.constant.JwtClaimsConstant;
+import com.swshenyun.context.BaseContext;
+import com.swshenyun.metrics.AuthMetrics;
+import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.service.impl.TokenRevocationServiceImpl;
+import com.swshenyun.utils.JwtCodec;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class JwtTokenUserInterceptorTest {
+
+    private static final String TOKEN_NAME = "token";
+
+    private final JwtCodec jwtCodec = new JwtCodec("default", Map.of("default", "interceptor-test-secret-key-interceptor"), 60000L);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    private JwtTokenUserInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setUserTokenName(TOKEN_NAME);
+        jwtProperties.setUserTtl(60000L);
+
+        tokenRevocationService = new TokenRevocationServiceImpl();
+        ReflectionTestUtils.setField(tokenRevocationService, "tokenRevocationStore", new InMemoryTokenRevocationStore());
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtProperties", jwtProperties);
+        tokenRevocationService.init();
+
+        AuthMetrics authMetrics = new AuthMetrics();
+        ReflectionTestUtils.setField(authMetrics, "meterRegistry", meterRegistry);
+        authMetrics.init();
+
+        interceptor = new JwtTokenUserInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtProperties", jwtProperties);
+        ReflectionTestUtils.setField(interceptor, "jwtCodec", jwtCodec);
+        ReflectionTestUtils.setField(interceptor, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(interceptor, "authMetrics", authMetrics);
+        handler = new HandlerMethod(this, JwtTokenUserInterceptorTest.class.getDeclaredMethod("setUp"));
+    }
+
+    @Test
+    void recordsVerifyResultAndRejections() throws Exception {
+        String token = token(7L);
+        assertTrue(preHandle(token));
+        assertFalse(preHandle("not-a-jwt"));
+        assertFalse(preHandle(null));
+
+        Claims claims = jwtCodec.parseJWT(token);
+        tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().getTime());
+        assertFalse(preHandle(token));
+
+        assertEquals(1, verifyCount("ok"));
+        assertEquals(1, verifyCount("invalid"));
+        assertEquals(1, verifyCount("missing"));
+        assertEquals(1, verifyCount("revoked"));
+        assertEquals(3.0, meterRegistry.get("auth.token.rejected").counter().count());
+    }
+
+    @Test
+    void contextClearedAfterCompletion() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CurrentIdController())
+                .addInterceptors(interceptor)
+                .build();
+
+        mockMvc.perform(get("/current").header(TOKEN_NAME, token(7L)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+        assertNull(BaseContext.getCurrentId());
+
+        //处理器抛出异常时afterCompletion同样执行
+        assertThrows(ServletException.class,
+                () -> mockMvc.perform(get("/fail").header(TOKEN_NAME, token(8L))));
+        assertNull(BaseContext.getCurrentId());
+    }
+
+    @RestController
+    static class CurrentIdController {
+
+        @GetMapping("/current")
+        public String current() {
+            return String.valueOf(BaseContext.getCurrentId());
+        }
+
+        @GetMapping("/fail")
+        public String fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    private boolean preHandle(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(TOKEN_NAME, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean passed = interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+        if (!passed) {
+            assertEquals(401, response.getStatus());
+        }
+        return passed;
+    }
+
+    private long verifyCount(String result) {
+        return meterRegistry.get("auth.token.verify").tag("result", result).timer().count();
+    }
+
+    private String token(Long userId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtClaimsConstant.USER_ID, userId);
+        claims.put(JwtClaimsConstant.USERNAME, "tester");
+        return jwtCodec.createJwt(claims);
+    }
+}
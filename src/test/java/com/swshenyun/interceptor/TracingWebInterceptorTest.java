@@ -0,0 +1,76 @@
+package com.swshenyun.interceptor;
+
+import com.swshenyun.context.TraceContext;
+import com.swshenyun.properties.TracingProperties;
+import com.swshenyun.trace.Trace;
+import com.swshenyun.trace.TraceExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class TracingWebInterceptorTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    private TracingWebInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        TracingProperties properties = new TracingProperties();
+        properties.setServerTiming(true);
+        properties.setSampleRate(0);
+        interceptor = new TracingWebInterceptor();
+        ReflectionTestUtils.setField(interceptor, "tracingProperties", properties);
+        ReflectionTestUtils.setField(interceptor, "traceExporter", mock(TraceExporter.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeCurrentTrace();
+    }
+
+    @Test
+    void validTraceparentIsContinued() {
+        Trace trace = handle("00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertEquals(TRACE_ID, trace.getTraceId());
+        assertEquals(PARENT_ID, trace.getRemoteParentId());
+
+        //高版本可追加字段
+        trace = handle("01-" + TRACE_ID + "-" + PARENT_ID + "-01-extra");
+        assertEquals(TRACE_ID, trace.getTraceId());
+    }
+
+    @Test
+    void invalidTraceparentIsIgnored() {
+        for (String header : new String[]{
+                "00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01",
+                "00-" + TRACE_ID.replace('4', 'x') + "-" + PARENT_ID + "-01",
+                "00-00000000000000000000000000000000-" + PARENT_ID + "-01",
+                "00-" + TRACE_ID + "-0000000000000000-01",
+                "ff-" + TRACE_ID + "-" + PARENT_ID + "-01",
+                "00-" + TRACE_ID + "-" + PARENT_ID + "-01-extra"}) {
+            Trace trace = handle(header);
+            assertNotEquals(TRACE_ID, trace.getTraceId(), header);
+            assertNull(trace.getRemoteParentId(), header);
+            assertTrue(trace.getTraceId().matches("[0-9a-f]{32}"), header);
+        }
+    }
+
+    private Trace handle(String traceparent) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/current");
+        request.addHeader("traceparent", traceparent);
+        interceptor.preHandle(request, new MockHttpServletResponse(), mock(HandlerMethod.class));
+        Trace trace = TraceContext.getCurrentTrace();
+        TraceContext.removeCurrentTrace();
+        return trace;
+    }
+}
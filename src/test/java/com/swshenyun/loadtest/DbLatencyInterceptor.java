@@ -0,0 +1,33 @@
+package com.swshenyun.loadtest;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+
+/**
+ * 压测用：每条sql执行前等待固定时长，模拟到远程数据库的网络往返；等待期间占用数据库连接和当前线程，
+ * 用于对比平台线程和虚拟线程在阻塞数据库调用下的吞吐量
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class DbLatencyInterceptor implements Interceptor {
+
+    private final long latencyMillis;
+
+    public DbLatencyInterceptor(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Thread.sleep(latencyMillis);
+        return invocation.proceed();
+    }
+}
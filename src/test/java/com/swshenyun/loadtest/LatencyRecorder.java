@@ -0,0 +1,97 @@
+package com.swshenyun.loadtest;
+
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个操作的延迟与结果统计，延迟按微秒全部保留，结束时排序计算分位数
+ */
+public class LatencyRecorder {
+
+    private long[] latencies = new long[4096];
+
+    private int size;
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 错误原因 -> 次数，原因为http状态码或业务错误码
+     */
+    private final Map<String, LongAdder> errorReasons = new ConcurrentHashMap<>();
+
+    public synchronized void recordSuccess(long latencyMicros) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size << 1);
+        }
+        latencies[size++] = latencyMicros;
+    }
+
+    public void recordError(String reason) {
+        errors.increment();
+        errorReasons.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * @param seconds 统计时长
+     * @return
+     */
+    public synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        Summary summary = new Summary();
+        summary.setSuccess(size);
+        summary.setErrors(errors.sum());
+        summary.setDropped(dropped.sum());
+        summary.setThroughput(size / seconds);
+        Map<String, Long> reasons = new TreeMap<>();
+        errorReasons.forEach((reason, count) -> reasons.put(reason, count.sum()));
+        summary.setErrorReasons(reasons);
+        if (size > 0) {
+            long total = 0;
+            for (long latency : sorted) {
+                total += latency;
+            }
+            summary.setMeanMillis(total / 1000.0 / size);
+            summary.setP50Millis(percentile(sorted, 0.50));
+            summary.setP90Millis(percentile(sorted, 0.90));
+            summary.setP99Millis(percentile(sorted, 0.99));
+            summary.setP999Millis(percentile(sorted, 0.999));
+            summary.setMaxMillis(sorted[size - 1] / 1000.0);
+        }
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    /**
+     * 统计结果，延迟单位毫秒，吞吐量为每秒成功请求数
+     */
+    @Data
+    public static class Summary {
+        private long success;
+        private long errors;
+        private long dropped;
+        private double throughput;
+        private double meanMillis;
+        private double p50Millis;
+        private double p90Millis;
+        private double p99Millis;
+        private double p999Millis;
+        private double maxMillis;
+        private Map<String, Long> errorReasons;
+    }
+}
@@ -0,0 +1,161 @@
+package com.swshenyun.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 开放模型流量发生器
+ * 请求按预先排好的到达时刻发出，不等待之前的请求完成；延迟从预定的到达时刻开始计算，
+ * 服务端变慢时请求在客户端和服务端排队的时间也计入延迟，避免协调遗漏(coordinated omission)
+ */
+@Slf4j
+public class LoadGenerator {
+
+    public static final String TOTAL = "total";
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final LoadTestOptions options;
+
+    private final Map<String, Supplier<HttpRequest>> operations;
+
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+
+    private final String[] names;
+
+    private final int[] cumulativeWeights;
+
+    /**
+     * @param operations 操作名 -> 请求生成器，需覆盖流量配比中的全部操作
+     */
+    public LoadGenerator(HttpClient httpClient, ObjectMapper objectMapper, LoadTestOptions options,
+                         Map<String, Supplier<HttpRequest>> operations) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.options = options;
+        this.operations = operations;
+        Map<String, Integer> mix = options.getMix();
+        names = new String[mix.size()];
+        cumulativeWeights = new int[mix.size()];
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!operations.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("未知的压测操作: " + entry.getKey() + "，可选：" + operations.keySet());
+            }
+            total += entry.getValue();
+            names[i] = entry.getKey();
+            cumulativeWeights[i++] = total;
+            recorders.put(entry.getKey(), new LatencyRecorder());
+        }
+        recorders.put(TOTAL, new LatencyRecorder());
+    }
+
+    /**
+     * 运行预热和统计阶段，返回各操作的统计，key为 {@link #TOTAL} 的是全部请求
+     */
+    public Map<String, LatencyRecorder> run() throws InterruptedException {
+        boolean poisson = "poisson".equalsIgnoreCase(options.getArrival());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        LatencyRecorder total = recorders.get(TOTAL);
+
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.getWarmup());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.getDuration());
+        log.info("开始压测：{}请求/秒，{}到达，预热{}秒，统计{}秒，配比{}", options.getRate(), options.getArrival(),
+                options.getWarmup(), options.getDuration(), options.getMix());
+
+        double offset = 0;
+        boolean measuring = false;
+        while (true) {
+            long intended = start + (long) offset;
+            if (intended >= end) {
+                break;
+            }
+            offset += poisson
+                    ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos
+                    : meanGapNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            String name = pick();
+            boolean measured = intended >= measureStart;
+            if (measured && !measuring) {
+                measuring = true;
+                log.info("预热结束，开始统计");
+            }
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    recorders.get(name).recordDropped();
+                    total.recordDropped();
+                }
+                continue;
+            }
+            LatencyRecorder recorder = measured ? recorders.get(name) : null;
+            httpClient.sendAsync(operations.get(name).get(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, ex) -> {
+                        inFlight.release();
+                        if (recorder == null) {
+                            return;
+                        }
+                        String reason = ex != null ? ex.getClass().getSimpleName() : check(response);
+                        if (reason == null) {
+                            long latencyMicros = (System.nanoTime() - intended) / 1000;
+                            recorder.recordSuccess(latencyMicros);
+                            total.recordSuccess(latencyMicros);
+                        } else {
+                            recorder.recordError(reason);
+                            total.recordError(reason);
+                        }
+                    });
+        }
+        //等待在途请求完成
+        if (!inFlight.tryAcquire(options.getMaxInFlight(), 60, TimeUnit.SECONDS)) {
+            log.warn("仍有{}个请求未完成", options.getMaxInFlight() - inFlight.availablePermits());
+        }
+        return recorders;
+    }
+
+    private String pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return names[i];
+            }
+        }
+        return names[names.length - 1];
+    }
+
+    /**
+     * @return 成功返回null，否则返回错误原因
+     */
+    private String check(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return "http " + response.statusCode();
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            int code = body.path("code").asInt();
+            return code == 1 ? null : "code " + code + " " + body.path("msg").asText();
+        } catch (Exception e) {
+            return "invalid body";
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.swshenyun.loadtest;
+
+import com.swshenyun.security.BCryptPasswordHasher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 压测数据库初始化：执行项目的建表脚本并预置用户
+ */
+public class LoadTestDatabase {
+
+    /**
+     * h2的mysql兼容模式，user在h2中是关键字
+     */
+    public static final String URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    public static final String USERNAME_PREFIX = "lt_user_";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("(?i)create table (?:if not exists )?(\\w+)");
+
+    private static final Pattern INDEX_NAME = Pattern.compile("(?i)\\b(key|index)\\s+(\\w+)\\s*\\(");
+
+    /**
+     * 执行建表脚本，跳过h2不支持的建库、切换库语句和#注释，并改写h2不接受的mysql写法：
+     * 注释、排序规则、写在not null之后的on update，以及只在表内唯一的索引名
+     *
+     * @param connection
+     * @param schema
+     */
+    public static void createSchema(Connection connection, Path schema) throws IOException, SQLException {
+        StringBuilder script = new StringBuilder();
+        for (String line : Files.readAllLines(schema, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("#") || trimmed.startsWith("--")) {
+                continue;
+            }
+            script.append(line).append('\n');
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.toString().split(";")) {
+                String trimmed = sql.trim();
+                String lower = trimmed.toLowerCase();
+                if (trimmed.isEmpty() || lower.startsWith("create database") || lower.startsWith("use ")) {
+                    continue;
+                }
+                statement.execute(toH2(trimmed));
+            }
+        }
+    }
+
+    private static String toH2(String sql) {
+        Matcher table = CREATE_TABLE.matcher(sql);
+        if (table.find()) {
+            sql = INDEX_NAME.matcher(sql).replaceAll("$1 " + table.group(1) + "_$2 (");
+        }
+        return sql.replaceAll("(?i)\\s+comment\\s+'[^']*'", "")
+                .replaceAll("(?i)\\s+collate\\s*=\\s*\\w+", "")
+                .replaceAll("(?i)not null\\s+(on update \\w+)", "$1 not null");
+    }
+
+    /**
+     * 预置用户，所有用户使用同一个密码哈希
+     *
+     * @param connection
+     * @param count
+     * @param password
+     * @param bcryptStrength
+     * @return 用户id，下标与用户名序号一致
+     */
+    public static List<Long> seedUsers(Connection connection, int count, String password, int bcryptStrength) throws SQLException {
+        String hash = new BCryptPasswordHasher(bcryptStrength).hash(password);
+        try (PreparedStatement statement = connection.prepareStatement("insert into user (username, password) values (?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                statement.setString(1, username(i));
+                statement.setString(2, hash);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        List<Long> ids = new ArrayList<>(count);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "select id from user where username like '" + USERNAME_PREFIX + "%' order by username")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    public static String username(int index) {
+        return USERNAME_PREFIX + String.format("%06d", index);
+    }
+}
@@ -0,0 +1,264 @@
+package com.swshenyun.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swshenyun.SpringBootInitApplication;
+import com.swshenyun.constant.JwtClaimsConstant;
+import com.swshenyun.properties.JwtProperties;
+import com.swshenyun.properties.PasswordProperties;
+import com.swshenyun.utils.JwtCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 单机离线压测：启动内嵌redis和h2(mysql兼容模式)，以loadtest环境启动应用，
+ * 按配置的到达速率和配比请求 /user/login、/user/register、/user/current，
+ * 统计吞吐量和p50/p99/p999延迟并写入结果文件，同时保存服务端的prometheus指标；
+ * loadtest.threads=compare 时在同一份数据上依次以平台线程和虚拟线程启动应用各压测一轮，
+ * 配合 loadtest.db-latency-millis 模拟阻塞的数据库调用，对比两种线程模型的吞吐量和延迟
+ * 参数见 {@link LoadTestOptions}，通过 mvn -Ploadtest 运行
+ */
+@Slf4j
+public class LoadTestMain {
+
+    private static final String PASSWORD = "LoadTest123";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        List<String> modes = options.threadModes();
+        if (modes.contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("虚拟线程压测需要JDK 21及以上的运行时，当前为 " + Runtime.version());
+        }
+
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.newRedisServer()
+                .bind("127.0.0.1")
+                .port(redisPort)
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redis.start();
+        try {
+            //应用启动前建表并预置用户，内存库在最后一个连接关闭后仍保留
+            List<Long> userIds;
+            try (Connection connection = DriverManager.getConnection(LoadTestDatabase.URL, "sa", "")) {
+                LoadTestDatabase.createSchema(connection, Path.of(options.getSchema()));
+                userIds = LoadTestDatabase.seedUsers(connection, options.getUsers(), PASSWORD,
+                        new PasswordProperties().getBcryptStrength());
+            }
+            log.info("预置用户{}个", userIds.size());
+
+            LocalDateTime startedAt = LocalDateTime.now();
+            //多轮共用一个库，注册的用户名跨轮次递增
+            AtomicLong registered = new AtomicLong();
+            Map<String, Map<String, LatencyRecorder.Summary>> runs = new LinkedHashMap<>();
+            for (String mode : modes) {
+                String metricsFile = modes.size() == 1 ? "loadtest-metrics.prom" : "loadtest-metrics-" + mode + ".prom";
+                runs.put(mode, run(args, options, mode, redisPort, userIds, registered, metricsFile));
+            }
+            report(options, startedAt, runs);
+        } finally {
+            redis.stop();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 以指定的线程模式启动应用并压测一轮，结束后关闭应用
+     */
+    private static Map<String, LatencyRecorder.Summary> run(String[] args, LoadTestOptions options, String mode,
+                                                            int redisPort, List<Long> userIds, AtomicLong registered,
+                                                            String metricsFile) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=" + LoadTestDatabase.URL,
+                "spring.data.redis.host=127.0.0.1",
+                "spring.data.redis.port=" + redisPort,
+                "spring.threads.virtual.enabled=" + "virtual".equals(mode)));
+        if (options.getDbPoolSize() > 0) {
+            properties.add("spring.datasource.hikari.maximum-pool-size=" + options.getDbPoolSize());
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringBootInitApplication.class)
+                .profiles("loadtest")
+                .properties(properties.toArray(new String[0]));
+        if (options.getDbLatencyMillis() > 0) {
+            builder.initializers(context -> context.getBeanFactory().registerSingleton("dbLatencyInterceptor",
+                    new DbLatencyInterceptor(options.getDbLatencyMillis())));
+        }
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) builder.run(args);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-client");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            String baseUrl = "http://127.0.0.1:" + context.getWebServer().getPort();
+            String managementUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.management.port");
+            String tokenName = context.getBean(JwtProperties.class).getUserTokenName();
+            List<String> tokens = issueTokens(context.getBean(JwtCodec.class), userIds);
+
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper();
+
+            log.info("线程模式：{}，sql额外延迟{}ms", mode, options.getDbLatencyMillis());
+            LoadGenerator generator = new LoadGenerator(httpClient, objectMapper, options,
+                    operations(baseUrl, tokenName, userIds.size(), tokens, registered, objectMapper));
+            Map<String, LatencyRecorder> recorders = generator.run();
+
+            Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+            recorders.forEach((name, recorder) -> summaries.put(name, recorder.summarize(options.getDuration())));
+            saveMetrics(httpClient, managementUrl, options, metricsFile);
+            return summaries;
+        } finally {
+            context.close();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static Map<String, Supplier<HttpRequest>> operations(String baseUrl, String tokenName, int users,
+                                                                  List<String> tokens, AtomicLong registered,
+                                                                  ObjectMapper objectMapper) {
+        Map<String, Supplier<HttpRequest>> operations = new LinkedHashMap<>();
+        operations.put("login", () -> {
+            int index = ThreadLocalRandom.current().nextInt(users);
+            return post(baseUrl + "/user/login", json(objectMapper,
+                    "username", LoadTestDatabase.username(index), "password", PASSWORD));
+        });
+        operations.put("register", () -> post(baseUrl + "/user/register", json(objectMapper,
+                "username", "lt_reg_" + registered.incrementAndGet(), "password", PASSWORD, "checkPassword", PASSWORD)));
+        operations.put("current", () -> HttpRequest.newBuilder(URI.create(baseUrl + "/user/current"))
+                .header(tokenName, tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build());
+        return operations;
+    }
+
+    /**
+     * 每个请求使用随机的客户端ip，模拟经过反向代理的不同用户，由应用的RemoteIpValve解析
+     */
+    private static HttpRequest post(String url, String body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(1, 255))
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * @param fields 依次为字段名、字段值
+     */
+    private static String json(ObjectMapper objectMapper, String... fields) {
+        Map<String, String> body = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            body.put(fields[i], fields[i + 1]);
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 直接签发令牌，/user/current 的压测不依赖登录的结果
+     */
+    private static List<String> issueTokens(JwtCodec jwtCodec, List<Long> userIds) {
+        List<String> tokens = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Map<String, Object> claims = new HashMap<>();
+            claims.put(JwtClaimsConstant.USER_ID, userIds.get(i));
+            claims.put(JwtClaimsConstant.USERNAME, LoadTestDatabase.username(i));
+            tokens.add(jwtCodec.createJwt(claims));
+        }
+        return tokens;
+    }
+
+    /**
+     * 按线程模式分别输出各操作的统计，结果文件中 runs 为 线程模式 -> 操作 -> 统计
+     */
+    private static void report(LoadTestOptions options, LocalDateTime startedAt,
+                               Map<String, Map<String, LatencyRecorder.Summary>> runs) throws IOException {
+        log.info(String.format("%-9s %-10s %10s %8s %8s %10s %9s %9s %9s %9s", "threads",
+                "operation", "success", "errors", "dropped", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        runs.forEach((mode, summaries) -> summaries.forEach((name, summary) -> log.info(String.format(
+                "%-9s %-10s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f", mode,
+                name, summary.getSuccess(), summary.getErrors(), summary.getDropped(), summary.getThroughput(),
+                summary.getP50Millis(), summary.getP99Millis(), summary.getP999Millis(), summary.getMaxMillis()))));
+        runs.forEach((mode, summaries) -> summaries.forEach((name, summary) -> {
+            if (!summary.getErrorReasons().isEmpty()) {
+                log.info("{} {} 错误：{}", mode, name, summary.getErrorReasons());
+            }
+        }));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt.toString());
+        result.put("cpus", Runtime.getRuntime().availableProcessors());
+        result.put("jdk", Runtime.version().toString());
+        result.put("options", options);
+        result.put("runs", runs);
+        File file = new File(options.getResult());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        log.info("压测结果已写入 {}", file.getAbsolutePath());
+    }
+
+    /**
+     * 保存压测结束时服务端的prometheus指标，与结果文件放在同一目录；指标只在管理端口上暴露
+     */
+    private static void saveMetrics(HttpClient httpClient, String managementUrl, LoadTestOptions options,
+                                    String fileName) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/prometheus"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            log.warn("获取服务端指标失败：{}", response.statusCode());
+            return;
+        }
+        Path file = Path.of(options.getResult()).resolveSibling(fileName);
+        Files.writeString(file, response.body());
+        log.info("服务端指标已写入 {}", file.toAbsolutePath());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
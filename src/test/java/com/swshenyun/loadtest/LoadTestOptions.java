@@ -0,0 +1,130 @@
+package com.swshenyun.loadtest;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数，从 loadtest.* 系统属性读取
+ */
+@Data
+public class LoadTestOptions {
+
+    /**
+     * 到达速率(请求/秒)，与服务端处理速度无关
+     */
+    private double rate = 100;
+
+    /**
+     * 到达过程：constant 固定间隔；poisson 指数分布间隔
+     */
+    private String arrival = "poisson";
+
+    /**
+     * 预热时长(秒)，期间的请求不计入结果
+     */
+    private int warmup = 10;
+
+    /**
+     * 统计时长(秒)
+     */
+    private int duration = 30;
+
+    /**
+     * 流量配比，操作名 -> 权重
+     */
+    private Map<String, Integer> mix = parseMix("login:60,current:35,register:5");
+
+    /**
+     * 预置用户数
+     */
+    private int users = 1000;
+
+    /**
+     * 同时在途的请求上限，超出的请求记为丢弃而不是排队等待
+     */
+    private int maxInFlight = 2000;
+
+    /**
+     * 请求线程：platform tomcat平台线程池；virtual 虚拟线程(需要JDK 21)；compare 依次以两种线程各跑一轮并对比
+     */
+    private String threads = "platform";
+
+    /**
+     * 每条sql额外等待的时长(毫秒)，模拟远程数据库的网络往返，0为不等待
+     */
+    private long dbLatencyMillis = 0;
+
+    /**
+     * hikari连接池大小，0为使用压测环境配置；虚拟线程下数据库并发只受连接池限制
+     */
+    private int dbPoolSize = 0;
+
+    /**
+     * 建表脚本
+     */
+    private String schema = "sql/create_table.sql";
+
+    /**
+     * 结果文件
+     */
+    private String result = "target/loadtest-result.json";
+
+    public static LoadTestOptions fromSystemProperties() {
+        LoadTestOptions options = new LoadTestOptions();
+        options.setRate(Double.parseDouble(System.getProperty("loadtest.rate", String.valueOf(options.getRate()))));
+        options.setArrival(System.getProperty("loadtest.arrival", options.getArrival()));
+        options.setWarmup(Integer.getInteger("loadtest.warmup", options.getWarmup()));
+        options.setDuration(Integer.getInteger("loadtest.duration", options.getDuration()));
+        options.setUsers(Integer.getInteger("loadtest.users", options.getUsers()));
+        options.setMaxInFlight(Integer.getInteger("loadtest.max-in-flight", options.getMaxInFlight()));
+        options.setThreads(System.getProperty("loadtest.threads", options.getThreads()));
+        options.setDbLatencyMillis(Long.getLong("loadtest.db-latency-millis", options.getDbLatencyMillis()));
+        options.setDbPoolSize(Integer.getInteger("loadtest.db-pool-size", options.getDbPoolSize()));
+        options.setSchema(System.getProperty("loadtest.schema", options.getSchema()));
+        options.setResult(System.getProperty("loadtest.result", options.getResult()));
+        String mix = System.getProperty("loadtest.mix");
+        if (mix != null && !mix.isBlank()) {
+            options.setMix(parseMix(mix));
+        }
+        return options;
+    }
+
+    /**
+     * 依次运行的线程模式
+     */
+    public List<String> threadModes() {
+        switch (threads) {
+            case "platform":
+            case "virtual":
+                return List.of(threads);
+            case "compare":
+                return List.of("platform", "virtual");
+            default:
+                throw new IllegalArgumentException("未知的线程模式: " + threads + "，可选：platform、virtual、compare");
+        }
+    }
+
+    /**
+     * 解析 login:60,current:35,register:5
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String item : mix.split(",")) {
+            String[] pair = item.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("流量配比格式错误: " + item);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("流量配比为空: " + mix);
+        }
+        return weights;
+    }
+}
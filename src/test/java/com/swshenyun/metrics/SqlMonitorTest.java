@@ -0,0 +1,148 @@
+package com.swshenyun.metrics;
+
+import com.swshenyun.pojo.vo.SqlRepeatVO;
+import com.swshenyun.pojo.vo.SqlSampleVO;
+import com.swshenyun.properties.SqlMonitorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlMonitorTest {
+
+    private static final String SELECT_BY_ID = "SELECT id,username FROM user WHERE id=?";
+
+    private final Configuration configuration = new Configuration();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SqlMonitorProperties properties;
+
+    private SqlMonitor sqlMonitor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SqlMonitorProperties();
+        properties.setSlowMillis(100);
+        properties.setRepeatThreshold(3);
+        properties.setExplainEnabled(false);
+
+        sqlMonitor = new SqlMonitor();
+        ReflectionTestUtils.setField(sqlMonitor, "sqlMonitorProperties", properties);
+        ReflectionTestUtils.setField(sqlMonitor, "meterRegistry", meterRegistry);
+        sqlMonitor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sqlMonitor.shutdown();
+    }
+
+    @Test
+    void repeatedStatementInOneRequestIsReported() {
+        MappedStatement selectById = statement("com.swshenyun.mapper.UserMapper.selectById", SqlCommandType.SELECT);
+
+        sqlMonitor.beginRequest("GET /post/list");
+        for (long id = 1; id <= 3; id++) {
+            sqlMonitor.record(selectById, selectById(id), 1_000_000);
+        }
+        sqlMonitor.endRequest();
+
+        //未达到阈值的请求不计入
+        sqlMonitor.beginRequest("GET /post/list");
+        sqlMonitor.record(selectById, selectById(1L), 1_000_000);
+        sqlMonitor.record(selectById, selectById(2L), 1_000_000);
+        sqlMonitor.endRequest();
+
+        List<SqlRepeatVO> repeats = sqlMonitor.getRepeats();
+        assertEquals(1, repeats.size());
+        SqlRepeatVO repeat = repeats.get(0);
+        assertEquals("GET /post/list", repeat.getEndpoint());
+        assertEquals("UserMapper.selectById", repeat.getStatement());
+        assertEquals(SELECT_BY_ID, repeat.getSql());
+        assertEquals(1, repeat.getRequests());
+        assertEquals(3, repeat.getLastRepeats());
+        assertEquals(1.0, meterRegistry.get("sql.repeated")
+                .tag("endpoint", "GET /post/list")
+                .tag("statement", "UserMapper.selectById")
+                .counter().count());
+        assertTrue(sqlMonitor.getSamples().isEmpty());
+    }
+
+    @Test
+    void slowStatementKeepsSqlWithoutParametersByDefault() {
+        MappedStatement update = statement("com.swshenyun.mapper.UserMapper.update", SqlCommandType.UPDATE);
+        String sql = "UPDATE user SET password=? WHERE (id = ?)";
+        BoundSql boundSql = wrapperSql(sql, "$2a$10$hash", 7L);
+
+        sqlMonitor.record(update, boundSql, TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(sqlMonitor.getSamples().isEmpty());
+
+        sqlMonitor.record(update, boundSql, TimeUnit.MILLISECONDS.toNanos(150));
+        List<SqlSampleVO> samples = sqlMonitor.getSamples();
+        assertEquals(1, samples.size());
+        SqlSampleVO sample = samples.get(0);
+        assertTrue(sample.isSlow());
+        assertEquals(150, sample.getElapsedMillis());
+        assertEquals(sql, sample.getSql());
+        assertNull(sample.getParameters());
+        assertNull(sample.getEndpoint());
+        assertEquals(1.0, meterRegistry.get("sql.slow").tag("statement", "UserMapper.update").counter().count());
+    }
+
+    @Test
+    void capturedParametersOutsideAllowListAreMasked() {
+        properties.setCaptureParameters(true);
+        MappedStatement update = statement("com.swshenyun.mapper.UserMapper.update", SqlCommandType.UPDATE);
+
+        sqlMonitor.record(update, wrapperSql("UPDATE user SET password=?,email=? WHERE (id = ?)",
+                "$2a$10$hash", "a@b.com", 7L), TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(List.of("******", "******", "7"), sqlMonitor.getSamples().get(0).getParameters());
+
+        //in列表沿用列名，属性名在允许名单中的参数原样保留
+        sqlMonitor.record(update, wrapperSql("UPDATE user SET profile=? WHERE (user_id IN (?,?) AND status <> ?)",
+                "secret", 1L, 2L, 0), TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(List.of("******", "1", "2", "0"), sqlMonitor.getSamples().get(0).getParameters());
+
+        MappedStatement selectById = statement("com.swshenyun.mapper.UserMapper.selectById", SqlCommandType.SELECT);
+        sqlMonitor.record(selectById, selectById(5L), TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(List.of("5"), sqlMonitor.getSamples().get(0).getParameters());
+    }
+
+    /**
+     * 条件构造器生成的语句，参数名为 ew.paramNameValuePairs.MPGENVALn
+     */
+    private BoundSql wrapperSql(String sql, Object... values) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        Map<String, Object> pairs = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            mappings.add(new ParameterMapping.Builder(configuration, "ew.paramNameValuePairs.MPGENVAL" + (i + 1), Object.class).build());
+            pairs.put("MPGENVAL" + (i + 1), values[i]);
+        }
+        return new BoundSql(configuration, sql, mappings, Map.of("ew", Map.of("paramNameValuePairs", pairs)));
+    }
+
+    private MappedStatement statement(String id, SqlCommandType type) {
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, ""), type).build();
+    }
+
+    private BoundSql selectById(long id) {
+        return new BoundSql(configuration, SELECT_BY_ID,
+                List.of(new ParameterMapping.Builder(configuration, "id", Long.class).build()), id);
+    }
+}
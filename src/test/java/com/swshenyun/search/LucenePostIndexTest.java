@@ -0,0 +1,106 @@
+package com.swshenyun.search;
+
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.utils.PostTagUtils;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LucenePostIndexTest {
+
+    private LucenePostIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new LucenePostIndex(new ByteBuffersDirectory(), 72 * 3600_000L, 1.0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void chineseKeywordWithTagAndUserFilters() {
+        index.index(post(1L, "Spring Boot 入门教程", "从零搭建一个后端项目", List.of("java", "后端"), 100L, 1));
+        index.index(post(2L, "数据库索引优化", "MySQL 联合索引与覆盖索引", List.of("mysql"), 100L, 2));
+        index.index(post(3L, "后端面试题", "数据库事务隔离级别", List.of("java", "面试"), 200L, 3));
+        index.refresh();
+
+        assertEquals(List.of(2L, 3L), sorted(index.search("数据库", null, null, 0, 10).getIds()));
+        assertEquals(List.of(3L), index.search("数据库", List.of("java"), null, 0, 10).getIds());
+        assertEquals(List.of(2L), index.search("数据库", null, 100L, 0, 10).getIds());
+        assertEquals(2, index.search(null, List.of("java"), null, 0, 10).getTotal());
+    }
+
+    @Test
+    void titleMatchOutranksContentAndNewerWinsTies() {
+        index.index(post(1L, "缓存设计", "无关内容", List.of(), 1L, 30));
+        index.index(post(2L, "无关标题", "缓存设计", List.of(), 1L, 1));
+        index.index(post(3L, "缓存设计", "无关内容", List.of(), 1L, 1));
+        index.index(post(4L, "无关标题", "缓存设计", List.of(), 1L, 60));
+        index.refresh();
+
+        assertEquals(List.of(3L, 1L, 2L, 4L), index.search("缓存设计", null, null, 0, 10).getIds());
+        //无关键词时按创建时间倒序
+        assertEquals(List.of(1L, 4L), index.search(null, null, null, 2, 10).getIds());
+    }
+
+    @Test
+    void updateAndDeleteAreIncremental() {
+        index.index(post(1L, "苹果", "内容", List.of(), 1L, 1));
+        index.refresh();
+        assertEquals(1, index.search("苹果", null, null, 0, 10).getTotal());
+
+        index.index(post(1L, "香蕉", "内容", List.of(), 1L, 1));
+        index.refresh();
+        assertEquals(0, index.search("苹果", null, null, 0, 10).getTotal());
+        assertEquals(1, index.search("香蕉", null, null, 0, 10).getTotal());
+
+        Post deleted = post(1L, "香蕉", "内容", List.of(), 1L, 1);
+        deleted.setIsDelete(1);
+        index.index(deleted);
+        index.refresh();
+        assertEquals(0, index.count());
+    }
+
+    @Test
+    void documentsNotRewrittenInNewGenerationAreRemoved() {
+        index.index(post(1L, "苹果", "内容", List.of(), 1L, 1));
+        index.index(post(2L, "苹果", "内容", List.of(), 1L, 1));
+        index.refresh();
+
+        String generation = index.beginGeneration();
+        index.index(post(1L, "苹果", "内容", List.of(), 1L, 1));
+        index.refresh();
+        //重建过程中旧文档仍可检索
+        assertEquals(2, index.search("苹果", null, null, 0, 10).getTotal());
+
+        index.deleteOtherGenerations(generation);
+        index.refresh();
+        assertEquals(List.of(1L), index.search("苹果", null, null, 0, 10).getIds());
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    private static Post post(Long id, String title, String content, List<String> tags, Long userId, int daysAgo) {
+        return Post.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .tags(PostTagUtils.toJson(tags))
+                .userId(userId)
+                .createTime(LocalDateTime.now().minusDays(daysAgo))
+                .isDelete(0)
+                .build();
+    }
+}
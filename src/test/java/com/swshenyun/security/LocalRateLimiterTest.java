@@ -0,0 +1,36 @@
+package com.swshenyun.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalRateLimiterTest {
+
+    @Test
+    void bucketRejectsOverLimitAndRefills() throws InterruptedException {
+        LocalRateLimiter limiter = new LocalRateLimiter(100, 200, 1000);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("ip:1", 5, 200));
+        }
+        assertFalse(limiter.tryAcquire("ip:1", 5, 200));
+        assertTrue(limiter.tryAcquire("ip:2", 5, 200));
+
+        Thread.sleep(60);
+        assertTrue(limiter.tryAcquire("ip:1", 5, 200));
+    }
+
+    @Test
+    void failuresAndLock() throws InterruptedException {
+        LocalRateLimiter limiter = new LocalRateLimiter(100, 1000, 1000);
+        assertEquals(1, limiter.recordFailure("user:a", 1000));
+        assertEquals(2, limiter.recordFailure("user:a", 1000));
+        limiter.clearFailures("user:a");
+        assertEquals(1, limiter.recordFailure("user:a", 1000));
+
+        assertFalse(limiter.isLocked("user:a"));
+        limiter.lock("user:a", 50);
+        assertTrue(limiter.isLocked("user:a"));
+        Thread.sleep(80);
+        assertFalse(limiter.isLocked("user:a"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.properties.AvatarProperties;
+import com.swshenyun.service.NotificationService;
+import com.swshenyun.service.UserService;
+import com.swshenyun.storage.LocalObjectStorage;
+import com.swshenyun.utils.ThumbnailUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AvatarServiceImplTest {
+
+    @TempDir
+    Path root;
+
+    private UserService userService;
+
+    private AvatarServiceImpl avatarService;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        avatarService = new AvatarServiceImpl();
+        ReflectionTestUtils.setField(avatarService, "objectStorage", new LocalObjectStorage(root, "/files/"));
+        ReflectionTestUtils.setField(avatarService, "avatarProperties", new AvatarProperties());
+        ReflectionTestUtils.setField(avatarService, "userService", userService);
+        ReflectionTestUtils.setField(avatarService, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(avatarService, "avatarExecutor", executor);
+    }
+
+    @Test
+    void thumbnailsReplaceAvatarAndOldFilesAreRemoved() throws Exception {
+        String oldUploadId = "0123456789abcdef0123456789abcdef";
+        Path old = root.resolve("avatar/1/" + oldUploadId + "_256.jpg");
+        Files.createDirectories(old.getParent());
+        Files.write(old, new byte[]{1});
+        when(userService.updateAvatar(eq(1L), any())).thenReturn("/files/avatar/1/" + oldUploadId + "_256.jpg");
+
+        String uploadId = avatarService.upload(1L, new MockMultipartFile("file", "a.png", "image/png", png(800, 600)));
+
+        verify(userService).updateAvatar(1L, "/files/avatar/1/" + uploadId + "_256.jpg");
+        BufferedImage large = ImageIO.read(root.resolve("avatar/1/" + uploadId + "_256.jpg").toFile());
+        assertEquals(256, large.getWidth());
+        assertEquals(256, large.getHeight());
+        assertEquals(64, ImageIO.read(root.resolve("avatar/1/" + uploadId + "_64.jpg").toFile()).getWidth());
+        assertFalse(Files.exists(old));
+        try (Stream<Path> uploads = Files.list(root.resolve("avatar/upload/1"))) {
+            assertEquals(0, uploads.count());
+        }
+    }
+
+    @Test
+    void oldAvatarWithForeignUploadIdIsKept() throws Exception {
+        Path other = root.resolve("avatar/2/x_256.jpg");
+        Files.createDirectories(other.getParent());
+        Files.write(other, new byte[]{1});
+        when(userService.updateAvatar(eq(1L), any())).thenReturn("/files/avatar/1/../2/x_256.jpg");
+
+        avatarService.upload(1L, new MockMultipartFile("file", "a.png", "image/png", png(100, 100)));
+
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void unsupportedOrBrokenFilesAreRejected() throws Exception {
+        assertThrows(BaseException.class, () -> avatarService.upload(1L,
+                new MockMultipartFile("file", "a.png", "image/png", "not an image".getBytes())));
+
+        //文件头是png但内容损坏，后台处理失败，不更新头像
+        byte[] broken = png(100, 100);
+        avatarService.upload(1L, new MockMultipartFile("file", "a.png", "image/png", Arrays.copyOf(broken, 40)));
+        verify(userService, never()).updateAvatar(any(), any());
+        assertNull(ThumbnailUtils.detect("GIF".getBytes()));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
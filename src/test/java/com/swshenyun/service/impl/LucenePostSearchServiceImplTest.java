@@ -0,0 +1,92 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.pojo.dto.PostSearchDTO;
+import com.swshenyun.pojo.entity.Post;
+import com.swshenyun.properties.PostSearchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 重建时不清空索引，已不存在的帖子在结束时删除，重建期间删除的帖子不会被重建写回
+ */
+public class LucenePostSearchServiceImplTest {
+
+    private PostMapper postMapper;
+
+    private LucenePostSearchServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postMapper = mock(PostMapper.class);
+        service = new LucenePostSearchServiceImpl();
+        ReflectionTestUtils.setField(service, "postSearchProperties", new PostSearchProperties());
+        ReflectionTestUtils.setField(service, "postMapper", postMapper);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+    }
+
+    @Test
+    void rebuildKeepsIndexSearchableAndReplaysConcurrentDeletes() {
+        service.index(post(1L));
+        service.index(post(2L));
+        service.index(post(3L));
+        service.refresh();
+
+        //帖子3已不在数据库中；重建读到帖子2之后它被删除，删除事件先于重建写入
+        when(postMapper.selectList(any())).thenAnswer(invocation -> {
+            assertEquals(3, search().size());
+            service.delete(2L);
+            return List.of(post(1L), post(2L));
+        });
+        when(postMapper.selectBatchIds(anyCollection())).thenReturn(List.of());
+
+        service.rebuild();
+
+        assertEquals(List.of(1L), search());
+    }
+
+    @Test
+    void syncIndexesExistingPostsAndDropsDeletedOnes() {
+        service.index(post(2L));
+        service.refresh();
+        when(postMapper.selectBatchIds(anyCollection())).thenReturn(List.of(post(1L)));
+
+        service.sync(List.of(1L, 2L));
+        service.refresh();
+
+        assertEquals(List.of(1L), search());
+    }
+
+    private List<Long> search() {
+        PostSearchDTO dto = new PostSearchDTO();
+        dto.setKeyword("缓存");
+        return service.search(dto).getIds();
+    }
+
+    private static Post post(Long id) {
+        return Post.builder()
+                .id(id)
+                .title("缓存设计" + id)
+                .content("内容")
+                .userId(1L)
+                .createTime(LocalDateTime.now())
+                .isDelete(0)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.properties.PasswordProperties;
+import com.swshenyun.security.Md5PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordServiceImplTest {
+
+    private PasswordServiceImpl passwordService;
+
+    @AfterEach
+    void tearDown() {
+        passwordService.destroy();
+    }
+
+    @Test
+    void bcryptRoundTrip() {
+        passwordService = newService(4, 2, 16);
+        String hash = passwordService.hash("Password123");
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(passwordService.matches("Password123", hash));
+        assertFalse(passwordService.matches("Password124", hash));
+        assertFalse(passwordService.needsRehash(hash));
+    }
+
+    @Test
+    void legacyMd5VerifiesAndNeedsRehash() {
+        passwordService = newService(4, 2, 16);
+        String legacy = new Md5PasswordHasher().hash("Password123");
+        assertTrue(passwordService.matches("Password123", legacy));
+        assertTrue(passwordService.needsRehash(legacy));
+    }
+
+    @Test
+    void weakerBcryptNeedsRehash() {
+        passwordService = newService(4, 2, 16);
+        String weak = passwordService.hash("Password123");
+        passwordService.destroy();
+        passwordService = newService(6, 2, 16);
+        assertTrue(passwordService.matches("Password123", weak));
+        assertTrue(passwordService.needsRehash(weak));
+    }
+
+    @Test
+    void rejectsWhenQueueFull() {
+        passwordService = newService(12, 1, 1);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(passwordService.hashAsync("Password123"));
+        }
+        CompletableFuture<String> rejected = futures.stream()
+                .filter(CompletableFuture::isCompletedExceptionally)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("队列满时应立即拒绝"));
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertEquals(ErrorCode.SYSTEM_BUSY.getCode(), ((BaseException) e.getCause()).getCode());
+    }
+
+    @Test
+    void timedOutHashLeavesQueue() throws Exception {
+        passwordService = newService(14, 1, 4, 50);
+        CompletableFuture<String> running = passwordService.hashAsync("Password123");
+
+        BaseException e = assertThrows(BaseException.class, () -> passwordService.hash("Password123"));
+        assertEquals(ErrorCode.SYSTEM_BUSY.getCode(), e.getCode());
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordService, "executor");
+        assertTrue(executor.getQueue().isEmpty());
+        running.get(30, TimeUnit.SECONDS);
+    }
+
+    private static PasswordServiceImpl newService(int strength, int threads, int queueCapacity) {
+        return newService(strength, threads, queueCapacity, 3000);
+    }
+
+    private static PasswordServiceImpl newService(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        PasswordProperties properties = new PasswordProperties();
+        properties.setHashTimeoutMillis(timeoutMillis);
+        properties.setBcryptStrength(strength);
+        properties.setHashThreads(threads);
+        properties.setHashQueueCapacity(queueCapacity);
+        PasswordServiceImpl service = new PasswordServiceImpl();
+        ReflectionTestUtils.setField(service, "passwordProperties", properties);
+        service.init();
+        return service;
+    }
+}
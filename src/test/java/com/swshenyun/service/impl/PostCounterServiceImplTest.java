@@ -0,0 +1,92 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.cache.LocalPostCounterStore;
+import com.swshenyun.mapper.PostCounterFlushMapper;
+import com.swshenyun.mapper.PostFavourMapper;
+import com.swshenyun.mapper.PostMapper;
+import com.swshenyun.mapper.PostThumbMapper;
+import com.swshenyun.properties.PostCounterProperties;
+import com.swshenyun.service.HotPostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.swshenyun.cache.PostCounterStore.Type.THUMB;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 计数写库以批次id去重：确认失败后重试同一批，计数不会重复累加
+ */
+public class PostCounterServiceImplTest {
+
+    private final Set<String> flushed = new HashSet<>();
+
+    private LocalPostCounterStore store;
+
+    private PostMapper postMapper;
+
+    private HotPostService hotPostService;
+
+    private PostCounterServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        store = spy(new LocalPostCounterStore(100));
+        postMapper = mock(PostMapper.class);
+        hotPostService = mock(HotPostService.class);
+        PostCounterFlushMapper flushMapper = mock(PostCounterFlushMapper.class);
+        when(flushMapper.insertIgnore(anyString())).thenAnswer(invocation ->
+                flushed.add(invocation.getArgument(0)) ? 1 : 0);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        service = new PostCounterServiceImpl();
+        ReflectionTestUtils.setField(service, "postCounterStore", store);
+        ReflectionTestUtils.setField(service, "postCounterProperties", new PostCounterProperties());
+        ReflectionTestUtils.setField(service, "postMapper", postMapper);
+        ReflectionTestUtils.setField(service, "postThumbMapper", mock(PostThumbMapper.class));
+        ReflectionTestUtils.setField(service, "postFavourMapper", mock(PostFavourMapper.class));
+        ReflectionTestUtils.setField(service, "postCounterFlushMapper", flushMapper);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "hotPostService", hotPostService);
+    }
+
+    @Test
+    void batchCommittedButNotAckedIsNotCountedTwice() {
+        store.load(THUMB, 1L, List.of());
+        store.toggle(THUMB, 1L, 10L);
+        //第一次写库提交后确认失败
+        doThrow(new RuntimeException("redis down")).doCallRealMethod().when(store).ack(eq(THUMB), any());
+
+        assertThrows(RuntimeException.class, () -> service.flush());
+        verify(postMapper).incrementCounts(THUMB.getColumn(), Map.of(1L, 1L));
+
+        assertEquals(0, service.flush());
+        verify(postMapper, times(1)).incrementCounts(anyString(), anyMap());
+        verify(hotPostService, never()).recordCounts(any(), anyMap());
+        assertNull(store.drain(THUMB));
+    }
+
+    @Test
+    void newBatchAfterAckIsWritten() {
+        store.load(THUMB, 1L, List.of());
+        store.toggle(THUMB, 1L, 10L);
+        assertEquals(1, service.flush());
+        store.toggle(THUMB, 1L, 11L);
+        assertEquals(1, service.flush());
+
+        verify(postMapper, times(2)).incrementCounts(THUMB.getColumn(), Map.of(1L, 1L));
+        verify(hotPostService, times(2)).recordCounts(eq(THUMB), anyMap());
+        assertEquals(2, flushed.size());
+    }
+}
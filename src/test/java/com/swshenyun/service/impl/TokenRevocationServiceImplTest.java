@@ -0,0 +1,104 @@
+package com.swshenyun.service.impl;
+
+import com.swshenyun.cache.InMemoryTokenRevocationStore;
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRevocationServiceImplTest {
+
+    private static final long TTL = 60000L;
+
+    private InMemoryTokenRevocationStore store;
+
+    private TokenRevocationServiceImpl nodeA;
+
+    private TokenRevocationServiceImpl nodeB;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryTokenRevocationStore();
+        nodeA = newNode(store);
+        nodeB = newNode(store);
+    }
+
+    @Test
+    void notRevokedNeedsNoLookup() {
+        for (long i = 0; i < 1000; i++) {
+            assertFalse(nodeA.isRevoked(token(i, "jti-" + i, System.currentTimeMillis())));
+        }
+        assertTrue(store.lookups.get() < 10, "布隆过滤器应挡住绝大部分查询");
+    }
+
+    @Test
+    void logoutRevokesTokenOnAllNodes() {
+        VerifiedToken token = token(1L, "jti-1", System.currentTimeMillis());
+        nodeA.revokeToken(token.getJti(), token.getExpMillis());
+
+        assertTrue(nodeA.isRevoked(token));
+        assertTrue(nodeB.isRevoked(token));
+        assertFalse(nodeB.isRevoked(token(1L, "jti-2", System.currentTimeMillis())));
+    }
+
+    @Test
+    void disableRevokesTokensIssuedBefore() {
+        VerifiedToken before = token(2L, "jti-before", System.currentTimeMillis() - 1000L);
+        nodeA.revokeUser(2L);
+        VerifiedToken after = token(2L, "jti-after", System.currentTimeMillis() + 1000L);
+
+        assertTrue(nodeB.isRevoked(before));
+        assertFalse(nodeB.isRevoked(after));
+    }
+
+    @Test
+    void tokenIssuedInSameSecondAsRevocationIsRevoked() {
+        nodeA.revokeUser(5L);
+        long epochSecond = store.getUserEpoch(5L) / 1000 * 1000;
+
+        //iat截断到秒后无法区分吊销前后，同一秒内签发的令牌都不能通过
+        assertTrue(nodeB.isRevoked(token(5L, "jti-same-second", epochSecond)));
+        assertTrue(nodeB.isRevoked(token(5L, "jti-same-second-late", epochSecond + 999L)));
+        assertFalse(nodeB.isRevoked(token(5L, "jti-next-second", epochSecond + 1000L)));
+    }
+
+    @Test
+    void batchDisableRevokesEveryUserOnAllNodes() {
+        long issuedAt = System.currentTimeMillis() - 1000L;
+        nodeA.revokeUsers(List.of(10L, 11L, 12L));
+
+        for (long userId = 10; userId <= 12; userId++) {
+            assertTrue(nodeB.isRevoked(token(userId, "jti-" + userId, issuedAt)));
+        }
+        assertFalse(nodeB.isRevoked(token(13L, "jti-13", issuedAt)));
+    }
+
+    @Test
+    void rebuildLoadsExistingEntries() {
+        nodeA.revokeToken("jti-3", System.currentTimeMillis() + TTL);
+        TokenRevocationServiceImpl restarted = newNode(store);
+        assertTrue(restarted.isRevoked(token(3L, "jti-3", System.currentTimeMillis())));
+    }
+
+    private static TokenRevocationServiceImpl newNode(InMemoryTokenRevocationStore store) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setUserTtl(TTL);
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl();
+        ReflectionTestUtils.setField(service, "tokenRevocationStore", store);
+        ReflectionTestUtils.setField(service, "jwtProperties", jwtProperties);
+        service.init();
+        return service;
+    }
+
+    /**
+     * 与解析出的jwt一致，iat只保留到秒
+     */
+    private static VerifiedToken token(Long userId, String jti, long issuedAtMillis) {
+        return new VerifiedToken(userId, jti, issuedAtMillis / 1000 * 1000, System.currentTimeMillis() + TTL);
+    }
+}
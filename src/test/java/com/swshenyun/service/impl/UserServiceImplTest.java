@@ -0,0 +1,205 @@
+package com.swshenyun.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.UserCache;
+import com.swshenyun.cache.UsernameBloomFilter;
+import com.swshenyun.common.ErrorCode;
+import com.swshenyun.constant.OutboxEventConstant;
+import com.swshenyun.constant.StatusConstant;
+import com.swshenyun.context.BaseContext;
+import com.swshenyun.exception.BaseException;
+import com.swshenyun.mapper.UserMapper;
+import com.swshenyun.pojo.dto.UserDTO;
+import com.swshenyun.pojo.dto.UserLoginDTO;
+import com.swshenyun.pojo.dto.UserRegisterDTO;
+import com.swshenyun.pojo.dto.UserStatusBatchDTO;
+import com.swshenyun.pojo.entity.User;
+import com.swshenyun.service.OutboxService;
+import com.swshenyun.service.PasswordService;
+import com.swshenyun.service.TokenRevocationService;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 注册只执行一次插入、由唯一索引判重；用户名可用性检查先查布隆过滤器；禁用账户登录不升级密码哈希；
+ * 批量修改状态按固定大小分批，每批一条update；非管理员只能修改自己的信息
+ */
+public class UserServiceImplTest {
+
+    private UserMapper userMapper;
+
+    private OutboxService outboxService;
+
+    private UsernameBloomFilter usernameBloomFilter;
+
+    private PasswordService passwordService;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        outboxService = mock(OutboxService.class);
+        usernameBloomFilter = mock(UsernameBloomFilter.class);
+        passwordService = mock(PasswordService.class);
+        when(passwordService.hash("Password123")).thenReturn("{bcrypt}hash");
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doCallRealMethod().when(transactionTemplate).executeWithoutResult(any());
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "baseMapper", userMapper);
+        ReflectionTestUtils.setField(userService, "passwordService", passwordService);
+        ReflectionTestUtils.setField(userService, "outboxService", outboxService);
+        ReflectionTestUtils.setField(userService, "usernameBloomFilter", usernameBloomFilter);
+        ReflectionTestUtils.setField(userService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(userService, "transactionTemplate", transactionTemplate);
+    }
+
+    @Test
+    void registerInsertsOnceWithoutLookup() {
+        when(userMapper.insert(any(User.class))).thenAnswer(invocation -> {
+            invocation.<User>getArgument(0).setId(7L);
+            return 1;
+        });
+
+        assertEquals(7L, userService.register(registerDTO("alice")));
+
+        verify(userMapper).insert(argThat((User user) ->
+                "alice".equals(user.getUsername()) && "{bcrypt}hash".equals(user.getPassword())));
+        verifyNoMoreInteractions(userMapper);
+        verify(outboxService).publish(eq(OutboxEventConstant.AGGREGATE_USER), eq(7L),
+                eq(OutboxEventConstant.USER_REGISTERED), contains("alice"));
+        //哈希完成后才开启事务
+        var order = inOrder(passwordService, transactionTemplate);
+        order.verify(passwordService).hash("Password123");
+        order.verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void registerDuplicateUsernameFromUniqueIndex() {
+        when(userMapper.insert(any(User.class))).thenThrow(new DuplicateKeyException("uk_username"));
+
+        BaseException e = assertThrows(BaseException.class, () -> userService.register(registerDTO("alice")));
+        assertEquals(ErrorCode.ACCOUNT_EXISTS.getCode(), e.getCode());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void usernameAvailabilityChecksBloomThenDatabase() {
+        when(usernameBloomFilter.mightContain("fresh")).thenReturn(false);
+        assertTrue(userService.isUsernameAvailable("fresh"));
+        verifyNoInteractions(userMapper);
+
+        //已逻辑删除的用户名仍被唯一索引占用，计数包括它们
+        when(usernameBloomFilter.mightContain("deleted")).thenReturn(true);
+        when(userMapper.countByUsername("deleted")).thenReturn(1L);
+        assertFalse(userService.isUsernameAvailable("deleted"));
+
+        when(usernameBloomFilter.mightContain("collision")).thenReturn(true);
+        when(userMapper.countByUsername("collision")).thenReturn(0L);
+        assertTrue(userService.isUsernameAvailable("collision"));
+    }
+
+    @Test
+    void disabledAccountIsNotRehashed() {
+        User user = new User();
+        user.setId(9L);
+        user.setUsername("alice");
+        user.setPassword("legacy");
+        user.setStatus(StatusConstant.DISABLE);
+        when(userMapper.selectOne(any())).thenReturn(user);
+        when(userMapper.selectOne(any(), anyBoolean())).thenReturn(user);
+        when(passwordService.matches("Password123", "legacy")).thenReturn(true);
+        when(passwordService.needsRehash("legacy")).thenReturn(true);
+        UserLoginDTO dto = new UserLoginDTO();
+        dto.setUsername("alice");
+        dto.setPassword("Password123");
+
+        BaseException e = assertThrows(BaseException.class, () -> userService.login(dto));
+        assertEquals(ErrorCode.ACCOUNT_LOCKED.getCode(), e.getCode());
+        verify(passwordService, never()).hashAsync(any());
+    }
+
+    @Test
+    void statusBatchUpdatesInChunks() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        ReflectionTestUtils.setField(userService, "tokenRevocationService", tokenRevocationService);
+        //最后一批的用户状态本就相同，没有变更
+        when(userMapper.update(isNull(), any())).thenReturn(500, 499, 0);
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        ids.add(null);
+        UserStatusBatchDTO dto = new UserStatusBatchDTO();
+        dto.setStatus(StatusConstant.DISABLE);
+        dto.setIds(ids);
+
+        assertEquals(999, userService.updateStatusBatch(dto));
+
+        ArgumentCaptor<Wrapper<User>> wrappers = ArgumentCaptor.forClass(Wrapper.class);
+        verify(userMapper, times(3)).update(isNull(), wrappers.capture());
+        List<Integer> chunkSizes = new ArrayList<>();
+        for (Wrapper<User> wrapper : wrappers.getAllValues()) {
+            //set status = ? where id in (...) and status <> ?，状态相同的行不更新
+            assertEquals("status=#{ew.paramNameValuePairs.MPGENVAL1}", wrapper.getSqlSet());
+            String where = wrapper.getSqlSegment();
+            assertTrue(where.contains("id IN ("), where);
+            assertTrue(where.contains("status <> "), where);
+            Map<String, Object> params = ((LambdaUpdateWrapper<User>) wrapper).getParamNameValuePairs();
+            //一个set参数、一个不等条件参数，其余为id
+            chunkSizes.add(params.size() - 2);
+        }
+        assertEquals(List.of(500, 500, 1), chunkSizes);
+
+        verify(outboxService, times(2)).publishAll(eq(OutboxEventConstant.AGGREGATE_USER), anyCollection(),
+                eq(OutboxEventConstant.USER_STATUS_CHANGED));
+        verify(tokenRevocationService, times(2)).revokeUsers(anyCollection());
+    }
+
+    @Test
+    void updateOtherUserRequiresAdmin() {
+        ReflectionTestUtils.setField(userService, "userCache", mock(UserCache.class));
+        UserDTO dto = new UserDTO();
+        dto.setId(2L);
+        dto.setVersion(0);
+        dto.setProfile("hacked");
+
+        BaseException e = assertThrows(BaseException.class,
+                () -> BaseContext.runWith(1L, () -> userService.updateUser(dto)));
+        assertEquals(ErrorCode.NO_AUTH_ERROR.getCode(), e.getCode());
+        verifyNoInteractions(userMapper);
+    }
+
+    private static UserRegisterDTO registerDTO(String username) {
+        UserRegisterDTO dto = new UserRegisterDTO();
+        dto.setUsername(username);
+        dto.setPassword("Password123");
+        dto.setCheckPassword("Password123");
+        return dto;
+    }
+}
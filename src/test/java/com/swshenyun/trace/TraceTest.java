@@ -0,0 +1,87 @@
+package com.swshenyun.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.properties.TracingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void serverTimingSumsTopLevelSpansPerCategory() {
+        Trace trace = newTrace();
+        int auth = trace.start("auth", "jwt.verify");
+        trace.end(auth, "ok");
+        int service = trace.start("service", "UserServiceImpl.getSafeUserById");
+        //service内部调用的service不重复计算
+        int nested = trace.start("service", "UserServiceImpl.getById");
+        trace.end(trace.start("sql", "UserMapper.selectById"), "SELECT 1");
+        trace.end(nested, null);
+        trace.end(trace.start("sql", "UserMapper.selectById"), "SELECT 1");
+        trace.end(service, null);
+        //未结束的span不计入
+        trace.start("json", "write application/json");
+
+        String header = trace.serverTiming();
+        Matcher matcher = Pattern.compile(
+                "auth;dur=[0-9.]+, service;dur=[0-9.]+, sql;desc=\"sql x2\";dur=[0-9.]+, total;dur=[0-9.]+").matcher(header);
+        assertTrue(matcher.matches(), header);
+
+        trace.endAll("200");
+        assertEquals("200", trace.detail(0));
+        assertEquals(0, trace.parent(service));
+        assertEquals(service, trace.parent(nested));
+        assertEquals(nested, trace.parent(nested + 1));
+    }
+
+    @Test
+    void spansOverLimitAreDroppedAndExportedAsOtlp() {
+        Trace trace = new Trace(TRACE_ID, "00f067aa0ba902b7", true, 2);
+        trace.start("http", "GET /user/current");
+        trace.end(trace.start("sql", "UserMapper.selectById"), "SELECT 1");
+        assertEquals(Trace.NONE, trace.start("sql", "UserMapper.selectById"));
+        trace.endAll("200");
+
+        TracingProperties tracingProperties = new TracingProperties();
+        TraceExporter exporter = new TraceExporter();
+        ReflectionTestUtils.setField(exporter, "tracingProperties", tracingProperties);
+        ReflectionTestUtils.setField(exporter, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exporter, "serviceName", "spring-boot-init");
+
+        Map<String, Object> request = exporter.toOtlp(trace);
+        List<Map<String, Object>> spans = spans(request);
+        assertEquals(2, spans.size());
+        Map<String, Object> root = spans.get(0);
+        Map<String, Object> sql = spans.get(1);
+        assertEquals(TRACE_ID, root.get("traceId"));
+        assertEquals("00f067aa0ba902b7", root.get("parentSpanId"));
+        assertEquals(2, root.get("kind"));
+        assertEquals(root.get("spanId"), sql.get("parentSpanId"));
+        assertEquals(3, sql.get("kind"));
+        assertEquals(16, ((String) sql.get("spanId")).length());
+        assertTrue(Long.parseLong((String) sql.get("startTimeUnixNano")) >= Long.parseLong((String) root.get("startTimeUnixNano")));
+        assertTrue(root.get("attributes").toString().contains("app.trace.dropped_spans"));
+    }
+
+    private Trace newTrace() {
+        Trace trace = new Trace(null, null, false, 256);
+        trace.start("http", "GET /user/current");
+        return trace;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> spans(Map<String, Object> request) {
+        Map<String, Object> resourceSpans = ((List<Map<String, Object>>) request.get("resourceSpans")).get(0);
+        Map<String, Object> scopeSpans = ((List<Map<String, Object>>) resourceSpans.get("scopeSpans")).get(0);
+        return (List<Map<String, Object>>) scopeSpans.get("spans");
+    }
+}
@@ -0,0 +1,57 @@
+package com.swshenyun.utils;
+
+import com.swshenyun.constant.JwtClaimsConstant;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtCodecTest {
+
+    private static final String OLD_SECRET = "old-secret-key-old-secret-key-old-secret";
+
+    private static final String NEW_SECRET = "new-secret-key-new-secret-key-new-secret";
+
+    private static final Map<String, Object> CLAIMS = Map.of(JwtClaimsConstant.USER_ID, 1L);
+
+    @Test
+    void createAndParse() {
+        JwtCodec codec = new JwtCodec("k1", Map.of("k1", OLD_SECRET), 60000L);
+        Claims claims = codec.parseJWT(codec.createJwt(CLAIMS));
+        assertEquals("1", claims.get(JwtClaimsConstant.USER_ID).toString());
+    }
+
+    @Test
+    void rotatedKeyStillVerifies() {
+        JwtCodec before = new JwtCodec("k1", Map.of("k1", OLD_SECRET), 60000L);
+        String oldToken = before.createJwt(CLAIMS);
+
+        Map<String, String> secrets = new LinkedHashMap<>();
+        secrets.put("k1", OLD_SECRET);
+        secrets.put("k2", NEW_SECRET);
+        JwtCodec after = new JwtCodec("k2", secrets, 60000L);
+
+        assertNotNull(after.parseJWT(oldToken));
+        assertNotNull(after.parseJWT(after.createJwt(CLAIMS)));
+    }
+
+    @Test
+    void retiredKeyRejected() {
+        JwtCodec before = new JwtCodec("k1", Map.of("k1", OLD_SECRET), 60000L);
+        String oldToken = before.createJwt(CLAIMS);
+
+        JwtCodec after = new JwtCodec("k2", Map.of("k2", NEW_SECRET), 60000L);
+        assertThrows(JwtException.class, () -> after.parseJWT(oldToken));
+    }
+
+    @Test
+    void legacyTokenWithoutKid() {
+        String legacy = JwtUtils.createJwt(OLD_SECRET, 60000L, CLAIMS);
+        JwtCodec codec = new JwtCodec("default", Map.of("default", OLD_SECRET), 60000L);
+        assertNotNull(codec.parseJWT(legacy));
+    }
+}
@@ -0,0 +1,48 @@
+package com.swshenyun.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.pojo.dto.UserImportRowDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserImportReaderTest {
+
+    @Test
+    void csvWithHeaderAndQuotes() throws Exception {
+        String csv = "username,password\n"
+                + "alice,Password1\n"
+                + "\n"
+                + "bob,\"Pass,\"\"word2\"\n";
+        List<UserImportRowDTO> rows = readAll(UserImportReader.csv(stream(csv)));
+        assertEquals(2, rows.size());
+        assertEquals(new UserImportRowDTO(2, "alice", "Password1"), rows.get(0));
+        assertEquals(new UserImportRowDTO(4, "bob", "Pass,\"word2"), rows.get(1));
+    }
+
+    @Test
+    void jsonArray() throws Exception {
+        String json = "[{\"username\":\"alice\",\"password\":\"Password1\",\"extra\":1},"
+                + "{\"username\":\"bob\",\"password\":\"Password2\"}]";
+        List<UserImportRowDTO> rows = readAll(UserImportReader.json(stream(json), new ObjectMapper()));
+        assertEquals(2, rows.size());
+        assertEquals(new UserImportRowDTO(2, "bob", "Password2"), rows.get(1));
+    }
+
+    private static List<UserImportRowDTO> readAll(UserImportReader reader) throws Exception {
+        List<UserImportRowDTO> rows = new ArrayList<>();
+        try (reader) {
+            reader.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
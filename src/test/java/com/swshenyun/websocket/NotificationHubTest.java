@@ -0,0 +1,179 @@
+package com.swshenyun.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swshenyun.cache.VerifiedToken;
+import com.swshenyun.pojo.vo.NotificationVO;
+import com.swshenyun.properties.NotificationProperties;
+import com.swshenyun.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class NotificationHubTest {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private NotificationHub hub;
+
+    private TokenRevocationService tokenRevocationService;
+
+    private Consumer<String> revocationListener;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.setMaxSessionsPerUser(2);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        hub = new NotificationHub();
+        ReflectionTestUtils.setField(hub, "notificationProperties", properties);
+        ReflectionTestUtils.setField(hub, "sendExecutor", executor);
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+        tokenRevocationService = mock(TokenRevocationService.class);
+        doAnswer(invocation -> revocationListener = invocation.getArgument(0)).when(tokenRevocationService).addListener(any());
+        ReflectionTestUtils.setField(hub, "tokenRevocationService", tokenRevocationService);
+        hub.init();
+    }
+
+    @Test
+    void pendingNotificationsWithSameKeyAreCoalesced() throws Exception {
+        WebSocketSession socket = openSocket("s1");
+        hub.register(new NotificationSession(socket, token(1L, "j-socket"), 10));
+
+        hub.deliver(List.of(1L), NotificationVO.of("POST_THUMB", "POST_THUMB:7", Map.of("userId", 2)), "POST_THUMB:7");
+        hub.deliver(List.of(1L), NotificationVO.of("POST_THUMB", "POST_THUMB:7", Map.of("userId", 3)), "POST_THUMB:7");
+        hub.deliver(List.of(1L, 9L), NotificationVO.of("ACCOUNT_STATUS", null, Map.of()), null);
+        //只排了一个发送任务
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(socket, times(2)).sendMessage(sent.capture());
+        String first = sent.getAllValues().get(0).getPayload();
+        assertTrue(first.contains("\"count\":2"), first);
+        assertTrue(first.contains("\"userId\":3"), first);
+        assertFalse(first.contains("coalesceKey"));
+        assertEquals(1, hub.coalescedCount());
+        assertEquals(2, hub.sentCount());
+    }
+
+    @Test
+    void slowConsumerIsEvictedWhenQueueIsFull() throws Exception {
+        WebSocketSession socket = openSocket("s1");
+        hub.register(new NotificationSession(socket, token(1L, "j-socket"), 2));
+
+        for (int i = 0; i < 3; i++) {
+            hub.deliver(List.of(1L), NotificationVO.of("POST_THUMB", null, Map.of()), null);
+        }
+        verify(socket).close(any(CloseStatus.class));
+        assertEquals(0, hub.sessionCount());
+        assertEquals(1, hub.evictedCount());
+    }
+
+    @Test
+    void statsAreExportedAsMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hub.bindTo(registry);
+        hub.register(new NotificationSession(openSocket("s1"), token(1L, "j-socket"), 10));
+        hub.register(new NotificationSession(openSocket("s2"), token(2L, "j-other"), 10));
+
+        hub.deliver(List.of(1L), NotificationVO.of("POST_THUMB", "POST_THUMB:7", Map.of()), "POST_THUMB:7");
+        hub.deliver(List.of(1L), NotificationVO.of("POST_THUMB", "POST_THUMB:7", Map.of()), "POST_THUMB:7");
+        tasks.remove(0).run();
+
+        assertEquals(2.0, registry.get("notification.sessions").gauge().value());
+        assertEquals(2.0, registry.get("notification.users").gauge().value());
+        assertEquals(1.0, registry.get("notification.messages").tag("result", "sent").functionCounter().count());
+        assertEquals(1.0, registry.get("notification.messages").tag("result", "coalesced").functionCounter().count());
+        assertEquals(0.0, registry.get("notification.messages").tag("result", "evicted").functionCounter().count());
+    }
+
+    @Test
+    void oldestSessionIsClosedAboveLimitAndDisconnectWaitsForQueuedMessages() throws Exception {
+        WebSocketSession first = openSocket("s1");
+        WebSocketSession second = openSocket("s2");
+        WebSocketSession third = openSocket("s3");
+        hub.register(new NotificationSession(first, token(1L, "j-first"), 10));
+        Thread.sleep(2);
+        hub.register(new NotificationSession(second, token(1L, "j-second"), 10));
+        Thread.sleep(2);
+        hub.register(new NotificationSession(third, token(1L, "j-third"), 10));
+        verify(first).close(any(CloseStatus.class));
+        assertEquals(2, hub.sessionCount());
+
+        hub.deliver(List.of(1L), NotificationVO.of("ACCOUNT_STATUS", null, Map.of("status", 0)), null);
+        hub.disconnectAfterSend(List.of(1L), CloseStatus.POLICY_VIOLATION);
+        tasks.forEach(Runnable::run);
+
+        var order = inOrder(second);
+        order.verify(second).sendMessage(any(TextMessage.class));
+        order.verify(second).close(CloseStatus.POLICY_VIOLATION);
+        verify(third).close(CloseStatus.POLICY_VIOLATION);
+        assertEquals(0, hub.sessionCount());
+    }
+
+    @Test
+    void sessionIsClosedWhenItsTokenIsRevoked() throws Exception {
+        WebSocketSession loggedOut = openSocket("s1");
+        WebSocketSession other = openSocket("s2");
+        hub.register(new NotificationSession(loggedOut, token(1L, "j1"), 10));
+        hub.register(new NotificationSession(other, token(1L, "j2"), 10));
+
+        revocationListener.accept("jti:j1");
+        tasks.forEach(Runnable::run);
+
+        verify(loggedOut).close(argThat(status -> "token revoked".equals(status.getReason())));
+        verify(other, never()).close(any(CloseStatus.class));
+        assertEquals(1, hub.sessionCount());
+
+        //吊销用户时按令牌签发时间判断
+        tasks.clear();
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+        revocationListener.accept("user:1");
+        tasks.forEach(Runnable::run);
+        verify(other).close(any(CloseStatus.class));
+        assertEquals(0, hub.sessionCount());
+    }
+
+    @Test
+    void sessionIsClosedWhenItsTokenExpires() throws Exception {
+        WebSocketSession expired = openSocket("s1");
+        WebSocketSession valid = openSocket("s2");
+        hub.register(new NotificationSession(expired, new VerifiedToken(1L, "j1", 0, System.currentTimeMillis() - 1), 10));
+        hub.register(new NotificationSession(valid, token(2L, "j2"), 10));
+
+        hub.closeExpired();
+        tasks.forEach(Runnable::run);
+
+        verify(expired).close(argThat(status -> "token expired".equals(status.getReason())));
+        verify(valid, never()).close(any(CloseStatus.class));
+        assertEquals(1, hub.sessionCount());
+    }
+
+    private static VerifiedToken token(Long userId, String jti) {
+        return new VerifiedToken(userId, jti, System.currentTimeMillis(), System.currentTimeMillis() + 60000);
+    }
+
+    private static WebSocketSession openSocket(String id) {
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn(id);
+        when(socket.isOpen()).thenReturn(true);
+        return socket;
+    }
+}